@@ -2,8 +2,10 @@ package com.arms.platform;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ArmsPlatformApplication {
     public static void main(String[] args) {
         SpringApplication.run(ArmsPlatformApplication.class, args);
@@ -0,0 +1,12 @@
+package com.arms.platform.activity;
+
+// What an activity_log row records; stored by name
+public enum ActivityAction {
+  LOGIN,
+  LOGIN_FAILED,
+  MATERIAL_UPLOAD,
+  MATERIAL_DELETE,
+  NEWS_CREATE,
+  NEWS_UPDATE,
+  NEWS_DELETE
+}
@@ -0,0 +1,226 @@
+package com.arms.platform.activity;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Audit trail of logins, material uploads/deletes and news edits. Request threads only put an entry
+// into a bounded in-memory buffer (app.activity.buffer-size); one writer thread drains it and appends
+// to activity_log in JDBC batches of up to app.activity.batch-size, waiting up to app.activity.linger-ms
+// for a batch to fill. When the buffer is full, app.activity.overflow decides: DROP discards the entry,
+// BLOCK waits up to app.activity.max-block-ms for space and then discards it. Either way the caller
+// never waits on the database, and every discarded entry is counted in arms.activity.events.
+//
+// activity_log is range-partitioned by month on occurred_at. Partitions are created here, ahead of
+// time, and those older than app.activity.retention-months are dropped whole. Every node does this at
+// startup and on schedule; an advisory lock makes the nodes take turns, since concurrent CREATE TABLE
+// IF NOT EXISTS on the same name can still fail.
+@Service
+public class ActivityLog {
+  private static final Logger log = LoggerFactory.getLogger(ActivityLog.class);
+  private static final int MAX_DETAIL = 500;
+  private static final DateTimeFormatter PARTITION = DateTimeFormatter.ofPattern("'activity_log_y'yyyy'm'MM");
+
+  public enum Overflow { DROP, BLOCK }
+
+  record Entry(Instant at, ActivityAction action, Long userId, Long targetId, String detail) {}
+
+  private static final String CREATE_PARENT = """
+    CREATE TABLE IF NOT EXISTS activity_log (
+      id BIGSERIAL,
+      occurred_at TIMESTAMPTZ NOT NULL,
+      user_id BIGINT,
+      action VARCHAR(32) NOT NULL,
+      target_id BIGINT,
+      detail VARCHAR(500),
+      PRIMARY KEY (id, occurred_at)
+    ) PARTITION BY RANGE (occurred_at)
+    """;
+
+  private static final String INSERT =
+    "INSERT INTO activity_log (occurred_at, user_id, action, target_id, detail) VALUES (?, ?, ?, ?, ?)";
+
+  // pg_advisory_xact_lock key serializing partition DDL across nodes
+  private static final long PARTITION_LOCK = 0x6172_6d73_0002L;
+
+  private static final String PARTITIONS = """
+    SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+    WHERE i.inhparent = 'activity_log'::regclass
+    """;
+
+  private final BlockingQueue<Entry> buffer;
+  private final JdbcTemplate jdbc;
+  private final TransactionTemplate tx;
+  private final MeterRegistry registry;
+  private final Overflow overflow;
+  private final long maxBlockMillis;
+  private final int batchSize;
+  private final long lingerMillis;
+  private final int retentionMonths;
+  private final Counter written, dropped, failed, blocked;
+
+  private volatile boolean running = true;
+  private Thread writer;
+
+  public ActivityLog(DataSource dataSource, PlatformTransactionManager txManager, MeterRegistry registry,
+                     @Value("${app.activity.buffer-size:8192}") int bufferSize,
+                     @Value("${app.activity.overflow:DROP}") Overflow overflow,
+                     @Value("${app.activity.max-block-ms:50}") long maxBlockMillis,
+                     @Value("${app.activity.batch-size:500}") int batchSize,
+                     @Value("${app.activity.linger-ms:200}") long lingerMillis,
+                     @Value("${app.activity.retention-months:12}") int retentionMonths) {
+    this.buffer = new ArrayBlockingQueue<>(bufferSize);
+    this.jdbc = new JdbcTemplate(dataSource);
+    this.tx = new TransactionTemplate(txManager);
+    this.registry = registry;
+    this.overflow = overflow;
+    this.maxBlockMillis = maxBlockMillis;
+    this.batchSize = batchSize;
+    this.lingerMillis = lingerMillis;
+    this.retentionMonths = retentionMonths;
+    this.written = registry.counter("arms.activity.events", "outcome", "written");
+    this.dropped = registry.counter("arms.activity.events", "outcome", "dropped");
+    this.failed = registry.counter("arms.activity.events", "outcome", "failed");
+    this.blocked = registry.counter("arms.activity.blocked");
+    registry.gaugeCollectionSize("arms.activity.buffered", List.of(), buffer);
+  }
+
+  /** Queues an entry; never touches the database. userId and targetId may be null. */
+  public void record(ActivityAction action, Long userId, Long targetId, String detail) {
+    if (detail != null && detail.length() > MAX_DETAIL) detail = detail.substring(0, MAX_DETAIL);
+    Entry e = new Entry(Instant.now(), action, userId, targetId, detail);
+    if (buffer.offer(e)) return;
+    if (overflow == Overflow.BLOCK) {
+      blocked.increment();
+      try {
+        if (buffer.offer(e, maxBlockMillis, TimeUnit.MILLISECONDS)) return;
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    dropped.increment();
+  }
+
+  // A database problem here must not keep the node from starting: a failed write retries the maintenance
+  @PostConstruct
+  void start() {
+    try {
+      maintainPartitions();
+    } catch (RuntimeException e) {
+      log.warn("Activity partition maintenance failed at startup, will retry on write: {}", e.toString());
+    }
+    writer = new Thread(this::run, "activity-writer");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  @PreDestroy
+  void stop() throws InterruptedException {
+    running = false; // the writer drains what is buffered, then exits
+    writer.join(10_000);
+  }
+
+  private void run() {
+    List<Entry> batch = new ArrayList<>(batchSize);
+    while (running || !buffer.isEmpty()) {
+      try {
+        Entry first = buffer.poll(lingerMillis, TimeUnit.MILLISECONDS);
+        if (first == null) continue;
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        while (batch.size() < batchSize) {
+          buffer.drainTo(batch, batchSize - batch.size());
+          long wait = deadline - System.nanoTime();
+          if (batch.size() == batchSize || wait <= 0 || !running) break;
+          Entry next = buffer.poll(wait, TimeUnit.NANOSECONDS);
+          if (next == null) break;
+          batch.add(next);
+        }
+        write(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        running = false;
+      } catch (RuntimeException e) {
+        log.warn("Activity writer error: {}", e.toString());
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  private void write(List<Entry> batch) {
+    Timer.Sample sample = Timer.start(registry);
+    try {
+      insert(batch);
+    } catch (RuntimeException first) {
+      // most likely the month rolled over past the newest partition; create it and retry once
+      try {
+        maintainPartitions();
+        insert(batch);
+      } catch (RuntimeException e) {
+        failed.increment(batch.size());
+        log.warn("Could not write {} activity entries: {}", batch.size(), e.toString());
+        return;
+      }
+    } finally {
+      sample.stop(registry.timer("arms.activity.flush"));
+    }
+    written.increment(batch.size());
+  }
+
+  private void insert(List<Entry> batch) {
+    tx.executeWithoutResult(s -> jdbc.batchUpdate(INSERT, batch, batch.size(), (ps, e) -> {
+      ps.setTimestamp(1, Timestamp.from(e.at()));
+      ps.setObject(2, e.userId(), Types.BIGINT);
+      ps.setString(3, e.action().name());
+      ps.setObject(4, e.targetId(), Types.BIGINT);
+      ps.setString(5, e.detail());
+    }));
+  }
+
+  // Creates this month's and next month's partitions and drops expired ones; idempotent
+  @Scheduled(cron = "${app.activity.partition-cron:0 15 2 * * *}")
+  public void maintainPartitions() {
+    YearMonth now = YearMonth.now(ZoneOffset.UTC);
+    tx.executeWithoutResult(s -> {
+      jdbc.queryForObject("SELECT pg_advisory_xact_lock(?)", Object.class, PARTITION_LOCK); // held until commit
+      jdbc.execute(CREATE_PARENT);
+      for (YearMonth m = now; !m.isAfter(now.plusMonths(1)); m = m.plusMonths(1)) {
+        jdbc.execute("CREATE TABLE IF NOT EXISTS " + PARTITION.format(m) + " PARTITION OF activity_log"
+          + " FOR VALUES FROM ('" + m.atDay(1) + " 00:00:00+00') TO ('" + m.plusMonths(1).atDay(1) + " 00:00:00+00')");
+      }
+      if (retentionMonths <= 0) return;
+      String oldest = PARTITION.format(now.minusMonths(retentionMonths));
+      for (String name : jdbc.queryForList(PARTITIONS, String.class)) {
+        // names sort chronologically; anything else attached by hand is left alone
+        if (name.matches("activity_log_y\\d{4}m\\d{2}") && name.compareTo(oldest) < 0) {
+          jdbc.execute("DROP TABLE " + name);
+          log.info("Dropped expired activity partition {}", name);
+        }
+      }
+    });
+  }
+}
@@ -0,0 +1,39 @@
+package com.arms.platform.admin;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminExportController {
+  private final AdminExportService exports;
+
+  public AdminExportController(AdminExportService exports){
+    this.exports = exports;
+  }
+
+  // users, materials or rankings as CSV (default) or NDJSON; written on an async thread as rows arrive
+  @GetMapping("/export/{dataset}")
+  public ResponseEntity<StreamingResponseBody> export(@PathVariable String dataset, @RequestParam(defaultValue="csv") String format){
+    if (!exports.exists(dataset)) return ResponseEntity.notFound().build();
+    AdminExportService.Format f;
+    try {
+      f = AdminExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build(); // csv or ndjson
+    }
+    String file = dataset + "-" + LocalDate.now() + (f == AdminExportService.Format.CSV ? ".csv" : ".ndjson");
+    StreamingResponseBody body = out -> exports.export(dataset, f, out);
+    return ResponseEntity.ok()
+      .contentType(f == AdminExportService.Format.CSV ? new MediaType("text", "csv", java.nio.charset.StandardCharsets.UTF_8)
+                                                      : MediaType.parseMediaType("application/x-ndjson"))
+      .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file + "\"")
+      .body(body);
+  }
+}
@@ -0,0 +1,150 @@
+package com.arms.platform.admin;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Whole-table exports for admins. Rows are read through a forward-only cursor: inside a transaction
+// (autocommit off) with a fetch size, the PostgreSQL driver pulls app.export.fetch-size rows per round
+// trip instead of materializing the result, and each row is written out before the next is read.
+// Memory use is the same for a hundred rows or a million. The transaction is read-only, so the
+// routing data source sends it to a replica when one is configured, and it is bounded by
+// app.export.timeout-seconds so a stalled client cannot hold its snapshot open indefinitely.
+// CSV text cells that a spreadsheet would evaluate as formulas are written with a leading apostrophe.
+@Service
+public class AdminExportService {
+  public enum Format { CSV, NDJSON }
+
+  private static final Map<String, String> DATASETS = Map.of(
+    "users",
+      "SELECT id, name, email, role, created_at FROM users ORDER BY id",
+    "materials",
+      "SELECT m.id, m.title, m.type, m.course_id, c.code AS course_code, m.user_id, u.email AS uploader_email, " +
+      "m.size, m.content_type, m.sha256, m.created_at " +
+      "FROM materials m JOIN courses c ON c.id = m.course_id JOIN users u ON u.id = m.user_id ORDER BY m.id",
+    "rankings",
+      "SELECT u.id AS user_id, u.name, COUNT(m.id) AS uploads " +
+      "FROM users u JOIN materials m ON m.user_id = u.id GROUP BY u.id, u.name ORDER BY uploads DESC, u.id"
+  );
+
+  private final JdbcTemplate jdbc;
+  private final TransactionTemplate tx;
+  private final ObjectMapper json;
+  private final long timeoutNanos;
+
+  public AdminExportService(DataSource dataSource, PlatformTransactionManager txManager, ObjectMapper json,
+                            @Value("${app.export.fetch-size:1000}") int fetchSize,
+                            @Value("${app.export.timeout-seconds:900}") int timeoutSeconds) {
+    this.jdbc = new JdbcTemplate(dataSource);
+    this.jdbc.setFetchSize(fetchSize);
+    this.tx = new TransactionTemplate(txManager);
+    this.tx.setReadOnly(true);
+    this.tx.setTimeout(timeoutSeconds); // also the query timeout of the statement that opens the cursor
+    this.json = json;
+    this.timeoutNanos = TimeUnit.SECONDS.toNanos(timeoutSeconds);
+  }
+
+  public boolean exists(String dataset) {
+    return DATASETS.containsKey(dataset);
+  }
+
+  public void export(String dataset, Format format, OutputStream out) throws IOException {
+    String sql = DATASETS.get(dataset);
+    if (sql == null) throw new IllegalArgumentException("unknown dataset: " + dataset);
+    try {
+      if (format == Format.CSV) csv(sql, out); else ndjson(sql, out);
+    } catch (UncheckedIOException e) {
+      throw e.getCause(); // the client went away
+    }
+  }
+
+  private void csv(String sql, OutputStream out) throws IOException {
+    Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+    StringBuilder line = new StringBuilder(256);
+    long deadline = System.nanoTime() + timeoutNanos;
+    tx.executeWithoutResult(s -> jdbc.query(sql, (ResultSetExtractor<Void>) rs -> {
+      ResultSetMetaData md = rs.getMetaData();
+      int n = md.getColumnCount();
+      for (int i = 1; i <= n; i++) { if (i > 1) line.append(','); line.append(md.getColumnLabel(i)); }
+      emit(w, line);
+      while (rs.next()) {
+        checkDeadline(deadline);
+        for (int i = 1; i <= n; i++) {
+          if (i > 1) line.append(',');
+          Object v = rs.getObject(i);
+          Csv.appendField(line, v instanceof String str ? Csv.neutralize(str) : text(v));
+        }
+        emit(w, line);
+      }
+      return null;
+    }));
+    w.flush();
+  }
+
+  private void ndjson(String sql, OutputStream out) throws IOException {
+    JsonGenerator gen = json.getFactory().createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    gen.setRootValueSeparator(null);
+    long deadline = System.nanoTime() + timeoutNanos;
+    tx.executeWithoutResult(s -> jdbc.query(sql, rs -> {
+      checkDeadline(deadline);
+      try {
+        ResultSetMetaData md = rs.getMetaData();
+        gen.writeStartObject();
+        for (int i = 1; i <= md.getColumnCount(); i++) {
+          gen.writeFieldName(md.getColumnLabel(i));
+          Object v = rs.getObject(i);
+          if (v == null) gen.writeNull();
+          else if (v instanceof Long l) gen.writeNumber(l);
+          else if (v instanceof Integer n) gen.writeNumber(n);
+          else gen.writeString(text(v));
+        }
+        gen.writeEndObject();
+        gen.writeRaw('\n');
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }));
+    gen.close();
+  }
+
+  // The cursor is read between writes to the client, where no query timeout applies
+  private static void checkDeadline(long deadline) {
+    if (System.nanoTime() - deadline > 0) throw new QueryTimeoutException("export exceeded app.export.timeout-seconds");
+  }
+
+  private static void emit(Writer w, StringBuilder line) {
+    try {
+      line.append('\n');
+      w.append(line);
+      line.setLength(0);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // timestamps as ISO-8601 UTC, everything else as the driver renders it
+  private static String text(Object v) {
+    if (v == null) return null;
+    if (v instanceof Timestamp t) return t.toInstant().toString();
+    return v.toString();
+  }
+}
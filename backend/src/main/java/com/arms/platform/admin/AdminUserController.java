@@ -0,0 +1,36 @@
+package com.arms.platform.admin;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+// Admin-only (see SecurityConfig: /api/admin/** requires ROLE_ADMIN)
+@RestController
+@RequestMapping("/api/admin")
+public class AdminUserController {
+  private final UserProvisioningService provisioning;
+
+  public AdminUserController(UserProvisioningService provisioning){
+    this.provisioning = provisioning;
+  }
+
+  // CSV in (name,email,password,role), NDJSON out: one line per row as each batch commits, then a summary
+  @PostMapping(value="/users/import", consumes={"multipart/form-data"})
+  public void importUsers(@RequestParam("file") MultipartFile file, HttpServletResponse res) throws IOException {
+    if (file == null || file.isEmpty()) { res.sendError(400, "file required"); return; }
+    res.setContentType("application/x-ndjson");
+    res.setCharacterEncoding("UTF-8");
+    try (BufferedReader in = new BufferedReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+      provisioning.provision(in, res.getOutputStream());
+    } catch (IllegalArgumentException e) {
+      if (res.isCommitted()) throw e;
+      res.reset();
+      res.sendError(400, e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package com.arms.platform.admin;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Minimal RFC 4180 CSV for admin imports and exports: comma separated, fields optionally in double
+// quotes ("" escapes a quote, quoted fields may span lines), CRLF or LF line ends, leading UTF-8 BOM
+// ignored.
+final class Csv {
+  private Csv() {}
+
+  // Appends one field, quoted only when it contains a separator, quote or line break
+  static void appendField(StringBuilder sb, String value) {
+    if (value == null) return;
+    boolean quote = false;
+    for (int i = 0; i < value.length() && !quote; i++) {
+      char c = value.charAt(i);
+      quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+    }
+    if (!quote) { sb.append(value); return; }
+    sb.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"') sb.append('"');
+      sb.append(c);
+    }
+    sb.append('"');
+  }
+
+  // Text a spreadsheet would take for a formula (first character =, +, -, @, tab or CR) gets a leading
+  // apostrophe, so an exported cell is shown as typed instead of being evaluated
+  static String neutralize(String value) {
+    if (value == null || value.isEmpty()) return value;
+    char c = value.charAt(0);
+    return c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r' ? "'" + value : value;
+  }
+
+  static final class RecordReader {
+    private static final int NONE = Integer.MIN_VALUE;
+
+    private final Reader in; // expected to be buffered
+    private int pushback = NONE;
+    private boolean started;
+    private int line = 1;
+    private int recordLine;
+
+    RecordReader(Reader in) { this.in = in; }
+
+    // 1-based line on which the record last returned by next() started
+    int line() { return recordLine; }
+
+    /** Next record, or null at end of input. Blank lines are skipped. */
+    List<String> next() throws IOException {
+      int c = read();
+      if (!started) {
+        started = true;
+        if (c == '\uFEFF') c = read();
+      }
+      while (c == '\r' || c == '\n') {
+        if (c == '\n') line++;
+        c = read();
+      }
+      if (c < 0) return null;
+      recordLine = line;
+      List<String> fields = new ArrayList<>();
+      StringBuilder f = new StringBuilder();
+      boolean quoted = false, wasQuoted = false;
+      for (; ; c = read()) {
+        if (quoted) {
+          if (c < 0) throw new IOException("unterminated quoted field starting on line " + recordLine);
+          if (c == '"') {
+            int d = read();
+            if (d == '"') { f.append('"'); continue; }
+            quoted = false;
+            pushback = d;
+            continue;
+          }
+          if (c == '\n') line++;
+          f.append((char) c);
+        } else if (c == '"' && f.isEmpty() && !wasQuoted) {
+          quoted = wasQuoted = true;
+        } else if (c == ',') {
+          fields.add(f.toString());
+          f.setLength(0);
+          wasQuoted = false;
+        } else if (c == '\r' || c == '\n' || c < 0) {
+          if (c == '\r') { int d = read(); if (d != '\n') pushback = d; }
+          if (c >= 0) line++;
+          fields.add(f.toString());
+          return fields;
+        } else {
+          f.append((char) c);
+        }
+      }
+    }
+
+    private int read() throws IOException {
+      if (pushback != NONE) { int c = pushback; pushback = NONE; return c; }
+      return in.read();
+    }
+  }
+}
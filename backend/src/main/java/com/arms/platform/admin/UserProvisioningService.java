@@ -0,0 +1,241 @@
+package com.arms.platform.admin;
+
+import com.arms.platform.cache.CacheInvalidatedEvent;
+import com.arms.platform.cache.InvalidationBus;
+import com.arms.platform.user.Role;
+import com.arms.platform.user.User;
+import com.arms.platform.user.UserCreatedEvent;
+import com.arms.platform.user.UserRepository;
+import com.arms.platform.validation.KlhEmailValidator;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Bulk account creation from CSV (header row with at least an "email" column; "name", "password" and
+// "role" are optional). Rows are handled in chunks: validate, one query to find addresses that already
+// exist, BCrypt on a pool sized to the CPUs, then one transaction whose inserts go out as JDBC batches
+// (User ids come from a pooled sequence). Each chunk's results are written as NDJSON and flushed before
+// the next chunk is read, so a client sees progress and memory stays flat however long the file is.
+//
+// Rows without a password get a random one; those users sign in through Google.
+@Service
+public class UserProvisioningService {
+  private static final Logger log = LoggerFactory.getLogger(UserProvisioningService.class);
+
+  public record RowResult(int line, String email, String status, Long id, String error) {}
+
+  private record Row(int line, String name, String email, String password, Role role) {}
+
+  private final UserRepository users;
+  private final BCryptPasswordEncoder encoder;
+  private final TransactionTemplate tx;
+  private final ObjectMapper json;
+  private final KlhEmailValidator emailValidator = new KlhEmailValidator();
+  private final int chunkSize;
+  private final ExecutorService hashPool;
+  private final InvalidationBus bus;
+  private final ApplicationEventPublisher events;
+
+  public UserProvisioningService(UserRepository users, BCryptPasswordEncoder encoder, PlatformTransactionManager txManager,
+                                 ObjectMapper json, InvalidationBus bus, ApplicationEventPublisher events,
+                                 @Value("${app.provisioning.chunk-size:500}") int chunkSize,
+                                 @Value("${app.provisioning.hash-threads:0}") int hashThreads) {
+    this.users = users; this.encoder = encoder; this.json = json; this.bus = bus; this.events = events;
+    this.tx = new TransactionTemplate(txManager);
+    this.chunkSize = chunkSize;
+    int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+    AtomicInteger n = new AtomicInteger();
+    this.hashPool = Executors.newFixedThreadPool(threads, r -> {
+      Thread t = new Thread(r, "provision-hash-" + n.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  @PreDestroy
+  void shutdown() {
+    hashPool.shutdownNow();
+  }
+
+  /**
+   * Reads the header first and throws IllegalArgumentException (before anything is written) if it
+   * lacks an email column. Then writes one NDJSON line per data row and a final summary line.
+   */
+  public void provision(Reader csv, OutputStream out) throws IOException {
+    Csv.RecordReader in = new Csv.RecordReader(csv);
+    List<String> header = in.next();
+    if (header == null) throw new IllegalArgumentException("empty file");
+    Map<String, Integer> col = new LinkedHashMap<>();
+    for (int i = 0; i < header.size(); i++) col.putIfAbsent(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+    if (!col.containsKey("email")) throw new IllegalArgumentException("header must contain an email column");
+
+    JsonGenerator gen = json.getFactory().createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    gen.setRootValueSeparator(null); // lines are separated by the explicit '\n' below
+    Map<String, Integer> totals = new LinkedHashMap<>();
+    Set<String> seen = new HashSet<>();
+    List<Row> chunk = new ArrayList<>(chunkSize);
+    List<RowResult> results = new ArrayList<>(chunkSize);
+    long t0 = System.nanoTime();
+    for (List<String> rec = in.next(); ; rec = in.next()) {
+      if (rec != null) {
+        Row row = parse(in.line(), rec, col, results);
+        if (row != null && !seen.add(row.email())) {
+          results.add(new RowResult(row.line(), row.email(), "duplicate", null, "already listed earlier in the file"));
+        } else if (row != null) {
+          chunk.add(row);
+        }
+      }
+      if (chunk.size() >= chunkSize || (rec == null && !chunk.isEmpty())) {
+        results.addAll(insert(chunk));
+        chunk.clear();
+      }
+      if (!results.isEmpty() && (rec == null || results.size() >= chunkSize)) {
+        results.sort((a, b) -> Integer.compare(a.line(), b.line()));
+        for (RowResult r : results) {
+          totals.merge(r.status(), 1, Integer::sum);
+          json.writeValue(gen, r);
+          gen.writeRaw('\n');
+        }
+        gen.flush();
+        results.clear();
+      }
+      if (rec == null) break;
+    }
+    json.writeValue(gen, Map.of("summary", totals));
+    gen.writeRaw('\n');
+    gen.close();
+    log.info("Provisioned users from CSV in {} ms: {}", (System.nanoTime() - t0) / 1_000_000, totals);
+  }
+
+  private Row parse(int line, List<String> rec, Map<String, Integer> col, List<RowResult> results) {
+    String email = field(rec, col, "email").toLowerCase(Locale.ROOT);
+    String name = field(rec, col, "name");
+    String password = field(rec, col, "password");
+    String role = field(rec, col, "role").toUpperCase(Locale.ROOT);
+    String error = null;
+    if (email.isEmpty() || email.indexOf('@') != email.lastIndexOf('@') || !emailValidator.isValid(email, null)) {
+      error = "Only @klh.edu.in email addresses are allowed";
+    } else if (!password.isEmpty() && (password.length() < 8 || password.chars().noneMatch(Character::isDigit))) {
+      error = "Password must be at least 8 characters and include a number";
+    } else if (!role.isEmpty() && !role.equals("STUDENT") && !role.equals("FACULTY") && !role.equals("ADMIN")) {
+      error = "role must be STUDENT, FACULTY or ADMIN";
+    }
+    if (error != null) {
+      results.add(new RowResult(line, email, "invalid", null, error));
+      return null;
+    }
+    return new Row(line, name.isEmpty() ? email.substring(0, email.indexOf('@')) : name, email,
+      password.isEmpty() ? null : password, role.isEmpty() ? Role.STUDENT : Role.valueOf(role));
+  }
+
+  private static String field(List<String> rec, Map<String, Integer> col, String name) {
+    Integer i = col.get(name);
+    return i == null || i >= rec.size() ? "" : rec.get(i).trim();
+  }
+
+  private List<RowResult> insert(List<Row> rows) throws IOException {
+    List<RowResult> out = new ArrayList<>(rows.size());
+    List<Row> fresh = withoutExisting(rows, out);
+
+    List<Future<String>> hashes = new ArrayList<>(fresh.size());
+    for (Row r : fresh) {
+      String raw = r.password() == null ? UUID.randomUUID().toString() : r.password();
+      hashes.add(hashPool.submit(() -> encoder.encode(raw)));
+    }
+    List<String> hashed = new ArrayList<>(fresh.size());
+    try {
+      for (Future<String> f : hashes) hashed.add(f.get());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      hashes.forEach(f -> f.cancel(true));
+      throw new IOException("provisioning interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("password hashing failed", e.getCause());
+    }
+
+    try {
+      out.addAll(save(fresh, hashed));
+    } catch (DataIntegrityViolationException e) {
+      // someone registered one of these addresses since the check above; look again and retry once
+      List<Row> retry = withoutExisting(fresh, out);
+      List<String> retryHashes = new ArrayList<>(retry.size());
+      for (Row r : retry) retryHashes.add(hashed.get(fresh.indexOf(r)));
+      try {
+        out.addAll(save(retry, retryHashes));
+      } catch (DataAccessException again) {
+        // report the chunk and go on, so the stream still ends with its summary line
+        log.warn("Provisioning retry failed for {} rows: {}", retry.size(), again.getMessage());
+        for (Row r : retry) out.add(new RowResult(r.line(), r.email(), "failed", null, "Could not create the account, try again"));
+      }
+    }
+    return out;
+  }
+
+  // Read-write transaction so the lookup goes to the primary: after a unique violation a replica may not
+  // have the conflicting row yet, and the retry would hit the same violation
+  private List<Row> withoutExisting(List<Row> rows, List<RowResult> out) {
+    if (rows.isEmpty()) return rows;
+    Set<String> existing = new HashSet<>(tx.execute(s -> users.findExistingEmails(rows.stream().map(Row::email).toList())));
+    List<Row> fresh = new ArrayList<>(rows.size());
+    for (Row r : rows) {
+      if (existing.contains(r.email())) out.add(new RowResult(r.line(), r.email(), "exists", null, "Email already in use"));
+      else fresh.add(r);
+    }
+    return fresh;
+  }
+
+  // New entities every time: a rolled-back attempt leaves ids assigned on the old ones
+  private List<RowResult> save(List<Row> rows, List<String> hashes) {
+    if (rows.isEmpty()) return List.of();
+    return tx.execute(s -> {
+      List<User> batch = new ArrayList<>(rows.size());
+      for (int i = 0; i < rows.size(); i++) {
+        Row r = rows.get(i);
+        User u = new User();
+        u.setName(r.name());
+        u.setEmail(r.email());
+        u.setPasswordHash(hashes.get(i));
+        u.setRole(r.role());
+        batch.add(u);
+      }
+      users.saveAll(batch);
+      users.flush();
+      for (User u : batch) {
+        bus.publish(CacheInvalidatedEvent.USER, u.getId()); // other nodes may have cached "no such email"
+        events.publishEvent(new UserCreatedEvent(u.getId(), u.getName())); // listeners run after commit
+      }
+      List<RowResult> created = new ArrayList<>(rows.size());
+      for (int i = 0; i < rows.size(); i++) {
+        created.add(new RowResult(rows.get(i).line(), rows.get(i).email(), "created", batch.get(i).getId(), null));
+      }
+      return created;
+    });
+  }
+}
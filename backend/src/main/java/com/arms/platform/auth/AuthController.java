@@ -1,9 +1,16 @@
 package com.arms.platform.auth;
 
+import com.arms.platform.activity.ActivityAction;
+import com.arms.platform.activity.ActivityLog;
+import com.arms.platform.cache.CacheInvalidatedEvent;
+import com.arms.platform.cache.InvalidationBus;
 import com.arms.platform.security.JwtService;
 import com.arms.platform.user.Role;
 import com.arms.platform.user.User;
+import com.arms.platform.user.UserCreatedEvent;
 import com.arms.platform.user.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.ApplicationEventPublisher;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -30,6 +37,10 @@ public class AuthController {
   private final String googleClientId;
   private final HttpClient httpClient = HttpClient.newHttpClient();
   private final ObjectMapper objectMapper = new ObjectMapper();
+  private final MeterRegistry meterRegistry;
+  private final ActivityLog activity;
+  private final InvalidationBus bus;
+  private final ApplicationEventPublisher events;
 
   // Simple in-memory throttling for login attempts (per ip+email)
   private static class Attempt {
@@ -40,8 +51,17 @@ public class AuthController {
   private static final long LOCK_WINDOW_MS = TimeUnit.MINUTES.toMillis(15);
 
   public AuthController(UserRepository users, BCryptPasswordEncoder encoder, JwtService jwt, HttpServletRequest request,
+                        MeterRegistry meterRegistry, ActivityLog activity, InvalidationBus bus, ApplicationEventPublisher events,
                         @org.springframework.beans.factory.annotation.Value("${app.oauth.google.client.id:}") String googleClientId) {
     this.users = users; this.encoder = encoder; this.jwt = jwt; this.request = request; this.googleClientId = googleClientId;
+    this.meterRegistry = meterRegistry;
+    this.activity = activity;
+    this.bus = bus;
+    this.events = events;
+  }
+
+  private void countLogin(String outcome) {
+    meterRegistry.counter("arms.auth.login", "outcome", outcome).increment();
   }
 
   @PostMapping("/register")
@@ -64,6 +84,8 @@ public class AuthController {
       u.setPasswordHash(encoder.encode(req.password));
       u.setRole(Role.STUDENT);
       users.save(u);
+      bus.publish(CacheInvalidatedEvent.USER, u.getId());
+      events.publishEvent(new UserCreatedEvent(u.getId(), u.getName()));
     String token = jwt.generateToken(u.getEmail(), Map.of("uid", u.getId(), "role", u.getRole().name()), 1000L*60*60*24*7);
     return ResponseEntity.ok(new AuthDTOs.LoginResponse(token, Map.of("id",u.getId(),"name",u.getName(),"email",u.getEmail(),"role",u.getRole())));
   }
@@ -95,8 +117,12 @@ public class AuthController {
         x.setName(name.isBlank() ? email : name);
         x.setPasswordHash(encoder.encode(java.util.UUID.randomUUID().toString()));
         x.setRole(Role.STUDENT);
-        return users.save(x);
+        User saved = users.save(x);
+        bus.publish(CacheInvalidatedEvent.USER, saved.getId());
+        events.publishEvent(new UserCreatedEvent(saved.getId(), saved.getName()));
+        return saved;
       });
+      activity.record(ActivityAction.LOGIN, u.getId(), null, "google ip=" + request.getRemoteAddr());
       String tokenStr = jwt.generateToken(u.getEmail(), Map.of("uid", u.getId(), "role", u.getRole().name()), 1000L*60*60*24*7);
       return ResponseEntity.ok(new AuthDTOs.LoginResponse(tokenStr, Map.of("id",u.getId(),"name",u.getName(),"email",u.getEmail(),"role",u.getRole())));
     } catch (Exception e){
@@ -116,16 +142,25 @@ public class AuthController {
       long now = System.currentTimeMillis();
       if (a.count >= MAX_ATTEMPTS && now - a.lastTs < LOCK_WINDOW_MS) {
         long minutes = Math.max(1, (LOCK_WINDOW_MS - (now - a.lastTs)) / 60000);
+        countLogin("throttled");
         return ResponseEntity.status(429).body(Map.of("error", "Too many attempts. Try again in ~" + minutes + " min"));
       }
       User u = users.findByEmail(email).orElse(null);
-      if (u == null) return ResponseEntity.status(401).body(Map.of("error","Invalid credentials"));
+      if (u == null) {
+        countLogin("unknown_user");
+        activity.record(ActivityAction.LOGIN_FAILED, null, null, "unknown " + email + " ip=" + request.getRemoteAddr());
+        return ResponseEntity.status(401).body(Map.of("error","Invalid credentials"));
+      }
       if (!encoder.matches(req.password, u.getPasswordHash())) {
         a.count += 1; a.lastTs = now; // record failed attempt
+        countLogin("failure");
+        activity.record(ActivityAction.LOGIN_FAILED, u.getId(), null, "ip=" + request.getRemoteAddr());
         return ResponseEntity.status(401).body(Map.of("error","Invalid credentials"));
       }
       // success: reset attempts
       a.count = 0; a.lastTs = now;
+      countLogin("success");
+      activity.record(ActivityAction.LOGIN, u.getId(), null, "ip=" + request.getRemoteAddr());
     String token = jwt.generateToken(u.getEmail(), Map.of("uid", u.getId(), "role", u.getRole().name()), 1000L*60*60*24*7);
     return ResponseEntity.ok(new AuthDTOs.LoginResponse(token, Map.of("id",u.getId(),"name",u.getName(),"email",u.getEmail(),"role",u.getRole())));
   }
@@ -0,0 +1,25 @@
+package com.arms.platform.cache;
+
+// A change committed on another node (see InvalidationBus): one entity of a region when id is set,
+// the whole region when it is null, and everything when region is ALL (the bus may have missed changes)
+public record CacheInvalidatedEvent(String region, Long id) {
+  public static final String USER = "user";
+  public static final String COURSE = "course";
+  public static final String NEWS = "news";
+  public static final String MATERIAL = "material";
+  public static final String ENROLLMENT = "enrollment"; // id is the user's
+  public static final String NEWS_READ = "news-read"; // id is the user's
+  public static final String WRITER = "writer"; // id is the user's: they wrote, so read from the primary for a while
+  public static final String ALL = "*";
+
+  public static final CacheInvalidatedEvent EVERYTHING = new CacheInvalidatedEvent(ALL, null);
+
+  public boolean affects(String r) {
+    return region.equals(ALL) || region.equals(r);
+  }
+
+  /** True when every cached entry of the region must go, rather than one entity. */
+  public boolean wholeRegion() {
+    return id == null;
+  }
+}
@@ -0,0 +1,247 @@
+package com.arms.platform.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Tells the other backend nodes about writes that make their in-process caches stale, through Postgres
+// NOTIFY/LISTEN on app.cache-bus.channel, so it needs nothing but the database.
+//
+// publish() called inside a transaction adds to a per-transaction set that goes out as one pg_notify
+// on the same connection just before commit; Postgres delivers it only if the transaction commits.
+// Outside a transaction it is sent at once. Payload: "<node>;<seq>;region:id,region:id,..." (id "*" for
+// a whole region), split when it nears Postgres' 8000 byte limit.
+//
+// Every node keeps one dedicated LISTEN connection to the primary (not a pool connection) and turns
+// other nodes' notifications into local CacheInvalidatedEvents. Whenever changes may have been missed
+// it publishes CacheInvalidatedEvent.EVERYTHING instead:
+//  - after reconnecting, since notifications sent while disconnected are lost;
+//  - when a node's sequence numbers have a hole that is not filled within app.cache-bus.gap-grace-ms
+//    (transactions commit out of order, so a short hole is normal);
+//  - when a batch is larger than app.cache-bus.max-batch, where a flush is cheaper than the entries.
+@Component
+public class InvalidationBus {
+  private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+  private static final int MAX_PAYLOAD = 7000; // Postgres rejects payloads of 8000 bytes or more
+  private static final int MAX_HOLES = 1000;
+
+  private final JdbcTemplate jdbc;
+  private final TransactionTemplate tx;
+  private final DataSourceProperties props;
+  private final ApplicationEventPublisher events;
+  private final MeterRegistry registry;
+  private final boolean enabled;
+  private final String channel;
+  private final long gapGraceMillis;
+  private final int maxBatch;
+  private final String node = UUID.randomUUID().toString().substring(0, 8);
+  private final AtomicLong seq = new AtomicLong();
+  private final AtomicInteger connected = new AtomicInteger();
+
+  // listener thread only: per sending node, the highest sequence seen and the holes below it (seq -> first noticed)
+  private final Map<String, Long> highest = new HashMap<>();
+  private final Map<String, TreeMap<Long, Long>> holes = new HashMap<>();
+
+  private volatile boolean running = true;
+  private Thread listener;
+
+  public InvalidationBus(DataSource dataSource, PlatformTransactionManager txManager, DataSourceProperties props,
+                         ApplicationEventPublisher events, MeterRegistry registry,
+                         @Value("${app.cache-bus.enabled:true}") boolean enabled,
+                         @Value("${app.cache-bus.channel:arms_invalidation}") String channel,
+                         @Value("${app.cache-bus.gap-grace-ms:5000}") long gapGraceMillis,
+                         @Value("${app.cache-bus.max-batch:1000}") int maxBatch) {
+    this.jdbc = new JdbcTemplate(dataSource);
+    this.tx = new TransactionTemplate(txManager);
+    this.props = props;
+    this.events = events;
+    this.registry = registry;
+    this.enabled = enabled;
+    this.channel = channel;
+    this.gapGraceMillis = gapGraceMillis;
+    this.maxBatch = maxBatch;
+    registry.gauge("arms.cache-bus.connected", connected);
+  }
+
+  /** Announces a change to one entity (or to a whole region when id is null) to the other nodes. */
+  public void publish(String region, Long id) {
+    if (!enabled) return;
+    String entry = region + ":" + (id == null ? "*" : id);
+    if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+      tx.executeWithoutResult(s -> send(List.of(entry)));
+      return;
+    }
+    @SuppressWarnings("unchecked")
+    Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+    if (pending == null) {
+      Set<String> batch = new LinkedHashSet<>();
+      TransactionSynchronizationManager.bindResource(this, batch);
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        // a copy: sending may fetch the transaction's connection, and routing adds an entry then (WRITER)
+        @Override public void beforeCommit(boolean readOnly) { send(List.copyOf(batch)); }
+        @Override public void afterCompletion(int status) { TransactionSynchronizationManager.unbindResource(InvalidationBus.this); }
+      });
+      pending = batch;
+    }
+    pending.add(entry);
+  }
+
+  // Joins the caller's transaction, if any, so the notification commits with it
+  private void send(Iterable<String> entries) {
+    StringBuilder body = new StringBuilder();
+    for (String e : entries) {
+      if (body.length() > 0 && body.length() + e.length() >= MAX_PAYLOAD) {
+        emit(body);
+        body.setLength(0);
+      }
+      if (body.length() > 0) body.append(',');
+      body.append(e);
+    }
+    if (body.length() > 0) emit(body);
+  }
+
+  private void emit(CharSequence body) {
+    jdbc.queryForList("SELECT pg_notify(?, ?)", channel, node + ";" + seq.incrementAndGet() + ";" + body);
+    registry.counter("arms.cache-bus.sent").increment();
+  }
+
+  @PostConstruct
+  void start() {
+    if (!enabled) return;
+    listener = new Thread(this::listen, "cache-bus-listener");
+    listener.setDaemon(true);
+    listener.start();
+  }
+
+  @PreDestroy
+  void stop() throws InterruptedException {
+    running = false;
+    if (listener != null) listener.join(5_000);
+  }
+
+  private void listen() {
+    long backoff = 1_000;
+    for (int attempt = 0; running; attempt++) {
+      try (Connection c = DriverManager.getConnection(props.determineUrl(), props.determineUsername(), props.determinePassword())) {
+        try (Statement st = c.createStatement()) {
+          st.execute("LISTEN " + channel);
+        }
+        connected.set(1);
+        backoff = 1_000;
+        if (attempt > 0) flushAll("reconnect");
+        log.info("Cache invalidation bus listening on '{}' as node {}", channel, node);
+        PGConnection pg = c.unwrap(PGConnection.class);
+        while (running) {
+          PGNotification[] received = pg.getNotifications(500);
+          if (received != null && received.length > 0) apply(received);
+          checkHoles();
+        }
+      } catch (SQLException | RuntimeException e) {
+        connected.set(0);
+        if (!running) return;
+        log.warn("Cache invalidation bus disconnected, retrying in {} ms: {}", backoff, e.toString());
+        try {
+          Thread.sleep(backoff);
+        } catch (InterruptedException ie) {
+          return;
+        }
+        backoff = Math.min(backoff * 2, 30_000);
+      }
+    }
+    connected.set(0);
+  }
+
+  private void apply(PGNotification[] received) {
+    Set<String> entries = new LinkedHashSet<>();
+    for (PGNotification n : received) {
+      String[] parts = n.getParameter().split(";", 3);
+      if (parts.length < 3 || parts[0].equals(node)) continue; // our own: applied locally already
+      track(parts[0], Long.parseLong(parts[1]));
+      for (String e : parts[2].split(",")) entries.add(e);
+    }
+    registry.counter("arms.cache-bus.received").increment(entries.size());
+    if (entries.size() > maxBatch) {
+      flushAll("batch");
+      return;
+    }
+    for (String e : entries) {
+      int colon = e.indexOf(':');
+      if (colon < 0) continue;
+      String id = e.substring(colon + 1);
+      try {
+        events.publishEvent(new CacheInvalidatedEvent(e.substring(0, colon), id.equals("*") ? null : Long.valueOf(id)));
+      } catch (RuntimeException ex) {
+        log.warn("Could not apply cache invalidation {}: {}", e, ex.toString());
+      }
+    }
+  }
+
+  private void track(String sender, long s) {
+    Long top = highest.get(sender);
+    if (top == null || s > top) {
+      highest.put(sender, s);
+      if (top == null || s == top + 1) return;
+      if (s - top > MAX_HOLES) {
+        holes.remove(sender);
+        flushAll("gap");
+        return;
+      }
+      TreeMap<Long, Long> h = holes.computeIfAbsent(sender, k -> new TreeMap<>());
+      long now = System.currentTimeMillis();
+      for (long missing = top + 1; missing < s; missing++) h.put(missing, now);
+    } else {
+      TreeMap<Long, Long> h = holes.get(sender);
+      if (h != null && h.remove(s) != null && h.isEmpty()) holes.remove(sender);
+    }
+  }
+
+  // A hole still open after the grace period means a notification was lost (or its transaction rolled
+  // back after the pg_notify; a harmless flush)
+  private void checkHoles() {
+    long cutoff = System.currentTimeMillis() - gapGraceMillis;
+    boolean lost = false;
+    for (Iterator<TreeMap<Long, Long>> it = holes.values().iterator(); it.hasNext(); ) {
+      TreeMap<Long, Long> h = it.next();
+      if (h.values().stream().anyMatch(t -> t < cutoff)) {
+        lost = true;
+        it.remove();
+      }
+    }
+    if (lost) flushAll("gap");
+  }
+
+  private void flushAll(String reason) {
+    registry.counter("arms.cache-bus.full-flushes", "reason", reason).increment();
+    log.info("Cache invalidation bus: flushing all caches ({})", reason);
+    events.publishEvent(CacheInvalidatedEvent.EVERYTHING);
+  }
+}
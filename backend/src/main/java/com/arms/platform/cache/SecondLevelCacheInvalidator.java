@@ -0,0 +1,38 @@
+package com.arms.platform.cache;
+
+import com.arms.platform.course.Course;
+import com.arms.platform.user.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// Drops Hibernate second-level cache entries (ehcache.xml) written on another node. Cached query results
+// go too: this node's update timestamps never saw the remote write, so they would be served until TTL.
+@Component
+public class SecondLevelCacheInvalidator {
+  private final Cache cache;
+
+  public SecondLevelCacheInvalidator(EntityManagerFactory emf) {
+    this.cache = emf.unwrap(SessionFactory.class).getCache();
+  }
+
+  @EventListener
+  public void onInvalidated(CacheInvalidatedEvent e) {
+    if (e.region().equals(CacheInvalidatedEvent.ALL)) {
+      cache.evictAllRegions();
+      return;
+    }
+    Class<?> entity = switch (e.region()) {
+      case CacheInvalidatedEvent.USER -> User.class;
+      case CacheInvalidatedEvent.COURSE -> Course.class;
+      default -> null;
+    };
+    if (entity == null) return;
+    if (e.wholeRegion()) cache.evictEntityData(entity);
+    else cache.evictEntityData(entity, e.id());
+    cache.evictNaturalIdData(entity);
+    cache.evictDefaultQueryRegion();
+  }
+}
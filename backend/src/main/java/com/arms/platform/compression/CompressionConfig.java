@@ -0,0 +1,33 @@
+package com.arms.platform.compression;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+@Configuration
+@ConditionalOnProperty(name="app.compression.enabled", havingValue="true", matchIfMissing=true)
+public class CompressionConfig {
+
+  // Inside ServerTimingFilter, so its header and CPU time cover compression; outside everything else
+  @Bean
+  public FilterRegistrationBean<GzipFilter> gzipFilter(
+      @Value("${app.compression.min-size:1024}") int minSize,
+      @Value("${app.compression.level:6}") int level,
+      @Value("${app.compression.buffer-size:8192}") int bufferSize,
+      @Value("${app.compression.pool-size:64}") int poolSize,
+      @Value("${app.compression.mime-types:application/json,application/*+json,application/x-ndjson,application/cbor,application/x-jackson-smile,text/*}") List<String> mimeTypes,
+      MeterRegistry registry) {
+    FilterRegistrationBean<GzipFilter> reg = new FilterRegistrationBean<>(
+        new GzipFilter(minSize, level, bufferSize, poolSize, mimeTypes.stream().map(MediaType::parseMediaType).toList(), registry));
+    reg.addUrlPatterns("/api/*");
+    reg.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+    return reg;
+  }
+}
@@ -0,0 +1,399 @@
+package com.arms.platform.compression;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+// Gzip for API responses, used instead of Tomcat's compression, which creates a Deflater and its
+// buffers for every response; the per-response state here comes from a GzipPool. A response is
+// compressed when the client accepts gzip, its content type is one of app.compression.mime-types,
+// nothing set Content-Encoding or Content-Range, and the body reaches app.compression.min-size bytes.
+// The first min-size bytes are held back, so a shorter body goes out as is; a declared Content-Length
+// below the threshold or another content type is decided at the first write, without holding anything.
+//
+// Flushes of a compressed body become deflate SYNC_FLUSHes, so streamed NDJSON still arrives chunk by
+// chunk. Async responses (StreamingResponseBody exports) are written after this filter returns and
+// are left uncompressed. Brotli would need a native library and is left to a proxy in front.
+//
+// resetBuffer() and reset() start the body over from PENDING, whatever was held or deflated so far;
+// sendError() and sendRedirect() drop the gzip state and leave the container's page uncompressed.
+public class GzipFilter extends OncePerRequestFilter {
+  // magic, CM=deflate, no flags, no mtime, no extra flags, OS unknown
+  private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+  private final GzipPool pool;
+  private final int minSize;
+  private final List<MediaType> mimeTypes;
+  private final Counter responses, bytesIn, bytesOut;
+
+  public GzipFilter(int minSize, int level, int bufferSize, int poolSize, List<MediaType> mimeTypes, MeterRegistry registry) {
+    this.pool = new GzipPool(poolSize, level, minSize, bufferSize, registry);
+    this.minSize = minSize;
+    this.mimeTypes = mimeTypes;
+    this.responses = registry.counter("arms.compression.responses");
+    this.bytesIn = registry.counter("arms.compression.bytes", "stage", "in");
+    this.bytesOut = registry.counter("arms.compression.bytes", "stage", "out");
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+      throws ServletException, IOException {
+    res.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if ("HEAD".equals(req.getMethod()) || !acceptsGzip(req)) {
+      chain.doFilter(req, res);
+      return;
+    }
+    GzipResponse wrapped = new GzipResponse(req, res);
+    boolean completed = false;
+    try {
+      chain.doFilter(req, wrapped);
+      completed = true;
+    } finally {
+      if (req.isAsyncStarted()) {
+        // nothing was held: the async writer decides (plain) on its first write
+      } else if (completed) {
+        wrapped.finish();
+      } else {
+        wrapped.release(); // the error response replaces whatever was held back
+      }
+    }
+  }
+
+  @Override
+  public void destroy() {
+    pool.close();
+  }
+
+  static boolean acceptsGzip(HttpServletRequest req) {
+    for (Enumeration<String> headers = req.getHeaders(HttpHeaders.ACCEPT_ENCODING); headers.hasMoreElements(); ) {
+      for (String coding : headers.nextElement().split(",")) {
+        String[] parts = coding.split(";");
+        if (!parts[0].trim().equalsIgnoreCase("gzip")) continue;
+        for (int i = 1; i < parts.length; i++) {
+          String p = parts[i].trim();
+          if (p.startsWith("q=") && p.substring(2).trim().matches("0(\\.0*)?")) return false;
+        }
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private enum State { PENDING, PLAIN, GZIP }
+
+  private class GzipResponse extends HttpServletResponseWrapper {
+    private final HttpServletRequest req;
+    private State state = State.PENDING;
+    private GzipPool.Gzip gzip; // borrowed at the first write that may need it
+    private int held;
+    private long declaredLength = -1;
+    private long in, out;
+    private ServletOutputStream stream;
+    private boolean streamUsed;
+    private PrintWriter writer;
+    private boolean discarding; // writes and flushes go nowhere while the writer's buffer is thrown away
+
+    GzipResponse(HttpServletRequest req, HttpServletResponse res) {
+      super(res);
+      this.req = req;
+    }
+
+    // Content-Length is held until it is known whether the body is compressed
+
+    @Override
+    public void setContentLength(int len) { setContentLengthLong(len); }
+
+    @Override
+    public void setContentLengthLong(long len) {
+      if (state == State.PLAIN) super.setContentLengthLong(len);
+      else if (state == State.PENDING) declaredLength = len;
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+      if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) && value != null) setContentLengthLong(Long.parseLong(value.trim()));
+      else super.setHeader(name, value);
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+      if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) && value != null) setContentLengthLong(Long.parseLong(value.trim()));
+      else super.addHeader(name, value);
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+      if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) setContentLengthLong(value);
+      else super.setIntHeader(name, value);
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+      if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) setContentLengthLong(value);
+      else super.addIntHeader(name, value);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      if (writer != null) throw new IllegalStateException("getWriter() has already been called");
+      streamUsed = true;
+      return stream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+      if (writer == null) {
+        if (streamUsed) throw new IllegalStateException("getOutputStream() has already been called");
+        writer = new PrintWriter(new OutputStreamWriter(stream(), getCharacterEncoding()));
+      }
+      return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+      if (writer != null) writer.flush();
+      flush();
+    }
+
+    // Headers stay, so a plain body stays plain (its Content-Length may already be out); otherwise the
+    // gzip decision is made again on the next write
+    @Override
+    public void resetBuffer() {
+      super.resetBuffer(); // throws once committed, leaving everything as it was
+      discardWriter();
+      if (state != State.PLAIN) restart(State.PENDING);
+    }
+
+    @Override
+    public void reset() {
+      super.reset();
+      discardWriter();
+      writer = null;
+      streamUsed = false;
+      restart(State.PENDING);
+      declaredLength = -1;
+      super.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+      bypass();
+      super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+      bypass();
+      super.sendError(sc);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+      bypass();
+      super.sendRedirect(location);
+    }
+
+    private ServletOutputStream stream() {
+      if (stream == null) {
+        stream = new ServletOutputStream() {
+          private final byte[] one = new byte[1];
+          @Override public void write(int b) throws IOException { one[0] = (byte) b; GzipResponse.this.write(one, 0, 1); }
+          @Override public void write(byte[] b, int off, int len) throws IOException { GzipResponse.this.write(b, off, len); }
+          @Override public void flush() throws IOException { GzipResponse.this.flush(); }
+          @Override public void close() throws IOException { finish(); }
+          @Override public boolean isReady() {
+            try { return state != State.PLAIN || raw().isReady(); }
+            catch (IOException e) { throw new UncheckedIOException(e); }
+          }
+          // Non-blocking writes go straight through: nothing may be held back once the container drives them
+          @Override public void setWriteListener(WriteListener listener) {
+            try {
+              if (state == State.PENDING) plain();
+              raw().setWriteListener(listener);
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          }
+        };
+      }
+      return stream;
+    }
+
+    private ServletOutputStream raw() throws IOException {
+      return super.getOutputStream();
+    }
+
+    private void write(byte[] b, int off, int len) throws IOException {
+      if (len == 0 || discarding) return;
+      if (state == State.PENDING && gzip == null) {
+        if (eligible()) gzip = pool.borrow();
+        else plain();
+      }
+      switch (state) {
+        case PLAIN -> raw().write(b, off, len);
+        case GZIP -> deflate(b, off, len);
+        case PENDING -> {
+          if (held + len <= gzip.head.length) {
+            System.arraycopy(b, off, gzip.head, held, len);
+            held += len;
+          } else {
+            start();
+            deflate(gzip.head, 0, held);
+            held = 0;
+            deflate(b, off, len);
+          }
+        }
+      }
+    }
+
+    private boolean eligible() {
+      if (req.isAsyncStarted() || getHeader(HttpHeaders.CONTENT_ENCODING) != null || getHeader(HttpHeaders.CONTENT_RANGE) != null) {
+        return false;
+      }
+      if (declaredLength >= 0 && declaredLength < minSize) return false;
+      String type = getContentType();
+      if (type == null) return false;
+      try {
+        MediaType mediaType = MediaType.parseMediaType(type);
+        return mimeTypes.stream().anyMatch(m -> m.includes(mediaType));
+      } catch (InvalidMediaTypeException e) {
+        return false;
+      }
+    }
+
+    // Sends the body uncompressed from here on, starting with what was held back
+    private void plain() throws IOException {
+      state = State.PLAIN;
+      if (declaredLength >= 0) super.setContentLengthLong(declaredLength);
+      if (gzip != null) {
+        if (held > 0) raw().write(gzip.head, 0, held);
+        release();
+      }
+    }
+
+    private void start() throws IOException {
+      state = State.GZIP;
+      super.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+      raw().write(HEADER);
+      out += HEADER.length;
+      responses.increment();
+    }
+
+    private void deflate(byte[] b, int off, int len) throws IOException {
+      gzip.crc.update(b, off, len);
+      in += len;
+      gzip.deflater.setInput(b, off, len);
+      while (!gzip.deflater.needsInput()) drain(Deflater.NO_FLUSH);
+    }
+
+    private int drain(int mode) throws IOException {
+      int n = gzip.deflater.deflate(gzip.out, 0, gzip.out.length, mode);
+      if (n > 0) {
+        raw().write(gzip.out, 0, n);
+        out += n;
+      }
+      return n;
+    }
+
+    private void flush() throws IOException {
+      if (discarding) return;
+      if (state == State.GZIP) {
+        while (drain(Deflater.SYNC_FLUSH) == gzip.out.length) { /* output buffer was full, more to come */ }
+        raw().flush();
+      } else if (state == State.PLAIN) {
+        raw().flush();
+      }
+      // PENDING: held until the threshold or the end of the body
+    }
+
+    void finish() throws IOException {
+      try {
+        if (writer != null) writer.flush();
+        if (state == State.PENDING && gzip != null) {
+          plain(); // the container adds Content-Length for a body that fits its buffer
+        } else if (state == State.GZIP) {
+          gzip.deflater.finish();
+          while (!gzip.deflater.finished()) drain(Deflater.NO_FLUSH);
+          long crc = gzip.crc.getValue();
+          raw().write(new byte[]{
+              (byte) crc, (byte) (crc >> 8), (byte) (crc >> 16), (byte) (crc >> 24),
+              (byte) in, (byte) (in >> 8), (byte) (in >> 16), (byte) (in >> 24)});
+          out += 8;
+          bytesIn.increment(in);
+          bytesOut.increment(out);
+          state = State.PLAIN; // finished; a second close is a no-op
+        }
+      } finally {
+        release();
+      }
+    }
+
+    void release() {
+      if (gzip == null) return;
+      pool.release(gzip);
+      gzip = null;
+    }
+
+    // Error pages and redirects are short and written by the container
+    private void bypass() {
+      if (isCommitted()) return; // the container refuses these now; the body carries on as it was
+      discardWriter();
+      restart(State.PLAIN);
+    }
+
+    // Back to before the first write: nothing held or deflated, and no Content-Encoding
+    private void restart(State next) {
+      if (state == State.GZIP) dropContentEncoding();
+      release(); // resets the deflater and CRC
+      held = 0;
+      in = 0;
+      out = 0;
+      state = next;
+    }
+
+    // Pushes what the writer still buffers into the void, so it cannot surface after a reset
+    private void discardWriter() {
+      if (writer == null) return;
+      discarding = true;
+      try { writer.flush(); }
+      finally { discarding = false; }
+    }
+
+    // Servlet 6.0 cannot remove a header (Tomcat ignores setHeader(name, null)), so the response is reset
+    // and everything but Content-Encoding is put back; cookies are Set-Cookie headers and come back too
+    private void dropContentEncoding() {
+      if (getHeader(HttpHeaders.CONTENT_ENCODING) == null) return; // e.g. already gone with a reset()
+      int status = getStatus();
+      String type = getContentType();
+      Map<String, List<String>> headers = new LinkedHashMap<>();
+      for (String name : getHeaderNames()) {
+        if (!name.equalsIgnoreCase(HttpHeaders.CONTENT_ENCODING)) headers.putIfAbsent(name, new ArrayList<>(getHeaders(name)));
+      }
+      super.reset();
+      super.setStatus(status);
+      if (type != null) super.setContentType(type);
+      headers.forEach((name, values) -> values.forEach(v -> super.addHeader(name, v)));
+    }
+  }
+}
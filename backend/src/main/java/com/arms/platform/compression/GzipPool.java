@@ -0,0 +1,60 @@
+package com.arms.platform.compression;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+// Reusable per-response gzip state. A Deflater owns a native zlib stream of a few hundred KB, and the
+// buffers are allocated once; both would otherwise be created (and left to the GC to free) for every
+// compressed response. Up to app.compression.pool-size idle instances are kept; beyond that, extras are
+// created on demand and ended on release (arms.compression.pool.misses).
+final class GzipPool {
+
+  static final class Gzip {
+    final Deflater deflater;
+    final CRC32 crc = new CRC32();
+    final byte[] head; // the start of the body, held until the size threshold is reached
+    final byte[] out;  // deflater output
+
+    Gzip(int level, int threshold, int bufferSize) {
+      deflater = new Deflater(level, true); // raw deflate; GzipFilter writes the gzip header and trailer
+      head = new byte[threshold];
+      out = new byte[bufferSize];
+    }
+  }
+
+  private final BlockingQueue<Gzip> idle;
+  private final int level, threshold, bufferSize;
+  private final Counter misses;
+
+  GzipPool(int size, int level, int threshold, int bufferSize, MeterRegistry registry) {
+    this.idle = new ArrayBlockingQueue<>(Math.max(size, 1));
+    this.level = level;
+    this.threshold = threshold;
+    this.bufferSize = bufferSize;
+    this.misses = registry.counter("arms.compression.pool.misses");
+    registry.gaugeCollectionSize("arms.compression.pool.idle", List.of(), idle);
+  }
+
+  Gzip borrow() {
+    Gzip g = idle.poll();
+    if (g != null) return g;
+    misses.increment();
+    return new Gzip(level, threshold, bufferSize);
+  }
+
+  void release(Gzip g) {
+    g.deflater.reset();
+    g.crc.reset();
+    if (!idle.offer(g)) g.deflater.end();
+  }
+
+  void close() {
+    for (Gzip g; (g = idle.poll()) != null; ) g.deflater.end();
+  }
+}
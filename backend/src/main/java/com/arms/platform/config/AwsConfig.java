@@ -8,6 +8,7 @@ import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 
 @Configuration
 public class AwsConfig {
@@ -24,7 +25,9 @@ public class AwsConfig {
     @Value("${aws.s3.bucket.name}")
     private String bucketName;
 
+    // Built on first use: files are stored locally unless S3FileService is actually called
     @Bean
+    @Lazy
     public AmazonS3 amazonS3() {
         BasicAWSCredentials awsCredentials = new BasicAWSCredentials(accessKeyId, secretAccessKey);
         
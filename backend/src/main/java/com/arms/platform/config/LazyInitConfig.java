@@ -0,0 +1,17 @@
+package com.arms.platform.config;
+
+import com.arms.platform.cache.InvalidationBus;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Under spring.main.lazy-initialization (fast-startup profile) beans are created on first use. Beans with
+// @Scheduled methods are kept eager by Boot itself; these also work in the background from startup on.
+@Configuration
+public class LazyInitConfig {
+
+  @Bean
+  static LazyInitializationExcludeFilter eagerBackgroundBeans() {
+    return LazyInitializationExcludeFilter.forBeanTypes(InvalidationBus.class);
+  }
+}
@@ -0,0 +1,149 @@
+package com.arms.platform.config;
+
+import com.arms.platform.course.CourseRepository;
+import com.arms.platform.security.JwtService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Sends synthetic read-only traffic through the running server before the instance reports ready, so
+// the first real requests after a deploy do not pay for interpreted code: JWT parsing and the user
+// lookup (JwtAuthFilter), the security chain, the News/MaterialDto serializers and the Hibernate plans
+// of the listing queries. Runners finish before Boot publishes ReadinessState.ACCEPTING_TRAFFIC, so
+// /actuator/health(/readiness) reports OUT_OF_SERVICE meanwhile.
+//
+// Runs app.warmup.rounds rounds over the targets, stopping early after app.warmup.max-ms. The bearer
+// token names no user, so requests stay anonymous and hit public endpoints only. Latency of the first
+// and last app.warmup.sample-rounds rounds is logged and kept as arms.warmup.latency gauges.
+@Component
+public class WarmupRunner implements ApplicationRunner {
+  private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+  private static final String HEADER = "X-Arms-Warmup";
+  // per process, so clients cannot pass their requests off as warm-up traffic
+  private static final String KEY = UUID.randomUUID().toString();
+
+  private final JwtService jwt;
+  private final CourseRepository courses;
+  private final Environment env;
+  private final MeterRegistry registry;
+  private final boolean enabled;
+  private final int rounds;
+  private final long maxMillis;
+  private final int sampleRounds;
+
+  public WarmupRunner(JwtService jwt, CourseRepository courses, Environment env, MeterRegistry registry,
+                      @Value("${app.warmup.enabled:true}") boolean enabled,
+                      @Value("${app.warmup.rounds:300}") int rounds,
+                      @Value("${app.warmup.max-ms:30000}") long maxMillis,
+                      @Value("${app.warmup.sample-rounds:20}") int sampleRounds) {
+    this.jwt = jwt;
+    this.courses = courses;
+    this.env = env;
+    this.registry = registry;
+    this.enabled = enabled;
+    this.rounds = rounds;
+    this.maxMillis = maxMillis;
+    this.sampleRounds = sampleRounds;
+  }
+
+  /** True for requests sent by the warm-up; they should leave no trace in usage statistics. */
+  public static boolean isWarmup(HttpServletRequest req) {
+    return KEY.equals(req.getHeader(HEADER));
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    Integer port = env.getProperty("local.server.port", Integer.class);
+    if (!enabled || rounds <= 0 || port == null) return;
+    String base = "http://localhost:" + port;
+    List<URI> targets = new ArrayList<>(List.of(
+        URI.create(base + "/api/news?page=0&size=10"),
+        URI.create(base + "/api/news/recent"),
+        URI.create(base + "/api/courses")));
+    try {
+      courses.findAll(PageRequest.of(0, 3)).forEach(c -> targets.add(URI.create(base + "/api/courses/" + c.getId() + "/materials")));
+    } catch (RuntimeException e) {
+      log.warn("Warm-up could not list courses, skipping material listings: {}", e.toString());
+    }
+    String token = jwt.generateToken("warmup@invalid", Map.of(), maxMillis + 60_000);
+    HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+
+    long start = System.nanoTime(), deadline = start + TimeUnit.MILLISECONDS.toNanos(maxMillis);
+    long[][] latency = new long[rounds][];
+    int done = 0, failures = 0;
+    while (done < rounds && System.nanoTime() < deadline) {
+      long[] round = new long[targets.size()];
+      for (int i = 0; i < targets.size(); i++) {
+        HttpRequest req = HttpRequest.newBuilder(targets.get(i))
+            .header("Authorization", "Bearer " + token) // parsed, then looked up and not found
+            .header(HEADER, KEY)
+            .timeout(Duration.ofSeconds(5))
+            .GET().build();
+        long t0 = System.nanoTime();
+        try {
+          HttpResponse<Void> res = client.send(req, HttpResponse.BodyHandlers.discarding());
+          if (res.statusCode() >= 400 && failures++ == 0) {
+            log.warn("Warm-up request {} returned {}", targets.get(i), res.statusCode());
+          }
+        } catch (IOException e) {
+          if (failures++ == 0) log.warn("Warm-up request {} failed: {}", targets.get(i), e.toString());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+        round[i] = System.nanoTime() - t0;
+      }
+      latency[done++] = round;
+    }
+    long tookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    if (done == 0) return;
+
+    int sample = Math.max(1, Math.min(sampleRounds, done / 2));
+    double[] cold = percentiles(latency, 0, sample), warm = percentiles(latency, done - sample, done);
+    gauge("arms.warmup.duration", Tags.empty(), tookMillis);
+    gauge("arms.warmup.latency", Tags.of("phase", "cold", "quantile", "0.5"), cold[0]);
+    gauge("arms.warmup.latency", Tags.of("phase", "cold", "quantile", "0.99"), cold[1]);
+    gauge("arms.warmup.latency", Tags.of("phase", "warm", "quantile", "0.5"), warm[0]);
+    gauge("arms.warmup.latency", Tags.of("phase", "warm", "quantile", "0.99"), warm[1]);
+    log.info("Warm-up: {} request(s) in {} ms ({} round(s), {} failed); latency p50/p99 first {} round(s) {}/{} ms, last {} round(s) {}/{} ms",
+        done * targets.size(), tookMillis, done, failures,
+        sample, fmt(cold[0]), fmt(cold[1]), sample, fmt(warm[0]), fmt(warm[1]));
+  }
+
+  // milliseconds; a fixed value, so the gauge holds it strongly
+  private void gauge(String name, Tags tags, double millis) {
+    Gauge.builder(name, () -> millis).tags(tags).baseUnit("milliseconds").strongReference(true).register(registry);
+  }
+
+  // p50 and p99 in milliseconds over the requests of rounds [from, to)
+  private static double[] percentiles(long[][] latency, int from, int to) {
+    long[] all = Arrays.stream(latency, from, to).flatMapToLong(Arrays::stream).sorted().toArray();
+    return new double[]{all[(int) Math.ceil(all.length * 0.5) - 1] / 1e6, all[(int) Math.ceil(all.length * 0.99) - 1] / 1e6};
+  }
+
+  private static String fmt(double millis) {
+    return String.format("%.1f", millis);
+  }
+}
@@ -1,18 +1,38 @@
 package com.arms.platform.config;
 
+import com.arms.platform.material.TrendingDownloadInterceptor;
+import com.arms.platform.material.TrendingService;
+import com.arms.platform.metrics.DownloadMetricsInterceptor;
+import com.arms.platform.metrics.QueryBudgetInterceptor;
+import com.arms.platform.metrics.StorageMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
   private final String uploadDir;
-  public WebConfig(@Value("${app.upload.dir}") String uploadDir){ this.uploadDir=uploadDir; }
+  private final StorageMetrics storageMetrics;
+  private final boolean failOnQueryBudget;
+  private final TrendingService trending;
+  public WebConfig(@Value("${app.upload.dir}") String uploadDir, StorageMetrics storageMetrics,
+                   @Value("${app.query-budget.fail-on-exceed:false}") boolean failOnQueryBudget, TrendingService trending){
+    this.uploadDir=uploadDir; this.storageMetrics=storageMetrics; this.failOnQueryBudget=failOnQueryBudget;
+    this.trending=trending;
+  }
 
   @Override
   public void addResourceHandlers(ResourceHandlerRegistry registry) {
     registry.addResourceHandler("/files/**")
             .addResourceLocations("file:" + (uploadDir.endsWith("/")?uploadDir:uploadDir+"/"));
   }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(new DownloadMetricsInterceptor(storageMetrics)).addPathPatterns("/files/**");
+    registry.addInterceptor(new TrendingDownloadInterceptor(trending)).addPathPatterns("/files/**");
+    registry.addInterceptor(new QueryBudgetInterceptor(failOnQueryBudget)).addPathPatterns("/api/**");
+  }
 }
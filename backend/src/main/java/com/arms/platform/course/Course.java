@@ -1,13 +1,20 @@
 package com.arms.platform.course;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 @Entity
 @Table(name="courses", indexes=@Index(columnList="code", unique=true))
+@Cache(usage=CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 public class Course {
   @Id @GeneratedValue(strategy=GenerationType.IDENTITY)
   private Long id;
 
+  @NaturalId(mutable=true)
   @Column(nullable=false, unique=true)
   private String code;
 
@@ -1,17 +1,56 @@
 package com.arms.platform.course;
 
+import com.arms.platform.dto.CourseDto;
+import com.arms.platform.metrics.QueryBudget;
+import com.arms.platform.user.User;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/courses")
 public class CourseController {
-  private final CourseRepository repo;
-  public CourseController(CourseRepository repo){ this.repo = repo; }
+  private final CourseStatsService stats;
+  private final EnrollmentService enrollments;
+  public CourseController(CourseStatsService stats, EnrollmentService enrollments){ this.stats = stats; this.enrollments = enrollments; }
 
+  private User current(){
+    Object p = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+    if (p instanceof User u) return u;
+    throw new RuntimeException("Unauthorized");
+  }
+
+  // The catalog with material and student counts, one query (see CourseStatsService)
   @GetMapping
-  public List<Course> list(@RequestParam(required=false) String q){
-    if (q == null || q.isBlank()) return repo.findAll();
-    return repo.findByTitleContainingIgnoreCaseOrCodeContainingIgnoreCase(q, q);
+  @QueryBudget(1)
+  public List<CourseDto> list(@RequestParam(required=false) String q){
+    return stats.catalog(q);
+  }
+
+  // The signed-in user's courses
+  @GetMapping("/enrolled")
+  @QueryBudget(1)
+  public List<Course> enrolled(){
+    return enrollments.coursesOf(current());
+  }
+
+  @PostMapping("/{courseId}/enrollment")
+  @QueryBudget(3)
+  public ResponseEntity<?> enroll(@PathVariable Long courseId){
+    try {
+      enrollments.enroll(current(), courseId);
+      return ResponseEntity.ok(Map.of("courseId", courseId, "enrolled", true));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+    }
+  }
+
+  @DeleteMapping("/{courseId}/enrollment")
+  @QueryBudget(2)
+  public ResponseEntity<?> unenroll(@PathVariable Long courseId){
+    enrollments.unenroll(current(), courseId);
+    return ResponseEntity.ok(Map.of("courseId", courseId, "enrolled", false));
   }
 }
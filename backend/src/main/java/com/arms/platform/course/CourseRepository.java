@@ -1,7 +1,16 @@
 package com.arms.platform.course;
+import jakarta.persistence.QueryHint;
 import java.util.List;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface CourseRepository extends JpaRepository<Course, Long> {
+@Transactional(readOnly = true)
+public interface CourseRepository extends JpaRepository<Course, Long>, CourseRepositoryCustom {
+  // the catalog is read on every page load and rarely changes
+  @Override
+  @QueryHints(@QueryHint(name=AvailableHints.HINT_CACHEABLE, value="true"))
+  List<Course> findAll();
   List<Course> findByTitleContainingIgnoreCaseOrCodeContainingIgnoreCase(String t, String c);
 }
@@ -0,0 +1,6 @@
+package com.arms.platform.course;
+import java.util.Optional;
+
+public interface CourseRepositoryCustom {
+  Optional<Course> findByCode(String code);
+}
@@ -0,0 +1,19 @@
+package com.arms.platform.course;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.Optional;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+class CourseRepositoryCustomImpl implements CourseRepositoryCustom {
+  @PersistenceContext
+  private EntityManager em;
+
+  // Natural-id lookup backed by the second-level cache; transactional so the unwrapped session stays open
+  @Override
+  @Transactional(readOnly=true)
+  public Optional<Course> findByCode(String code) {
+    return em.unwrap(Session.class).bySimpleNaturalId(Course.class).loadOptional(code);
+  }
+}
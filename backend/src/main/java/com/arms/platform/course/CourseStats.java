@@ -0,0 +1,43 @@
+package com.arms.platform.course;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.util.Objects;
+
+// One shard of a course's counters; a course's totals are the sums over its shards. Mapped so the schema
+// is managed with the rest, but written only through CourseStatsService (plain JDBC upserts): a native
+// update through Hibernate would evict every second-level cache region on each upload.
+@Entity
+@Table(name="course_stats")
+@IdClass(CourseStats.Key.class)
+public class CourseStats {
+  @Id
+  @Column(name="course_id")
+  private Long courseId;
+
+  @Id
+  private int shard;
+
+  @Column(nullable=false)
+  private long materials;
+
+  @Column(nullable=false)
+  private long students;
+
+  protected CourseStats() {}
+
+  public Long getCourseId(){return courseId;}
+  public int getShard(){return shard;}
+  public long getMaterials(){return materials;}
+  public long getStudents(){return students;}
+
+  public static class Key implements Serializable {
+    private Long courseId;
+    private int shard;
+
+    @Override public boolean equals(Object o) {
+      return o instanceof Key k && Objects.equals(courseId, k.courseId) && shard == k.shard;
+    }
+    @Override public int hashCode() { return Objects.hash(courseId, shard); }
+  }
+}
@@ -0,0 +1,116 @@
+package com.arms.platform.course;
+
+import com.arms.platform.dto.CourseDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Per-course material and student counts, maintained in the same transaction as the rows they count.
+// Each course has up to app.stats.shards counter rows and a write picks one at random, so concurrent
+// uploads to a popular course rarely wait on the same row lock; reads sum the shards. A reconciliation
+// pass recomputes the true counts and folds any drift into shard 0.
+@Service
+public class CourseStatsService {
+  private static final Logger log = LoggerFactory.getLogger(CourseStatsService.class);
+
+  private static final String ADD = """
+    INSERT INTO course_stats (course_id, shard, materials, students) VALUES (?, ?, ?, ?)
+    ON CONFLICT (course_id, shard) DO UPDATE
+      SET materials = course_stats.materials + EXCLUDED.materials, students = course_stats.students + EXCLUDED.students
+    """;
+
+  private static final String CATALOG = """
+    SELECT c.id, c.code, c.title, c.description,
+           COALESCE(SUM(s.materials), 0) AS materials, COALESCE(SUM(s.students), 0) AS students
+    FROM courses c LEFT JOIN course_stats s ON s.course_id = c.id
+    %s
+    GROUP BY c.id ORDER BY c.id
+    """;
+
+  // One statement, so the counts and the shard sums come from the same snapshot: a write committed
+  // concurrently is either in both or in neither, and the correction stays exact
+  private static final String RECONCILE = """
+    WITH truth AS (
+      SELECT c.id AS course_id,
+             COALESCE(m.n, 0) AS materials,
+             COALESCE(e.n, 0) AS students
+      FROM courses c
+      LEFT JOIN (SELECT course_id, COUNT(*) AS n FROM materials GROUP BY course_id) m ON m.course_id = c.id
+      LEFT JOIN (SELECT uc.course_id, COUNT(*) AS n FROM user_courses uc JOIN users u ON u.id = uc.user_id
+                 WHERE uc.is_active AND u.role = 'STUDENT' GROUP BY uc.course_id) e ON e.course_id = c.id
+    ), counted AS (
+      SELECT course_id, SUM(materials) AS materials, SUM(students) AS students FROM course_stats GROUP BY course_id
+    )
+    INSERT INTO course_stats (course_id, shard, materials, students)
+    SELECT t.course_id, 0, t.materials - COALESCE(k.materials, 0), t.students - COALESCE(k.students, 0)
+    FROM truth t LEFT JOIN counted k ON k.course_id = t.course_id
+    WHERE t.materials <> COALESCE(k.materials, 0) OR t.students <> COALESCE(k.students, 0)
+    ON CONFLICT (course_id, shard) DO UPDATE
+      SET materials = course_stats.materials + EXCLUDED.materials, students = course_stats.students + EXCLUDED.students
+    """;
+
+  // pg_try_advisory_xact_lock key: one node reconciles, the others skip that run
+  private static final long RECONCILE_LOCK = 0x6172_6d73_0001L;
+
+  private static final RowMapper<CourseDto> ROW = (rs, i) -> new CourseDto(rs.getLong("id"), rs.getString("code"),
+    rs.getString("title"), rs.getString("description"), rs.getLong("materials"), rs.getLong("students"));
+
+  private final JdbcTemplate jdbc;
+  private final TransactionTemplate readTx;
+  private final TransactionTemplate writeTx;
+  private final int shards;
+
+  public CourseStatsService(DataSource dataSource, PlatformTransactionManager txManager,
+                            @Value("${app.stats.shards:8}") int shards) {
+    this.jdbc = new JdbcTemplate(dataSource);
+    this.readTx = new TransactionTemplate(txManager);
+    this.readTx.setReadOnly(true);
+    this.writeTx = new TransactionTemplate(txManager);
+    this.shards = shards;
+  }
+
+  /** Adds to a course's counters; must run inside the transaction that changes the counted rows. */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void add(Long courseId, long materials, long students) {
+    if (materials == 0 && students == 0) return;
+    jdbc.update(ADD, courseId, ThreadLocalRandom.current().nextInt(shards), materials, students);
+  }
+
+  /** Every course, or those whose title or code contains q, with their counts; one query. */
+  public List<CourseDto> catalog(String q) {
+    if (q == null || q.isBlank()) return readTx.execute(s -> jdbc.query(CATALOG.formatted(""), ROW));
+    String like = "%" + q.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    return readTx.execute(s -> jdbc.query(CATALOG.formatted("WHERE c.title ILIKE ? OR c.code ILIKE ?"), ROW, like, like));
+  }
+
+  // Nightly, and once at startup so that a database which predates the counters gets them filled in.
+  // Whichever node takes the advisory lock first runs it and the rest skip, so nodes booting together
+  // do not queue up behind the same full recount.
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(cron = "${app.stats.reconcile-cron:0 30 3 * * *}")
+  public void reconcile() {
+    long t0 = System.nanoTime();
+    Integer fixed = writeTx.execute(s ->
+      Boolean.TRUE.equals(jdbc.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, RECONCILE_LOCK))
+        ? jdbc.update(RECONCILE) : null);
+    if (fixed == null) {
+      log.debug("Course stats reconcile skipped: another node holds the lock");
+    } else if (fixed > 0) {
+      log.info("Course stats reconciled: corrected {} course(s) in {} ms", fixed, (System.nanoTime() - t0) / 1_000_000);
+    }
+  }
+}
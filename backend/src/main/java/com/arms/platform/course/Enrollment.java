@@ -0,0 +1,42 @@
+package com.arms.platform.course;
+
+import com.arms.platform.user.User;
+import jakarta.persistence.*;
+import java.time.Instant;
+
+// A student's membership in a course (the user_courses table). Unenrolling clears active rather than
+// deleting the row, so re-enrolling keeps the original enrolledAt.
+@Entity
+@Table(name="user_courses", uniqueConstraints=@UniqueConstraint(columnNames={"user_id", "course_id"}), indexes={
+  @Index(columnList="user_id"),
+  @Index(columnList="course_id")
+})
+public class Enrollment {
+  @Id @GeneratedValue(strategy=GenerationType.IDENTITY)
+  private Long id;
+
+  @ManyToOne(optional=false, fetch=FetchType.LAZY)
+  private User user;
+
+  @ManyToOne(optional=false, fetch=FetchType.LAZY)
+  private Course course;
+
+  @Column(nullable=false, updatable=false)
+  private Instant enrolledAt = Instant.now();
+
+  @Column(nullable=false)
+  private boolean isActive = true;
+
+  protected Enrollment() {}
+
+  public Enrollment(User user, Course course) {
+    this.user = user; this.course = course;
+  }
+
+  public Long getId(){return id;}
+  public User getUser(){return user;}
+  public Course getCourse(){return course;}
+  public Instant getEnrolledAt(){return enrolledAt;}
+  public boolean isActive(){return isActive;}
+  public void setActive(boolean active){this.isActive=active;}
+}
@@ -0,0 +1,4 @@
+package com.arms.platform.course;
+
+// Published after a user enrolls in or leaves a course, for per-user state derived from enrollments
+public record EnrollmentChangedEvent(Long userId, Long courseId, boolean enrolled) {}
@@ -0,0 +1,17 @@
+package com.arms.platform.course;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional(readOnly = true)
+public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
+  Optional<Enrollment> findByUserIdAndCourseId(Long userId, Long courseId);
+
+  @Query("SELECT c FROM Enrollment e JOIN e.course c WHERE e.user.id = ?1 AND e.isActive = true ORDER BY c.code")
+  List<Course> findActiveCourses(Long userId);
+
+  @Query("SELECT e.course.id FROM Enrollment e WHERE e.user.id = ?1 AND e.isActive = true")
+  List<Long> findActiveCourseIds(Long userId);
+}
@@ -0,0 +1,69 @@
+package com.arms.platform.course;
+
+import com.arms.platform.cache.CacheInvalidatedEvent;
+import com.arms.platform.cache.InvalidationBus;
+import com.arms.platform.user.Role;
+import com.arms.platform.user.User;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+@Service
+public class EnrollmentService {
+  private final EnrollmentRepository enrollments;
+  private final CourseRepository courses;
+  private final CourseStatsService stats;
+  private final TransactionTemplate tx;
+  private final ApplicationEventPublisher events;
+  private final InvalidationBus bus;
+
+  public EnrollmentService(EnrollmentRepository enrollments, CourseRepository courses, CourseStatsService stats,
+                           PlatformTransactionManager txManager, ApplicationEventPublisher events, InvalidationBus bus) {
+    this.enrollments = enrollments; this.courses = courses; this.stats = stats; this.events = events; this.bus = bus;
+    this.tx = new TransactionTemplate(txManager);
+  }
+
+  public List<Course> coursesOf(User user) {
+    return enrollments.findActiveCourses(user.getId());
+  }
+
+  // Idempotent; a concurrent enroll of the same pair loses on the unique constraint and counts as done
+  public void enroll(User user, Long courseId) {
+    try {
+      tx.executeWithoutResult(s -> {
+        Course course = courses.findById(courseId).orElseThrow(() -> new IllegalArgumentException("Course not found"));
+        Enrollment e = enrollments.findByUserIdAndCourseId(user.getId(), courseId).orElse(null);
+        if (e != null && e.isActive()) return;
+        if (e == null) enrollments.save(new Enrollment(user, course));
+        else e.setActive(true);
+        stats.add(courseId, 0, students(user));
+        bus.publish(CacheInvalidatedEvent.ENROLLMENT, user.getId());
+      });
+    } catch (DataIntegrityViolationException ignored) {
+      // already enrolled
+    }
+    events.publishEvent(new EnrollmentChangedEvent(user.getId(), courseId, true));
+  }
+
+  public void unenroll(User user, Long courseId) {
+    boolean changed = Boolean.TRUE.equals(tx.execute(s -> enrollments.findByUserIdAndCourseId(user.getId(), courseId)
+      .filter(Enrollment::isActive)
+      .map(e -> {
+        e.setActive(false);
+        stats.add(courseId, 0, -students(user));
+        bus.publish(CacheInvalidatedEvent.ENROLLMENT, user.getId());
+        return true;
+      })
+      .orElse(false)));
+    if (changed) events.publishEvent(new EnrollmentChangedEvent(user.getId(), courseId, false));
+  }
+
+  // studentCount counts students only; a later role change is corrected by reconciliation
+  private static long students(User user) {
+    return user.getRole() == Role.STUDENT ? 1 : 0;
+  }
+}
@@ -0,0 +1,31 @@
+package com.arms.platform.dashboard;
+
+import com.arms.platform.user.User;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/dashboard")
+public class DashboardController {
+  private final DashboardService dashboard;
+
+  public DashboardController(DashboardService dashboard) { this.dashboard = dashboard; }
+
+  // Start page data in one round trip (see DashboardService); parts named in "missing" were too slow
+  // or failed and should be fetched from their own endpoints. No @QueryBudget: the queries run on the
+  // dashboard pool, not on the request thread.
+  @GetMapping
+  public ResponseEntity<?> dashboard(@RequestParam(defaultValue="5") int news,
+                                     @RequestParam(defaultValue="10") int rankings) {
+    if (news < 1 || news > 50 || rankings < 1 || rankings > 100) {
+      return ResponseEntity.badRequest().body(Map.of("error", "news must be between 1 and 50, rankings between 1 and 100"));
+    }
+    Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+    User user = auth != null && auth.getPrincipal() instanceof User u ? u : null;
+    return ResponseEntity.ok(dashboard.load(user, news, rankings));
+  }
+}
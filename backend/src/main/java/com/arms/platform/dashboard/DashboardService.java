@@ -0,0 +1,166 @@
+package com.arms.platform.dashboard;
+
+import com.arms.platform.course.CourseStatsService;
+import com.arms.platform.material.MaterialRepository;
+import com.arms.platform.news.News;
+import com.arms.platform.news.NewsReadService;
+import com.arms.platform.news.NewsRepository;
+import com.arms.platform.news.NewsType;
+import com.arms.platform.user.Role;
+import com.arms.platform.user.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Everything the start page needs in one response: the course catalog, recent news, top uploaders and,
+// when signed in, the user and their unread news count. The parts are independent, so they run at the
+// same time on a bounded pool (app.dashboard.threads, app.dashboard.queue) and the response takes as
+// long as the slowest part rather than the sum.
+//
+// Each part gets app.dashboard.timeout-ms, or app.dashboard.timeout-ms.<part>, counted from the start of
+// the request. A part that times out, fails or finds the pool full is left out and named in "missing";
+// the client fetches it from its own endpoint. A timed-out part is not interrupted (it may be inside a
+// JDBC call) and keeps its thread until it finishes.
+//
+// Tasks run with the caller's security context, so replica routing (PrimaryStickiness) still sees the
+// user. Their queries are on the pool threads and do not show in the request's Server-Timing.
+@Service
+public class DashboardService {
+  private static final Logger log = LoggerFactory.getLogger(DashboardService.class);
+
+  // The parts that would otherwise serialize entities: news as /api/news shows it, but with only the
+  // public fields of its author, and the signed-in user without credentials. Names may be null.
+  public record Author(Long id, String name, Role role) {}
+  public record NewsItem(Long id, String title, String content, NewsType type, Author author,
+                         LocalDateTime createdAt, LocalDateTime updatedAt, Boolean isActive) {
+    static NewsItem of(News n) {
+      User a = n.getAuthor();
+      return new NewsItem(n.getId(), n.getTitle(), n.getContent(), n.getType(), new Author(a.getId(), a.getName(), a.getRole()),
+        n.getCreatedAt(), n.getUpdatedAt(), n.getIsActive());
+    }
+  }
+  public record CurrentUser(Long id, String name, String email, Role role) {}
+
+  private final CourseStatsService courses;
+  private final NewsRepository news;
+  private final MaterialRepository materials;
+  private final NewsReadService readState;
+  private final MeterRegistry registry;
+  private final Environment env;
+  private final long defaultTimeoutMillis;
+  private final ThreadPoolExecutor pool;
+  private final ExecutorService executor;
+
+  public DashboardService(CourseStatsService courses, NewsRepository news, MaterialRepository materials,
+                          NewsReadService readState, MeterRegistry registry, Environment env,
+                          @Value("${app.dashboard.threads:8}") int threads,
+                          @Value("${app.dashboard.queue:64}") int queue,
+                          @Value("${app.dashboard.timeout-ms:2000}") long defaultTimeoutMillis) {
+    this.courses = courses; this.news = news; this.materials = materials; this.readState = readState;
+    this.registry = registry; this.env = env; this.defaultTimeoutMillis = defaultTimeoutMillis;
+    AtomicInteger n = new AtomicInteger();
+    this.pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queue), r -> {
+      Thread t = new Thread(r, "dashboard-" + n.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    }, new ThreadPoolExecutor.AbortPolicy());
+    this.pool.allowCoreThreadTimeOut(true);
+    this.executor = new DelegatingSecurityContextExecutorService(pool);
+    registry.gaugeCollectionSize("arms.dashboard.queued", List.of(), pool.getQueue());
+  }
+
+  @PreDestroy
+  void shutdown() {
+    pool.shutdownNow();
+  }
+
+  /** The dashboard of the given user, or the public parts only when user is null. */
+  public Map<String, Object> load(User user, int newsLimit, int rankingsLimit) {
+    Map<String, Callable<Object>> parts = new LinkedHashMap<>();
+    parts.put("courses", () -> courses.catalog(null));
+    parts.put("news", () -> news.findRecentActive(PageRequest.of(0, newsLimit)).stream().map(NewsItem::of).toList());
+    parts.put("rankings", () -> materials.topUploaders(PageRequest.of(0, rankingsLimit)));
+    if (user != null) parts.put("unread", () -> readState.unreadCount(user.getId()));
+
+    long start = System.nanoTime();
+    Map<String, Future<Object>> running = new LinkedHashMap<>();
+    Map<String, Object> out = new LinkedHashMap<>();
+    List<String> missing = new ArrayList<>();
+    parts.forEach((name, task) -> {
+      try {
+        running.put(name, executor.submit(timed(name, task)));
+      } catch (RejectedExecutionException e) {
+        record(name, "rejected", 0);
+        missing.add(name);
+      }
+    });
+    if (user != null) {
+      out.put("user", new CurrentUser(user.getId(), user.getName(), user.getEmail(), user.getRole()));
+    }
+    running.forEach((name, f) -> {
+      long left = TimeUnit.MILLISECONDS.toNanos(timeoutMillis(name)) - (System.nanoTime() - start);
+      try {
+        out.put(name, f.get(Math.max(left, 0), TimeUnit.NANOSECONDS));
+      } catch (TimeoutException e) {
+        f.cancel(false);
+        record(name, "timeout", System.nanoTime() - start);
+        missing.add(name);
+      } catch (ExecutionException e) {
+        log.warn("Dashboard part {} failed: {}", name, e.getCause().toString());
+        missing.add(name);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        missing.add(name);
+      }
+    });
+    out.put("missing", missing);
+    return out;
+  }
+
+  private long timeoutMillis(String part) {
+    return env.getProperty("app.dashboard.timeout-ms." + part, Long.class, defaultTimeoutMillis);
+  }
+
+  // Times the task itself; outcomes decided by the caller (timeout, rejected) are recorded there
+  private Callable<Object> timed(String name, Callable<Object> task) {
+    return () -> {
+      long t0 = System.nanoTime();
+      try {
+        Object result = task.call();
+        record(name, "ok", System.nanoTime() - t0);
+        return result;
+      } catch (Exception e) {
+        record(name, "error", System.nanoTime() - t0);
+        throw e;
+      }
+    };
+  }
+
+  private void record(String part, String outcome, long nanos) {
+    Timer.builder("arms.dashboard.part").tag("part", part).tag("outcome", outcome).register(registry)
+      .record(nanos, TimeUnit.NANOSECONDS);
+  }
+}
@@ -0,0 +1,63 @@
+package com.arms.platform.db;
+
+import com.arms.platform.cache.CacheInvalidatedEvent;
+import com.arms.platform.cache.InvalidationBus;
+import com.arms.platform.user.User;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.Authentication;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Read-your-writes: after a user runs a read-write transaction their reads stay on the primary for a
+// short window, so e.g. the course listing right after an upload never comes from a lagging replica.
+//
+// The next request may land on another node, so each write is also announced on the InvalidationBus
+// (region WRITER, in the same notification as the transaction's other entries) and the other nodes start
+// the window when it arrives, which is well before the user's next request can.
+class PrimaryStickiness {
+  private final ConcurrentHashMap<Long, Long> lastWrite = new ConcurrentHashMap<>();
+  private final long windowMillis;
+  private final Supplier<InvalidationBus> bus;
+
+  PrimaryStickiness(long windowMillis, Supplier<InvalidationBus> bus) {
+    this.windowMillis = windowMillis;
+    this.bus = bus;
+  }
+
+  // Called when a read-write transaction fetches its connection
+  void markWrite() {
+    Long uid = currentUserId();
+    if (uid == null) return;
+    lastWrite.put(uid, System.currentTimeMillis());
+    InvalidationBus b = bus.get();
+    if (b != null) b.publish(CacheInvalidatedEvent.WRITER, uid);
+  }
+
+  boolean mustReadPrimary() {
+    Long uid = currentUserId();
+    if (uid == null) return false;
+    Long ts = lastWrite.get(uid);
+    return ts != null && System.currentTimeMillis() - ts < windowMillis;
+  }
+
+  @EventListener
+  public void onWriteElsewhere(CacheInvalidatedEvent e) {
+    if (e.region().equals(CacheInvalidatedEvent.WRITER) && e.id() != null) {
+      lastWrite.put(e.id(), System.currentTimeMillis());
+    }
+  }
+
+  @Scheduled(fixedDelay = 60_000)
+  public void expire() {
+    long cutoff = System.currentTimeMillis() - windowMillis;
+    lastWrite.values().removeIf(ts -> ts < cutoff);
+  }
+
+  private static Long currentUserId() {
+    Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+    return auth != null && auth.getPrincipal() instanceof User u ? u.getId() : null;
+  }
+}
@@ -0,0 +1,101 @@
+package com.arms.platform.db;
+
+import com.arms.platform.cache.InvalidationBus;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Active only when app.datasource.replicas lists one or more JDBC URLs; otherwise Boot's single pool is used
+@Configuration
+@ConditionalOnExpression("'${app.datasource.replicas:}' != ''")
+public class ReplicaDataSourceConfig {
+
+  @Bean(destroyMethod = "close")
+  public ReplicaPool replicaPool(DataSourceProperties props, Environment env, MeterRegistry registry,
+                                 @Value("${app.datasource.replicas}") String replicaUrls,
+                                 @Value("${app.datasource.replica-username:${spring.datasource.username}}") String replicaUser,
+                                 @Value("${app.datasource.replica-password:${spring.datasource.password}}") String replicaPassword,
+                                 @Value("${app.datasource.replica-max-lag-ms:10000}") long maxLagMs) {
+    HikariDataSource primary = pool(env, registry, "primary", props.determineUrl(), props.determineUsername(), props.determinePassword());
+    List<HikariDataSource> replicas = new ArrayList<>();
+    String[] urls = replicaUrls.split(",");
+    for (int i = 0; i < urls.length; i++) {
+      replicas.add(pool(env, registry, "replica-" + i, urls[i].trim(), replicaUser, replicaPassword));
+    }
+    return new ReplicaPool(primary, replicas, maxLagMs);
+  }
+
+  // The bus is looked up on first use: it needs this DataSource itself
+  @Bean
+  PrimaryStickiness primaryStickiness(@Value("${app.datasource.replica-sticky-ms:5000}") long windowMs,
+                                      ObjectProvider<InvalidationBus> bus) {
+    return new PrimaryStickiness(windowMs, bus::getIfAvailable);
+  }
+
+  // Routing happens when a transaction fetches its connection, so every transaction needs a fresh one.
+  // Spring's default (DELAYED_ACQUISITION_AND_HOLD) keeps the first connection until the EntityManager
+  // closes, which with open-in-view is the end of the request: a replica picked for an early read-only
+  // call (e.g. findById before a delete) would then also run that request's writes.
+  @Bean
+  public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+    return props -> props.put(AvailableSettings.CONNECTION_HANDLING,
+        PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(ReplicaPool pool, PrimaryStickiness stickiness) {
+    ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(pool, stickiness);
+    Map<Object, Object> targets = new HashMap<>(pool.replicas());
+    targets.put(ReplicaRoutingDataSource.PRIMARY, pool.primary());
+    routing.setTargetDataSources(targets);
+    routing.setDefaultTargetDataSource(pool.primary());
+    routing.afterPropertiesSet();
+    return new LazyConnectionDataSourceProxy(routing);
+  }
+
+  @Bean
+  public HealthIndicator replicasHealthIndicator(ReplicaPool pool) {
+    return () -> {
+      Map<String, Object> details = new HashMap<>();
+      pool.replicas().keySet().forEach(name -> details.put(name, Map.of(
+          "healthy", pool.isHealthy(name),
+          "lagMs", pool.lagMillis(name) == null ? -1 : pool.lagMillis(name))));
+      // reads fall back to the primary, so a lost replica degrades capacity but not availability
+      return Health.up().withDetails(details).build();
+    };
+  }
+
+  private static HikariDataSource pool(Environment env, MeterRegistry registry, String name,
+                                       String url, String user, String password) {
+    HikariDataSource ds = new HikariDataSource();
+    Binder.get(env).bind("spring.datasource.hikari", Bindable.ofInstance(ds));
+    ds.setPoolName(name);
+    ds.setJdbcUrl(url);
+    ds.setUsername(user);
+    ds.setPassword(password);
+    ds.setMetricRegistry(registry);
+    return ds;
+  }
+}
@@ -0,0 +1,90 @@
+package com.arms.platform.db;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// The primary pool plus replica pools, with a periodic health/lag check that takes replicas in and out of rotation
+public class ReplicaPool {
+  private static final Logger log = LoggerFactory.getLogger(ReplicaPool.class);
+
+  private final HikariDataSource primary;
+  private final Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+  private final Map<String, Boolean> healthy = new ConcurrentHashMap<>();
+  private final Map<String, Long> lagMillis = new ConcurrentHashMap<>();
+  private final String[] names;
+  private final long maxLagMillis;
+  private final AtomicInteger next = new AtomicInteger();
+
+  ReplicaPool(HikariDataSource primary, List<HikariDataSource> replicaPools, long maxLagMillis) {
+    this.primary = primary;
+    this.maxLagMillis = maxLagMillis;
+    for (int i = 0; i < replicaPools.size(); i++) {
+      String name = "replica-" + i;
+      replicas.put(name, replicaPools.get(i));
+      healthy.put(name, Boolean.TRUE);
+    }
+    this.names = replicas.keySet().toArray(new String[0]);
+  }
+
+  HikariDataSource primary() { return primary; }
+  HikariDataSource get(String name) { return replicas.get(name); }
+  Map<String, HikariDataSource> replicas() { return replicas; }
+
+  // Round-robin over healthy replicas; null means "use the primary"
+  String next() {
+    for (int i = 0; i < names.length; i++) {
+      String name = names[Math.floorMod(next.getAndIncrement(), names.length)];
+      if (healthy.get(name)) return name;
+    }
+    return null;
+  }
+
+  void markDown(String name, Exception cause) {
+    if (Boolean.TRUE.equals(healthy.put(name, Boolean.FALSE))) {
+      log.warn("Replica {} taken out of rotation: {}", name, cause.getMessage());
+    }
+  }
+
+  boolean isHealthy(String name) { return healthy.get(name); }
+  Long lagMillis(String name) { return lagMillis.get(name); }
+
+  @Scheduled(fixedDelayString = "${app.datasource.replica-check-interval-ms:5000}")
+  public void checkReplicas() {
+    for (Map.Entry<String, HikariDataSource> e : replicas.entrySet()) {
+      String name = e.getKey();
+      try (Connection c = e.getValue().getConnection(); Statement st = c.createStatement()) {
+        st.setQueryTimeout(2);
+        // NULL on a server that is not replaying WAL (e.g. a local stand-in), which counts as no lag
+        long lag = 0;
+        try (ResultSet rs = st.executeQuery(
+            "SELECT EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000")) {
+          if (rs.next() && rs.getObject(1) != null) lag = (long) rs.getDouble(1);
+        }
+        lagMillis.put(name, lag);
+        if (lag > maxLagMillis) {
+          markDown(name, new IllegalStateException("replication lag " + lag + "ms"));
+        } else if (Boolean.FALSE.equals(healthy.put(name, Boolean.TRUE))) {
+          log.info("Replica {} back in rotation", name);
+        }
+      } catch (Exception ex) {
+        markDown(name, ex);
+      }
+    }
+  }
+
+  void close() {
+    replicas.values().forEach(HikariDataSource::close);
+    primary.close();
+  }
+}
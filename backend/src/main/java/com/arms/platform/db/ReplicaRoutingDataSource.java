@@ -0,0 +1,58 @@
+package com.arms.platform.db;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// Sends connections for @Transactional(readOnly = true) work to a healthy replica, everything else to the
+// primary. Must sit behind a LazyConnectionDataSourceProxy so the read-only flag is known when the
+// physical connection is fetched.
+class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+  static final String PRIMARY = "primary";
+
+  private final ReplicaPool replicas;
+  private final PrimaryStickiness stickiness;
+
+  ReplicaRoutingDataSource(ReplicaPool replicas, PrimaryStickiness stickiness) {
+    this.replicas = replicas; this.stickiness = stickiness;
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    if (!readOnly) {
+      if (TransactionSynchronizationManager.isActualTransactionActive()) stickiness.markWrite();
+      return PRIMARY;
+    }
+    if (stickiness.mustReadPrimary()) return PRIMARY;
+    String replica = replicas.next();
+    return replica == null ? PRIMARY : replica;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    Object key = determineCurrentLookupKey();
+    if (PRIMARY.equals(key)) return replicas.primary().getConnection();
+    try {
+      return replicas.get((String) key).getConnection();
+    } catch (SQLException e) {
+      // replica went away between health checks: take it out of rotation and serve the read from the primary
+      replicas.markDown((String) key, e);
+      return replicas.primary().getConnection();
+    }
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return getConnection();
+  }
+
+  @Override
+  protected DataSource determineTargetDataSource() {
+    Object key = determineCurrentLookupKey();
+    return PRIMARY.equals(key) ? replicas.primary() : replicas.get((String) key);
+  }
+}
@@ -24,6 +24,16 @@ public class CourseDto {
         this.color = color;
         this.createdAt = createdAt;
     }
+
+    // Catalog row: course columns plus the counters kept in course_stats
+    public CourseDto(Long id, String code, String name, String description, long materialCount, long studentCount) {
+        this.id = id;
+        this.code = code;
+        this.name = name;
+        this.description = description;
+        this.materialCount = (int) materialCount;
+        this.studentCount = (int) studentCount;
+    }
     
     // Getters and Setters
     public Long getId() { return id; }
@@ -34,6 +44,9 @@ public class CourseDto {
     
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
+
+    // the course listing has always exposed the name as "title"
+    public String getTitle() { return name; }
     
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
@@ -0,0 +1,37 @@
+package com.arms.platform.feed;
+
+import com.arms.platform.metrics.QueryBudget;
+import com.arms.platform.user.User;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/feed")
+public class FeedController {
+  private final FeedService feed;
+
+  public FeedController(FeedService feed) { this.feed = feed; }
+
+  private User current(){
+    Object p = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+    if (p instanceof User u) return u;
+    throw new RuntimeException("Unauthorized");
+  }
+
+  // New materials in the signed-in user's courses and news, newest first. Pass the previous page's
+  // next as before to continue; next is null on the last page.
+  @GetMapping
+  @QueryBudget(4) // loading the user's timeline, plus one per source when paging past it
+  public ResponseEntity<?> feed(@RequestParam(required=false) String before,
+                                @RequestParam(defaultValue="20") int limit) {
+    if (limit < 1 || limit > 100) return ResponseEntity.badRequest().body(Map.of("error", "limit must be between 1 and 100"));
+    try {
+      return ResponseEntity.ok(feed.read(current().getId(), before, limit));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package com.arms.platform.feed;
+
+import com.arms.platform.material.MaterialUploadedEvent;
+import com.arms.platform.news.NewsPublishedEvent;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+
+// One entry of the activity feed: a material uploaded to one of the user's courses, or a news item.
+// type is the MaterialType or NewsType; course fields are null for news.
+public record FeedItem(Kind kind, Long id, Long courseId, String courseCode, String title, String type,
+                       Long actorId, String actorName, Instant createdAt) {
+  public enum Kind { MATERIAL, NEWS }
+
+  // newest first; kind and id break ties so that cursors are exact
+  static final Comparator<FeedItem> NEWEST_FIRST = Comparator.comparing(FeedItem::createdAt).reversed()
+    .thenComparing(FeedItem::kind)
+    .thenComparing(FeedItem::id, Comparator.reverseOrder());
+
+  static FeedItem of(MaterialUploadedEvent e) {
+    return new FeedItem(Kind.MATERIAL, e.materialId(), e.courseId(), e.courseCode(), e.title(), e.type().name(),
+      e.uploaderId(), e.uploaderName(), micros(e.createdAt()));
+  }
+
+  static FeedItem of(NewsPublishedEvent e) {
+    return new FeedItem(Kind.NEWS, e.newsId(), null, null, e.title(), e.type().name(),
+      e.authorId(), e.authorName(), micros(e.createdAt().atZone(ZoneId.systemDefault()).toInstant()));
+  }
+
+  // PostgreSQL keeps microseconds; an item pushed from a fresh entity must sort (and produce the same
+  // cursor) as it will when later loaded from the database
+  private static Instant micros(Instant t) {
+    return t.truncatedTo(ChronoUnit.MICROS);
+  }
+
+  // Opaque position after this item, e.g. 2026-10-19T08:15:30.123456Z~M4211
+  String cursor() {
+    return createdAt + "~" + kind.name().charAt(0) + id;
+  }
+
+  // A key-only item that sorts exactly where the cursor's item did
+  static FeedItem fromCursor(String cursor) {
+    int sep = cursor.lastIndexOf('~');
+    try {
+      if (sep < 0 || sep + 2 >= cursor.length()) throw new IllegalArgumentException();
+      Kind kind = switch (cursor.charAt(sep + 1)) {
+        case 'M' -> Kind.MATERIAL;
+        case 'N' -> Kind.NEWS;
+        default -> throw new IllegalArgumentException();
+      };
+      return new FeedItem(kind, Long.parseLong(cursor.substring(sep + 2)), null, null, null, null, null, null,
+        Instant.parse(cursor.substring(0, sep)));
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      throw new IllegalArgumentException("invalid cursor");
+    }
+  }
+}
@@ -0,0 +1,252 @@
+package com.arms.platform.feed;
+
+import com.arms.platform.cache.CacheInvalidatedEvent;
+import com.arms.platform.course.EnrollmentChangedEvent;
+import com.arms.platform.course.EnrollmentRepository;
+import com.arms.platform.material.MaterialDeletedEvent;
+import com.arms.platform.material.MaterialRepository;
+import com.arms.platform.material.MaterialUploadedEvent;
+import com.arms.platform.news.NewsPublishedEvent;
+import com.arms.platform.news.NewsRepository;
+import com.arms.platform.news.NewsRetractedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// "My courses" activity feed, fan-out on write. Each active user has a bounded Timeline in memory;
+// a material upload is pushed into the timeline of every resident user enrolled in its course, so a
+// read only merges two short sorted arrays: the user's timeline and one shared timeline of news (news
+// goes to everyone, so it is kept once rather than copied into every timeline).
+//
+// Timelines are loaded on a user's first read (their course ids, then the newest materials of those
+// courses) and dropped least-recently-read first beyond app.feed.max-users, or when the user's
+// enrollments change. Users who are not resident cost nothing on upload; the load query picks up
+// whatever they missed. Timelines keep the newest app.feed.timeline-size items; paging past that reads
+// the older items from the database with the same cursor order.
+@Service
+public class FeedService {
+  private static final Logger log = LoggerFactory.getLogger(FeedService.class);
+
+  public record FeedPage(List<FeedItem> items, String next) {}
+
+  private static final class Resident {
+    final Timeline timeline;
+    final List<Long> courseIds;
+    final CompletableFuture<Void> loaded = new CompletableFuture<>();
+
+    Resident(Timeline timeline, List<Long> courseIds) { this.timeline = timeline; this.courseIds = courseIds; }
+  }
+
+  private final EnrollmentRepository enrollments;
+  private final MaterialRepository materials;
+  private final NewsRepository newsRepository;
+  private final int capacity;
+  private final int maxUsers;
+  private final Timeline news;
+
+  // both guarded by residents; access order makes the eldest entry the least recently read
+  private final LinkedHashMap<Long, Resident> residents = new LinkedHashMap<>(256, 0.75f, true);
+  private final Map<Long, Set<Resident>> subscribers = new HashMap<>();
+  private long enrollmentChanges;
+
+  public FeedService(EnrollmentRepository enrollments, MaterialRepository materials, NewsRepository newsRepository,
+                     @Value("${app.feed.timeline-size:200}") int capacity,
+                     @Value("${app.feed.max-users:10000}") int maxUsers) {
+    this.enrollments = enrollments; this.materials = materials; this.newsRepository = newsRepository;
+    this.capacity = capacity; this.maxUsers = maxUsers;
+    this.news = new Timeline(capacity);
+  }
+
+  /** Newest first, starting after the cursor (a previous page's next), or from the top when it is null. */
+  public FeedPage read(Long userId, String before, int limit) {
+    FeedItem cursor = before == null || before.isBlank() ? null : FeedItem.fromCursor(before);
+    Resident r = residentOf(userId);
+    List<FeedItem> mine = page(r.timeline, cursor, limit, () -> olderMaterials(r.courseIds, cursor, limit));
+    List<FeedItem> global = page(news, cursor, limit, () -> olderNews(cursor, limit));
+    List<FeedItem> items = new ArrayList<>(limit);
+    for (int i = 0, j = 0; items.size() < limit && (i < mine.size() || j < global.size()); ) {
+      if (j == global.size() || (i < mine.size() && FeedItem.NEWEST_FIRST.compare(mine.get(i), global.get(j)) < 0)) {
+        items.add(mine.get(i++));
+      } else {
+        items.add(global.get(j++));
+      }
+    }
+    return new FeedPage(items, items.size() == limit ? items.get(limit - 1).cursor() : null);
+  }
+
+  // A page from a timeline, or from the database once it runs past what a truncated timeline still holds
+  private static List<FeedItem> page(Timeline t, FeedItem cursor, int limit, Supplier<List<FeedItem>> older) {
+    List<FeedItem> out = new ArrayList<>(limit);
+    t.page(cursor, limit, out);
+    return out.size() < limit && t.isTruncated() ? older.get() : out;
+  }
+
+  // Keyset continuation of NEWEST_FIRST: at the cursor's timestamp materials sort before news, then by id
+  private List<FeedItem> olderMaterials(List<Long> courseIds, FeedItem cursor, int limit) {
+    if (courseIds.isEmpty()) return List.of();
+    List<MaterialUploadedEvent> rows = cursor == null
+      ? materials.findLatestForCourses(courseIds, PageRequest.ofSize(limit))
+      : materials.findLatestForCoursesBefore(courseIds, cursor.createdAt(),
+          cursor.kind() == FeedItem.Kind.MATERIAL ? cursor.id() : Long.MIN_VALUE, PageRequest.ofSize(limit));
+    return rows.stream().map(FeedItem::of).toList();
+  }
+
+  private List<FeedItem> olderNews(FeedItem cursor, int limit) {
+    List<NewsPublishedEvent> rows = cursor == null
+      ? newsRepository.findLatestPublished(PageRequest.ofSize(limit))
+      : newsRepository.findLatestPublishedBefore(LocalDateTime.ofInstant(cursor.createdAt(), ZoneId.systemDefault()),
+          cursor.kind() == FeedItem.Kind.NEWS ? cursor.id() : Long.MAX_VALUE, PageRequest.ofSize(limit));
+    return rows.stream().map(FeedItem::of).toList();
+  }
+
+  public int residentUsers() {
+    synchronized (residents) { return residents.size(); }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void loadNews() {
+    long t0 = System.nanoTime();
+    news.reset(newsRepository.findLatestPublished(PageRequest.ofSize(capacity)).stream().map(FeedItem::of).toList());
+    log.info("Activity feed loaded {} news item(s) in {} ms", news.size(), (System.nanoTime() - t0) / 1_000_000);
+  }
+
+  // fallbackExecution: the job worker publishes outside any transaction
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onMaterialUploaded(MaterialUploadedEvent e) {
+    FeedItem item = FeedItem.of(e);
+    fanOut(e.courseId(), t -> t.upsert(item));
+  }
+
+  @EventListener
+  public void onMaterialDeleted(MaterialDeletedEvent e) {
+    fanOut(e.courseId(), t -> t.remove(FeedItem.Kind.MATERIAL, e.materialId()));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onNewsPublished(NewsPublishedEvent e) {
+    news.upsert(FeedItem.of(e));
+  }
+
+  @EventListener
+  public void onNewsRetracted(NewsRetractedEvent e) {
+    news.remove(FeedItem.Kind.NEWS, e.newsId());
+  }
+
+  // The course set changed; the next read loads a fresh timeline
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEnrollmentChanged(EnrollmentChangedEvent e) {
+    synchronized (residents) {
+      enrollmentChanges++;
+      Resident r = residents.remove(e.userId());
+      if (r != null) unsubscribe(r);
+    }
+  }
+
+  // Changes made on another node (see InvalidationBus); single news items and materials arrive as their
+  // own events via RemoteNewsRelay and RemoteMaterialRelay. Missed materials drop every timeline.
+  @EventListener
+  public void onInvalidated(CacheInvalidatedEvent e) {
+    if (e.affects(CacheInvalidatedEvent.NEWS) && e.wholeRegion()) loadNews();
+    if (!e.affects(CacheInvalidatedEvent.ENROLLMENT) && !(e.affects(CacheInvalidatedEvent.MATERIAL) && e.wholeRegion())) return;
+    synchronized (residents) {
+      enrollmentChanges++;
+      if (e.wholeRegion()) {
+        residents.clear();
+        subscribers.clear();
+      } else {
+        Resident r = residents.remove(e.id());
+        if (r != null) unsubscribe(r);
+      }
+    }
+  }
+
+  // A null course (a delete from another node, see MaterialDeletedEvent) reaches every timeline
+  private void fanOut(Long courseId, Consumer<Timeline> op) {
+    List<Resident> targets;
+    synchronized (residents) {
+      Set<Resident> s = courseId == null ? new HashSet<>(residents.values()) : subscribers.get(courseId);
+      if (s == null) return;
+      targets = new ArrayList<>(s);
+    }
+    for (Resident r : targets) op.accept(r.timeline);
+  }
+
+  private Resident residentOf(Long userId) {
+    Resident r;
+    synchronized (residents) { r = residents.get(userId); }
+    if (r == null) r = load(userId);
+    r.loaded.join();
+    return r;
+  }
+
+  // Registers the timeline before querying materials, so uploads committed meanwhile are pushed into
+  // it; upsert makes the overlap with the query harmless
+  private Resident load(Long userId) {
+    Resident r;
+    for (int attempt = 0; ; attempt++) {
+      long seen;
+      synchronized (residents) { seen = enrollmentChanges; }
+      List<Long> courseIds = enrollments.findActiveCourseIds(userId);
+      synchronized (residents) {
+        Resident existing = residents.get(userId);
+        if (existing != null) return existing;
+        // an enrollment change landed while reading the course ids; they may be stale
+        if (seen != enrollmentChanges && attempt < 2) continue;
+        r = new Resident(new Timeline(capacity), courseIds);
+        residents.put(userId, r);
+        for (Long c : courseIds) subscribers.computeIfAbsent(c, k -> new HashSet<>()).add(r);
+        evictOverflow();
+      }
+      break;
+    }
+    try {
+      if (!r.courseIds.isEmpty()) {
+        List<MaterialUploadedEvent> latest = materials.findLatestForCourses(r.courseIds, PageRequest.ofSize(capacity));
+        for (MaterialUploadedEvent e : latest) r.timeline.upsert(FeedItem.of(e));
+        if (latest.size() >= capacity) r.timeline.markTruncated(); // older ones are left in the database
+      }
+      r.loaded.complete(null);
+    } catch (RuntimeException e) {
+      synchronized (residents) {
+        if (residents.remove(userId, r)) unsubscribe(r);
+      }
+      r.loaded.completeExceptionally(e);
+      throw e;
+    }
+    return r;
+  }
+
+  private void evictOverflow() {
+    for (Iterator<Resident> it = residents.values().iterator(); residents.size() > maxUsers && it.hasNext(); ) {
+      Resident eldest = it.next();
+      it.remove();
+      unsubscribe(eldest);
+    }
+  }
+
+  private void unsubscribe(Resident r) {
+    for (Long c : r.courseIds) {
+      Set<Resident> s = subscribers.get(c);
+      if (s != null && s.remove(r) && s.isEmpty()) subscribers.remove(c);
+    }
+  }
+}
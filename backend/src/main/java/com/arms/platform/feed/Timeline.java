@@ -0,0 +1,79 @@
+package com.arms.platform.feed;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+// Bounded newest-first list of feed items. Inserts keep the array sorted (new activity lands at the
+// front, so the shift is a short arraycopy) and the oldest item falls off once full. A page read
+// binary-searches the cursor and copies, O(log capacity + page size). Once anything older than the
+// last kept item has been dropped (or was never loaded) the timeline is truncated, and a page that
+// runs past its end has to continue from the database.
+final class Timeline {
+  private final FeedItem[] items;
+  private int size;
+  private boolean truncated;
+
+  Timeline(int capacity) {
+    this.items = new FeedItem[capacity];
+  }
+
+  // Replaces an item with the same kind and id, so re-published events don't duplicate entries
+  synchronized void upsert(FeedItem item) {
+    remove(item.kind(), item.id());
+    int i = after(item);
+    if (i == items.length) { truncated = true; return; } // older than everything kept
+    if (size == items.length) truncated = true;
+    int last = Math.min(size, items.length - 1);
+    System.arraycopy(items, i, items, i + 1, last - i);
+    items[i] = item;
+    if (size < items.length) size++;
+  }
+
+  // Replaces the whole content in one step, so readers never see it half loaded
+  synchronized void reset(Collection<FeedItem> fresh) {
+    Arrays.fill(items, null);
+    size = 0;
+    truncated = false;
+    fresh.forEach(this::upsert);
+    if (fresh.size() >= items.length) truncated = true; // loaded a full page; there may be more
+  }
+
+  synchronized void markTruncated() {
+    truncated = true;
+  }
+
+  synchronized boolean isTruncated() {
+    return truncated;
+  }
+
+  synchronized void remove(FeedItem.Kind kind, Long id) {
+    for (int i = 0; i < size; i++) {
+      if (items[i].kind() == kind && items[i].id().equals(id)) {
+        System.arraycopy(items, i + 1, items, i, size - i - 1);
+        items[--size] = null;
+        return;
+      }
+    }
+  }
+
+  // Appends up to limit items that sort after the cursor (all items when it is null)
+  synchronized void page(FeedItem cursor, int limit, List<FeedItem> out) {
+    for (int i = cursor == null ? 0 : after(cursor); i < size && limit > 0; i++, limit--) out.add(items[i]);
+  }
+
+  synchronized int size() {
+    return size;
+  }
+
+  // index of the first item that sorts after key
+  private int after(FeedItem key) {
+    int lo = 0, hi = size;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (FeedItem.NEWEST_FIRST.compare(items[mid], key) <= 0) lo = mid + 1;
+      else hi = mid;
+    }
+    return lo;
+  }
+}
@@ -0,0 +1,220 @@
+package com.arms.platform.material;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+// A ZIP written straight to the response, byte-for-byte the same every time for the same entries:
+// fixed entry order, names and timestamps, and a fixed deflate level. That is what makes the ETag
+// strong and lets a Range request be answered by regenerating the archive and emitting only the
+// requested window.
+//
+// STORED entries carry their CRC in the local header (recorded by the material job, see HashStage),
+// so their position in the archive is known and a window that starts past them skips the file without
+// reading it. DEFLATED entries stream with a trailing data descriptor; their compressed size is also
+// recorded by the job (DeflateSizeStage), so they can be skipped the same way.
+//
+// Classic (non-ZIP64) format, so archives are capped at 4 GiB and 65535 entries.
+final class CourseArchive {
+  static final long MAX_SIZE = 0xFFFF_FFFFL;
+  static final int MAX_ENTRIES = 0xFFFF;
+
+  record Entry(long materialId, String name, Path file, long size, boolean stored, LocalDateTime modified,
+               long crc, long compressedSize) {
+    // compressedSize < 0: a DEFLATED entry whose size has not been recorded, so its length is unknown
+    boolean lengthKnown() { return stored || compressedSize >= 0; }
+  }
+
+  // Reports what was learned about a DEFLATED entry while writing it
+  interface Learned { void entry(long materialId, long size, long crc, long compressedSize); }
+
+  private static final int LOCAL = 30, CENTRAL = 46, END = 22, DESCRIPTOR = 16;
+  private static final int FLAG_UTF8 = 1 << 11, FLAG_DESCRIPTOR = 1 << 3;
+
+  private CourseArchive() {}
+
+  // Total archive length, or -1 if some DEFLATED entry's size is not known yet
+  static long length(List<Entry> entries) {
+    long n = END;
+    for (Entry e : entries) {
+      if (!e.lengthKnown()) return -1;
+      int name = e.name().getBytes(StandardCharsets.UTF_8).length;
+      n += LOCAL + name + e.compressedSize() + (e.stored() ? 0 : DESCRIPTOR) + CENTRAL + name;
+    }
+    return n;
+  }
+
+  /** Writes bytes [from, to) of the archive (to = Long.MAX_VALUE for "until the end"); returns the bytes sent. */
+  static long write(List<Entry> entries, OutputStream sink, long from, long to, Learned learned) throws IOException {
+    Window out = new Window(sink, from, to);
+    long[] offsets = new long[entries.size()];
+    long[] crcs = new long[entries.size()];
+    long[] csizes = new long[entries.size()];
+    byte[] buf = new byte[64 * 1024];
+
+    for (int i = 0; i < entries.size(); i++) {
+      Entry e = entries.get(i);
+      byte[] name = e.name().getBytes(StandardCharsets.UTF_8);
+      offsets[i] = out.position();
+      int flags = FLAG_UTF8 | (e.stored() ? 0 : FLAG_DESCRIPTOR);
+      ByteBuffer h = le(LOCAL + name.length);
+      h.putInt(0x04034b50).putShort((short) 20).putShort((short) flags)
+        .putShort((short) (e.stored() ? 0 : 8)).putInt(dosTime(e.modified()))
+        .putInt(e.stored() ? (int) e.crc() : 0)
+        .putInt(e.stored() ? (int) e.size() : 0)
+        .putInt(e.stored() ? (int) e.size() : 0)
+        .putShort((short) name.length).putShort((short) 0).put(name);
+      out.write(h.array());
+
+      if (e.stored()) {
+        storedData(e, out, buf);
+        crcs[i] = e.crc();
+        csizes[i] = e.size();
+      } else if (e.lengthKnown() && out.skippable(e.compressedSize())) {
+        out.skip(e.compressedSize());
+        crcs[i] = e.crc();
+        csizes[i] = e.compressedSize();
+      } else {
+        long start = out.position();
+        CRC32 crc = new CRC32();
+        deflate(e.file(), out.unclosable(), crc, buf);
+        crcs[i] = crc.getValue();
+        csizes[i] = out.position() - start;
+        learned.entry(e.materialId(), e.size(), crcs[i], csizes[i]);
+      }
+      if (!e.stored()) {
+        ByteBuffer d = le(DESCRIPTOR);
+        d.putInt(0x08074b50).putInt((int) crcs[i]).putInt((int) csizes[i]).putInt((int) e.size());
+        out.write(d.array());
+      }
+      if (out.done()) return out.sent();
+    }
+
+    long cdStart = out.position();
+    for (int i = 0; i < entries.size(); i++) {
+      Entry e = entries.get(i);
+      byte[] name = e.name().getBytes(StandardCharsets.UTF_8);
+      int flags = FLAG_UTF8 | (e.stored() ? 0 : FLAG_DESCRIPTOR);
+      ByteBuffer c = le(CENTRAL + name.length);
+      c.putInt(0x02014b50).putShort((short) 20).putShort((short) 20).putShort((short) flags)
+        .putShort((short) (e.stored() ? 0 : 8)).putInt(dosTime(e.modified()))
+        .putInt((int) crcs[i]).putInt((int) csizes[i]).putInt((int) e.size())
+        .putShort((short) name.length).putShort((short) 0).putShort((short) 0)
+        .putShort((short) 0).putShort((short) 0).putInt(0).putInt((int) offsets[i]).put(name);
+      out.write(c.array());
+    }
+    ByteBuffer end = le(END);
+    end.putInt(0x06054b50).putShort((short) 0).putShort((short) 0)
+      .putShort((short) entries.size()).putShort((short) entries.size())
+      .putInt((int) (out.position() - cdStart)).putInt((int) cdStart).putShort((short) 0);
+    out.write(end.array());
+    return out.sent();
+  }
+
+  // Raw-deflate size of a file as write() would produce it; computed by the material job (see DeflateSizeStage)
+  static long deflatedSize(Path file) throws IOException {
+    long[] n = {0};
+    deflate(file, new OutputStream() {
+      @Override public void write(int b) { n[0]++; }
+      @Override public void write(byte[] b, int off, int len) { n[0] += len; }
+    }, new CRC32(), new byte[64 * 1024]);
+    return n[0];
+  }
+
+  // The one place the deflate settings live: a precomputed size is only valid if it is produced the same way
+  private static void deflate(Path file, OutputStream sink, CRC32 crc, byte[] buf) throws IOException {
+    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    try (InputStream in = Files.newInputStream(file)) {
+      DeflaterOutputStream dos = new DeflaterOutputStream(sink, deflater, buf.length);
+      int n;
+      while ((n = in.read(buf)) > 0) { crc.update(buf, 0, n); dos.write(buf, 0, n); }
+      dos.finish();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  // Copies only the part of the file that falls inside the window, via positional channel reads
+  private static void storedData(Entry e, Window out, byte[] buf) throws IOException {
+    if (out.skippable(e.size())) { out.skip(e.size()); return; }
+    try (FileChannel ch = FileChannel.open(e.file(), StandardOpenOption.READ)) {
+      long skip = Math.max(0, out.from - out.position());
+      out.skip(skip);
+      long remaining = Math.min(e.size() - skip, out.to - out.position());
+      for (long done = 0; done < remaining; ) {
+        long n = ch.transferTo(skip + done, remaining - done, out.channel());
+        if (n <= 0) throw new IOException("file shorter than recorded size: " + e.file());
+        done += n;
+      }
+      out.advance(remaining);
+      out.skip(e.size() - skip - remaining);
+    }
+  }
+
+  private static ByteBuffer le(int size) {
+    return ByteBuffer.allocate(size).order(java.nio.ByteOrder.LITTLE_ENDIAN);
+  }
+
+  private static int dosTime(LocalDateTime t) {
+    if (t.getYear() < 1980) t = LocalDateTime.of(1980, 1, 1, 0, 0);
+    return (t.getYear() - 1980) << 25 | t.getMonthValue() << 21 | t.getDayOfMonth() << 16
+      | t.getHour() << 11 | t.getMinute() << 5 | t.getSecond() >> 1;
+  }
+
+  static LocalDateTime utc(java.time.Instant i) {
+    return LocalDateTime.ofInstant(i, ZoneOffset.UTC);
+  }
+
+  // Tracks the archive position and forwards only bytes inside [from, to)
+  private static final class Window extends OutputStream {
+    private final OutputStream sink;
+    private final WritableByteChannel channel;
+    private final long from, to;
+    private long pos;
+
+    Window(OutputStream sink, long from, long to) {
+      this.sink = sink; this.channel = Channels.newChannel(sink); this.from = from; this.to = to;
+    }
+
+    long position() { return pos; }
+    long sent() { return Math.max(0, Math.min(pos, to) - from); }
+    boolean done() { return pos >= to; }
+    // true if the next n bytes lie wholly outside the window
+    boolean skippable(long n) { return pos + n <= from || pos >= to; }
+    void skip(long n) { pos += n; }
+    void advance(long n) { pos += n; }
+    WritableByteChannel channel() { return channel; }
+
+    @Override public void write(int b) throws IOException {
+      if (pos >= from && pos < to) sink.write(b);
+      pos++;
+    }
+
+    @Override public void write(byte[] b, int off, int len) throws IOException {
+      long start = Math.max(pos, from), end = Math.min(pos + len, to);
+      if (start < end) sink.write(b, off + (int) (start - pos), (int) (end - start));
+      pos += len;
+    }
+
+    OutputStream unclosable() {
+      return new OutputStream() {
+        @Override public void write(int b) throws IOException { Window.this.write(b); }
+        @Override public void write(byte[] b, int off, int len) throws IOException { Window.this.write(b, off, len); }
+      };
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package com.arms.platform.material;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+// Records how large the file is once deflated into a course archive, so the archive's length (and with
+// it Content-Length and Range) is known before its first download on any node. Formats the archive
+// stores as-is need nothing beyond the CRC from HashStage.
+@Component
+@Order(15)
+public class DeflateSizeStage implements MaterialProcessingStage {
+  @Override
+  public String name(){ return "deflate-size"; }
+
+  @Override
+  public void process(Material material, Path file) throws Exception {
+    material.setDeflatedSize(MaterialArchiveService.stored(material) ? null : CourseArchive.deflatedSize(file));
+  }
+}
@@ -0,0 +1,32 @@
+package com.arms.platform.material;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.zip.CRC32;
+
+// SHA-256 for dedup and the CRC-32 a course archive puts in its STORED entries' headers, in one read
+@Component
+@Order(10)
+public class HashStage implements MaterialProcessingStage {
+  @Override
+  public String name(){ return "hash"; }
+
+  @Override
+  public void process(Material material, Path file) throws Exception {
+    MessageDigest md = MessageDigest.getInstance("SHA-256");
+    CRC32 crc = new CRC32();
+    byte[] buf = new byte[64 * 1024];
+    try (InputStream in = Files.newInputStream(file)) {
+      int n;
+      while ((n = in.read(buf)) > 0) { md.update(buf, 0, n); crc.update(buf, 0, n); }
+    }
+    material.setSha256(HexFormat.of().formatHex(md.digest()));
+    material.setCrc32(crc.getValue());
+  }
+}
@@ -9,10 +9,15 @@ import java.time.Instant;
 @Entity
 @Table(name="materials", indexes = {
   @Index(columnList="createdAt"),
-  @Index(columnList="course_id")
+  @Index(columnList="course_id"),
+  @Index(columnList="path")
 })
 public class Material {
-  @Id @GeneratedValue(strategy=GenerationType.IDENTITY)
+  // Sequence with a pooled optimizer (one nextval per 50 rows) instead of IDENTITY, so inserts can be
+  // JDBC-batched; see migrate-id-sequences.sql for databases created with the identity column
+  @Id
+  @GeneratedValue(strategy=GenerationType.SEQUENCE, generator="materials_seq")
+  @SequenceGenerator(name="materials_seq", sequenceName="materials_id_seq", allocationSize=50)
   private Long id;
 
   @ManyToOne(optional=false, fetch=FetchType.LAZY)
@@ -35,6 +40,17 @@ public class Material {
 
   private Long size;
 
+  // filled in asynchronously by the processing stages (see MaterialJobWorker)
+  @Column(length=64)
+  private String sha256;
+
+  private String contentType;
+
+  // CRC-32 and raw-deflate size of the file, so a course archive knows its length up front (see
+  // CourseArchive); deflatedSize stays null for formats the archive stores as-is
+  private Long crc32;
+  private Long deflatedSize;
+
   @Column(nullable=false, updatable=false)
   private Instant createdAt = Instant.now();
 
@@ -51,5 +67,13 @@ public class Material {
   public void setPath(String p){this.path=p;}
   public Long getSize(){return size;}
   public void setSize(Long s){this.size=s;}
+  public String getSha256(){return sha256;}
+  public void setSha256(String h){this.sha256=h;}
+  public String getContentType(){return contentType;}
+  public void setContentType(String c){this.contentType=c;}
+  public Long getCrc32(){return crc32;}
+  public void setCrc32(Long c){this.crc32=c;}
+  public Long getDeflatedSize(){return deflatedSize;}
+  public void setDeflatedSize(Long d){this.deflatedSize=d;}
   public Instant getCreatedAt(){return createdAt;}
 }
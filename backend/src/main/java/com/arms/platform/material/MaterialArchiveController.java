@@ -0,0 +1,100 @@
+package com.arms.platform.material;
+
+import com.arms.platform.course.Course;
+import com.arms.platform.course.CourseRepository;
+import com.arms.platform.metrics.QueryBudget;
+import com.arms.platform.metrics.StorageMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@RestController
+@RequestMapping("/api")
+public class MaterialArchiveController {
+  private static final Pattern RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+
+  private final MaterialArchiveService archives;
+  private final CourseRepository courses;
+  private final StorageMetrics storageMetrics;
+
+  public MaterialArchiveController(MaterialArchiveService archives, CourseRepository courses, StorageMetrics storageMetrics){
+    this.archives = archives; this.courses = courses; this.storageMetrics = storageMetrics;
+  }
+
+  // All (or some) of a course's files as one ZIP, streamed as it is generated.
+  // Conditional GET and single byte ranges are honoured whenever the archive length is known, which is
+  // always once its materials have been processed; until then it goes out chunked.
+  @GetMapping("/courses/{courseId}/materials/archive")
+  @QueryBudget(2)
+  public void archive(@PathVariable Long courseId,
+                      @RequestParam(name="type", required=false) List<MaterialType> types,
+                      @RequestParam(name="ids", required=false) List<Long> ids,
+                      HttpServletRequest req, HttpServletResponse res) throws IOException {
+    Course course = courses.findById(courseId).orElse(null);
+    if (course == null) { res.sendError(404); return; }
+    MaterialArchiveService.Archive a;
+    try {
+      a = archives.archive(courseId, types == null ? List.of() : types, ids == null ? List.of() : ids);
+    } catch (IllegalArgumentException e) {
+      res.sendError(413, e.getMessage());
+      return;
+    }
+
+    res.setHeader("ETag", a.etag());
+    res.setHeader("Cache-Control", "private, no-cache");
+    if (a.etag().equals(req.getHeader("If-None-Match"))) { res.setStatus(304); return; }
+
+    long length = a.length();
+    long from = 0, to = length < 0 ? Long.MAX_VALUE : length;
+    String range = req.getHeader("Range");
+    String ifRange = req.getHeader("If-Range");
+    if (length >= 0) {
+      res.setHeader("Accept-Ranges", "bytes");
+      if (range != null && (ifRange == null || ifRange.equals(a.etag()))) {
+        long[] r = parseRange(range, length);
+        if (r == null) {
+          res.setHeader("Content-Range", "bytes */" + length);
+          res.sendError(416);
+          return;
+        }
+        if (r.length == 2) {
+          from = r[0]; to = r[1];
+          res.setStatus(206);
+          res.setHeader("Content-Range", "bytes " + from + "-" + (to - 1) + "/" + length);
+        }
+      }
+      res.setContentLengthLong(to - from);
+    }
+    res.setContentType("application/zip");
+    res.setHeader("Content-Disposition", "attachment; filename=\"" + course.getCode().replaceAll("[^A-Za-z0-9._-]", "_") + "-materials.zip\"");
+
+    long t0 = System.nanoTime();
+    OutputStream out = res.getOutputStream();
+    long sent = CourseArchive.write(a.entries(), out, from, to, archives::learned);
+    out.flush();
+    storageMetrics.recordDownload("archive", sent, System.nanoTime() - t0);
+  }
+
+  // {from, toExclusive}; empty array = ignore the header (serve everything); null = unsatisfiable
+  static long[] parseRange(String header, long length) {
+    Matcher m = RANGE.matcher(header.trim());
+    if (!m.matches() || (m.group(1).isEmpty() && m.group(2).isEmpty())) return new long[0]; // incl. multi-range
+    long from, to;
+    if (m.group(1).isEmpty()) { // suffix: last N bytes
+      long n = Long.parseLong(m.group(2));
+      if (n == 0) return null;
+      from = Math.max(0, length - n); to = length;
+    } else {
+      from = Long.parseLong(m.group(1));
+      to = m.group(2).isEmpty() ? length : Math.min(Long.parseLong(m.group(2)) + 1, length);
+    }
+    return from >= length || from >= to ? null : new long[]{from, to};
+  }
+}
@@ -0,0 +1,127 @@
+package com.arms.platform.material;
+
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+// Builds the entry list for a course archive (see CourseArchive). CRCs and deflated sizes come from the
+// material row, where the processing job records them (HashStage, DeflateSizeStage); a material still
+// in processing falls back to what this node has computed or learned itself. Uploaded files never change
+// in place (every upload gets a fresh UUID name), so a material id plus its size is a safe cache key.
+@Service
+public class MaterialArchiveService {
+  // formats that are already compressed; deflating them again costs CPU and saves nothing
+  private static final Set<String> COMPRESSED = Set.of(
+    "pdf","pptx","docx","xlsx","odt","odp","ods","zip","jar","gz","tgz","bz2","xz","7z","rar",
+    "jpg","jpeg","png","gif","webp","heic","mp3","mp4","m4a","mov","mkv","avi","webm","ipynb.gz");
+  private static final int CACHE_ENTRIES = 100_000;
+
+  record Archive(List<CourseArchive.Entry> entries, String etag, long length) {}
+
+  // material id -> {size, crc, deflated size or -1}
+  private final Map<Long, long[]> stats = new LinkedHashMap<>(1024, 0.75f, true) {
+    @Override protected boolean removeEldestEntry(Map.Entry<Long, long[]> eldest) { return size() > CACHE_ENTRIES; }
+  };
+
+  private final MaterialRepository materials;
+  private final MaterialJobWorker files;
+
+  public MaterialArchiveService(MaterialRepository materials, MaterialJobWorker files) {
+    this.materials = materials; this.files = files;
+  }
+
+  Archive archive(Long courseId, Collection<MaterialType> types, Collection<Long> ids) throws IOException {
+    List<CourseArchive.Entry> entries = new ArrayList<>();
+    Set<String> names = new HashSet<>();
+    MessageDigest etag = sha256();
+    etag.update("zip-v1".getBytes(StandardCharsets.UTF_8));
+    for (Material m : materials.findByCourseIdOrderByIdAsc(courseId)) {
+      if (!types.isEmpty() && !types.contains(m.getType())) continue;
+      if (!ids.isEmpty() && !ids.contains(m.getId())) continue;
+      Path file = files.fileOf(m);
+      if (!Files.isRegularFile(file)) continue;
+      long size = Files.size(file);
+      String ext = ext(m);
+      String name = entryName(m, ext, names);
+      boolean stored = COMPRESSED.contains(ext);
+      long[] s = stats(m.getId(), size);
+      long crc = m.getCrc32() != null ? m.getCrc32() : s[1];
+      long csize = m.getDeflatedSize() != null ? m.getDeflatedSize() : s[2];
+      if (stored && crc < 0) crc = crc(m.getId(), file, size);
+      entries.add(new CourseArchive.Entry(m.getId(), name, file, size, stored, CourseArchive.utc(m.getCreatedAt()),
+        crc, stored ? size : csize));
+      etag.update((m.getId() + "/" + name + "/" + size + "/" + stored + "/" + m.getCreatedAt() + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+    long raw = entries.stream().mapToLong(CourseArchive.Entry::size).sum();
+    if (entries.size() > CourseArchive.MAX_ENTRIES || raw > CourseArchive.MAX_SIZE - 64L * 1024 * 1024) {
+      throw new IllegalArgumentException("Archive too large (" + entries.size() + " files, " + raw + " bytes); filter by type or ids");
+    }
+    String tag = "\"" + HexFormat.of().formatHex(etag.digest(), 0, 16) + "\"";
+    return new Archive(entries, tag, CourseArchive.length(entries));
+  }
+
+  // Whether the archive keeps this material's file as-is rather than deflating it
+  static boolean stored(Material m) {
+    return COMPRESSED.contains(ext(m));
+  }
+
+  private static String ext(Material m) {
+    return MaterialService.OptionalExt.getExt(m.getPath()).toLowerCase();
+  }
+
+  void learned(long materialId, long size, long crc, long compressedSize) {
+    synchronized (stats) { stats.put(materialId, new long[]{size, crc, compressedSize}); }
+  }
+
+  private long[] stats(long materialId, long size) {
+    synchronized (stats) {
+      long[] s = stats.get(materialId);
+      return s != null && s[0] == size ? s : new long[]{size, -1, -1};
+    }
+  }
+
+  private long crc(long materialId, Path file, long size) throws IOException {
+    CRC32 crc = new CRC32();
+    byte[] buf = new byte[64 * 1024];
+    try (InputStream in = Files.newInputStream(file)) {
+      int n;
+      while ((n = in.read(buf)) > 0) crc.update(buf, 0, n);
+    }
+    learned(materialId, size, crc.getValue(), size);
+    return crc.getValue();
+  }
+
+  // "<title>.<ext>", made filesystem-safe and unique within the archive
+  private static String entryName(Material m, String ext, Set<String> taken) {
+    String base = m.getTitle() == null ? "material" : m.getTitle().replaceAll("[\\\\/:*?\"<>|\\p{Cntrl}]", "_").trim();
+    String suffix = ext.isEmpty() ? "" : "." + ext;
+    if (!suffix.isEmpty() && base.toLowerCase().endsWith(suffix)) base = base.substring(0, base.length() - suffix.length());
+    if (base.isEmpty()) base = "material";
+    if (base.length() > 150) base = base.substring(0, 150);
+    String name = base + suffix;
+    if (!taken.add(name.toLowerCase())) {
+      name = base + " (" + m.getId() + ")" + suffix;
+      taken.add(name.toLowerCase());
+    }
+    return name;
+  }
+
+  private static MessageDigest sha256() {
+    try { return MessageDigest.getInstance("SHA-256"); }
+    catch (java.security.NoSuchAlgorithmException e) { throw new IllegalStateException(e); }
+  }
+}
@@ -1,9 +1,17 @@
 package com.arms.platform.material;
 
+import com.arms.platform.activity.ActivityAction;
+import com.arms.platform.activity.ActivityLog;
+import com.arms.platform.config.WarmupRunner;
+import com.arms.platform.metrics.QueryBudget;
 import com.arms.platform.user.User;
 import com.arms.platform.dto.MaterialDto;
 import com.arms.platform.dto.UserDto;
+import com.arms.platform.service.JsonStreamingService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.NotBlank;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
@@ -19,9 +27,19 @@ import java.util.Map;
 public class MaterialController {
   private final MaterialService service;
   private final MaterialRepository repo;
+  private final UploadSessionService uploads;
+  private final MaterialJobRepository jobs;
+  private final MaterialImportService imports;
+  private final ApplicationEventPublisher events;
+  private final JsonStreamingService json;
+  private final TrendingService trending;
+  private final ActivityLog activity;
 
-  public MaterialController(MaterialService service, MaterialRepository repo){
-    this.service = service; this.repo = repo;
+  public MaterialController(MaterialService service, MaterialRepository repo, UploadSessionService uploads,
+                            MaterialJobRepository jobs, MaterialImportService imports, ApplicationEventPublisher events,
+                            JsonStreamingService json, TrendingService trending, ActivityLog activity){
+    this.service = service; this.repo = repo; this.uploads = uploads; this.jobs = jobs; this.imports = imports;
+    this.events = events; this.json = json; this.trending = trending; this.activity = activity;
   }
 
   private User current(){
@@ -31,52 +49,157 @@ public class MaterialController {
   }
 
   @GetMapping("/courses/{courseId}/materials")
-  public ResponseEntity<?> list(@PathVariable Long courseId){
+  @QueryBudget(2)
+  public ResponseEntity<?> list(@PathVariable Long courseId, @RequestParam(required=false) Boolean stream,
+                                HttpServletRequest req, HttpServletResponse res) throws java.io.IOException {
+    if (json.enabled(stream)) {
+      json.writeArray(res, () -> service.streamForCourse(courseId), MaterialController::toDto);
+      return null; // already written
+    }
     List<Material> materials = service.listForCourse(courseId);
-    List<MaterialDto> dtos = materials.stream().map(m -> {
-      UserDto userDto = toUserDto(m.getUser());
-      return new MaterialDto(
-        m.getId(),                    // id
-        m.getTitle(),                 // title
-        "",                          // description
-        "/api/files/" + m.getPath(), // fileUrl - adding proper API prefix
-        m.getPath().substring(m.getPath().lastIndexOf('/') + 1), // fileName
-        m.getType().toString(),      // fileType
-        m.getSize(),                 // fileSize
-        null,                        // contentType
-        null,                        // course
-        userDto,                     // uploader
-        m.getCreatedAt().atZone(ZoneId.systemDefault()).toLocalDateTime(), // uploadedAt
-        0                            // downloadCount
-      );
-    }).collect(Collectors.toList());
+    if (!WarmupRunner.isWarmup(req)) trending.recordViews(materials, Material::getId, m -> courseId);
+    List<MaterialDto> dtos = materials.stream().map(MaterialController::toDto).collect(Collectors.toList());
     return ResponseEntity.ok(dtos);
   }
 
   @PostMapping(value="/courses/{courseId}/materials", consumes={"multipart/form-data"})
+  @QueryBudget(3)
   public ResponseEntity<?> upload(@PathVariable Long courseId,
                                   @RequestParam(required=false) String title,
                                   @RequestParam(defaultValue="OTHER") MaterialType type,
                                   @RequestParam("file") MultipartFile file) throws Exception {
     if (file==null || file.isEmpty()) return ResponseEntity.badRequest().body(Map.of("error","file required"));
     User currentUser = current();
-    Material m = service.upload(courseId, currentUser, title, type, file);
-    UserDto userDto = toUserDto(m.getUser());
-    MaterialDto dto = new MaterialDto(
-      m.getId(),                    // id
-      m.getTitle(),                 // title
-      "",                          // description
-      "/api/files/" + m.getPath(), // fileUrl - adding proper API prefix
-      m.getPath().substring(m.getPath().lastIndexOf('/') + 1), // fileName
-      m.getType().toString(),      // fileType
-      m.getSize(),                 // fileSize
-      null,                        // contentType
-      null,                        // course
-      userDto,                     // uploader
-      m.getCreatedAt().atZone(ZoneId.systemDefault()).toLocalDateTime(), // uploadedAt
-      0                           // downloadCount
+    try {
+      Material m = service.upload(courseId, currentUser, title, type, file);
+      activity.record(ActivityAction.MATERIAL_UPLOAD, currentUser.getId(), m.getId(), m.getTitle());
+      return ResponseEntity.ok(toDto(m));
+    } catch (ProcessingBacklogException e) {
+      return backlog(e);
+    }
+  }
+
+  // Bulk import: every file in the ZIP becomes a material of this course; the body reports each entry.
+  // No @QueryBudget: the insert batches grow with the entry count (up to app.import.max-entries).
+  @PostMapping(value="/courses/{courseId}/materials/import", consumes={"multipart/form-data"})
+  public ResponseEntity<?> importArchive(@PathVariable Long courseId,
+                                         @RequestParam(defaultValue="OTHER") MaterialType type,
+                                         @RequestParam("file") MultipartFile file) throws Exception {
+    if (file==null || file.isEmpty()) return ResponseEntity.badRequest().body(Map.of("error","file required"));
+    User currentUser = current();
+    try {
+      List<MaterialImportService.FileResult> files = imports.importZip(courseId, currentUser, type, file);
+      long created = 0;
+      for (MaterialImportService.FileResult f : files) {
+        if (!f.status().equals("created")) continue;
+        created++;
+        activity.record(ActivityAction.MATERIAL_UPLOAD, currentUser.getId(), f.materialId(), "import " + f.name());
+      }
+      return ResponseEntity.ok(Map.of("created", created, "files", files));
+    } catch (ProcessingBacklogException e) {
+      return backlog(e);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+  }
+
+  // Progress of the asynchronous post-upload processing (hashing, type detection, ...)
+  @GetMapping("/materials/{id}/processing")
+  @QueryBudget(1)
+  public ResponseEntity<?> processing(@PathVariable Long id){
+    MaterialJob j = jobs.findFirstByMaterialIdOrderByIdDesc(id).orElse(null);
+    if (j == null) return ResponseEntity.notFound().build();
+    Map<String,Object> body = new java.util.LinkedHashMap<>();
+    body.put("status", j.getStatus());
+    body.put("stage", j.getStage());
+    body.put("attempts", j.getAttempts());
+    body.put("error", j.getLastError());
+    body.put("updatedAt", j.getUpdatedAt());
+    return ResponseEntity.ok(body);
+  }
+
+  private static ResponseEntity<?> backlog(ProcessingBacklogException e){
+    return ResponseEntity.status(503).header("Retry-After", "30").body(Map.of("error", e.getMessage()));
+  }
+
+  // Resumable uploads: create a session, PUT chunks (any order, in parallel), then complete.
+  // GET on the session lists the chunks still missing so a client can resume after a failure.
+  public record UploadSessionRequest(@NotBlank String fileName, String title, MaterialType type, long size, Integer chunkSize){}
+
+  @PostMapping("/courses/{courseId}/uploads")
+  public ResponseEntity<?> startUpload(@PathVariable Long courseId, @RequestBody UploadSessionRequest req) throws Exception {
+    try {
+      UploadSession s = uploads.create(courseId, current(), req.fileName(), req.title(), req.type(), req.size(), req.chunkSize());
+      return ResponseEntity.status(201).body(uploadStatus(s));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+  }
+
+  @GetMapping("/uploads/{id}")
+  public ResponseEntity<?> uploadStatus(@PathVariable String id) throws Exception {
+    UploadSession s = ownSession(id);
+    if (s == null) return ResponseEntity.notFound().build();
+    try {
+      return ResponseEntity.ok(uploadStatus(s));
+    } catch (IllegalStateException e) {
+      return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+    }
+  }
+
+  @PutMapping(value="/uploads/{id}/chunks/{index}", consumes="application/octet-stream")
+  public ResponseEntity<?> putChunk(@PathVariable String id, @PathVariable int index,
+                                    jakarta.servlet.http.HttpServletRequest request) throws Exception {
+    UploadSession s = ownSession(id);
+    if (s == null) return ResponseEntity.notFound().build();
+    try {
+      uploads.writeChunk(s, index, request.getInputStream());
+      return ResponseEntity.noContent().build();
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    } catch (IllegalStateException e) {
+      return ResponseEntity.status(409).body(Map.of("error", e.getMessage())); // session staged on another node
+    }
+  }
+
+  @PostMapping("/uploads/{id}/complete")
+  @QueryBudget(4)
+  public ResponseEntity<?> completeUpload(@PathVariable String id) throws Exception {
+    User u = current();
+    if (ownSession(id) == null) return ResponseEntity.notFound().build();
+    try {
+      Material m = uploads.complete(id, u);
+      activity.record(ActivityAction.MATERIAL_UPLOAD, u.getId(), m.getId(), m.getTitle());
+      return ResponseEntity.ok(toDto(m));
+    } catch (ProcessingBacklogException e) {
+      return backlog(e);
+    } catch (IllegalStateException e) {
+      return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+    }
+  }
+
+  @DeleteMapping("/uploads/{id}")
+  public ResponseEntity<?> abortUpload(@PathVariable String id) throws Exception {
+    UploadSession s = ownSession(id);
+    if (s == null) return ResponseEntity.notFound().build();
+    uploads.abort(s);
+    return ResponseEntity.noContent().build();
+  }
+
+  // Sessions of other users are reported as missing rather than forbidden
+  private UploadSession ownSession(String id){
+    UploadSession s = uploads.find(id);
+    return s != null && s.getUserId().equals(current().getId()) ? s : null;
+  }
+
+  private Map<String,Object> uploadStatus(UploadSession s) throws java.io.IOException {
+    return Map.of(
+      "id", s.getId(),
+      "size", s.getTotalSize(),
+      "chunkSize", s.getChunkSize(),
+      "chunkCount", s.getChunkCount(),
+      "missingChunks", uploads.missingChunks(s)
     );
-    return ResponseEntity.ok(dto);
   }
 
   @DeleteMapping("/materials/{id}")
@@ -87,11 +210,30 @@ public class MaterialController {
     boolean isOwner = m.getUser().getId().equals(u.getId());
     boolean isAdmin = u.getRole().name().equals("ADMIN");
     if (!isOwner && !isAdmin) return ResponseEntity.status(403).body(Map.of("error","forbidden"));
-    repo.delete(m);
+    if (!service.delete(m)) return ResponseEntity.notFound().build();
+    events.publishEvent(new MaterialDeletedEvent(m.getId(), m.getCourse().getId(), m.getUser().getId()));
+    activity.record(ActivityAction.MATERIAL_DELETE, u.getId(), m.getId(), m.getTitle());
     return ResponseEntity.noContent().build();
   }
 
-  private UserDto toUserDto(User u){
+  static MaterialDto toDto(Material m){
+    return new MaterialDto(
+      m.getId(),                    // id
+      m.getTitle(),                 // title
+      "",                          // description
+      "/api/files/" + m.getPath(), // fileUrl - adding proper API prefix
+      m.getPath().substring(m.getPath().lastIndexOf('/') + 1), // fileName
+      m.getType().toString(),      // fileType
+      m.getSize(),                 // fileSize
+      m.getContentType(),          // contentType
+      null,                        // course
+      toUserDto(m.getUser()),      // uploader
+      m.getCreatedAt().atZone(ZoneId.systemDefault()).toLocalDateTime(), // uploadedAt
+      0                            // downloadCount
+    );
+  }
+
+  private static UserDto toUserDto(User u){
     UserDto dto = new UserDto();
     dto.setId(u.getId());
     dto.setEmail(u.getEmail());
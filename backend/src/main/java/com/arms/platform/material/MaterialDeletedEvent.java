@@ -0,0 +1,5 @@
+package com.arms.platform.material;
+
+// Published after a material row is removed, for derived state kept outside the database (search indexes).
+// courseId and uploaderId are null when the delete happened on another node and this node never knew the material.
+public record MaterialDeletedEvent(Long materialId, Long courseId, Long uploaderId) {}
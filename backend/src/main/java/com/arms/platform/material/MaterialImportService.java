@@ -0,0 +1,197 @@
+package com.arms.platform.material;
+
+import com.arms.platform.course.Course;
+import com.arms.platform.course.CourseRepository;
+import com.arms.platform.metrics.StorageMetrics;
+import com.arms.platform.user.User;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+// Bulk import of a ZIP into one course. The archive is moved to the staging dir and opened with
+// ZipFile (random access, so entries can be inflated concurrently); each accepted entry is written
+// to its own file on a small fixed pool. All rows are then inserted in one transaction through
+// MaterialService.createAll, which goes out as JDBC batches. If that transaction fails the files
+// written for it are removed again.
+//
+// Sizes declared in the archive are checked up front but not trusted: every copy also stops once it
+// passes the per-entry cap, and all copies of one import add to a shared byte count, so a crafted
+// archive cannot inflate past the limits. Passing the total cap aborts the whole import.
+@Service
+public class MaterialImportService {
+  public record FileResult(String name, String status, Long materialId, Long size, String error) {
+    static FileResult skipped(String name, String why) { return new FileResult(name, "skipped", null, null, why); }
+    static FileResult failed(String name, String why) { return new FileResult(name, "failed", null, null, why); }
+  }
+
+  private final MaterialService materials;
+  private final CourseRepository courses;
+  private final StorageMetrics storageMetrics;
+  private final Path staging;
+  private final int maxEntries;
+  private final long maxEntrySize;
+  private final long maxTotalSize;
+  private final ExecutorService pool;
+
+  public MaterialImportService(MaterialService materials, CourseRepository courses, StorageMetrics storageMetrics,
+                               @Value("${app.upload.staging-dir}") String stagingDir,
+                               @Value("${app.import.threads:4}") int threads,
+                               @Value("${app.import.max-entries:500}") int maxEntries,
+                               @Value("${app.import.max-entry-size:104857600}") long maxEntrySize,
+                               @Value("${app.import.max-total-size:1073741824}") long maxTotalSize) throws IOException {
+    this.materials = materials; this.courses = courses; this.storageMetrics = storageMetrics;
+    this.staging = Path.of(stagingDir).toAbsolutePath().normalize();
+    Files.createDirectories(this.staging);
+    this.maxEntries = maxEntries; this.maxEntrySize = maxEntrySize; this.maxTotalSize = maxTotalSize;
+    AtomicInteger n = new AtomicInteger();
+    this.pool = Executors.newFixedThreadPool(threads, r -> {
+      Thread t = new Thread(r, "material-import-" + n.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  @PreDestroy
+  void shutdown() {
+    pool.shutdownNow();
+  }
+
+  /** Imports every regular file in the archive; the result has one line per entry, in archive order. */
+  public List<FileResult> importZip(Long courseId, User user, MaterialType type, MultipartFile file) throws IOException {
+    materials.checkCapacity();
+    Course course = courses.findById(courseId).orElseThrow(() -> new IllegalArgumentException("Course not found"));
+    Path zip = staging.resolve("import-" + UUID.randomUUID() + ".zip");
+    file.transferTo(zip);
+    try (ZipFile zf = new ZipFile(zip.toFile())) {
+      return importEntries(zf, course, user, type);
+    } catch (java.util.zip.ZipException e) {
+      throw new IllegalArgumentException("not a valid ZIP archive");
+    } finally {
+      Files.deleteIfExists(zip);
+    }
+  }
+
+  private List<FileResult> importEntries(ZipFile zf, Course course, User user, MaterialType type) throws IOException {
+    FileResult[] results = new FileResult[zf.size()];
+    String[] names = new String[zf.size()];
+    List<Integer> accepted = new ArrayList<>();
+    List<ZipEntry> entries = new ArrayList<>();
+    long declared = 0;
+    int i = 0;
+    for (Enumeration<? extends ZipEntry> it = zf.entries(); it.hasMoreElements(); i++) {
+      ZipEntry e = it.nextElement();
+      names[i] = e.getName();
+      String name = baseName(e.getName());
+      if (e.isDirectory()) continue;
+      if (e.getName().startsWith("__MACOSX/") || e.getName().contains("/__MACOSX/") || name.startsWith(".")) {
+        results[i] = FileResult.skipped(e.getName(), "system file");
+      } else if (accepted.size() >= maxEntries) {
+        results[i] = FileResult.skipped(e.getName(), "archive has more than " + maxEntries + " files");
+      } else if (e.getSize() > maxEntrySize) {
+        results[i] = FileResult.failed(e.getName(), "larger than " + maxEntrySize + " bytes");
+      } else if (e.getSize() >= 0 && (declared += e.getSize()) > maxTotalSize) {
+        throw new IllegalArgumentException(new TotalExceeded(maxTotalSize).getMessage());
+      } else {
+        accepted.add(i);
+        entries.add(e);
+      }
+    }
+
+    AtomicLong copied = new AtomicLong();
+    List<Future<MaterialService.Stored>> writes = new ArrayList<>();
+    for (ZipEntry e : entries) writes.add(pool.submit(() -> write(zf, e, course.getId(), baseName(e.getName()), type, copied)));
+
+    List<Integer> stored = new ArrayList<>();
+    List<MaterialService.Stored> files = new ArrayList<>();
+    TotalExceeded exceeded = null;
+    for (int k = 0; k < accepted.size(); k++) {
+      int idx = accepted.get(k);
+      try {
+        MaterialService.Stored s = writes.get(k).get();
+        stored.add(idx);
+        files.add(s);
+      } catch (ExecutionException ex) {
+        Throwable cause = ex.getCause();
+        if (cause instanceof TotalExceeded t) exceeded = t;
+        results[idx] = FileResult.failed(names[idx], cause.getMessage() == null ? cause.toString() : cause.getMessage());
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        writes.forEach(f -> f.cancel(true));
+        throw new IOException("import interrupted", ex);
+      }
+    }
+    if (exceeded != null) { // every writer has stopped by now; drop what the ones that finished first wrote
+      for (MaterialService.Stored s : files) Files.deleteIfExists(s.dest());
+      throw new IllegalArgumentException(exceeded.getMessage());
+    }
+
+    if (!files.isEmpty()) {
+      List<Material> created;
+      try {
+        created = materials.createAll(course, user, files);
+      } catch (RuntimeException ex) {
+        for (MaterialService.Stored s : files) Files.deleteIfExists(s.dest());
+        throw ex;
+      }
+      for (int k = 0; k < created.size(); k++) {
+        Material m = created.get(k);
+        results[stored.get(k)] = new FileResult(names[stored.get(k)], "created", m.getId(), m.getSize(), null);
+      }
+    }
+
+    List<FileResult> out = new ArrayList<>(results.length);
+    for (FileResult r : results) if (r != null) out.add(r);
+    return out;
+  }
+
+  // Runs on the import pool; ZipFile supports concurrent readers, each gets its own inflater.
+  // copied counts the bytes written by all entries of this import, so every writer sees the total cap pass.
+  private MaterialService.Stored write(ZipFile zf, ZipEntry e, Long courseId, String name, MaterialType type,
+                                       AtomicLong copied) throws IOException {
+    if (copied.get() > maxTotalSize) throw new TotalExceeded(maxTotalSize);
+    Path dest = materials.newFilePath(courseId, name);
+    long t0 = System.nanoTime();
+    long size = 0;
+    byte[] buf = new byte[64 * 1024];
+    try (InputStream in = zf.getInputStream(e); OutputStream out = Files.newOutputStream(dest)) {
+      for (int n; (n = in.read(buf)) > 0; ) {
+        if ((size += n) > maxEntrySize) throw new IOException("larger than " + maxEntrySize + " bytes");
+        if (copied.addAndGet(n) > maxTotalSize) throw new TotalExceeded(maxTotalSize);
+        out.write(buf, 0, n);
+      }
+    } catch (IOException ex) {
+      Files.deleteIfExists(dest);
+      throw ex;
+    }
+    storageMetrics.recordUpload("local", size, System.nanoTime() - t0);
+    return new MaterialService.Stored(null, type, name, dest, size);
+  }
+
+  private static final class TotalExceeded extends IOException {
+    TotalExceeded(long max) { super("archive total exceeds " + max + " bytes"); }
+  }
+
+  private static String baseName(String entryName) {
+    String n = entryName.endsWith("/") ? entryName.substring(0, entryName.length() - 1) : entryName;
+    return n.substring(n.lastIndexOf('/') + 1);
+  }
+}
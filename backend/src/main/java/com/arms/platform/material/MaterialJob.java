@@ -0,0 +1,63 @@
+package com.arms.platform.material;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+// Durable post-upload work item; one per material, claimed by MaterialJobWorker
+@Entity
+@Table(name="material_jobs", indexes = {
+  @Index(columnList="status,nextRunAt"),
+  @Index(columnList="materialId")
+})
+public class MaterialJob {
+  public enum Status { PENDING, RUNNING, DONE, FAILED }
+
+  @Id
+  @GeneratedValue(strategy=GenerationType.SEQUENCE, generator="material_jobs_seq")
+  @SequenceGenerator(name="material_jobs_seq", sequenceName="material_jobs_id_seq", allocationSize=50)
+  private Long id;
+
+  @Column(nullable=false)
+  private Long materialId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable=false, length=16)
+  private Status status = Status.PENDING;
+
+  // name of the last stage that completed, null before the first one
+  private String stage;
+
+  @Column(nullable=false)
+  private int attempts;
+
+  @Column(length=1000)
+  private String lastError;
+
+  @Column(nullable=false)
+  private Instant nextRunAt = Instant.now();
+
+  @Column(nullable=false)
+  private Instant updatedAt = Instant.now();
+
+  @Column(nullable=false, updatable=false)
+  private Instant createdAt = Instant.now();
+
+  protected MaterialJob(){}
+
+  public MaterialJob(Long materialId){ this.materialId = materialId; }
+
+  public Long getId(){return id;}
+  public Long getMaterialId(){return materialId;}
+  public Status getStatus(){return status;}
+  public void setStatus(Status s){this.status=s; this.updatedAt=Instant.now();}
+  public String getStage(){return stage;}
+  public void setStage(String s){this.stage=s;}
+  public int getAttempts(){return attempts;}
+  public void setAttempts(int a){this.attempts=a;}
+  public String getLastError(){return lastError;}
+  public void setLastError(String e){this.lastError = e == null || e.length() <= 1000 ? e : e.substring(0, 1000);}
+  public Instant getNextRunAt(){return nextRunAt;}
+  public void setNextRunAt(Instant t){this.nextRunAt=t;}
+  public Instant getUpdatedAt(){return updatedAt;}
+  public Instant getCreatedAt(){return createdAt;}
+}
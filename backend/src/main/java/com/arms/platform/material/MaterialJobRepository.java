@@ -0,0 +1,37 @@
+package com.arms.platform.material;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+public interface MaterialJobRepository extends JpaRepository<MaterialJob, Long> {
+  // Rows locked by another worker are skipped rather than waited on, so several nodes can poll concurrently
+  @Query(value = "SELECT * FROM material_jobs WHERE status = 'PENDING' AND next_run_at <= now() " +
+                 "ORDER BY id LIMIT ?1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+  List<MaterialJob> claimable(int limit);
+
+  long countByStatus(MaterialJob.Status status);
+
+  Optional<MaterialJob> findFirstByMaterialIdOrderByIdDesc(Long materialId);
+
+  // Materials whose processing finished at or after the given time, for ContentIndexBackfill
+  @Query("SELECT DISTINCT j.materialId FROM MaterialJob j WHERE j.status = ?2 AND j.updatedAt >= ?1")
+  List<Long> findMaterialIds(Instant finishedSince, MaterialJob.Status status);
+
+  default List<Long> findProcessedSince(Instant finishedSince) {
+    return findMaterialIds(finishedSince, MaterialJob.Status.DONE);
+  }
+
+  // Jobs left RUNNING by a node that died mid-stage go back to the queue.
+  // Kept in JPQL: a native bulk UPDATE would evict every second-level cache region.
+  @Modifying
+  @Query("UPDATE MaterialJob j SET j.status = ?3, j.updatedAt = ?2 WHERE j.status = ?4 AND j.updatedAt < ?1")
+  int requeue(Instant leaseExpiredBefore, Instant now, MaterialJob.Status to, MaterialJob.Status from);
+
+  default int requeueStale(Instant leaseExpiredBefore, Instant now) {
+    return requeue(leaseExpiredBefore, now, MaterialJob.Status.PENDING, MaterialJob.Status.RUNNING);
+  }
+}
@@ -0,0 +1,183 @@
+package com.arms.platform.material;
+
+import com.arms.platform.cache.CacheInvalidatedEvent;
+import com.arms.platform.cache.InvalidationBus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Runs the MaterialProcessingStage beans for queued material_jobs rows on a fixed-size pool.
+// Jobs are only claimed when a worker slot is free, so the pool never queues work in memory;
+// the backlog stays in the table, and uploads are refused once it passes app.jobs.max-pending.
+@Component
+public class MaterialJobWorker {
+  private static final Logger log = LoggerFactory.getLogger(MaterialJobWorker.class);
+
+  private final MaterialJobRepository jobs;
+  private final MaterialRepository materials;
+  private final List<MaterialProcessingStage> stages;
+  private final TransactionTemplate tx;
+  private final MeterRegistry registry;
+  private final ApplicationEventPublisher events;
+  private final InvalidationBus bus;
+  private final Path root;
+  private final int maxPending;
+  private final int maxAttempts;
+  private final Duration lease;
+
+  private final ExecutorService pool;
+  private final Semaphore slots;
+  private final AtomicLong pending = new AtomicLong();
+  private final AtomicInteger running = new AtomicInteger();
+
+  public MaterialJobWorker(MaterialJobRepository jobs, MaterialRepository materials, List<MaterialProcessingStage> stages,
+                           PlatformTransactionManager txManager, MeterRegistry registry,
+                           ApplicationEventPublisher events, InvalidationBus bus,
+                           @Value("${app.upload.dir}") String uploadDir,
+                           @Value("${app.jobs.workers:2}") int workers,
+                           @Value("${app.jobs.max-pending:500}") int maxPending,
+                           @Value("${app.jobs.max-attempts:3}") int maxAttempts,
+                           @Value("${app.jobs.lease-seconds:600}") long leaseSeconds) {
+    this.jobs = jobs; this.materials = materials; this.stages = stages;
+    this.tx = new TransactionTemplate(txManager);
+    this.registry = registry;
+    this.events = events;
+    this.bus = bus;
+    this.root = Path.of(uploadDir).toAbsolutePath().normalize();
+    this.maxPending = maxPending; this.maxAttempts = maxAttempts;
+    this.lease = Duration.ofSeconds(leaseSeconds);
+    AtomicInteger n = new AtomicInteger();
+    this.pool = Executors.newFixedThreadPool(workers, r -> {
+      Thread t = new Thread(r, "material-job-" + n.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    });
+    this.slots = new Semaphore(workers);
+    registry.gauge("arms.jobs.pending", pending);
+    registry.gauge("arms.jobs.running", running);
+  }
+
+  // Cheap admission check for request threads: no query, uses the count from the last poll plus local enqueues
+  public void checkCapacity() {
+    long p = pending.get();
+    if (p >= maxPending) throw new ProcessingBacklogException(p);
+  }
+
+  void enqueued() {
+    pending.incrementAndGet();
+  }
+
+  @Scheduled(fixedDelayString = "${app.jobs.poll-interval-ms:1000}")
+  public void poll() {
+    Instant now = Instant.now();
+    Integer requeued = tx.execute(s -> jobs.requeueStale(now.minus(lease), now));
+    if (requeued != null && requeued > 0) log.warn("Requeued {} material job(s) with expired lease", requeued);
+    pending.set(jobs.countByStatus(MaterialJob.Status.PENDING));
+
+    int free = slots.availablePermits();
+    if (free == 0 || pending.get() == 0) return;
+    List<Long> claimed = tx.execute(s -> {
+      List<MaterialJob> batch = jobs.claimable(free);
+      for (MaterialJob j : batch) {
+        j.setStatus(MaterialJob.Status.RUNNING);
+        j.setAttempts(j.getAttempts() + 1);
+      }
+      return batch.stream().map(MaterialJob::getId).toList();
+    });
+    for (Long id : claimed) {
+      slots.acquireUninterruptibly();
+      pending.decrementAndGet();
+      running.incrementAndGet();
+      pool.execute(() -> {
+        try { run(id); }
+        finally { running.decrementAndGet(); slots.release(); }
+      });
+    }
+  }
+
+  private record Claimed(MaterialJob job, Material material) {}
+
+  private void run(Long jobId) {
+    // Read-write transaction, so both reads go to the primary: a worker thread has no request to keep it
+    // off a lagging replica, which may not have the fresh upload or the attempt the claim just counted
+    Claimed c = tx.execute(s -> {
+      MaterialJob j = jobs.findById(jobId).orElse(null);
+      return j == null ? null : new Claimed(j, materials.findWithCourseAndUser(j.getMaterialId()).orElse(null));
+    });
+    if (c == null) return;
+    MaterialJob job = c.job();
+    Material m = c.material();
+    if (m == null) { // material deleted while queued
+      finish(job, MaterialJob.Status.DONE, null);
+      return;
+    }
+    Path file = fileOf(m);
+    try {
+      if (!file.startsWith(root) || !Files.isRegularFile(file)) throw new IllegalStateException("file missing: " + m.getPath());
+      for (MaterialProcessingStage stage : stages) {
+        Timer.Sample sample = Timer.start(registry);
+        stage.process(m, file);
+        sample.stop(registry.timer("arms.jobs.stage", "stage", stage.name()));
+        job.setStage(stage.name());
+        job.setStatus(MaterialJob.Status.RUNNING); // bumps updatedAt, i.e. renews the lease
+        Integer updated = tx.execute(s -> {
+          jobs.save(job);
+          return materials.updateProcessed(m.getId(), m.getSha256(), m.getContentType(), m.getType(),
+            m.getCrc32(), m.getDeflatedSize());
+        });
+        if (updated == null || updated == 0) {
+          // deleted mid-job: undo whatever the stages derived from it so far
+          finish(job, MaterialJob.Status.DONE, null);
+          events.publishEvent(new MaterialDeletedEvent(m.getId(), m.getCourse().getId(), m.getUser().getId()));
+          return;
+        }
+      }
+      finish(job, MaterialJob.Status.DONE, null);
+      events.publishEvent(MaterialUploadedEvent.of(m));
+      bus.publish(CacheInvalidatedEvent.MATERIAL, m.getId()); // settled type; other nodes index the content now
+    } catch (Exception e) {
+      boolean retry = job.getAttempts() < maxAttempts;
+      log.warn("Material job {} (material {}) failed at attempt {}: {}", jobId, m.getId(), job.getAttempts(), e.toString());
+      if (retry) job.setNextRunAt(Instant.now().plusSeconds(30L << job.getAttempts()));
+      finish(job, retry ? MaterialJob.Status.PENDING : MaterialJob.Status.FAILED, e.toString());
+    }
+  }
+
+  // Material.path is the public URL path ("/files/<course>/<name>"), stored under app.upload.dir
+  public Path fileOf(Material m) {
+    return root.resolve(m.getPath().replaceFirst("^/files/", "")).normalize();
+  }
+
+  private void finish(MaterialJob job, MaterialJob.Status status, String error) {
+    job.setStatus(status);
+    job.setLastError(error);
+    jobs.save(job);
+    registry.counter("arms.jobs.completed", "status", status.name().toLowerCase()).increment();
+  }
+
+  @PreDestroy
+  void shutdown() throws InterruptedException {
+    pool.shutdown();
+    if (!pool.awaitTermination(10, TimeUnit.SECONDS)) pool.shutdownNow(); // leftovers are requeued via the lease
+  }
+}
@@ -0,0 +1,15 @@
+package com.arms.platform.material;
+
+import java.nio.file.Path;
+
+/**
+ * One step of post-upload processing. Stages run in {@link org.springframework.core.annotation.Order}
+ * on a worker thread, after the upload request has returned. A stage may update fields of the
+ * material; the worker saves it after each stage. Stages must be safe to re-run, since a job that
+ * fails or whose node dies is retried from the start.
+ */
+public interface MaterialProcessingStage {
+  String name();
+
+  void process(Material material, Path file) throws Exception;
+}
@@ -2,16 +2,90 @@ package com.arms.platform.material;
 
 import com.arms.platform.course.Course;
 import com.arms.platform.user.User;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
+// Declared query methods get no transaction by default; read-only ones can be served by a replica
+@Transactional(readOnly = true)
 public interface MaterialRepository extends JpaRepository<Material, Long> {
   @Query("SELECT m FROM Material m JOIN FETCH m.user WHERE m.course = ?1 ORDER BY m.createdAt DESC")
   List<Material> findByCourseOrderByCreatedAtDesc(Course course);
+  // cursor-backed variant for JsonStreamingService; consume inside a transaction
+  @QueryHints({@QueryHint(name=AvailableHints.HINT_FETCH_SIZE, value="200"), @QueryHint(name=AvailableHints.HINT_READ_ONLY, value="true")})
+  @Query("SELECT m FROM Material m JOIN FETCH m.user WHERE m.course = ?1 ORDER BY m.createdAt DESC")
+  Stream<Material> streamByCourseOrderByCreatedAtDesc(Course course);
+  @Query("SELECT m FROM Material m JOIN FETCH m.course WHERE m.user.id = ?1")
   List<Material> findByUserId(Long userId);
 
+  List<Material> findByCourseIdOrderByIdAsc(Long courseId);
+
+  // keyset pagination for background scans over all materials
+  List<Material> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+  // Writes back only what processing stages fill in; returns 0 once the material has been deleted
+  @Transactional
+  @Modifying
+  @Query("UPDATE Material m SET m.sha256 = ?2, m.contentType = ?3, m.type = ?4, m.crc32 = ?5, m.deflatedSize = ?6 WHERE m.id = ?1")
+  int updateProcessed(Long id, String sha256, String contentType, MaterialType type, Long crc32, Long deflatedSize);
+
+  // download path -> material, for TrendingService
+  @Query("SELECT m.id FROM Material m WHERE m.path = ?1")
+  java.util.Optional<Long> findIdByPath(String path);
+
+  @Query("""
+    SELECT new com.arms.platform.material.MaterialUploadedEvent(m.id, c.id, c.code, c.title, u.id, u.name, m.title, m.type, m.createdAt)
+    FROM Material m JOIN m.course c JOIN m.user u
+    WHERE m.id IN ?1
+  """)
+  List<MaterialUploadedEvent> findSummaries(Collection<Long> ids);
+
+  // which of these materials still exist
+  @Query("SELECT m.id FROM Material m WHERE m.id IN ?1")
+  List<Long> findExistingIds(Collection<Long> ids);
+
+  // returns 0 if someone else deleted it first, so counters are adjusted once
+  @Modifying
+  @Query("DELETE FROM Material m WHERE m.id = ?1")
+  int deleteMaterial(Long id);
+
+  @Query("SELECT m FROM Material m JOIN FETCH m.course JOIN FETCH m.user WHERE m.id = ?1")
+  java.util.Optional<Material> findWithCourseAndUser(Long id);
+
+  // index-building scan: one row per material, no entities
+  @Query("""
+    SELECT new com.arms.platform.material.MaterialUploadedEvent(m.id, c.id, c.code, c.title, u.id, u.name, m.title, m.type, m.createdAt)
+    FROM Material m JOIN m.course c JOIN m.user u
+    WHERE m.id > ?1 ORDER BY m.id
+  """)
+  List<MaterialUploadedEvent> scanForIndex(Long afterId, Pageable pageable);
+
+  // newest materials of a set of courses, to seed an activity feed timeline
+  @Query("""
+    SELECT new com.arms.platform.material.MaterialUploadedEvent(m.id, c.id, c.code, c.title, u.id, u.name, m.title, m.type, m.createdAt)
+    FROM Material m JOIN m.course c JOIN m.user u
+    WHERE c.id IN ?1 ORDER BY m.createdAt DESC, m.id DESC
+  """)
+  List<MaterialUploadedEvent> findLatestForCourses(Collection<Long> courseIds, Pageable pageable);
+
+  // the same, continuing after (before, beforeId); for feed pages past the in-memory timeline
+  @Query("""
+    SELECT new com.arms.platform.material.MaterialUploadedEvent(m.id, c.id, c.code, c.title, u.id, u.name, m.title, m.type, m.createdAt)
+    FROM Material m JOIN m.course c JOIN m.user u
+    WHERE c.id IN ?1 AND (m.createdAt < ?2 OR (m.createdAt = ?2 AND m.id < ?3))
+    ORDER BY m.createdAt DESC, m.id DESC
+  """)
+  List<MaterialUploadedEvent> findLatestForCoursesBefore(Collection<Long> courseIds, Instant before, Long beforeId, Pageable pageable);
+
   @Query("""
     SELECT new com.arms.platform.material.RankingRow(m.user.id, m.user.name, COUNT(m))
     FROM Material m
@@ -1,56 +1,132 @@
 package com.arms.platform.material;
 
+import com.arms.platform.cache.CacheInvalidatedEvent;
+import com.arms.platform.cache.InvalidationBus;
 import com.arms.platform.course.Course;
 import com.arms.platform.course.CourseRepository;
+import com.arms.platform.course.CourseStatsService;
+import com.arms.platform.metrics.StorageMetrics;
 import com.arms.platform.user.User;
-import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Service
 public class MaterialService {
   private final MaterialRepository materials;
   private final CourseRepository courses;
+  private final MaterialJobRepository jobs;
+  private final MaterialJobWorker worker;
+  private final StorageMetrics storageMetrics;
+  private final CourseStatsService stats;
+  private final TransactionTemplate tx;
+  private final ApplicationEventPublisher events;
+  private final InvalidationBus bus;
   private final Path root;
 
-  public MaterialService(MaterialRepository materials, CourseRepository courses,
+  public MaterialService(MaterialRepository materials, CourseRepository courses, MaterialJobRepository jobs,
+                         MaterialJobWorker worker, StorageMetrics storageMetrics, CourseStatsService stats,
+                         PlatformTransactionManager txManager, ApplicationEventPublisher events, InvalidationBus bus,
                          @Value("${app.upload.dir}") String uploadDir) {
-    this.materials = materials; this.courses = courses;
+    this.materials = materials; this.courses = courses; this.jobs = jobs; this.worker = worker;
+    this.storageMetrics = storageMetrics; this.stats = stats;
+    this.tx = new TransactionTemplate(txManager);
+    this.events = events;
+    this.bus = bus;
     this.root = Path.of(uploadDir).toAbsolutePath().normalize();
     this.root.toFile().mkdirs();
   }
 
-  @Transactional
+  // The file is written before any transaction is opened; only the inserts hold a connection.
+  // Hashing and type detection run later on MaterialJobWorker.
   public Material upload(Long courseId, User user, String title, MaterialType type, MultipartFile file) throws Exception {
+    worker.checkCapacity();
     Course course = courses.findById(courseId).orElseThrow(() -> new IllegalArgumentException("Course not found"));
-    String ext = OptionalExt.getExt(file.getOriginalFilename());
-    String filename = UUID.randomUUID() + (ext.isEmpty() ? "" : "." + ext);
+    Path dest = newFilePath(courseId, file.getOriginalFilename());
+    long t0 = System.nanoTime();
+    file.transferTo(dest.toFile());
+    storageMetrics.recordUpload("local", file.getSize(), System.nanoTime() - t0);
+    return create(course, user, title, type, file.getOriginalFilename(), dest, file.getSize());
+  }
+
+  void checkCapacity() {
+    worker.checkCapacity();
+  }
+
+  // Fresh, collision-free destination under the course directory, keeping the original extension
+  Path newFilePath(Long courseId, String originalName) throws java.io.IOException {
+    String ext = OptionalExt.getExt(originalName);
     Path courseDir = root.resolve(String.valueOf(courseId));
     Files.createDirectories(courseDir);
-    Path dest = courseDir.resolve(filename);
-    file.transferTo(dest.toFile());
+    return courseDir.resolve(UUID.randomUUID() + (ext.isEmpty() ? "" : "." + ext));
+  }
+
+  // A file already written to dest (see newFilePath), waiting for its row
+  record Stored(String title, MaterialType type, String originalName, Path dest, long size) {}
 
-    Material m = new Material();
-    m.setCourse(course);
-    m.setUser(user);
-    m.setTitle(title == null || title.isBlank() ? file.getOriginalFilename() : title);
-    m.setType(type == null ? MaterialType.OTHER : type);
-    m.setPath("/files/" + courseId + "/" + filename);
-    m.setSize(file.getSize());
-    return materials.save(m);
+  // Inserts the row for a file that is already stored at dest together with its processing job
+  Material create(Course course, User user, String title, MaterialType type, String originalName, Path dest, long size) {
+    return createAll(course, user, List.of(new Stored(title, type, originalName, dest, size))).get(0);
   }
 
+  // One transaction for many files; with pooled sequence ids the inserts go out as JDBC batches
+  List<Material> createAll(Course course, User user, List<Stored> files) {
+    return tx.execute(s -> {
+      List<Material> created = new ArrayList<>(files.size());
+      for (Stored f : files) {
+        Material m = new Material();
+        m.setCourse(course);
+        m.setUser(user);
+        m.setTitle(f.title() == null || f.title().isBlank() ? f.originalName() : f.title());
+        m.setType(f.type() == null ? MaterialType.OTHER : f.type());
+        m.setPath("/files/" + course.getId() + "/" + f.dest().getFileName());
+        m.setSize(f.size());
+        created.add(m);
+      }
+      materials.saveAll(created);
+      jobs.saveAll(created.stream().map(m -> new MaterialJob(m.getId())).toList());
+      stats.add(course.getId(), created.size(), 0);
+      for (Material m : created) {
+        worker.enqueued();
+        events.publishEvent(MaterialUploadedEvent.of(m)); // listeners run after commit
+        bus.publish(CacheInvalidatedEvent.MATERIAL, m.getId()); // the other nodes' indexes, see RemoteMaterialRelay
+      }
+      return created;
+    });
+  }
+
+  // Removes the row and its count together; false if it was already gone
+  public boolean delete(Material m) {
+    return Boolean.TRUE.equals(tx.execute(s -> {
+      if (materials.deleteMaterial(m.getId()) == 0) return false;
+      stats.add(m.getCourse().getId(), -1, 0);
+      bus.publish(CacheInvalidatedEvent.MATERIAL, m.getId());
+      return true;
+    }));
+  }
+
+  @org.springframework.transaction.annotation.Transactional(readOnly = true)
   public java.util.List<Material> listForCourse(Long courseId) {
     Course course = courses.findById(courseId).orElseThrow(() -> new IllegalArgumentException("Course not found"));
     return materials.findByCourseOrderByCreatedAtDesc(course);
   }
 
+  // listForCourse for JsonStreamingService, which consumes the stream inside its own transaction
+  public Stream<Material> streamForCourse(Long courseId) {
+    Course course = courses.findById(courseId).orElseThrow(() -> new IllegalArgumentException("Course not found"));
+    return materials.streamByCourseOrderByCreatedAtDesc(course);
+  }
+
   // small util
   static class OptionalExt {
     static String getExt(String name){
@@ -0,0 +1,14 @@
+package com.arms.platform.material;
+
+import java.time.Instant;
+
+// Published after a material row is committed, and again once post-upload processing has settled its
+// type; consumers treat it as an upsert. Carries everything in-memory indexes need, so they never query back.
+public record MaterialUploadedEvent(Long materialId, Long courseId, String courseCode, String courseTitle,
+                                    Long uploaderId, String uploaderName, String title, MaterialType type,
+                                    Instant createdAt) {
+  static MaterialUploadedEvent of(Material m) {
+    return new MaterialUploadedEvent(m.getId(), m.getCourse().getId(), m.getCourse().getCode(), m.getCourse().getTitle(),
+      m.getUser().getId(), m.getUser().getName(), m.getTitle(), m.getType(), m.getCreatedAt());
+  }
+}
@@ -0,0 +1,8 @@
+package com.arms.platform.material;
+
+// Thrown when the post-upload job queue is over its limit; controllers answer 503 with Retry-After
+public class ProcessingBacklogException extends IllegalStateException {
+  public ProcessingBacklogException(long pending) {
+    super("Too many uploads waiting for processing (" + pending + "), retry later");
+  }
+}
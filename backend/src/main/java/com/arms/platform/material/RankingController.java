@@ -1,18 +1,57 @@
 package com.arms.platform.material;
 
+import com.arms.platform.metrics.QueryBudget;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.web.bind.annotation.*;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api")
 public class RankingController {
   private final MaterialRepository repo;
-  public RankingController(MaterialRepository repo){ this.repo = repo; }
+  private final TrendingService trending;
+  public RankingController(MaterialRepository repo, TrendingService trending){ this.repo = repo; this.trending = trending; }
+
+  public record TrendingRow(Long materialId, String title, MaterialType type, Long courseId, String courseCode,
+                            Long uploaderId, String uploaderName, double score) {}
 
   @GetMapping("/rankings")
+  @QueryBudget(1)
   public List<RankingRow> rankings(@RequestParam(defaultValue="50") int limit){
     int n = Math.min(Math.max(limit, 1), 100);
     return repo.topUploaders(PageRequest.of(0, n));
   }
+
+  // Materials ranked by recent downloads and views (see TrendingService); score is in downloads,
+  // decayed by age
+  @GetMapping("/rankings/trending")
+  @QueryBudget(1)
+  public List<TrendingRow> trending(@RequestParam(defaultValue="20") int limit){
+    return trendingRows(null, limit);
+  }
+
+  @GetMapping("/rankings/trending/courses/{courseId}")
+  @QueryBudget(1)
+  public List<TrendingRow> trendingInCourse(@PathVariable Long courseId, @RequestParam(defaultValue="20") int limit){
+    return trendingRows(courseId, limit);
+  }
+
+  private List<TrendingRow> trendingRows(Long courseId, int limit){
+    List<TrendingService.Trend> top = trending.top(courseId, Math.min(Math.max(limit, 1), 100));
+    if (top.isEmpty()) return List.of();
+    Map<Long, MaterialUploadedEvent> found = repo.findSummaries(top.stream().map(TrendingService.Trend::materialId).toList())
+      .stream().collect(Collectors.toMap(MaterialUploadedEvent::materialId, Function.identity()));
+    List<TrendingRow> rows = new ArrayList<>(top.size());
+    for (TrendingService.Trend t : top) {
+      MaterialUploadedEvent m = found.get(t.materialId());
+      if (m == null) continue; // deleted before the sketch heard of it
+      rows.add(new TrendingRow(m.materialId(), m.title(), m.type(), m.courseId(), m.courseCode(), m.uploaderId(),
+        m.uploaderName(), Math.round(t.score() * 100) / 100.0));
+    }
+    return rows;
+  }
 }
@@ -0,0 +1,122 @@
+package com.arms.platform.material;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Weighted Space-Saving heavy-hitters sketch (Metwally et al.) over material ids, in at most `capacity`
+// counters. A tracked id adds its weight; an untracked one takes over the smallest counter, inheriting
+// its count as error. Every id whose true total exceeds (sum of weights) / capacity is guaranteed to be
+// tracked, and count - error <= true total <= count. The counters form an indexed min-heap, so an update
+// is O(log capacity). Not thread-safe.
+final class SpaceSaving {
+  record Counter(long id, double count, double error) {}
+
+  private final long[] ids;
+  private final double[] counts;
+  private final double[] errors;
+  private final Map<Long, Integer> slot = new HashMap<>(); // id -> heap index
+  private int size;
+
+  SpaceSaving(int capacity) {
+    ids = new long[capacity];
+    counts = new double[capacity];
+    errors = new double[capacity];
+  }
+
+  void add(long id, double weight) {
+    Integer i = slot.get(id);
+    if (i != null) {
+      counts[i] += weight;
+      siftDown(i);
+    } else if (size < ids.length) {
+      set(size, id, weight, 0);
+      siftUp(size++);
+    } else {
+      slot.remove(ids[0]);
+      double min = counts[0];
+      set(0, id, min + weight, min);
+      siftDown(0);
+    }
+  }
+
+  // Reinstates a counter read back from a snapshot; behaves like add once the sketch is full
+  void restore(long id, double count, double error) {
+    if (size == ids.length || slot.containsKey(id)) {
+      add(id, count);
+      return;
+    }
+    set(size, id, count, error);
+    siftUp(size++);
+  }
+
+  void remove(long id) {
+    Integer i = slot.remove(id);
+    if (i == null) return;
+    if (i != --size) {
+      set(i, ids[size], counts[size], errors[size]);
+      siftDown(i);
+      siftUp(i);
+    }
+  }
+
+  // Multiplies every counter; used to renormalize decayed weights
+  void scale(double factor) {
+    for (int i = 0; i < size; i++) { counts[i] *= factor; errors[i] *= factor; }
+  }
+
+  int size() { return size; }
+
+  /** The n largest counters, largest first. */
+  List<Counter> top(int n) {
+    List<Counter> all = counters();
+    all.sort(Comparator.comparingDouble(Counter::count).reversed().thenComparingLong(Counter::id));
+    return all.subList(0, Math.min(n, all.size()));
+  }
+
+  List<Counter> counters() {
+    List<Counter> out = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) out.add(new Counter(ids[i], counts[i], errors[i]));
+    return out;
+  }
+
+  void clear() {
+    slot.clear();
+    Arrays.fill(ids, 0);
+    size = 0;
+  }
+
+  private void set(int i, long id, double count, double error) {
+    ids[i] = id; counts[i] = count; errors[i] = error;
+    slot.put(id, i);
+  }
+
+  private void siftUp(int i) {
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (counts[parent] <= counts[i]) return;
+      swap(i, parent);
+      i = parent;
+    }
+  }
+
+  private void siftDown(int i) {
+    while (true) {
+      int l = 2 * i + 1, r = l + 1, min = i;
+      if (l < size && counts[l] < counts[min]) min = l;
+      if (r < size && counts[r] < counts[min]) min = r;
+      if (min == i) return;
+      swap(i, min);
+      i = min;
+    }
+  }
+
+  private void swap(int a, int b) {
+    long id = ids[a]; double c = counts[a], e = errors[a];
+    set(a, ids[b], counts[b], errors[b]);
+    set(b, id, c, e);
+  }
+}
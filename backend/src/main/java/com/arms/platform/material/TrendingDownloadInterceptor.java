@@ -0,0 +1,19 @@
+package com.arms.platform.material;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+// Counts completed downloads of stored files (served by the /files/** resource handler) towards trending.
+// Only full 200 GETs: range requests from a player seeking through a video would count many times.
+public class TrendingDownloadInterceptor implements HandlerInterceptor {
+  private final TrendingService trending;
+
+  public TrendingDownloadInterceptor(TrendingService trending) { this.trending = trending; }
+
+  @Override
+  public void afterCompletion(HttpServletRequest req, HttpServletResponse res, Object handler, Exception ex) {
+    if (ex != null || res.getStatus() != 200 || !"GET".equals(req.getMethod())) return;
+    trending.recordDownload(req.getRequestURI().substring(req.getContextPath().length()));
+  }
+}
@@ -0,0 +1,252 @@
+package com.arms.platform.material;
+
+import com.arms.platform.cache.CacheInvalidatedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+// "Trending" materials: downloads (weight 1) and listing impressions (app.trending.view-weight) fed into
+// bounded Space-Saving sketches, one global and one per course, so memory does not grow with traffic.
+//
+// Decay is forward decay: an event at time t is added with weight e^(λ(t - landmark)) and scores are
+// read as count * e^(-λ(now - landmark)), which equals the sum over events of e^(-λ·age) without ever
+// touching the stored counters. Before the exponent gets large the counters are scaled down and the
+// landmark moved to now. λ comes from app.trending.half-life-hours.
+//
+// State is written to app.trending.snapshot-file periodically and on shutdown, and read back at startup.
+//
+// Tracking is per node: each node counts only the downloads and listings it served and keeps its own
+// snapshot, so behind a load balancer every node ranks from its share of the traffic.
+@Service
+public class TrendingService {
+  private static final Logger log = LoggerFactory.getLogger(TrendingService.class);
+  private static final int SNAPSHOT_VERSION = 1;
+  private static final double RENORMALIZE_AT = 50; // e^50 is far from overflow, counts keep precision
+  private static final long GLOBAL = -1;
+
+  record Trend(long materialId, double score) {}
+
+  private final MaterialRepository materials;
+  private final double lambda; // per millisecond
+  private final int courseCapacity;
+  private final double viewWeight;
+  private final int viewsPerListing;
+  private final Path snapshotFile;
+
+  // guarded by this
+  private final SpaceSaving global;
+  private final Map<Long, SpaceSaving> byCourse = new HashMap<>();
+  private long landmark = System.currentTimeMillis();
+  private boolean dirty;
+
+  // download path -> material id; ids never change for a path, so entries only age out
+  private final Map<String, Long> pathIds = new LinkedHashMap<>(1024, 0.75f, true) {
+    @Override protected boolean removeEldestEntry(Map.Entry<String, Long> e) { return size() > 10_000; }
+  };
+
+  public TrendingService(MaterialRepository materials,
+                         @Value("${app.trending.half-life-hours:72}") double halfLifeHours,
+                         @Value("${app.trending.capacity:1000}") int capacity,
+                         @Value("${app.trending.course-capacity:100}") int courseCapacity,
+                         @Value("${app.trending.view-weight:0.1}") double viewWeight,
+                         @Value("${app.trending.views-per-listing:20}") int viewsPerListing,
+                         @Value("${app.trending.snapshot-file:${user.home}/.arms-platform/trending.snapshot}") String snapshotFile) {
+    this.materials = materials;
+    this.lambda = Math.log(2) / (halfLifeHours * 3_600_000);
+    this.global = new SpaceSaving(capacity);
+    this.courseCapacity = courseCapacity;
+    this.viewWeight = viewWeight;
+    this.viewsPerListing = viewsPerListing;
+    this.snapshotFile = Path.of(snapshotFile).toAbsolutePath().normalize();
+  }
+
+  /** A completed download of a stored file, by its request path (/files/{courseId}/{name}). */
+  public void recordDownload(String path) {
+    Long id;
+    synchronized (pathIds) { id = pathIds.get(path); }
+    if (id == null) {
+      id = materials.findIdByPath(path).orElse(null);
+      if (id == null) return; // not a material
+      synchronized (pathIds) { pathIds.put(path, id); }
+    }
+    Long courseId = courseOf(path);
+    if (courseId != null) record(id, courseId, 1);
+  }
+
+  /** Impressions: the first app.trending.views-per-listing materials of a response. */
+  public <T> void recordViews(List<T> shown, ToLongFunction<T> materialId, ToLongFunction<T> courseId) {
+    if (viewWeight <= 0) return;
+    synchronized (this) {
+      for (int i = 0; i < shown.size() && i < viewsPerListing; i++) {
+        T m = shown.get(i);
+        record(materialId.applyAsLong(m), courseId.applyAsLong(m), viewWeight);
+      }
+    }
+  }
+
+  /** Highest decayed scores, globally (courseId null) or within one course. */
+  synchronized List<Trend> top(Long courseId, int n) {
+    SpaceSaving s = courseId == null ? global : byCourse.get(courseId);
+    if (s == null) return List.of();
+    double decay = Math.exp(-lambda * (System.currentTimeMillis() - landmark));
+    List<Trend> out = new ArrayList<>(n);
+    for (SpaceSaving.Counter c : s.top(n)) out.add(new Trend(c.id(), c.count() * decay));
+    return out;
+  }
+
+  @EventListener
+  public synchronized void onDeleted(MaterialDeletedEvent e) {
+    global.remove(e.materialId());
+    if (e.courseId() == null) {
+      byCourse.values().forEach(s -> s.remove(e.materialId()));
+      return;
+    }
+    SpaceSaving s = byCourse.get(e.courseId());
+    if (s != null) s.remove(e.materialId());
+  }
+
+  // Deletes made on another node arrive one by one through RemoteMaterialRelay; when some may have been
+  // missed, drop the counters of every tracked material that no longer exists
+  @EventListener
+  public void onInvalidated(CacheInvalidatedEvent e) {
+    if (!e.affects(CacheInvalidatedEvent.MATERIAL) || !e.wholeRegion()) return;
+    Set<Long> tracked = new HashSet<>();
+    synchronized (this) {
+      global.counters().forEach(c -> tracked.add(c.id()));
+      byCourse.values().forEach(s -> s.counters().forEach(c -> tracked.add(c.id())));
+    }
+    if (tracked.isEmpty()) return;
+    tracked.removeAll(materials.findExistingIds(tracked));
+    synchronized (this) {
+      for (Long id : tracked) {
+        global.remove(id);
+        byCourse.values().forEach(s -> s.remove(id));
+      }
+      if (!tracked.isEmpty()) dirty = true;
+    }
+  }
+
+  private synchronized void record(long materialId, long courseId, double weight) {
+    long now = System.currentTimeMillis();
+    double exponent = lambda * (now - landmark);
+    if (exponent > RENORMALIZE_AT) {
+      rescale(Math.exp(-exponent));
+      landmark = now;
+      exponent = 0;
+    }
+    double w = weight * Math.exp(exponent);
+    global.add(materialId, w);
+    byCourse.computeIfAbsent(courseId, k -> new SpaceSaving(courseCapacity)).add(materialId, w);
+    dirty = true;
+  }
+
+  private void rescale(double factor) {
+    global.scale(factor);
+    byCourse.values().forEach(s -> s.scale(factor));
+  }
+
+  private static Long courseOf(String path) {
+    // /files/{courseId}/{name}
+    int a = path.indexOf('/', 1), b = a < 0 ? -1 : path.indexOf('/', a + 1);
+    if (b < 0) return null;
+    try {
+      return Long.parseLong(path.substring(a + 1, b));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  // Snapshot: counters are stored already decayed to the snapshot time, so the file does not depend on
+  // the landmark or on λ, and the time the service was down decays like any other time.
+  //   int version, long takenAt, then per sketch: long courseId (-1 global), int n, n x (long id, double count, double error)
+  @Scheduled(initialDelayString = "${app.trending.snapshot-interval-ms:300000}", fixedDelayString = "${app.trending.snapshot-interval-ms:300000}")
+  public void snapshot() {
+    Map<Long, List<SpaceSaving.Counter>> copy = new LinkedHashMap<>();
+    long takenAt;
+    double decay;
+    synchronized (this) {
+      if (!dirty) return;
+      takenAt = System.currentTimeMillis();
+      decay = Math.exp(-lambda * (takenAt - landmark));
+      copy.put(GLOBAL, global.counters());
+      byCourse.forEach((id, s) -> copy.put(id, s.counters()));
+      dirty = false;
+    }
+    try {
+      Files.createDirectories(snapshotFile.getParent());
+      Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+        out.writeInt(SNAPSHOT_VERSION);
+        out.writeLong(takenAt);
+        for (Map.Entry<Long, List<SpaceSaving.Counter>> e : copy.entrySet()) {
+          out.writeLong(e.getKey());
+          out.writeInt(e.getValue().size());
+          for (SpaceSaving.Counter c : e.getValue()) {
+            out.writeLong(c.id());
+            out.writeDouble(c.count() * decay);
+            out.writeDouble(c.error() * decay);
+          }
+        }
+      }
+      Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      synchronized (this) { dirty = true; }
+      log.warn("Could not write trending snapshot {}: {}", snapshotFile, e.toString());
+    }
+  }
+
+  @PreDestroy
+  void flush() {
+    snapshot();
+  }
+
+  @PostConstruct
+  synchronized void restore() {
+    if (!Files.isRegularFile(snapshotFile)) return;
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+      if (in.readInt() != SNAPSHOT_VERSION) {
+        log.warn("Ignoring trending snapshot {} with an unknown version", snapshotFile);
+        return;
+      }
+      landmark = in.readLong();
+      int tracked = 0;
+      while (in.available() > 0) {
+        long key = in.readLong();
+        SpaceSaving s = key == GLOBAL ? global : byCourse.computeIfAbsent(key, k -> new SpaceSaving(courseCapacity));
+        for (int i = in.readInt(); i > 0; i--, tracked++) {
+          long id = in.readLong();
+          double count = in.readDouble(), error = in.readDouble();
+          s.restore(id, count, error);
+        }
+      }
+      log.info("Restored {} trending counter(s) from {}", tracked, snapshotFile);
+    } catch (IOException e) {
+      global.clear();
+      byCourse.clear();
+      landmark = System.currentTimeMillis();
+      log.warn("Could not read trending snapshot {}, starting empty: {}", snapshotFile, e.toString());
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package com.arms.platform.material;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+// Sniffs the real format from the file's leading bytes instead of trusting the client-supplied type.
+// NOTES and ASSIGNMENT describe purpose, not format, so they are kept for any document format.
+@Component
+@Order(20)
+public class TypeDetectionStage implements MaterialProcessingStage {
+  private static final Set<String> CODE_EXT = Set.of(
+    "java","py","c","h","cpp","hpp","cs","js","ts","go","rs","kt","rb","php","sql","sh","ipynb","html","css");
+
+  @Override
+  public String name(){ return "detect-type"; }
+
+  @Override
+  public void process(Material material, Path file) throws Exception {
+    byte[] head = new byte[8];
+    int n;
+    try (InputStream in = Files.newInputStream(file)) { n = in.readNBytes(head, 0, head.length); }
+
+    String mime;
+    MaterialType detected;
+    if (startsWith(head, n, "%PDF")) {
+      mime = "application/pdf"; detected = MaterialType.DOC;
+    } else if (startsWith(head, n, "PK\u0003\u0004")) {
+      String office = officeKind(file);
+      if ("ppt".equals(office)) {
+        mime = "application/vnd.openxmlformats-officedocument.presentationml.presentation"; detected = MaterialType.PPT;
+      } else if ("word".equals(office)) {
+        mime = "application/vnd.openxmlformats-officedocument.wordprocessingml.document"; detected = MaterialType.DOC;
+      } else {
+        mime = "application/zip"; detected = null;
+      }
+    } else if (n >= 4 && (head[0] & 0xff) == 0xD0 && (head[1] & 0xff) == 0xCF && (head[2] & 0xff) == 0x11 && (head[3] & 0xff) == 0xE0) {
+      mime = "application/x-ole-storage"; detected = null; // legacy .doc/.ppt, cannot tell which without parsing
+    } else if (CODE_EXT.contains(MaterialService.OptionalExt.getExt(material.getPath()).toLowerCase())) {
+      mime = "text/plain"; detected = MaterialType.CODE;
+    } else {
+      mime = "application/octet-stream"; detected = null;
+    }
+
+    material.setContentType(mime);
+    if (detected == null) return;
+    MaterialType claimed = material.getType();
+    boolean purposeType = claimed == MaterialType.NOTES || claimed == MaterialType.ASSIGNMENT;
+    if (!(purposeType && detected != MaterialType.CODE)) material.setType(detected);
+  }
+
+  // OOXML packages are zips whose first entries name the part layout (ppt/..., word/...)
+  private static String officeKind(Path file) throws Exception {
+    try (ZipInputStream zin = new ZipInputStream(Files.newInputStream(file))) {
+      ZipEntry e;
+      for (int i = 0; i < 50 && (e = zin.getNextEntry()) != null; i++) {
+        if (e.getName().startsWith("ppt/")) return "ppt";
+        if (e.getName().startsWith("word/")) return "word";
+      }
+    }
+    return null;
+  }
+
+  private static boolean startsWith(byte[] head, int n, String magic){
+    if (n < magic.length()) return false;
+    for (int i = 0; i < magic.length(); i++) if (head[i] != (byte) magic.charAt(i)) return false;
+    return true;
+  }
+}
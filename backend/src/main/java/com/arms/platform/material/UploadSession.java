@@ -0,0 +1,65 @@
+package com.arms.platform.material;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+// A resumable upload in progress. Chunk data and the received-chunk map live in the staging directory,
+// see UploadSessionService.
+@Entity
+@Table(name="upload_sessions", indexes=@Index(columnList="createdAt"))
+public class UploadSession {
+  @Id
+  private String id;
+
+  @Column(nullable=false)
+  private Long courseId;
+
+  @Column(nullable=false)
+  private Long userId;
+
+  @Column(nullable=false)
+  private String fileName;
+
+  private String title;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable=false)
+  private MaterialType type = MaterialType.OTHER;
+
+  @Column(nullable=false)
+  private long totalSize;
+
+  @Column(nullable=false)
+  private int chunkSize;
+
+  @Column(nullable=false)
+  private int chunkCount;
+
+  @Column(nullable=false, updatable=false)
+  private Instant createdAt = Instant.now();
+
+  public String getId(){return id;}
+  public void setId(String id){this.id=id;}
+  public Long getCourseId(){return courseId;}
+  public void setCourseId(Long courseId){this.courseId=courseId;}
+  public Long getUserId(){return userId;}
+  public void setUserId(Long userId){this.userId=userId;}
+  public String getFileName(){return fileName;}
+  public void setFileName(String fileName){this.fileName=fileName;}
+  public String getTitle(){return title;}
+  public void setTitle(String title){this.title=title;}
+  public MaterialType getType(){return type;}
+  public void setType(MaterialType type){this.type=type;}
+  public long getTotalSize(){return totalSize;}
+  public void setTotalSize(long totalSize){this.totalSize=totalSize;}
+  public int getChunkSize(){return chunkSize;}
+  public void setChunkSize(int chunkSize){this.chunkSize=chunkSize;}
+  public int getChunkCount(){return chunkCount;}
+  public void setChunkCount(int chunkCount){this.chunkCount=chunkCount;}
+  public Instant getCreatedAt(){return createdAt;}
+
+  // Length of chunk i; only the last chunk may be short
+  long chunkLength(int index){
+    return index == chunkCount - 1 ? totalSize - (long) index * chunkSize : chunkSize;
+  }
+}
@@ -0,0 +1,18 @@
+package com.arms.platform.material;
+
+import jakarta.persistence.LockModeType;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+  // serializes concurrent "complete" calls for the same session
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT s FROM UploadSession s WHERE s.id = ?1")
+  Optional<UploadSession> findForUpdate(String id);
+
+  List<UploadSession> findByCreatedAtBefore(Instant cutoff);
+}
@@ -0,0 +1,217 @@
+package com.arms.platform.material;
+
+import com.arms.platform.course.Course;
+import com.arms.platform.course.CourseRepository;
+import com.arms.platform.metrics.StorageMetrics;
+import com.arms.platform.user.User;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Resumable uploads. Each session owns two files in the staging directory (kept outside the
+// publicly served upload dir):
+//   <id>.part  - the target file, chunks written at their offset with positional FileChannel writes
+//   <id>.map   - one byte per chunk, set to 1 after that chunk's bytes are forced to disk
+// Chunks for different offsets never overlap, so they can arrive in parallel and in any order.
+//
+// Staging is local to the node that created the session: with several nodes behind a load balancer,
+// every chunk, status and complete request for a session must reach that node (route /api/uploads/{id}
+// by id), or app.upload.staging-dir must be a filesystem shared by all nodes. A request that lands on
+// another node fails with IllegalStateException instead of writing to a file that is not there.
+@Service
+public class UploadSessionService {
+  private static final Logger log = LoggerFactory.getLogger(UploadSessionService.class);
+  static final int MIN_CHUNK = 256 * 1024;
+  static final int MAX_CHUNK = 64 * 1024 * 1024;
+
+  private final UploadSessionRepository sessions;
+  private final CourseRepository courses;
+  private final MaterialService materialService;
+  private final StorageMetrics storageMetrics;
+  private final Path staging;
+  private final int defaultChunkSize;
+  private final long maxFileSize;
+  private final Duration ttl;
+
+  public UploadSessionService(UploadSessionRepository sessions, CourseRepository courses,
+                              MaterialService materialService, StorageMetrics storageMetrics,
+                              @Value("${app.upload.staging-dir}") String stagingDir,
+                              @Value("${app.upload.chunk-size:8388608}") int defaultChunkSize,
+                              @Value("${app.upload.max-session-size:2147483648}") long maxFileSize,
+                              @Value("${app.upload.session-ttl-hours:24}") long ttlHours) throws IOException {
+    this.sessions = sessions; this.courses = courses;
+    this.materialService = materialService; this.storageMetrics = storageMetrics;
+    this.staging = Path.of(stagingDir).toAbsolutePath().normalize();
+    Files.createDirectories(this.staging);
+    this.defaultChunkSize = defaultChunkSize;
+    this.maxFileSize = maxFileSize;
+    this.ttl = Duration.ofHours(ttlHours);
+  }
+
+  @Transactional
+  public UploadSession create(Long courseId, User user, String fileName, String title, MaterialType type,
+                              long size, Integer chunkSize) throws IOException {
+    if (!courses.existsById(courseId)) throw new IllegalArgumentException("Course not found");
+    if (fileName == null || fileName.isBlank()) throw new IllegalArgumentException("fileName required");
+    if (size <= 0 || size > maxFileSize) throw new IllegalArgumentException("size must be between 1 and " + maxFileSize);
+    int chunk = chunkSize == null ? defaultChunkSize : chunkSize;
+    if (chunk < MIN_CHUNK || chunk > MAX_CHUNK) {
+      throw new IllegalArgumentException("chunkSize must be between " + MIN_CHUNK + " and " + MAX_CHUNK);
+    }
+    long count = (size + chunk - 1) / chunk;
+
+    UploadSession s = new UploadSession();
+    s.setId(UUID.randomUUID().toString());
+    s.setCourseId(courseId);
+    s.setUserId(user.getId());
+    s.setFileName(fileName);
+    s.setTitle(title);
+    s.setType(type == null ? MaterialType.OTHER : type);
+    s.setTotalSize(size);
+    s.setChunkSize(chunk);
+    s.setChunkCount((int) count);
+
+    // sparse files: no space is written up front
+    try (RandomAccessFile part = new RandomAccessFile(partFile(s.getId()).toFile(), "rw");
+         RandomAccessFile map = new RandomAccessFile(mapFile(s.getId()).toFile(), "rw")) {
+      part.setLength(size);
+      map.setLength(count);
+    }
+    return sessions.save(s);
+  }
+
+  public UploadSession find(String id) {
+    return sessions.findById(id).orElse(null);
+  }
+
+  // Streams one chunk straight from the request body into its slot of the part file
+  public void writeChunk(UploadSession s, int index, InputStream body) throws IOException {
+    if (index < 0 || index >= s.getChunkCount()) throw new IllegalArgumentException("chunk index out of range");
+    long expected = s.chunkLength(index);
+    long offset = (long) index * s.getChunkSize();
+    requireLocal(s);
+    long t0 = System.nanoTime();
+    try (FileChannel part = FileChannel.open(partFile(s.getId()), StandardOpenOption.WRITE);
+         ReadableByteChannel in = Channels.newChannel(body)) {
+      long written = 0;
+      while (written < expected) {
+        long n = part.transferFrom(in, offset + written, expected - written);
+        if (n <= 0) break;
+        written += n;
+      }
+      if (written != expected || body.read() != -1) {
+        throw new IllegalArgumentException("chunk " + index + " must be exactly " + expected + " bytes");
+      }
+      part.force(false);
+    }
+    try (FileChannel map = FileChannel.open(mapFile(s.getId()), StandardOpenOption.WRITE)) {
+      map.write(ByteBuffer.wrap(new byte[]{1}), index);
+    }
+    storageMetrics.recordUpload("local-chunk", expected, System.nanoTime() - t0);
+  }
+
+  public List<Integer> missingChunks(UploadSession s) throws IOException {
+    requireLocal(s);
+    byte[] map = Files.readAllBytes(mapFile(s.getId()));
+    List<Integer> missing = new ArrayList<>();
+    for (int i = 0; i < s.getChunkCount(); i++) if (map[i] == 0) missing.add(i);
+    return missing;
+  }
+
+  // Creates the Material for the assembled file. The file stays in the staging directory (never served)
+  // until the commit has succeeded and is moved into the upload dir only then; if the transaction rolls
+  // back, the commit included, nothing has moved and the session stays resumable. Keep staging on the
+  // same filesystem as the upload dir so that move is a rename and no partial file is ever visible.
+  @Transactional
+  public Material complete(String id, User user) throws IOException {
+    materialService.checkCapacity();
+    UploadSession s = sessions.findForUpdate(id).orElseThrow(() -> new IllegalArgumentException("Upload session not found"));
+    List<Integer> missing = missingChunks(s);
+    if (!missing.isEmpty()) throw new IllegalStateException(missing.size() + " chunk(s) missing");
+    Course course = courses.findById(s.getCourseId()).orElseThrow(() -> new IllegalArgumentException("Course not found"));
+
+    Path dest = materialService.newFilePath(s.getCourseId(), s.getFileName());
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        try {
+          move(partFile(id), dest);
+          Files.deleteIfExists(mapFile(id));
+        } catch (IOException e) {
+          log.error("Upload session {} committed but its file could not be moved to {}", id, dest, e);
+        }
+      }
+    });
+    Material m = materialService.create(course, user, s.getTitle(), s.getType(), s.getFileName(), dest, s.getTotalSize());
+    sessions.delete(s);
+    return m;
+  }
+
+  @Transactional
+  public void abort(UploadSession s) throws IOException {
+    sessions.delete(s);
+    deleteFiles(s.getId());
+  }
+
+  // Sessions past the TTL with no chunk activity (part file mtime) are dropped with their files
+  @Scheduled(fixedDelayString = "${app.upload.session-gc-interval-ms:3600000}")
+  public void collectAbandoned() {
+    Instant cutoff = Instant.now().minus(ttl);
+    for (UploadSession s : sessions.findByCreatedAtBefore(cutoff)) {
+      try {
+        Path part = partFile(s.getId());
+        if (Files.exists(part) && Files.getLastModifiedTime(part).toInstant().isAfter(cutoff)) continue;
+        sessions.delete(s);
+        deleteFiles(s.getId());
+        log.info("Removed abandoned upload session {} ({} bytes)", s.getId(), s.getTotalSize());
+      } catch (Exception e) {
+        log.warn("Could not remove upload session {}: {}", s.getId(), e.getMessage());
+      }
+    }
+  }
+
+  private void deleteFiles(String id) throws IOException {
+    Files.deleteIfExists(partFile(id));
+    Files.deleteIfExists(mapFile(id));
+  }
+
+  private void requireLocal(UploadSession s) {
+    if (!Files.exists(mapFile(s.getId()))) {
+      throw new IllegalStateException("Upload session " + s.getId() + " is staged on another node");
+    }
+  }
+
+  private Path partFile(String id) { return staging.resolve(id + ".part"); }
+  private Path mapFile(String id) { return staging.resolve(id + ".map"); }
+
+  private static void move(Path from, Path to) throws IOException {
+    try {
+      Files.move(from, to, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(from, to, StandardCopyOption.REPLACE_EXISTING); // staging on another filesystem
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package com.arms.platform.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+// Local files are served by the /files/** resource handler, so downloads are measured here
+public class DownloadMetricsInterceptor implements HandlerInterceptor {
+  private static final String START = DownloadMetricsInterceptor.class.getName() + ".start";
+  private final StorageMetrics metrics;
+
+  public DownloadMetricsInterceptor(StorageMetrics metrics) { this.metrics = metrics; }
+
+  @Override
+  public boolean preHandle(HttpServletRequest req, HttpServletResponse res, Object handler) {
+    req.setAttribute(START, System.nanoTime());
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest req, HttpServletResponse res, Object handler, Exception ex) {
+    Object start = req.getAttribute(START);
+    if (!(start instanceof Long t0) || res.getStatus() >= 400) return;
+    String len = res.getHeader(HttpHeaders.CONTENT_LENGTH);
+    long bytes = len == null ? -1 : Long.parseLong(len);
+    metrics.recordDownload("local", bytes, System.nanoTime() - t0);
+  }
+}
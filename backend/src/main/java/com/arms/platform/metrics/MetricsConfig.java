@@ -0,0 +1,63 @@
+package com.arms.platform.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+@Configuration
+@ConditionalOnProperty(name="app.timing.enabled", havingValue="true", matchIfMissing=true)
+public class MetricsConfig {
+
+  @Bean
+  public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(
+      @Value("${app.timing.slow-threshold-ms:500}") long slowThresholdMs,
+      @Value("${app.timing.slow-log-sample-rate:0.1}") double sampleRate,
+      MeterRegistry registry) {
+    FilterRegistrationBean<ServerTimingFilter> reg =
+        new FilterRegistrationBean<>(new ServerTimingFilter(slowThresholdMs, sampleRate, registry));
+    reg.setOrder(Ordered.HIGHEST_PRECEDENCE);
+    return reg;
+  }
+
+  @Bean
+  public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+    return new TimedJacksonConverter(objectMapper);
+  }
+
+  // Binary encodings of the same payloads, chosen by the Accept header
+  @Bean
+  public TimedJacksonConverter.Cbor cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+    return new TimedJacksonConverter.Cbor(builder.factory(new CBORFactory()).build());
+  }
+
+  @Bean
+  public TimedJacksonConverter.Smile smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+    return new TimedJacksonConverter.Smile(builder.factory(new SmileFactory()).build());
+  }
+
+  @Bean
+  public static BeanPostProcessor repositoryTimingPostProcessor() {
+    RepositoryTimingInterceptor interceptor = new RepositoryTimingInterceptor();
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+          factoryBean.addRepositoryFactoryCustomizer(factory ->
+              factory.addRepositoryProxyPostProcessor((proxy, info) -> proxy.addAdvice(interceptor)));
+        }
+        return bean;
+      }
+    };
+  }
+}
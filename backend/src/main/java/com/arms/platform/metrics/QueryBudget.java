@@ -0,0 +1,12 @@
+package com.arms.platform.metrics;
+
+import java.lang.annotation.*;
+
+// Maximum number of SQL statements a handler may issue, counted from the start of the handler
+// (authentication lookups excluded) through response serialization
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface QueryBudget {
+    int value();
+}
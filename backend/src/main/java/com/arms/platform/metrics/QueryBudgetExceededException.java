@@ -0,0 +1,5 @@
+package com.arms.platform.metrics;
+
+public class QueryBudgetExceededException extends IllegalStateException {
+  public QueryBudgetExceededException(String message) { super(message); }
+}
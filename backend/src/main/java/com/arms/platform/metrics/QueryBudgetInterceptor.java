@@ -0,0 +1,41 @@
+package com.arms.platform.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+// Checks handlers annotated with @QueryBudget. Logs by default; with fail-on-exceed (tests) it throws,
+// which MockMvc surfaces as a failed request.
+public class QueryBudgetInterceptor implements HandlerInterceptor {
+  private static final Logger log = LoggerFactory.getLogger(QueryBudgetInterceptor.class);
+  private static final String START = QueryBudgetInterceptor.class.getName() + ".start";
+  private final boolean failOnExceed;
+
+  public QueryBudgetInterceptor(boolean failOnExceed) { this.failOnExceed = failOnExceed; }
+
+  @Override
+  public boolean preHandle(HttpServletRequest req, HttpServletResponse res, Object handler) {
+    if (budget(handler) != null) req.setAttribute(START, QueryCountInspector.count());
+    return true;
+  }
+
+  @Override
+  public void postHandle(HttpServletRequest req, HttpServletResponse res, Object handler, ModelAndView mav) {
+    QueryBudget budget = budget(handler);
+    if (budget == null || !(req.getAttribute(START) instanceof Long start)) return;
+    long used = QueryCountInspector.count() - start;
+    if (used <= budget.value()) return;
+    String msg = "Query budget exceeded for " + ((HandlerMethod) handler).getShortLogMessage()
+        + ": " + used + " statements, budget " + budget.value();
+    if (failOnExceed) throw new QueryBudgetExceededException(msg);
+    log.warn(msg);
+  }
+
+  private static QueryBudget budget(Object handler) {
+    return handler instanceof HandlerMethod hm ? hm.getMethodAnnotation(QueryBudget.class) : null;
+  }
+}
@@ -0,0 +1,17 @@
+package com.arms.platform.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Counts JDBC statements prepared by Hibernate on the current thread. The counter only ever grows,
+// so callers take a snapshot and diff (see RequestTiming and QueryBudgetInterceptor).
+public class QueryCountInspector implements StatementInspector {
+  private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+  @Override
+  public String inspect(String sql) {
+    COUNT.get()[0]++;
+    return sql;
+  }
+
+  public static long count() { return COUNT.get()[0]; }
+}
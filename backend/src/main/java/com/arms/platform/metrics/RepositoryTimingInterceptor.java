@@ -0,0 +1,15 @@
+package com.arms.platform.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+// Attributes every Spring Data repository call to the "db" phase; a call made from within another
+// repository call is part of the outer one and not counted again
+class RepositoryTimingInterceptor implements MethodInterceptor {
+  @Override
+  public Object invoke(MethodInvocation invocation) throws Throwable {
+    try (RequestTiming.Section s = RequestTiming.start(RequestTiming.Phase.DB)) {
+      return invocation.proceed();
+    }
+  }
+}
@@ -0,0 +1,157 @@
+package com.arms.platform.metrics;
+
+// Per-request accumulator of time spent in each phase; bound to the request thread by ServerTimingFilter
+public final class RequestTiming {
+  public enum Phase {
+    AUTH("auth"), DB("db"), HASH("hash"), STORAGE("storage"), SERIALIZE("ser");
+
+    final String key;
+    Phase(String key) { this.key = key; }
+  }
+
+  private static final Phase[] PHASES = Phase.values();
+  private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+  private static final com.sun.management.ThreadMXBean THREADS =
+      (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+
+  private final long startNanos = System.nanoTime();
+  private final long statementsAtStart = QueryCountInspector.count();
+  private final long allocatedAtStart = allocatedByThisThread();
+  private final long cpuAtStart = cpuOfThisThread();
+  private final long[] nanos = new long[PHASES.length];
+  private final int[] calls = new int[PHASES.length];
+  private Section open; // innermost section being timed
+  Section serializing;
+
+  static RequestTiming begin() {
+    RequestTiming t = new RequestTiming();
+    CURRENT.set(t);
+    return t;
+  }
+
+  static void end() { CURRENT.remove(); }
+
+  public static RequestTiming current() { return CURRENT.get(); }
+
+  // No-op outside of a request (scheduled jobs, worker threads). Time measured inside an open section
+  // is taken out of that section, or dropped if the section is of the same phase and counts it already.
+  public static void record(Phase phase, long elapsedNanos) {
+    RequestTiming t = CURRENT.get();
+    if (t == null) return;
+    if (t.open != null) {
+      if (t.open.phase == phase) return;
+      t.open.innerNanos += elapsedNanos;
+    }
+    t.add(phase, elapsedNanos);
+  }
+
+  /** Starts timing a section of the given phase; close it (try-with-resources) when the work is done. */
+  public static Section start(Phase phase) {
+    RequestTiming t = CURRENT.get();
+    if (t == null) return Section.NONE;
+    Section s = new Section(t, phase, t.open);
+    t.open = s;
+    return s;
+  }
+
+  private void add(Phase phase, long elapsedNanos) {
+    nanos[phase.ordinal()] += elapsedNanos;
+    calls[phase.ordinal()]++;
+  }
+
+  // Sections nest, and every nanosecond is counted toward one phase only: a section of another phase
+  // opened inside (the user lookup during authentication, lazy loading during serialization) is left
+  // out of the outer one, and a section of the same phase (a repository method calling another) is
+  // not counted again. So the phase durations never add up to more than the total.
+  public static final class Section implements AutoCloseable {
+    static final Section NONE = new Section(null, null, null);
+
+    private final RequestTiming timing;
+    private final Phase phase;
+    private final Section outer;
+    private final long startNanos = System.nanoTime();
+    private long innerNanos;
+    private boolean closed;
+
+    private Section(RequestTiming timing, Phase phase, Section outer) {
+      this.timing = timing; this.phase = phase; this.outer = outer;
+    }
+
+    @Override
+    public void close() {
+      if (timing == null || closed) return;
+      closed = true;
+      timing.open = outer;
+      long elapsed = System.nanoTime() - startNanos;
+      if (outer != null && outer.phase == phase) {
+        outer.innerNanos += innerNanos; // the outer section covers the rest
+        return;
+      }
+      timing.add(phase, elapsed - innerNanos);
+      if (outer != null) outer.innerNanos += elapsed;
+    }
+  }
+
+  public long elapsedNanos() { return System.nanoTime() - startNanos; }
+  public long nanos(Phase phase) { return nanos[phase.ordinal()]; }
+  public int calls(Phase phase) { return calls[phase.ordinal()]; }
+  public long statements() { return QueryCountInspector.count() - statementsAtStart; }
+  // heap allocated by the request thread so far; work handed to other threads is not included
+  public long allocatedBytes() { return allocatedAtStart < 0 ? -1 : allocatedByThisThread() - allocatedAtStart; }
+
+  // CPU time of the request thread so far (user + system), including serialization and compression
+  public long cpuNanos() { return cpuAtStart < 0 ? -1 : cpuOfThisThread() - cpuAtStart; }
+
+  private static long cpuOfThisThread() {
+    return THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled() ? THREADS.getCurrentThreadCpuTime() : -1;
+  }
+
+  private static long allocatedByThisThread() {
+    return THREADS.isThreadAllocatedMemoryEnabled() ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+  }
+
+  // Server-Timing header value, e.g. "db;dur=3.2;desc="4 calls", sql;desc="5 statements", cpu;dur=4.1, total;dur=12.9"
+  String toHeader() {
+    StringBuilder sb = new StringBuilder(96);
+    for (Phase p : PHASES) {
+      int n = calls[p.ordinal()];
+      if (n == 0) continue;
+      sb.append(p.key).append(";dur=");
+      appendMillis(sb, nanos[p.ordinal()]);
+      sb.append(";desc=\"").append(n).append(n == 1 ? " call\"" : " calls\"").append(", ");
+    }
+    long sql = statements();
+    if (sql > 0) sb.append("sql;desc=\"").append(sql).append(sql == 1 ? " statement\"" : " statements\"").append(", ");
+    long cpu = cpuNanos();
+    if (cpu >= 0) {
+      sb.append("cpu;dur=");
+      appendMillis(sb, cpu);
+      sb.append(", ");
+    }
+    sb.append("total;dur=");
+    appendMillis(sb, elapsedNanos());
+    return sb.toString();
+  }
+
+  // Structured key=value form used for slow request logs
+  String toLogFields() {
+    StringBuilder sb = new StringBuilder(96);
+    sb.append("total_ms=");
+    appendMillis(sb, elapsedNanos());
+    for (Phase p : PHASES) {
+      sb.append(' ').append(p.key).append("_ms=");
+      appendMillis(sb, nanos[p.ordinal()]);
+      sb.append(' ').append(p.key).append("_calls=").append(calls[p.ordinal()]);
+    }
+    sb.append(" sql_statements=").append(statements());
+    sb.append(" alloc_bytes=").append(allocatedBytes());
+    sb.append(" cpu_ms=");
+    appendMillis(sb, Math.max(cpuNanos(), 0));
+    return sb.toString();
+  }
+
+  private static void appendMillis(StringBuilder sb, long nanos) {
+    long tenths = nanos / 100_000; // one decimal place without String.format
+    sb.append(tenths / 10).append('.').append(tenths % 10);
+  }
+}
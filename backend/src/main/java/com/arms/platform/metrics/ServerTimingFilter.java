@@ -0,0 +1,146 @@
+package com.arms.platform.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Adds a Server-Timing header with the per-phase breakdown and logs a sample of slow requests.
+// Also records the bytes each request allocated on its thread (arms.http.allocated, tagged by route) and
+// the CPU time it used (arms.http.cpu); those cover the whole response, unlike the header, which goes out
+// before a large or streamed body is written.
+public class ServerTimingFilter extends OncePerRequestFilter {
+  private static final Logger log = LoggerFactory.getLogger(ServerTimingFilter.class);
+  static final String HEADER = "Server-Timing";
+
+  private final long slowThresholdNanos;
+  private final double slowLogSampleRate;
+  private final MeterRegistry registry;
+
+  public ServerTimingFilter(long slowThresholdMillis, double slowLogSampleRate, MeterRegistry registry) {
+    this.slowThresholdNanos = slowThresholdMillis * 1_000_000L;
+    this.slowLogSampleRate = slowLogSampleRate;
+    this.registry = registry;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+      throws ServletException, IOException {
+    RequestTiming timing = RequestTiming.begin();
+    TimingResponse wrapped = new TimingResponse(res, timing);
+    try {
+      chain.doFilter(req, wrapped);
+    } finally {
+      wrapped.writeHeader();
+      RequestTiming.end();
+      recordResources(req, timing);
+      long elapsed = timing.elapsedNanos();
+      if (elapsed >= slowThresholdNanos && ThreadLocalRandom.current().nextDouble() < slowLogSampleRate) {
+        log.info("slow_request method={} uri={} status={} {}",
+            req.getMethod(), req.getRequestURI(), res.getStatus(), timing.toLogFields());
+      }
+    }
+  }
+
+  private void recordResources(HttpServletRequest req, RequestTiming timing) {
+    Object route = req.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    if (route == null) return; // not a controller request
+    long bytes = timing.allocatedBytes(), cpu = timing.cpuNanos();
+    // either can be unsupported by the JVM
+    if (bytes >= 0) {
+      DistributionSummary.builder("arms.http.allocated").baseUnit("bytes")
+          .tag("method", req.getMethod()).tag("uri", route.toString())
+          .register(registry).record(bytes);
+    }
+    if (cpu >= 0) {
+      Timer.builder("arms.http.cpu")
+          .tag("method", req.getMethod()).tag("uri", route.toString())
+          .register(registry).record(cpu, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  // The header has to be set before the response commits. Tomcat commits once its buffer fills
+  // or on flush, so the header is emitted right before either happens (or when the chain returns).
+  static class TimingResponse extends HttpServletResponseWrapper {
+    private final RequestTiming timing;
+    private ServletOutputStream out;
+    private boolean headerWritten;
+    private long written;
+
+    TimingResponse(HttpServletResponse res, RequestTiming timing) {
+      super(res);
+      this.timing = timing;
+    }
+
+    void writeHeader() {
+      if (headerWritten) return;
+      headerWritten = true;
+      if (!isCommitted()) setHeader(HEADER, timing.toHeader());
+    }
+
+    private void beforeWrite(int len) {
+      if (!headerWritten && (written += len) >= getBufferSize()) writeHeader();
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      if (out == null) {
+        ServletOutputStream delegate = super.getOutputStream();
+        out = new ServletOutputStream() {
+          @Override public void write(int b) throws IOException { beforeWrite(1); delegate.write(b); }
+          @Override public void write(byte[] b, int off, int len) throws IOException { beforeWrite(len); delegate.write(b, off, len); }
+          @Override public void flush() throws IOException { writeHeader(); delegate.flush(); }
+          @Override public void close() throws IOException { writeHeader(); delegate.close(); }
+          @Override public boolean isReady() { return delegate.isReady(); }
+          @Override public void setWriteListener(WriteListener listener) { delegate.setWriteListener(listener); }
+        };
+      }
+      return out;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+      writeHeader();
+      return super.getWriter();
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+      writeHeader();
+      super.flushBuffer();
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+      writeHeader();
+      super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+      writeHeader();
+      super.sendError(sc);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+      writeHeader();
+      super.sendRedirect(location);
+    }
+  }
+}
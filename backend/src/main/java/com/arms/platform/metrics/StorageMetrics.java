@@ -0,0 +1,39 @@
+package com.arms.platform.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+// Upload/download latency and byte counts per storage backend (local disk or s3)
+@Component
+public class StorageMetrics {
+  private final MeterRegistry registry;
+
+  public StorageMetrics(MeterRegistry registry) { this.registry = registry; }
+
+  public void recordUpload(String backend, long bytes, long nanos) {
+    record("arms.storage.upload", backend, bytes, nanos);
+  }
+
+  public void recordDownload(String backend, long bytes, long nanos) {
+    record("arms.storage.download", backend, bytes, nanos);
+  }
+
+  private void record(String name, String backend, long bytes, long nanos) {
+    RequestTiming.record(RequestTiming.Phase.STORAGE, nanos);
+    Timer.builder(name)
+        .tag("backend", backend)
+        .register(registry)
+        .record(nanos, TimeUnit.NANOSECONDS);
+    if (bytes >= 0) {
+      DistributionSummary.builder(name + ".bytes")
+          .baseUnit("bytes")
+          .tag("backend", backend)
+          .register(registry)
+          .record(bytes);
+    }
+  }
+}
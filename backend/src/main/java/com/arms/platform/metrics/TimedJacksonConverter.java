@@ -0,0 +1,82 @@
+package com.arms.platform.metrics;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.IOException;
+
+// Replaces Boot's default JSON converter so serialization time is attributed to the "ser" phase.
+// The suffix hook runs before the converter's single flush, so small bodies still carry "ser" in the header.
+public class TimedJacksonConverter extends MappingJackson2HttpMessageConverter {
+  public TimedJacksonConverter(ObjectMapper objectMapper) { super(objectMapper); }
+
+  @Override
+  protected ObjectWriter customizeWriter(ObjectWriter writer, JavaType javaType, MediaType contentType) {
+    // the converter flushes after writeSuffix anyway; an extra flush here would commit the response early
+    return super.customizeWriter(writer, javaType, contentType).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+  }
+
+  @Override
+  protected void writePrefix(JsonGenerator generator, Object object) throws IOException {
+    serializeStarted();
+    super.writePrefix(generator, object);
+  }
+
+  @Override
+  protected void writeSuffix(JsonGenerator generator, Object object) throws IOException {
+    super.writeSuffix(generator, object);
+    serializeFinished();
+  }
+
+  // The same for the binary formats, which replace Spring's defaults for them. The mapper should come
+  // from Boot's Jackson2ObjectMapperBuilder so dates and the like are written as in JSON.
+  public static class Cbor extends MappingJackson2CborHttpMessageConverter {
+    public Cbor(ObjectMapper objectMapper) { super(objectMapper); }
+
+    @Override
+    protected ObjectWriter customizeWriter(ObjectWriter writer, JavaType javaType, MediaType contentType) {
+      return super.customizeWriter(writer, javaType, contentType).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Override
+    protected void writePrefix(JsonGenerator generator, Object object) { serializeStarted(); }
+
+    @Override
+    protected void writeSuffix(JsonGenerator generator, Object object) { serializeFinished(); }
+  }
+
+  public static class Smile extends MappingJackson2SmileHttpMessageConverter {
+    public Smile(ObjectMapper objectMapper) { super(objectMapper); }
+
+    @Override
+    protected ObjectWriter customizeWriter(ObjectWriter writer, JavaType javaType, MediaType contentType) {
+      return super.customizeWriter(writer, javaType, contentType).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Override
+    protected void writePrefix(JsonGenerator generator, Object object) { serializeStarted(); }
+
+    @Override
+    protected void writeSuffix(JsonGenerator generator, Object object) { serializeFinished(); }
+  }
+
+  private static void serializeStarted() {
+    RequestTiming t = RequestTiming.current();
+    if (t != null) t.serializing = RequestTiming.start(RequestTiming.Phase.SERIALIZE);
+  }
+
+  private static void serializeFinished() {
+    RequestTiming t = RequestTiming.current();
+    if (t != null && t.serializing != null) {
+      t.serializing.close();
+      t.serializing = null;
+    }
+  }
+}
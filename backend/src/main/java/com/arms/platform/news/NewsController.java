@@ -1,6 +1,14 @@
 package com.arms.platform.news;
 
+import com.arms.platform.activity.ActivityAction;
+import com.arms.platform.activity.ActivityLog;
+import com.arms.platform.cache.CacheInvalidatedEvent;
+import com.arms.platform.cache.InvalidationBus;
+import com.arms.platform.metrics.QueryBudget;
+import com.arms.platform.service.JsonStreamingService;
 import com.arms.platform.user.User;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -9,6 +17,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -17,9 +26,20 @@ import java.util.Map;
 @RequestMapping("/api/news")
 public class NewsController {
     private final NewsRepository newsRepository;
+    private final JsonStreamingService json;
+    private final ApplicationEventPublisher events;
+    private final NewsReadService readService;
+    private final ActivityLog activity;
+    private final InvalidationBus bus;
     
-    public NewsController(NewsRepository newsRepository) {
+    public NewsController(NewsRepository newsRepository, JsonStreamingService json, ApplicationEventPublisher events,
+                          NewsReadService readService, ActivityLog activity, InvalidationBus bus) {
         this.newsRepository = newsRepository;
+        this.json = json;
+        this.events = events;
+        this.readService = readService;
+        this.activity = activity;
+        this.bus = bus;
     }
     
     private User getCurrentUser() {
@@ -31,16 +51,25 @@ public class NewsController {
     }
     
     @GetMapping
+    @QueryBudget(2)
     public ResponseEntity<?> getAllNews(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String search,
-            @RequestParam(required = false) NewsType type) {
+            @RequestParam(required = false) NewsType type,
+            @RequestParam(required = false) Boolean stream,
+            HttpServletResponse res) throws IOException {
         
         Pageable pageable = PageRequest.of(page, size);
         Page<News> newsPage;
         
-        if (search != null && !search.trim().isEmpty()) {
+        if (json.enabled(stream) && search != null && !search.trim().isEmpty()) {
+            json.writeContent(res, () -> newsRepository.streamActiveNewsBySearchQuery("%" + search + "%"), n -> n);
+            return null; // already written
+        } else if (json.enabled(stream) && type != null) {
+            json.writeContent(res, () -> newsRepository.streamActiveNewsByType(type), n -> n);
+            return null;
+        } else if (search != null && !search.trim().isEmpty()) {
             List<News> newsList = newsRepository.findActiveNewsBySearchQuery("%" + search + "%");
             return ResponseEntity.ok(Map.of("content", newsList, "totalElements", newsList.size()));
         } else if (type != null) {
@@ -53,6 +82,7 @@ public class NewsController {
     }
     
     @GetMapping("/recent")
+    @QueryBudget(1)
     public ResponseEntity<?> getRecentNews(@RequestParam(defaultValue = "5") int limit) {
         List<News> recentNews = newsRepository.findActiveNewsOrderByCreatedAtDesc()
                 .stream()
@@ -61,6 +91,35 @@ public class NewsController {
         return ResponseEntity.ok(recentNews);
     }
     
+    @GetMapping("/unread-count")
+    @QueryBudget(1)
+    public ResponseEntity<?> getUnreadCount() {
+        return ResponseEntity.ok(Map.of("unread", readService.unreadCount(getCurrentUser().getId())));
+    }
+    
+    @GetMapping("/read-state")
+    @QueryBudget(1)
+    public ResponseEntity<?> getReadState() {
+        NewsReadService.ReadState state = readService.readState(getCurrentUser().getId());
+        return ResponseEntity.ok(Map.of("watermark", state.watermark(), "readIds", state.readIds()));
+    }
+    
+    @PostMapping("/read")
+    @QueryBudget(1)
+    public ResponseEntity<?> markRead(@RequestBody ReadRequest request) {
+        if (request.ids == null || request.ids.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "ids is required"));
+        }
+        return ResponseEntity.ok(Map.of("unread", readService.markRead(getCurrentUser().getId(), request.ids)));
+    }
+    
+    @PostMapping("/read-all")
+    @QueryBudget(1)
+    public ResponseEntity<?> markAllRead() {
+        readService.markAllRead(getCurrentUser().getId());
+        return ResponseEntity.ok(Map.of("unread", 0));
+    }
+    
     @PostMapping
     public ResponseEntity<?> createNews(@Valid @RequestBody NewsRequest request) {
         User currentUser = getCurrentUser();
@@ -79,6 +138,9 @@ public class NewsController {
         news.setIsActive(true);
         
         News savedNews = newsRepository.save(news);
+        events.publishEvent(NewsPublishedEvent.of(savedNews)); // fans out to the activity feed
+        bus.publish(CacheInvalidatedEvent.NEWS, savedNews.getId()); // and to the other nodes' copies
+        activity.record(ActivityAction.NEWS_CREATE, currentUser.getId(), savedNews.getId(), savedNews.getTitle());
         return ResponseEntity.ok(Map.of(
             "id", savedNews.getId(),
             "title", savedNews.getTitle(),
@@ -112,6 +174,9 @@ public class NewsController {
         news.setUpdatedAt(LocalDateTime.now());
         
         News updatedNews = newsRepository.save(news);
+        if (Boolean.TRUE.equals(updatedNews.getIsActive())) events.publishEvent(NewsPublishedEvent.of(updatedNews));
+        bus.publish(CacheInvalidatedEvent.NEWS, updatedNews.getId());
+        activity.record(ActivityAction.NEWS_UPDATE, currentUser.getId(), updatedNews.getId(), updatedNews.getTitle());
         return ResponseEntity.ok(Map.of(
             "id", updatedNews.getId(),
             "title", updatedNews.getTitle(),
@@ -142,6 +207,9 @@ public class NewsController {
         
         news.setIsActive(false);
         newsRepository.save(news);
+        events.publishEvent(new NewsRetractedEvent(news.getId()));
+        bus.publish(CacheInvalidatedEvent.NEWS, news.getId());
+        activity.record(ActivityAction.NEWS_DELETE, currentUser.getId(), news.getId(), news.getTitle());
         return ResponseEntity.ok(Map.of("message", "News deleted successfully"));
     }
     
@@ -151,4 +219,8 @@ public class NewsController {
         public String content;
         public NewsType type;
     }
+    
+    public static class ReadRequest {
+        public List<Long> ids;
+    }
 }
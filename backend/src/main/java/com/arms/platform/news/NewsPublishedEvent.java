@@ -0,0 +1,12 @@
+package com.arms.platform.news;
+
+import java.time.LocalDateTime;
+
+// Published when a news item is created or edited; consumers treat it as an upsert
+public record NewsPublishedEvent(Long newsId, String title, NewsType type, Long authorId, String authorName,
+                                 LocalDateTime createdAt) {
+  static NewsPublishedEvent of(News n) {
+    return new NewsPublishedEvent(n.getId(), n.getTitle(), n.getType(), n.getAuthor().getId(), n.getAuthor().getName(),
+      n.getCreatedAt());
+  }
+}
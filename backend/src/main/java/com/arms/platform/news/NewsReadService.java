@@ -0,0 +1,308 @@
+package com.arms.platform.news;
+
+import jakarta.annotation.PreDestroy;
+import com.arms.platform.cache.CacheInvalidatedEvent;
+import com.arms.platform.cache.InvalidationBus;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToIntFunction;
+
+// Per-user news read state. A user's state is a watermark (every id at or below it is read) plus a
+// RoaringBitmap of the ids above it read individually, one row in news_read_state. "Mark all as read"
+// moves the watermark and clears the bitmap; reading items in order advances the watermark past the
+// fully read prefix, so bitmaps stay a few bytes for most users.
+//
+// The ids of active news are held in one more bitmap, so an unread count is a range cardinality of that
+// bitmap minus an intersection with the user's (small) read set: no query, and no per-item work as the
+// news table grows.
+//
+// States of recently active users are cached; changes are written in JDBC batches every
+// app.news-read.flush-interval-ms (and on shutdown), and clean states idle for
+// app.news-read.idle-evict-ms are dropped. With several nodes a user's state can be cached on more
+// than one: a flush merges with the stored row instead of overwriting it, and tells the other nodes
+// (InvalidationBus) to drop their clean copies.
+@Service
+public class NewsReadService {
+    private static final Logger log = LoggerFactory.getLogger(NewsReadService.class);
+
+    private static final String INSERT_EMPTY =
+        "INSERT INTO news_read_state (user_id, watermark, read_ids, updated_at) VALUES (?, 0, ?, ?) ON CONFLICT (user_id) DO NOTHING";
+    private static final String LOCK =
+        "SELECT user_id, watermark, read_ids FROM news_read_state WHERE user_id = ANY(?) FOR UPDATE";
+    private static final String UPDATE =
+        "UPDATE news_read_state SET watermark = ?, read_ids = ?, updated_at = ? WHERE user_id = ?";
+
+    public record ReadState(long watermark, int[] readIds) {}
+
+    private static final class State {
+        long watermark;
+        final RoaringBitmap read;
+        boolean dirty;
+        boolean evicted;
+        long lastUsed = System.currentTimeMillis();
+
+        State(long watermark, RoaringBitmap read) { this.watermark = watermark; this.read = read; }
+    }
+
+    private final NewsReadStateRepository states;
+    private final NewsRepository newsRepository;
+    private final InvalidationBus bus;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final long idleMillis;
+    private final Map<Long, State> hot = new ConcurrentHashMap<>();
+    private final RoaringBitmap active = new RoaringBitmap();
+    private final ReentrantReadWriteLock activeLock = new ReentrantReadWriteLock();
+
+    public NewsReadService(NewsReadStateRepository states, NewsRepository newsRepository, InvalidationBus bus,
+                           DataSource dataSource, PlatformTransactionManager txManager,
+                           @Value("${app.news-read.idle-evict-ms:600000}") long idleMillis) {
+        this.states = states;
+        this.newsRepository = newsRepository;
+        this.bus = bus;
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.tx = new TransactionTemplate(txManager);
+        this.idleMillis = idleMillis;
+    }
+
+    public int unreadCount(Long userId) {
+        return withState(userId, this::unread);
+    }
+
+    /** Marks the given news items read and returns the new unread count. Unknown or inactive ids are ignored. */
+    public int markRead(Long userId, Collection<Long> newsIds) {
+        return withState(userId, s -> {
+            activeLock.readLock().lock();
+            try {
+                for (Long id : newsIds) {
+                    if (id == null || id <= s.watermark || id > Integer.MAX_VALUE || !active.contains(id.intValue())) continue;
+                    s.read.add(id.intValue());
+                    s.dirty = true;
+                }
+                advanceWatermark(s);
+            } finally {
+                activeLock.readLock().unlock();
+            }
+            return unread(s);
+        });
+    }
+
+    /** O(1): moves the watermark to the newest active item. */
+    public void markAllRead(Long userId) {
+        withState(userId, s -> {
+            activeLock.readLock().lock();
+            try {
+                if (!active.isEmpty()) s.watermark = Math.max(s.watermark, active.last());
+            } finally {
+                activeLock.readLock().unlock();
+            }
+            s.read.clear();
+            s.dirty = true;
+            return 0;
+        });
+    }
+
+    public ReadState readState(Long userId) {
+        ReadState[] out = new ReadState[1];
+        withState(userId, s -> {
+            out[0] = new ReadState(s.watermark, s.read.toArray());
+            return 0;
+        });
+        return out[0];
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadActive() {
+        List<Long> ids = newsRepository.findActiveIds();
+        RoaringBitmap fresh = new RoaringBitmap();
+        for (Long id : ids) fresh.add(id.intValue());
+        fresh.runOptimize();
+        activeLock.writeLock().lock();
+        try {
+            active.clear();
+            active.or(fresh);
+        } finally {
+            activeLock.writeLock().unlock();
+        }
+        log.info("News read state tracking {} active news item(s)", ids.size());
+    }
+
+    // Changes made on another node; single items arrive as news events via RemoteNewsRelay
+    @EventListener
+    public void onInvalidated(CacheInvalidatedEvent e) {
+        if (e.affects(CacheInvalidatedEvent.NEWS) && e.wholeRegion()) loadActive();
+        if (!e.affects(CacheInvalidatedEvent.NEWS_READ)) return;
+        // a clean copy is reloaded on next use; a dirty one is merged with the stored row when it is flushed
+        hot.forEach((userId, s) -> {
+            if (!e.wholeRegion() && !userId.equals(e.id())) return;
+            synchronized (s) {
+                if (s.dirty) return;
+                s.evicted = true;
+                hot.remove(userId, s);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPublished(NewsPublishedEvent e) {
+        activeLock.writeLock().lock();
+        try { active.add(e.newsId().intValue()); }
+        finally { activeLock.writeLock().unlock(); }
+    }
+
+    @EventListener
+    public void onRetracted(NewsRetractedEvent e) {
+        activeLock.writeLock().lock();
+        try { active.remove(e.newsId().intValue()); }
+        finally { activeLock.writeLock().unlock(); }
+    }
+
+    @Scheduled(fixedDelayString = "${app.news-read.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        long now = System.currentTimeMillis();
+        Map<Long, State> pending = new TreeMap<>(); // copies of the dirty states; sorted, so nodes lock rows in the same order
+        Map<Long, State> live = new HashMap<>();
+        hot.forEach((userId, s) -> {
+            synchronized (s) {
+                if (s.dirty) {
+                    pending.put(userId, new State(s.watermark, s.read.clone()));
+                    live.put(userId, s);
+                    s.dirty = false;
+                } else if (now - s.lastUsed > idleMillis) {
+                    s.evicted = true;
+                    hot.remove(userId, s);
+                }
+            }
+        });
+        if (pending.isEmpty()) return;
+        Timestamp at = Timestamp.from(Instant.ofEpochMilli(now));
+        try {
+            tx.executeWithoutResult(t -> {
+                // Another node may have written some of these users since they were loaded here. Read state only
+                // grows, so merging with the stored row under a lock loses nothing; the placeholder insert gives
+                // first-time users a row to lock.
+                byte[] empty = serialize(new RoaringBitmap());
+                jdbc.batchUpdate(INSERT_EMPTY, pending.keySet().stream().map(id -> new Object[]{id, empty, at}).toList());
+                jdbc.query(LOCK, ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", pending.keySet().toArray())),
+                    rs -> { merge(pending.get(rs.getLong(1)), rs.getLong(2), deserialize(rs.getBytes(3))); });
+                jdbc.batchUpdate(UPDATE, pending.entrySet().stream()
+                    .map(e -> new Object[]{e.getValue().watermark, serialize(e.getValue().read), at, e.getKey()}).toList());
+                pending.keySet().forEach(id -> bus.publish(CacheInvalidatedEvent.NEWS_READ, id));
+            });
+        } catch (RuntimeException e) {
+            for (State s : live.values()) synchronized (s) { s.dirty = true; } // retried on the next run
+            log.warn("Could not persist read state for {} user(s): {}", pending.size(), e.toString());
+            return;
+        }
+        // take in whatever the other nodes had written
+        live.forEach((userId, s) -> {
+            State merged = pending.get(userId);
+            synchronized (s) {
+                merge(s, merged.watermark, merged.read);
+                activeLock.readLock().lock();
+                try { advanceWatermark(s); }
+                finally { activeLock.readLock().unlock(); }
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    // Runs op on the user's cached state, loading it first if needed
+    private int withState(Long userId, ToIntFunction<State> op) {
+        while (true) {
+            State s = hot.get(userId);
+            if (s == null) {
+                State loaded = load(userId);
+                s = hot.putIfAbsent(userId, loaded);
+                if (s == null) s = loaded;
+            }
+            synchronized (s) {
+                if (s.evicted) continue; // dropped by flush meanwhile; it was clean, so reload
+                s.lastUsed = System.currentTimeMillis();
+                return op.applyAsInt(s);
+            }
+        }
+    }
+
+    // The union of two read states: the larger watermark, and both sets of ids above it
+    private static void merge(State into, long watermark, RoaringBitmap read) {
+        into.read.or(read);
+        into.watermark = Math.max(into.watermark, watermark);
+        into.read.remove(0L, into.watermark + 1);
+    }
+
+    private State load(Long userId) {
+        return states.findById(userId)
+            .map(row -> new State(row.getWatermark(), deserialize(row.getReadIds())))
+            .orElseGet(() -> new State(0, new RoaringBitmap()));
+    }
+
+    // active ids above the watermark, minus those read individually
+    private int unread(State s) {
+        activeLock.readLock().lock();
+        try {
+            long above = active.rangeCardinality(s.watermark + 1, 1L << 32);
+            return (int) (above - RoaringBitmap.andCardinality(s.read, active));
+        } finally {
+            activeLock.readLock().unlock();
+        }
+    }
+
+    // Moves the watermark over active ids that are read individually and drops them from the bitmap;
+    // caller holds the active read lock
+    private void advanceWatermark(State s) {
+        long w = s.watermark;
+        for (long next = active.nextValue((int) (w + 1)); next >= 0 && s.read.contains((int) next); next = active.nextValue((int) (w + 1))) {
+            w = next;
+        }
+        if (w != s.watermark) {
+            s.read.remove(0L, w + 1);
+            s.watermark = w;
+        }
+    }
+
+    private static byte[] serialize(RoaringBitmap bitmap) {
+        bitmap.runOptimize();
+        ByteBuffer buf = ByteBuffer.allocate(bitmap.serializedSizeInBytes());
+        bitmap.serialize(buf);
+        return buf.array();
+    }
+
+    private static RoaringBitmap deserialize(byte[] bytes) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        try {
+            bitmap.deserialize(ByteBuffer.wrap(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bitmap;
+    }
+}
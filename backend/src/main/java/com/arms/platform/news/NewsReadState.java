@@ -0,0 +1,31 @@
+package com.arms.platform.news;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+// What a user has read, in one row: every news id <= watermark counts as read ("mark all as read" only
+// moves the watermark), and readIds is a serialized RoaringBitmap of the ids above it read one by one.
+// Written by NewsReadService in batches; see there.
+@Entity
+@Table(name = "news_read_state")
+public class NewsReadState {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private long watermark;
+
+    @Column(nullable = false)
+    private byte[] readIds;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    protected NewsReadState() {}
+
+    public Long getUserId() { return userId; }
+    public long getWatermark() { return watermark; }
+    public byte[] getReadIds() { return readIds; }
+    public Instant getUpdatedAt() { return updatedAt; }
+}
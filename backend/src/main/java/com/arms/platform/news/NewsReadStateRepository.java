@@ -0,0 +1,11 @@
+package com.arms.platform.news;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+// Loads only; NewsReadService writes through batched JDBC upserts
+@Repository
+@Transactional(readOnly = true)
+public interface NewsReadStateRepository extends JpaRepository<NewsReadState, Long> {
+}
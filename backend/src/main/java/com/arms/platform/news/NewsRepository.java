@@ -1,25 +1,66 @@
 package com.arms.platform.news;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
+@Transactional(readOnly = true)
 public interface NewsRepository extends JpaRepository<News, Long> {
     
-    @Query("SELECT n FROM News n WHERE n.isActive = true ORDER BY n.createdAt DESC")
+    // author is fetched eagerly here because every news response serializes it
+    @Query("SELECT n FROM News n JOIN FETCH n.author WHERE n.isActive = true ORDER BY n.createdAt DESC")
     List<News> findActiveNewsOrderByCreatedAtDesc();
     
-    @Query("SELECT n FROM News n WHERE n.isActive = true ORDER BY n.createdAt DESC")
+    @Query(value = "SELECT n FROM News n JOIN FETCH n.author WHERE n.isActive = true ORDER BY n.createdAt DESC",
+           countQuery = "SELECT COUNT(n) FROM News n WHERE n.isActive = true")
     Page<News> findActiveNewsOrderByCreatedAtDesc(Pageable pageable);
     
-    @Query("SELECT n FROM News n WHERE n.isActive = true AND n.type = :type ORDER BY n.createdAt DESC")
+    // the newest few, limited in SQL and without the count query of the Page variant
+    @Query("SELECT n FROM News n JOIN FETCH n.author WHERE n.isActive = true ORDER BY n.createdAt DESC")
+    List<News> findRecentActive(Pageable pageable);
+    
+    @Query("SELECT n FROM News n JOIN FETCH n.author WHERE n.isActive = true AND n.type = :type ORDER BY n.createdAt DESC")
     List<News> findActiveNewsByTypeOrderByCreatedAtDesc(NewsType type);
     
-    @Query("SELECT n FROM News n WHERE n.isActive = true AND (n.title LIKE %:query% OR n.content LIKE %:query%) ORDER BY n.createdAt DESC")
+    @Query("SELECT n FROM News n JOIN FETCH n.author WHERE n.isActive = true AND (n.title LIKE %:query% OR n.content LIKE %:query%) ORDER BY n.createdAt DESC")
     List<News> findActiveNewsBySearchQuery(String query);
+
+    // cursor-backed variants for JsonStreamingService; consume inside a transaction
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "200"), @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT n FROM News n JOIN FETCH n.author WHERE n.isActive = true AND n.type = :type ORDER BY n.createdAt DESC")
+    Stream<News> streamActiveNewsByType(NewsType type);
+
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "200"), @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT n FROM News n JOIN FETCH n.author WHERE n.isActive = true AND (n.title LIKE %:query% OR n.content LIKE %:query%) ORDER BY n.createdAt DESC")
+    Stream<News> streamActiveNewsBySearchQuery(String query);
+
+    // newest active items as events, for the activity feed; no entities or lazy authors
+    @Query("SELECT new com.arms.platform.news.NewsPublishedEvent(n.id, n.title, n.type, a.id, a.name, n.createdAt) " +
+           "FROM News n JOIN n.author a WHERE n.isActive = true ORDER BY n.createdAt DESC, n.id DESC")
+    List<NewsPublishedEvent> findLatestPublished(Pageable pageable);
+
+    // the same, continuing after (before, beforeId); for feed pages past the in-memory news
+    @Query("SELECT new com.arms.platform.news.NewsPublishedEvent(n.id, n.title, n.type, a.id, a.name, n.createdAt) " +
+           "FROM News n JOIN n.author a WHERE n.isActive = true AND (n.createdAt < ?1 OR (n.createdAt = ?1 AND n.id < ?2)) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<NewsPublishedEvent> findLatestPublishedBefore(LocalDateTime before, Long beforeId, Pageable pageable);
+
+    @Query("SELECT new com.arms.platform.news.NewsPublishedEvent(n.id, n.title, n.type, a.id, a.name, n.createdAt) " +
+           "FROM News n JOIN n.author a WHERE n.id = :id AND n.isActive = true")
+    Optional<NewsPublishedEvent> findPublished(Long id);
+
+    @Query("SELECT n.id FROM News n WHERE n.isActive = true")
+    List<Long> findActiveIds();
 }
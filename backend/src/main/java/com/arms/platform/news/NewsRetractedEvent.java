@@ -0,0 +1,4 @@
+package com.arms.platform.news;
+
+// Published when a news item is deactivated
+public record NewsRetractedEvent(Long newsId) {}
@@ -0,0 +1,27 @@
+package com.arms.platform.news;
+
+import com.arms.platform.cache.CacheInvalidatedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// News changed on another node: reads the item back and replays it as a local NewsPublishedEvent or
+// NewsRetractedEvent, so the feed and unread counts here follow it like a local change
+@Component
+public class RemoteNewsRelay {
+    private final NewsRepository newsRepository;
+    private final ApplicationEventPublisher events;
+
+    public RemoteNewsRelay(NewsRepository newsRepository, ApplicationEventPublisher events) {
+        this.newsRepository = newsRepository;
+        this.events = events;
+    }
+
+    @EventListener
+    public void onInvalidated(CacheInvalidatedEvent e) {
+        if (!e.region().equals(CacheInvalidatedEvent.NEWS) || e.wholeRegion()) return; // reloads are handled by the caches
+        newsRepository.findPublished(e.id()).ifPresentOrElse(
+            events::publishEvent,
+            () -> events.publishEvent(new NewsRetractedEvent(e.id())));
+    }
+}
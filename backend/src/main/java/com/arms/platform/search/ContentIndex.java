@@ -0,0 +1,197 @@
+package com.arms.platform.search;
+
+import com.arms.platform.material.Material;
+import com.arms.platform.material.MaterialDeletedEvent;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.codecs.lucene95.Lucene95Codec;
+import org.apache.lucene.document.*;
+import org.apache.lucene.index.*;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.*;
+import org.apache.lucene.search.uhighlight.DefaultPassageFormatter;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Embedded Lucene index over extracted material text, kept in app.search.index-dir.
+// Writes are buffered in at most app.search.ram-buffer-mb before being flushed to on-disk segments;
+// readers see new documents after the next refresh (about a second), and a commit makes them durable.
+// Each commit records when it started (INDEXED_THROUGH): what a crash loses was indexed after that,
+// and ContentIndexBackfill re-indexes from there at startup.
+@Component
+public class ContentIndex {
+  private static final Logger log = LoggerFactory.getLogger(ContentIndex.class);
+  static final String ID = "id", COURSE = "course", TITLE = "title", TYPE = "type", CONTENT = "content";
+  static final String INDEXED_THROUGH = "indexedThrough"; // commit user data, epoch millis; 0 while a full sync is uncommitted
+
+  // offsets in the postings let the highlighter build snippets without re-analyzing the stored text
+  private static final FieldType CONTENT_TYPE = new FieldType(TextField.TYPE_STORED);
+  static {
+    CONTENT_TYPE.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+    CONTENT_TYPE.freeze();
+  }
+
+  public record Hit(Long materialId, Long courseId, String title, String type, float score, String snippet) {}
+
+  private final Analyzer analyzer = new EnglishAnalyzer();
+  private final FSDirectory dir;
+  private final IndexWriter writer;
+  private final SearcherManager searchers;
+  private final AtomicInteger fullSyncs = new AtomicInteger();
+  private boolean unmarked; // the last commit happened during a full sync
+
+  public ContentIndex(@Value("${app.search.index-dir}") String indexDir,
+                      @Value("${app.search.ram-buffer-mb:32}") double ramBufferMb) throws IOException {
+    Path path = Path.of(indexDir).toAbsolutePath().normalize();
+    Files.createDirectories(path);
+    this.dir = FSDirectory.open(path);
+    IndexWriterConfig cfg = new IndexWriterConfig(analyzer)
+      .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND)
+      .setRAMBufferSizeMB(ramBufferMb)
+      .setCodec(new Lucene95Codec(Lucene95Codec.Mode.BEST_COMPRESSION)); // stored text dominates the index size
+    this.writer = new IndexWriter(dir, cfg);
+    this.searchers = new SearcherManager(writer, null);
+  }
+
+  public int size() {
+    return writer.getDocStats().numDocs;
+  }
+
+  /** Every material processed before this time is in the last commit; null if there is none or it needs a full sync. */
+  public Instant indexedThrough() {
+    Iterable<Map.Entry<String, String>> data = writer.getLiveCommitData();
+    if (data == null) return null;
+    for (Map.Entry<String, String> e : data) {
+      if (e.getKey().equals(INDEXED_THROUGH)) {
+        long millis = Long.parseLong(e.getValue());
+        return millis == 0 ? null : Instant.ofEpochMilli(millis);
+      }
+    }
+    return null;
+  }
+
+  // A full sync indexes old materials in no particular order, so commits made while it runs (or before
+  // its last document is committed) cannot vouch for any time
+  void beginFullSync() {
+    fullSyncs.incrementAndGet();
+  }
+
+  void endFullSync() {
+    fullSyncs.decrementAndGet();
+  }
+
+  // Replaces any previous version of the material's document
+  public void index(Material m, String text) throws IOException {
+    Document doc = new Document();
+    doc.add(new StringField(ID, m.getId().toString(), Field.Store.YES));
+    doc.add(new StringField(COURSE, m.getCourse().getId().toString(), Field.Store.YES));
+    doc.add(new TextField(TITLE, m.getTitle(), Field.Store.YES));
+    doc.add(new StoredField(TYPE, m.getType().name()));
+    doc.add(new Field(CONTENT, text, CONTENT_TYPE));
+    writer.updateDocument(new Term(ID, m.getId().toString()), doc);
+  }
+
+  @EventListener
+  public void onDeleted(MaterialDeletedEvent e) throws IOException {
+    remove(e.materialId());
+  }
+
+  public void remove(Long materialId) throws IOException {
+    writer.deleteDocuments(new Term(ID, materialId.toString()));
+  }
+
+  /** Ids of all indexed materials, including writes not yet visible to searches. */
+  public Set<Long> ids() throws IOException {
+    searchers.maybeRefreshBlocking();
+    IndexSearcher searcher = searchers.acquire();
+    try {
+      Set<Long> ids = new HashSet<>();
+      StoredFields stored = searcher.storedFields();
+      for (LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+        Bits live = leaf.reader().getLiveDocs();
+        for (int doc = 0; doc < leaf.reader().maxDoc(); doc++) {
+          if (live == null || live.get(doc)) ids.add(Long.valueOf(stored.document(leaf.docBase + doc, Set.of(ID)).get(ID)));
+        }
+      }
+      return ids;
+    } finally {
+      searchers.release(searcher);
+    }
+  }
+
+  public List<Hit> search(String q, Long courseId, int limit) throws IOException {
+    // SimpleQueryParser never throws on user input; title matches weigh more than body matches
+    Query text = new SimpleQueryParser(analyzer, Map.of(TITLE, 3f, CONTENT, 1f)).parse(q);
+    Query query = courseId == null ? text : new BooleanQuery.Builder()
+      .add(text, BooleanClause.Occur.MUST)
+      .add(new TermQuery(new Term(COURSE, courseId.toString())), BooleanClause.Occur.FILTER)
+      .build();
+
+    IndexSearcher searcher = searchers.acquire();
+    try {
+      TopDocs top = searcher.search(query, limit);
+      UnifiedHighlighter highlighter = UnifiedHighlighter.builder(searcher, analyzer)
+        .withFormatter(new DefaultPassageFormatter("<mark>", "</mark>", " … ", true))
+        .withMaxLength(200_000)
+        .build();
+      String[] snippets = highlighter.highlight(CONTENT, text, top, 2);
+      StoredFields stored = searcher.storedFields();
+      List<Hit> hits = new ArrayList<>(top.scoreDocs.length);
+      for (int i = 0; i < top.scoreDocs.length; i++) {
+        ScoreDoc sd = top.scoreDocs[i];
+        Document d = stored.document(sd.doc, Set.of(ID, COURSE, TITLE, TYPE));
+        hits.add(new Hit(Long.valueOf(d.get(ID)), Long.valueOf(d.get(COURSE)), d.get(TITLE), d.get(TYPE),
+          sd.score, snippets[i]));
+      }
+      return hits;
+    } finally {
+      searchers.release(searcher);
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${app.search.refresh-interval-ms:1000}")
+  public void refresh() throws IOException {
+    searchers.maybeRefresh();
+  }
+
+  @Scheduled(fixedDelayString = "${app.search.commit-interval-ms:30000}")
+  public synchronized void commit() throws IOException {
+    boolean syncing = fullSyncs.get() > 0;
+    if (!writer.hasUncommittedChanges() && (syncing || !unmarked)) return;
+    long through = syncing ? 0 : System.currentTimeMillis(); // before the commit: whatever it misses came later
+    writer.setLiveCommitData(Map.of(INDEXED_THROUGH, Long.toString(through)).entrySet());
+    writer.commit();
+    unmarked = syncing;
+  }
+
+  @PreDestroy
+  void close() throws IOException {
+    try {
+      commit();
+      searchers.close();
+      writer.close(); // commits
+    } finally {
+      dir.close();
+    }
+    log.info("Content index closed");
+  }
+}
@@ -0,0 +1,167 @@
+package com.arms.platform.search;
+
+import com.arms.platform.cache.CacheInvalidatedEvent;
+import com.arms.platform.material.Material;
+import com.arms.platform.material.MaterialJobRepository;
+import com.arms.platform.material.MaterialJobWorker;
+import com.arms.platform.material.MaterialRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Fills the index from outside the job queue, on one background thread, so a large backfill cannot trip
+// upload backpressure:
+//  - at startup, for materials processed after the last commit's high-water mark (ContentIndex.indexedThrough),
+//    i.e. whatever a crash lost; indexed materials the table no longer has (deleted since then) are removed.
+//    The mark is moved back by app.search.backfill-slack-ms for clock skew between nodes and for materials
+//    processed elsewhere, which reach this index shortly after their job finished.
+//    Without a usable mark (new or wiped index, or a sync that never got committed) it runs a full sync;
+//  - for materials processed on another node, whose ContentIndexStage only wrote that node's index;
+//  - after the bus may have missed changes: a full sync against the table, indexing what is missing
+//    and removing what is gone. (Single remote deletes arrive as MaterialDeletedEvent, see RemoteMaterialRelay.)
+@Component
+public class ContentIndexBackfill {
+  private static final Logger log = LoggerFactory.getLogger(ContentIndexBackfill.class);
+
+  private final ContentIndex index;
+  private final TextExtractor extractor;
+  private final MaterialRepository materials;
+  private final MaterialJobRepository jobs;
+  private final MaterialJobWorker worker;
+  private final TransactionTemplate tx;
+  private final Duration slack;
+  private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+    Thread t = new Thread(r, "content-index-backfill");
+    t.setDaemon(true);
+    t.setPriority(Thread.MIN_PRIORITY);
+    return t;
+  });
+
+  public ContentIndexBackfill(ContentIndex index, TextExtractor extractor, MaterialRepository materials,
+                              MaterialJobRepository jobs, MaterialJobWorker worker, PlatformTransactionManager txManager,
+                              @Value("${app.search.backfill-slack-ms:600000}") long slackMillis) {
+    this.index = index; this.extractor = extractor; this.materials = materials; this.jobs = jobs; this.worker = worker;
+    this.tx = new TransactionTemplate(txManager);
+    this.slack = Duration.ofMillis(slackMillis);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    Instant through = index.indexedThrough();
+    if (through == null) executor.execute(this::fullSync);
+    else executor.execute(() -> catchUp(through.minus(slack)));
+  }
+
+  @EventListener
+  public void onInvalidated(CacheInvalidatedEvent e) {
+    if (!e.affects(CacheInvalidatedEvent.MATERIAL)) return;
+    if (e.wholeRegion()) {
+      executor.execute(this::fullSync);
+      return;
+    }
+    executor.execute(() -> {
+      // read from the primary: a replica may not have the row yet
+      Material m = tx.execute(s -> materials.findWithCourseAndUser(e.id()).orElse(null));
+      // not processed yet: the worker announces it again once the type is settled
+      if (m != null && m.getSha256() != null) indexFile(m);
+    });
+  }
+
+  // Reads go through read-write transactions so they use the primary: a replica may not have the latest
+  // rows yet. Deletes leave nothing in the job table, so every indexed id is checked against the table.
+  private void catchUp(Instant since) {
+    List<Long> ids = tx.execute(s -> jobs.findProcessedSince(since));
+    int done = 0;
+    for (int i = 0; i < ids.size(); i += 100) {
+      List<Long> batch = ids.subList(i, Math.min(i + 100, ids.size()));
+      for (Material m : tx.execute(s -> materials.findAllById(batch))) {
+        if (indexFile(m)) done++;
+      }
+    }
+    Set<Long> gone = new HashSet<>();
+    try {
+      List<Long> indexed = new ArrayList<>(index.ids());
+      for (int i = 0; i < indexed.size(); i += 1000) {
+        List<Long> batch = indexed.subList(i, Math.min(i + 1000, indexed.size()));
+        Set<Long> existing = new HashSet<>(tx.execute(s -> materials.findExistingIds(batch)));
+        for (Long id : batch) if (!existing.contains(id)) gone.add(id);
+      }
+    } catch (Exception e) {
+      log.warn("Content index could not check for deleted materials: {}", e.toString());
+    }
+    removeAll(gone);
+    log.info("Content index caught up on {} material(s) processed since {} and removed {} deleted", done, since, gone.size());
+  }
+
+  // Indexes every material the index lacks, then removes the indexed ids the table no longer has
+  private void fullSync() {
+    index.beginFullSync();
+    try {
+      sync(index.ids());
+    } catch (Exception e) {
+      log.warn("Content index sync failed: {}", e.toString());
+    } finally {
+      index.endFullSync();
+    }
+  }
+
+  private void sync(Set<Long> indexed) {
+    Set<Long> gone = new HashSet<>(indexed);
+    long after = 0;
+    int done = 0;
+    List<Material> page;
+    while (!(page = materials.findByIdGreaterThanOrderByIdAsc(after, PageRequest.ofSize(100))).isEmpty()) {
+      for (Material m : page) {
+        after = m.getId();
+        if (!gone.remove(m.getId()) && indexFile(m)) done++;
+      }
+    }
+    removeAll(gone);
+    if (done > 0 || !gone.isEmpty()) log.info("Content index backfill indexed {} and removed {} material(s)", done, gone.size());
+  }
+
+  private void removeAll(Set<Long> ids) {
+    for (Long id : ids) {
+      try {
+        index.remove(id);
+      } catch (Exception e) {
+        log.warn("Content index could not remove material {}: {}", id, e.toString());
+      }
+    }
+  }
+
+  private boolean indexFile(Material m) {
+    Path file = worker.fileOf(m);
+    if (!Files.isRegularFile(file)) return false;
+    try {
+      index.index(m, extractor.extract(m, file));
+      return true;
+    } catch (Exception e) {
+      log.warn("Backfill could not index material {}: {}", m.getId(), e.toString());
+      return false;
+    }
+  }
+
+  @PreDestroy
+  void stop() {
+    executor.shutdownNow();
+  }
+}
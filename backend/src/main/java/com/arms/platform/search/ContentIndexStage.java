@@ -0,0 +1,28 @@
+package com.arms.platform.search;
+
+import com.arms.platform.material.Material;
+import com.arms.platform.material.MaterialProcessingStage;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+// Runs after type detection so extraction can rely on the sniffed content type
+@Component
+@Order(30)
+public class ContentIndexStage implements MaterialProcessingStage {
+  private final TextExtractor extractor;
+  private final ContentIndex index;
+
+  public ContentIndexStage(TextExtractor extractor, ContentIndex index) {
+    this.extractor = extractor; this.index = index;
+  }
+
+  @Override
+  public String name(){ return "index-content"; }
+
+  @Override
+  public void process(Material material, Path file) throws Exception {
+    index.index(material, extractor.extract(material, file));
+  }
+}
@@ -0,0 +1,293 @@
+package com.arms.platform.search;
+
+import com.arms.platform.material.MaterialType;
+import com.arms.platform.material.MaterialUploadedEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// Column store behind MaterialFacetIndex. Each material is a row number; per-row attributes live in
+// parallel primitive arrays, and every filterable value (type, course, uploader, text term) owns a BitSet
+// of the rows carrying it. A query is a handful of BitSet ANDs, facet counting is one pass over the
+// matching bits into an int[] per dimension. Deletes only clear the row's live bit; compact() rewrites
+// the store once such tombstones pile up. Not thread-safe.
+final class MaterialColumns {
+  record Course(long id, String code, String title) {}
+  record Uploader(long id, String name) {}
+  record Row(long materialId, String title, MaterialType type, Course course, Uploader uploader, long createdAt) {}
+  record Count<T>(T value, int count) {}
+  record Result(int total, List<Row> rows, int[] typeCounts, List<Count<Course>> courseCounts,
+                List<Count<Uploader>> uploaderCounts) {}
+
+  private static final MaterialType[] TYPES = MaterialType.values();
+
+  // row columns
+  private long[] materialIds = new long[1024];
+  private long[] createdAt = new long[1024];
+  private int[] types = new int[1024];
+  private int[] courses = new int[1024];
+  private int[] uploaders = new int[1024];
+  private String[] titles = new String[1024];
+  private int rows;
+  private final BitSet live = new BitSet();
+
+  // dictionaries: external id -> dense code
+  private final LongIntMap courseCodes = new LongIntMap();
+  private final LongIntMap uploaderCodes = new LongIntMap();
+  private final List<Course> courseDict = new ArrayList<>();
+  private final List<Uploader> uploaderDict = new ArrayList<>();
+
+  // postings
+  private final BitSet[] typeRows = new BitSet[TYPES.length];
+  private final List<BitSet> courseRows = new ArrayList<>();
+  private final List<BitSet> uploaderRows = new ArrayList<>();
+  private final TreeMap<String, BitSet> terms = new TreeMap<>(); // sorted, for prefix lookups
+
+  private final LongIntMap rowOf = new LongIntMap(); // material id -> live row
+
+  MaterialColumns() {
+    for (int i = 0; i < typeRows.length; i++) typeRows[i] = new BitSet();
+  }
+
+  int size() { return rowOf.size(); }
+
+  // An update rewrites the material's row in place, so rows stay in arrival order
+  void upsert(MaterialUploadedEvent e) {
+    int row = rowOf.get(e.materialId());
+    if (row >= 0) {
+      unindex(row);
+    } else {
+      row = rows++;
+      if (row == materialIds.length) grow();
+      rowOf.put(e.materialId(), row);
+      live.set(row);
+    }
+    materialIds[row] = e.materialId();
+    createdAt[row] = e.createdAt() == null ? 0 : e.createdAt().toEpochMilli();
+    types[row] = e.type().ordinal();
+    courses[row] = courseCode(e.courseId(), e.courseCode(), e.courseTitle());
+    uploaders[row] = uploaderCode(e.uploaderId(), e.uploaderName());
+    titles[row] = e.title();
+    typeRows[types[row]].set(row);
+    courseRows.get(courses[row]).set(row);
+    uploaderRows.get(uploaders[row]).set(row);
+    for (String t : rowTokens(row)) terms.computeIfAbsent(t, k -> new BitSet()).set(row);
+  }
+
+  private void unindex(int row) {
+    typeRows[types[row]].clear(row);
+    courseRows.get(courses[row]).clear(row);
+    uploaderRows.get(uploaders[row]).clear(row);
+    for (String t : rowTokens(row)) {
+      BitSet b = terms.get(t);
+      if (b != null) b.clear(row);
+    }
+  }
+
+  // Each part on its own: a null name must not become the term "null"
+  private List<String> rowTokens(int row) {
+    Course c = courseDict.get(courses[row]);
+    List<String> out = tokens(titles[row]);
+    out.addAll(tokens(c.code()));
+    out.addAll(tokens(c.title()));
+    out.addAll(tokens(uploaderDict.get(uploaders[row]).name()));
+    return out;
+  }
+
+  // A live material's row, or null
+  Row find(long materialId) {
+    int row = rowOf.get(materialId);
+    return row < 0 ? null : new Row(materialIds[row], titles[row], TYPES[types[row]], courseDict.get(courses[row]),
+      uploaderDict.get(uploaders[row]), createdAt[row]);
+  }
+
+  // Only the live bit is cleared; postings of dead rows are masked out by `live` at query time
+  void remove(long materialId) {
+    int row = rowOf.remove(materialId);
+    if (row >= 0) live.clear(row);
+  }
+
+  boolean needsCompaction() {
+    return rows > 4096 && rowOf.size() < rows * 3L / 4;
+  }
+
+  // Rebuilds the store from its live rows, dropping tombstones and terms nobody uses any more
+  MaterialColumns compact() {
+    MaterialColumns fresh = new MaterialColumns();
+    for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+      Course c = courseDict.get(courses[row]);
+      Uploader u = uploaderDict.get(uploaders[row]);
+      fresh.upsert(new MaterialUploadedEvent(materialIds[row], c.id(), c.code(), c.title(), u.id(), u.name(),
+        titles[row], TYPES[types[row]], java.time.Instant.ofEpochMilli(createdAt[row])));
+    }
+    return fresh;
+  }
+
+  /**
+   * Matches rows containing every query token (as a prefix of some term) and the given filters.
+   * Facet counts are disjunctive: each dimension is counted with the other dimensions' filters applied
+   * but not its own, so a client can show "other types" next to a selected type. Results are newest first.
+   */
+  Result query(String q, MaterialType type, Long courseId, Long uploaderId, int offset, int limit) {
+    BitSet base = (BitSet) live.clone();
+    for (String token : tokens(q)) {
+      BitSet any = new BitSet();
+      for (BitSet b : prefixRange(token).values()) any.or(b);
+      base.and(any);
+    }
+    BitSet typeF = type == null ? null : typeRows[type.ordinal()];
+    BitSet courseF = filter(courseId, courseCodes, courseRows);
+    BitSet uploaderF = filter(uploaderId, uploaderCodes, uploaderRows);
+
+    int[] typeCounts = new int[TYPES.length];
+    int[] courseCounts = new int[courseDict.size()];
+    int[] uploaderCounts = new int[uploaderDict.size()];
+    countInto(and(base, courseF, uploaderF), types, typeCounts);
+    countInto(and(base, typeF, uploaderF), courses, courseCounts);
+    countInto(and(base, typeF, courseF), uploaders, uploaderCounts);
+
+    BitSet hits = and(base, typeF, courseF, uploaderF);
+    // rows are appended in arrival order, so walking bits downwards yields newest first without sorting
+    List<Row> page = new ArrayList<>(limit);
+    int skipped = 0;
+    for (int row = hits.previousSetBit(rows - 1); row >= 0 && page.size() < limit; row = hits.previousSetBit(row - 1)) {
+      if (skipped++ < offset) continue;
+      page.add(new Row(materialIds[row], titles[row], TYPES[types[row]], courseDict.get(courses[row]),
+        uploaderDict.get(uploaders[row]), createdAt[row]));
+    }
+    return new Result(hits.cardinality(), page, typeCounts, top(courseCounts, courseDict), top(uploaderCounts, uploaderDict));
+  }
+
+  private NavigableMap<String, BitSet> prefixRange(String prefix) {
+    return terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+  }
+
+  private static BitSet filter(Long id, LongIntMap codes, List<BitSet> postings) {
+    if (id == null) return null;
+    int code = codes.get(id);
+    return code < 0 ? new BitSet() : postings.get(code);
+  }
+
+  private static BitSet and(BitSet base, BitSet... filters) {
+    BitSet out = null;
+    for (BitSet f : filters) {
+      if (f == null) continue;
+      if (out == null) out = (BitSet) base.clone();
+      out.and(f);
+    }
+    return out == null ? base : out;
+  }
+
+  private static void countInto(BitSet rows, int[] column, int[] counts) {
+    for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) counts[column[row]]++;
+  }
+
+  private static <T> List<Count<T>> top(int[] counts, List<T> dict) {
+    List<Count<T>> out = new ArrayList<>();
+    for (int code = 0; code < counts.length; code++) if (counts[code] > 0) out.add(new Count<>(dict.get(code), counts[code]));
+    out.sort((a, b) -> Integer.compare(b.count(), a.count()));
+    return out.size() > 20 ? out.subList(0, 20) : out;
+  }
+
+  private int courseCode(long id, String code, String title) {
+    int c = courseCodes.get(id);
+    if (c < 0) {
+      c = courseDict.size();
+      courseCodes.put(id, c);
+      courseDict.add(new Course(id, code, title));
+      courseRows.add(new BitSet());
+    } else if (!courseDict.get(c).equals(new Course(id, code, title))) {
+      courseDict.set(c, new Course(id, code, title)); // renamed; rows indexed earlier keep the old terms until compaction
+    }
+    return c;
+  }
+
+  private int uploaderCode(long id, String name) {
+    int u = uploaderCodes.get(id);
+    if (u < 0) {
+      u = uploaderDict.size();
+      uploaderCodes.put(id, u);
+      uploaderDict.add(new Uploader(id, name));
+      uploaderRows.add(new BitSet());
+    }
+    return u;
+  }
+
+  private void grow() {
+    int n = materialIds.length * 2;
+    materialIds = Arrays.copyOf(materialIds, n);
+    createdAt = Arrays.copyOf(createdAt, n);
+    types = Arrays.copyOf(types, n);
+    courses = Arrays.copyOf(courses, n);
+    uploaders = Arrays.copyOf(uploaders, n);
+    titles = Arrays.copyOf(titles, n);
+  }
+
+  static List<String> tokens(String s) {
+    List<String> out = new ArrayList<>();
+    if (s == null) return out;
+    for (String t : s.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) if (!t.isEmpty()) out.add(t);
+    return out;
+  }
+
+  // Open-addressing long -> int map (linear probing, backward-shift deletion); -1 means absent
+  static final class LongIntMap {
+    private long[] keys = new long[16];
+    private int[] values = new int[16];
+    private boolean[] used = new boolean[16];
+    private int size;
+
+    int size() { return size; }
+
+    int get(long key) {
+      for (int i = slot(key, keys.length); used[i]; i = (i + 1) & (keys.length - 1)) {
+        if (keys[i] == key) return values[i];
+      }
+      return -1;
+    }
+
+    void put(long key, int value) {
+      if ((size + 1) * 2 > keys.length) resize();
+      int i = slot(key, keys.length);
+      while (used[i] && keys[i] != key) i = (i + 1) & (keys.length - 1);
+      if (!used[i]) size++;
+      used[i] = true; keys[i] = key; values[i] = value;
+    }
+
+    int remove(long key) {
+      int mask = keys.length - 1;
+      int i = slot(key, keys.length);
+      while (used[i] && keys[i] != key) i = (i + 1) & mask;
+      if (!used[i]) return -1;
+      int value = values[i];
+      // shift later entries of the probe chain back so lookups never stop at the hole
+      int hole = i;
+      for (int j = (i + 1) & mask; used[j]; j = (j + 1) & mask) {
+        int home = slot(keys[j], keys.length);
+        if (((j - home) & mask) >= ((j - hole) & mask)) {
+          keys[hole] = keys[j]; values[hole] = values[j]; hole = j;
+        }
+      }
+      used[hole] = false;
+      size--;
+      return value;
+    }
+
+    private void resize() {
+      long[] k = keys; int[] v = values; boolean[] u = used;
+      keys = new long[k.length * 2]; values = new int[k.length * 2]; used = new boolean[k.length * 2];
+      size = 0;
+      for (int i = 0; i < k.length; i++) if (u[i]) put(k[i], v[i]);
+    }
+
+    private static int slot(long key, int length) {
+      long h = key * 0x9E3779B97F4A7C15L;
+      return (int) (h ^ (h >>> 32)) & (length - 1);
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package com.arms.platform.search;
+
+import com.arms.platform.cache.CacheInvalidatedEvent;
+import com.arms.platform.material.MaterialDeletedEvent;
+import com.arms.platform.material.MaterialRepository;
+import com.arms.platform.material.MaterialType;
+import com.arms.platform.material.MaterialUploadedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// In-memory columnar index of material metadata for the global faceted search (see MaterialColumns).
+// Loaded from the database at startup, then kept current from upload/delete events (changes made on
+// other nodes arrive the same way, via RemoteMaterialRelay). When the bus may have missed changes it is
+// rebuilt off to the side, replaying the events that arrived meanwhile before swapping.
+@Component
+public class MaterialFacetIndex {
+  private static final Logger log = LoggerFactory.getLogger(MaterialFacetIndex.class);
+
+  private final MaterialRepository materials;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private MaterialColumns columns = new MaterialColumns();
+  private List<Consumer<MaterialColumns>> replay; // non-null while a rebuild is in progress
+  private volatile boolean ready;
+
+  public MaterialFacetIndex(MaterialRepository materials) {
+    this.materials = materials;
+  }
+
+  public boolean isReady() { return ready; }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    long t0 = System.nanoTime();
+    lock.writeLock().lock();
+    try {
+      if (replay != null) return;
+      replay = new ArrayList<>();
+    } finally {
+      lock.writeLock().unlock();
+    }
+    MaterialColumns fresh = null;
+    try {
+      fresh = new MaterialColumns();
+      long after = 0;
+      List<MaterialUploadedEvent> page;
+      while (!(page = materials.scanForIndex(after, PageRequest.ofSize(5000))).isEmpty()) {
+        page.forEach(fresh::upsert);
+        after = page.get(page.size() - 1).materialId();
+      }
+    } finally {
+      lock.writeLock().lock();
+      try {
+        if (fresh != null) {
+          for (Consumer<MaterialColumns> op : replay) op.accept(fresh);
+          columns = fresh;
+        }
+        replay = null;
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+    ready = true;
+    log.info("Material facet index loaded {} material(s) in {} ms", size(), (System.nanoTime() - t0) / 1_000_000);
+  }
+
+  // fallbackExecution: the job worker publishes outside any transaction
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onUploaded(MaterialUploadedEvent e) {
+    apply(c -> c.upsert(e));
+  }
+
+  @EventListener
+  public void onDeleted(MaterialDeletedEvent e) {
+    apply(c -> c.remove(e.materialId()));
+  }
+
+  // Single materials come through RemoteMaterialRelay; a whole-region change means some may have been missed
+  @EventListener
+  public void onInvalidated(CacheInvalidatedEvent e) {
+    if (e.affects(CacheInvalidatedEvent.MATERIAL) && e.wholeRegion()) load();
+  }
+
+  private void apply(Consumer<MaterialColumns> op) {
+    lock.writeLock().lock();
+    try {
+      op.accept(columns);
+      if (replay != null) replay.add(op);
+      if (columns.needsCompaction()) columns = columns.compact();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try { return columns.size(); }
+    finally { lock.readLock().unlock(); }
+  }
+
+  // An indexed material, or null; still answers for a material whose row was just deleted
+  MaterialColumns.Row find(long materialId) {
+    lock.readLock().lock();
+    try { return columns.find(materialId); }
+    finally { lock.readLock().unlock(); }
+  }
+
+  MaterialColumns.Result query(String q, MaterialType type, Long courseId, Long uploaderId, int offset, int limit) {
+    lock.readLock().lock();
+    try { return columns.query(q, type, courseId, uploaderId, offset, limit); }
+    finally { lock.readLock().unlock(); }
+  }
+}
@@ -0,0 +1,66 @@
+package com.arms.platform.search;
+
+import com.arms.platform.material.MaterialType;
+import com.arms.platform.material.TrendingService;
+import com.arms.platform.metrics.QueryBudget;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/materials/search")
+public class MaterialSearchController {
+  private final MaterialFacetIndex index;
+  private final TrendingService trending;
+
+  public MaterialSearchController(MaterialFacetIndex index, TrendingService trending){ this.index = index; this.trending = trending; }
+
+  // Records rather than Map.of, which rejects the null names and titles older rows can have
+  public record CourseRef(long id, String code, String title) {}
+  public record UploaderRef(long id, String name) {}
+  public record Hit(long id, String title, MaterialType type, CourseRef course, UploaderRef uploader, Instant createdAt) {}
+  public record CourseFacet(long id, String code, int count) {}
+  public record UploaderFacet(long id, String name, int count) {}
+
+  // Global search over title, course code/title, uploader name and type, with facet counts.
+  // Served entirely from MaterialFacetIndex.
+  @GetMapping
+  @QueryBudget(0)
+  public ResponseEntity<?> search(@RequestParam(defaultValue="") String q,
+                                  @RequestParam(required=false) MaterialType type,
+                                  @RequestParam(required=false) Long courseId,
+                                  @RequestParam(required=false) Long uploaderId,
+                                  @RequestParam(defaultValue="0") int offset,
+                                  @RequestParam(defaultValue="20") int limit){
+    if (!index.isReady()) return ResponseEntity.status(503).header("Retry-After", "5").body(Map.of("error","search index loading"));
+    MaterialColumns.Result r = index.query(q, type, courseId, uploaderId, Math.max(offset, 0), Math.min(Math.max(limit, 1), 100));
+    trending.recordViews(r.rows(), MaterialColumns.Row::materialId, row -> row.course().id());
+
+    List<Hit> results = r.rows().stream().map(row -> new Hit(
+      row.materialId(),
+      row.title(),
+      row.type(),
+      new CourseRef(row.course().id(), row.course().code(), row.course().title()),
+      new UploaderRef(row.uploader().id(), row.uploader().name()),
+      Instant.ofEpochMilli(row.createdAt())
+    )).toList();
+
+    Map<String,Integer> types = new LinkedHashMap<>();
+    MaterialType[] all = MaterialType.values();
+    for (int i = 0; i < all.length; i++) if (r.typeCounts()[i] > 0) types.put(all[i].name(), r.typeCounts()[i]);
+
+    return ResponseEntity.ok(Map.of(
+      "total", r.total(),
+      "results", results,
+      "facets", Map.of(
+        "type", types,
+        "course", r.courseCounts().stream().map(c -> new CourseFacet(c.value().id(), c.value().code(), c.count())).toList(),
+        "uploader", r.uploaderCounts().stream().map(c -> new UploaderFacet(c.value().id(), c.value().name(), c.count())).toList()
+      )
+    ));
+  }
+}
@@ -0,0 +1,257 @@
+package com.arms.platform.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+// Typeahead structure for one kind of thing (courses, users, materials).
+//
+// Every entry contributes a few keys: its normalized label and hint plus each word-suffix of them, so
+// "lin" and "alg" both reach "Linear Algebra". All keys are UTF-8 encoded back to back in one byte[]
+// in sorted order, so a prefix maps to a contiguous range found by two binary searches. A segment tree
+// over that key order holds, per node, the key with the highest entry weight; the top-k entries for a
+// range fall out of a best-first walk in O(k log n), no matter how many keys share the prefix.
+//
+// Weights are patched in place (O(log n) per key). Entries added after the build go to a small overlay
+// that is scanned linearly; SuggestService rebuilds the arrays once the overlay grows. Not thread-safe.
+final class PrefixIndex {
+  record Entry(long id, String label, String hint, int weight) {}
+  record Suggestion(long id, String label, String hint, int weight) {}
+
+  private static final int MAX_OVERLAY = 512;
+
+  // entries
+  private final long[] ids;
+  private final String[] labels;
+  private final String[] hints;
+  private final int[] weights;
+  private final BitSet dead = new BitSet();
+  private final MaterialColumns.LongIntMap entryOf = new MaterialColumns.LongIntMap();
+
+  // sorted keys: bytes of key i are keyBytes[keyStart[i] .. keyStart[i+1])
+  private final byte[] keyBytes;
+  private final int[] keyStart;
+  private final int[] keyEntry;
+  // entry -> its key positions (CSR layout), for weight patches
+  private final int[] entryKeysStart;
+  private final int[] entryKeys;
+
+  // max-weight key position per node; leaves at [size, 2*size)
+  private final int size;
+  private final int[] tree;
+
+  private final List<Entry> overlay = new ArrayList<>();
+  private final List<List<String>> overlayKeys = new ArrayList<>();
+
+  PrefixIndex(List<Entry> entries) {
+    int n = entries.size();
+    ids = new long[n]; labels = new String[n]; hints = new String[n]; weights = new int[n];
+    List<byte[]> keys = new ArrayList<>();
+    List<Integer> owners = new ArrayList<>();
+    for (int e = 0; e < n; e++) {
+      Entry en = entries.get(e);
+      ids[e] = en.id(); labels[e] = en.label(); hints[e] = en.hint(); weights[e] = en.weight();
+      entryOf.put(en.id(), e);
+      for (String k : keys(en.label(), en.hint())) { keys.add(k.getBytes(StandardCharsets.UTF_8)); owners.add(e); }
+    }
+
+    Integer[] order = new Integer[keys.size()];
+    for (int i = 0; i < order.length; i++) order[i] = i;
+    Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(keys.get(a), keys.get(b)));
+
+    int total = 0;
+    for (byte[] k : keys) total += k.length;
+    keyBytes = new byte[total];
+    keyStart = new int[order.length + 1];
+    keyEntry = new int[order.length];
+    int[] perEntry = new int[n + 1];
+    for (int i = 0, off = 0; i < order.length; i++) {
+      byte[] k = keys.get(order[i]);
+      System.arraycopy(k, 0, keyBytes, off, k.length);
+      keyStart[i] = off;
+      off += k.length;
+      keyStart[i + 1] = off;
+      keyEntry[i] = owners.get(order[i]);
+      perEntry[keyEntry[i] + 1]++;
+    }
+    for (int e = 0; e < n; e++) perEntry[e + 1] += perEntry[e];
+    entryKeysStart = perEntry.clone();
+    entryKeys = new int[order.length];
+    int[] fill = Arrays.copyOf(perEntry, n);
+    for (int pos = 0; pos < order.length; pos++) entryKeys[fill[keyEntry[pos]]++] = pos;
+
+    int s = 1;
+    while (s < Math.max(order.length, 1)) s <<= 1;
+    size = s;
+    tree = new int[2 * s];
+    Arrays.fill(tree, -1);
+    for (int pos = 0; pos < order.length; pos++) tree[s + pos] = pos;
+    for (int node = s - 1; node >= 1; node--) tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+  }
+
+  int entries() { return ids.length - dead.cardinality() + overlay.size(); }
+
+  boolean overlayFull() { return overlay.size() >= MAX_OVERLAY; }
+
+  boolean contains(long id) {
+    int e = entryOf.get(id);
+    if (e >= 0 && !dead.get(e)) return true;
+    for (Entry o : overlay) if (o.id() == id) return true;
+    return false;
+  }
+
+  void add(Entry entry) {
+    int e = entryOf.get(entry.id());
+    if (e >= 0 && !dead.get(e)) { setWeight(entry.id(), entry.weight()); return; }
+    removeFromOverlay(entry.id());
+    overlay.add(entry);
+    overlayKeys.add(keys(entry.label(), entry.hint()));
+  }
+
+  private void removeFromOverlay(long id) {
+    for (int i = overlay.size() - 1; i >= 0; i--) {
+      if (overlay.get(i).id() == id) { overlay.remove(i); overlayKeys.remove(i); }
+    }
+  }
+
+  void remove(long id) {
+    int e = entryOf.get(id);
+    if (e >= 0) { dead.set(e); setWeight(e, Integer.MIN_VALUE); }
+    removeFromOverlay(id);
+  }
+
+  void addWeight(long id, int delta) {
+    int e = entryOf.get(id);
+    if (e >= 0 && !dead.get(e)) { setWeight(e, weights[e] + delta); return; }
+    for (int i = 0; i < overlay.size(); i++) {
+      Entry o = overlay.get(i);
+      if (o.id() == id) overlay.set(i, new Entry(o.id(), o.label(), o.hint(), o.weight() + delta));
+    }
+  }
+
+  private void setWeight(long id, int weight) {
+    int e = entryOf.get(id);
+    if (e >= 0) setWeight(e, weight);
+  }
+
+  private void setWeight(int e, int weight) {
+    weights[e] = weight;
+    for (int i = entryKeysStart[e]; i < entryKeysStart[e + 1]; i++) {
+      for (int node = (size + entryKeys[i]) >> 1; node >= 1; node >>= 1) {
+        tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+      }
+    }
+  }
+
+  // Current contents, for rebuilding (live entries plus overlay)
+  List<Entry> snapshot() {
+    List<Entry> out = new ArrayList<>(ids.length + overlay.size());
+    for (int e = 0; e < ids.length; e++) if (!dead.get(e)) out.add(new Entry(ids[e], labels[e], hints[e], weights[e]));
+    out.addAll(overlay);
+    return out;
+  }
+
+  List<Suggestion> top(String prefix, int k) {
+    String p = normalize(prefix);
+    List<Suggestion> out = new ArrayList<>(k);
+    if (p.isEmpty() || k <= 0) return out;
+    byte[] pb = p.getBytes(StandardCharsets.UTF_8);
+    int lo = lowerBound(pb), hi = upperBound(pb);
+
+    // best-first over the segment tree; heap items pack (weight, node) into one long
+    PriorityQueue<Long> heap = new PriorityQueue<>((a, b) -> Long.compare(b, a));
+    for (int l = lo + size, r = hi + size; l < r; l >>= 1, r >>= 1) {
+      if ((l & 1) == 1) push(heap, l++);
+      if ((r & 1) == 1) push(heap, --r);
+    }
+    BitSet seen = new BitSet();
+    while (!heap.isEmpty() && out.size() < k) {
+      int node = (int) (heap.poll() & 0xffffffffL);
+      if (node >= size) {
+        int e = keyEntry[node - size];
+        if (!seen.get(e)) { seen.set(e); out.add(new Suggestion(ids[e], labels[e], hints[e], weights[e])); }
+      } else {
+        push(heap, 2 * node);
+        push(heap, 2 * node + 1);
+      }
+    }
+
+    if (!overlay.isEmpty()) {
+      for (int i = 0; i < overlay.size(); i++) {
+        for (String key : overlayKeys.get(i)) {
+          if (key.startsWith(p)) {
+            Entry o = overlay.get(i);
+            out.add(new Suggestion(o.id(), o.label(), o.hint(), o.weight()));
+            break;
+          }
+        }
+      }
+      out.sort((a, b) -> Integer.compare(b.weight(), a.weight()));
+      if (out.size() > k) out = new ArrayList<>(out.subList(0, k));
+    }
+    return out;
+  }
+
+  private void push(PriorityQueue<Long> heap, int node) {
+    int pos = tree[node];
+    if (pos < 0) return;
+    int w = weights[keyEntry[pos]];
+    if (w == Integer.MIN_VALUE) return; // only deleted entries below
+    heap.add(((long) w << 32) | node);
+  }
+
+  private int better(int a, int b) {
+    if (a < 0) return b;
+    if (b < 0) return a;
+    return weights[keyEntry[b]] > weights[keyEntry[a]] ? b : a;
+  }
+
+  // first key >= prefix
+  private int lowerBound(byte[] prefix) {
+    int lo = 0, hi = keyEntry.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (compare(mid, prefix, false) < 0) lo = mid + 1; else hi = mid;
+    }
+    return lo;
+  }
+
+  // first key that neither starts with nor sorts before prefix
+  private int upperBound(byte[] prefix) {
+    int lo = 0, hi = keyEntry.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (compare(mid, prefix, true) <= 0) lo = mid + 1; else hi = mid;
+    }
+    return lo;
+  }
+
+  // compares key i with prefix; with truncate, a key that starts with prefix compares equal
+  private int compare(int i, byte[] prefix, boolean truncate) {
+    int from = keyStart[i], len = keyStart[i + 1] - from;
+    int n = truncate ? Math.min(len, prefix.length) : len;
+    return Arrays.compareUnsigned(keyBytes, from, from + n, prefix, 0, prefix.length);
+  }
+
+  static List<String> keys(String label, String hint) {
+    List<String> out = new ArrayList<>();
+    for (String s : new String[]{label, hint}) {
+      String norm = normalize(s);
+      if (norm.isEmpty()) continue;
+      out.add(norm);
+      for (int i = 1; i < norm.length(); i++) {
+        if (norm.charAt(i - 1) == ' ' && out.size() < 8) out.add(norm.substring(i));
+      }
+    }
+    return out;
+  }
+
+  static String normalize(String s) {
+    if (s == null) return "";
+    return s.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+  }
+}
@@ -0,0 +1,46 @@
+package com.arms.platform.search;
+
+import com.arms.platform.cache.CacheInvalidatedEvent;
+import com.arms.platform.material.MaterialDeletedEvent;
+import com.arms.platform.material.MaterialRepository;
+import com.arms.platform.material.MaterialUploadedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+// A material changed on another node: reads it back and replays it as a local MaterialUploadedEvent or
+// MaterialDeletedEvent, so the facet and suggest indexes, the activity feed and trending here follow it
+// like a local change. The read goes to the primary (read-write transaction): a lagging replica would
+// turn a fresh upload into a delete. A deleted row cannot be read back, so its course and uploader come
+// from MaterialFacetIndex, which still holds it at this point.
+@Component
+public class RemoteMaterialRelay {
+  private final MaterialRepository materials;
+  private final MaterialFacetIndex facets;
+  private final ApplicationEventPublisher events;
+  private final TransactionTemplate tx;
+
+  public RemoteMaterialRelay(MaterialRepository materials, MaterialFacetIndex facets, ApplicationEventPublisher events,
+                             PlatformTransactionManager txManager) {
+    this.materials = materials;
+    this.facets = facets;
+    this.events = events;
+    this.tx = new TransactionTemplate(txManager);
+  }
+
+  @EventListener
+  public void onInvalidated(CacheInvalidatedEvent e) {
+    if (!e.region().equals(CacheInvalidatedEvent.MATERIAL) || e.wholeRegion()) return; // reloads are handled by the indexes
+    List<MaterialUploadedEvent> found = tx.execute(s -> materials.findSummaries(List.of(e.id())));
+    if (found != null && !found.isEmpty()) events.publishEvent(found.get(0));
+    else {
+      MaterialColumns.Row known = facets.find(e.id());
+      events.publishEvent(known == null ? new MaterialDeletedEvent(e.id(), null, null)
+        : new MaterialDeletedEvent(e.id(), known.course().id(), known.uploader().id()));
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package com.arms.platform.search;
+
+import com.arms.platform.metrics.QueryBudget;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+  private final ContentIndex index;
+
+  public SearchController(ContentIndex index){ this.index = index; }
+
+  // Full-text search over material contents; results come from the index alone, without touching the database
+  @GetMapping
+  @QueryBudget(0)
+  public ResponseEntity<?> search(@RequestParam String q,
+                                  @RequestParam(required=false) Long courseId,
+                                  @RequestParam(defaultValue="20") int limit) throws Exception {
+    if (q.isBlank()) return ResponseEntity.badRequest().body(Map.of("error","q required"));
+    return ResponseEntity.ok(index.search(q, courseId, Math.min(Math.max(limit, 1), 100)));
+  }
+}
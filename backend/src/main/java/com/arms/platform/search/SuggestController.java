@@ -0,0 +1,26 @@
+package com.arms.platform.search;
+
+import com.arms.platform.metrics.QueryBudget;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/suggest")
+public class SuggestController {
+  private final SuggestService suggestions;
+
+  public SuggestController(SuggestService suggestions){ this.suggestions = suggestions; }
+
+  // One call per keystroke from the search box: courses, users and materials whose words start with q
+  @GetMapping
+  @QueryBudget(0)
+  public Map<String,Object> suggest(@RequestParam String q, @RequestParam(defaultValue="5") int limit){
+    SuggestService.Suggestions s = suggestions.suggest(q, Math.min(Math.max(limit, 1), 20));
+    return Map.of(
+      "courses", s.courses().stream().map(c -> Map.of("id", c.id(), "code", c.hint(), "title", c.label())).toList(),
+      "users", s.users().stream().map(u -> Map.of("id", u.id(), "name", u.label())).toList(),
+      "materials", s.materials().stream().map(m -> Map.of("id", m.id(), "title", m.label(), "course", m.hint())).toList()
+    );
+  }
+}
@@ -0,0 +1,214 @@
+package com.arms.platform.search;
+
+import com.arms.platform.cache.CacheInvalidatedEvent;
+import com.arms.platform.course.Course;
+import com.arms.platform.course.CourseRepository;
+import com.arms.platform.material.MaterialDeletedEvent;
+import com.arms.platform.material.MaterialRepository;
+import com.arms.platform.material.MaterialUploadedEvent;
+import com.arms.platform.user.UserCreatedEvent;
+import com.arms.platform.user.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// Typeahead over courses, users and materials, answered from PrefixIndex without touching the database.
+// Popularity weights: a course by its material count, a user by their upload count. New accounts are
+// added as they are created, here or (through the bus) on another node.
+// Writes patch the live indexes; a rebuild (overlay full, or the periodic reload that also corrects
+// drifted weights) happens off to the side and replays any patches that arrived meanwhile before swapping.
+@Service
+public class SuggestService {
+  private static final Logger log = LoggerFactory.getLogger(SuggestService.class);
+
+  record Indexes(PrefixIndex courses, PrefixIndex users, PrefixIndex materials) {}
+  public record Suggestions(List<PrefixIndex.Suggestion> courses, List<PrefixIndex.Suggestion> users,
+                            List<PrefixIndex.Suggestion> materials) {}
+
+  private final CourseRepository courses;
+  private final UserRepository users;
+  private final MaterialRepository materials;
+  private final TransactionTemplate tx;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private Indexes current = new Indexes(new PrefixIndex(List.of()), new PrefixIndex(List.of()), new PrefixIndex(List.of()));
+  private List<Consumer<Indexes>> replay; // non-null while a rebuild is in progress
+
+  public SuggestService(CourseRepository courses, UserRepository users, MaterialRepository materials,
+                        PlatformTransactionManager txManager) {
+    this.courses = courses; this.users = users; this.materials = materials;
+    this.tx = new TransactionTemplate(txManager);
+  }
+
+  public Suggestions suggest(String q, int limit) {
+    lock.readLock().lock();
+    try {
+      return new Suggestions(current.courses().top(q, limit), current.users().top(q, limit), current.materials().top(q, limit));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onUploaded(MaterialUploadedEvent e) {
+    apply(ix -> {
+      if (ix.materials().contains(e.materialId())) return; // re-published after processing
+      ix.materials().add(new PrefixIndex.Entry(e.materialId(), e.title(), e.courseCode(), 1));
+      bump(ix.courses(), new PrefixIndex.Entry(e.courseId(), e.courseTitle(), e.courseCode(), 1));
+      bump(ix.users(), new PrefixIndex.Entry(e.uploaderId(), e.uploaderName(), null, 1));
+    });
+  }
+
+  @EventListener
+  public void onDeleted(MaterialDeletedEvent e) {
+    apply(ix -> {
+      ix.materials().remove(e.materialId());
+      if (e.courseId() != null) ix.courses().addWeight(e.courseId(), -1);
+      if (e.uploaderId() != null) ix.users().addWeight(e.uploaderId(), -1);
+    });
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onUserCreated(UserCreatedEvent e) {
+    addUser(e.userId(), e.name());
+  }
+
+  // Single remote materials arrive through RemoteMaterialRelay. A user entry is an account created on
+  // another node (users are never renamed or deleted), read back from the primary as a replica may
+  // not have it yet. After missed changes, rebuild.
+  @EventListener
+  public void onInvalidated(CacheInvalidatedEvent e) {
+    if ((e.affects(CacheInvalidatedEvent.MATERIAL) || e.affects(CacheInvalidatedEvent.USER)) && e.wholeRegion()) {
+      reload();
+    } else if (e.region().equals(CacheInvalidatedEvent.USER)) {
+      tx.execute(s -> users.findNameById(e.id())).ifPresent(u -> addUser(u.getId(), u.getName()));
+    }
+  }
+
+  private void addUser(Long id, String name) {
+    apply(ix -> {
+      if (!ix.users().contains(id)) ix.users().add(new PrefixIndex.Entry(id, name, null, 0));
+    });
+  }
+
+  private static void bump(PrefixIndex index, PrefixIndex.Entry entry) {
+    if (index.contains(entry.id())) index.addWeight(entry.id(), 1);
+    else index.add(entry);
+  }
+
+  private void apply(Consumer<Indexes> op) {
+    lock.writeLock().lock();
+    try {
+      op.accept(current);
+      if (replay != null) replay.add(op);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(initialDelayString = "${app.suggest.reload-interval-ms:3600000}", fixedDelayString = "${app.suggest.reload-interval-ms:3600000}")
+  public void reload() {
+    long t0 = System.nanoTime();
+    if (!beginRebuild()) return;
+    Indexes fresh = null;
+    try {
+      fresh = loadFromDatabase();
+    } finally {
+      finishRebuild(fresh);
+    }
+    log.info("Suggest index loaded {} course(s), {} user(s), {} material(s) in {} ms",
+      fresh.courses().entries(), fresh.users().entries(), fresh.materials().entries(), (System.nanoTime() - t0) / 1_000_000);
+  }
+
+  // Folds overlays into the sorted arrays once they get large enough to slow queries down
+  @Scheduled(fixedDelayString = "${app.suggest.compact-interval-ms:10000}")
+  public void compact() {
+    Indexes snapshot;
+    lock.readLock().lock();
+    try {
+      Indexes ix = current;
+      if (replay != null || !(ix.courses().overlayFull() || ix.users().overlayFull() || ix.materials().overlayFull())) return;
+    } finally {
+      lock.readLock().unlock();
+    }
+    List<List<PrefixIndex.Entry>> contents = new ArrayList<>();
+    lock.writeLock().lock();
+    try {
+      if (replay != null) return;
+      replay = new ArrayList<>();
+      contents.add(current.courses().snapshot());
+      contents.add(current.users().snapshot());
+      contents.add(current.materials().snapshot());
+    } finally {
+      lock.writeLock().unlock();
+    }
+    Indexes fresh = null;
+    try {
+      fresh = new Indexes(new PrefixIndex(contents.get(0)), new PrefixIndex(contents.get(1)), new PrefixIndex(contents.get(2)));
+    } finally {
+      finishRebuild(fresh);
+    }
+  }
+
+  private boolean beginRebuild() {
+    lock.writeLock().lock();
+    try {
+      if (replay != null) return false;
+      replay = new ArrayList<>();
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void finishRebuild(Indexes fresh) {
+    lock.writeLock().lock();
+    try {
+      if (fresh != null) {
+        for (Consumer<Indexes> op : replay) op.accept(fresh);
+        current = fresh;
+      }
+      replay = null;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private Indexes loadFromDatabase() {
+    Map<Long, Integer> perCourse = new HashMap<>(), perUser = new HashMap<>();
+    List<PrefixIndex.Entry> materialEntries = new ArrayList<>();
+    long after = 0;
+    List<MaterialUploadedEvent> page;
+    while (!(page = materials.scanForIndex(after, PageRequest.ofSize(5000))).isEmpty()) {
+      for (MaterialUploadedEvent m : page) {
+        materialEntries.add(new PrefixIndex.Entry(m.materialId(), m.title(), m.courseCode(), 1));
+        perCourse.merge(m.courseId(), 1, Integer::sum);
+        perUser.merge(m.uploaderId(), 1, Integer::sum);
+      }
+      after = page.get(page.size() - 1).materialId();
+    }
+    List<PrefixIndex.Entry> courseEntries = new ArrayList<>();
+    for (Course c : courses.findAll()) {
+      courseEntries.add(new PrefixIndex.Entry(c.getId(), c.getTitle(), c.getCode(), perCourse.getOrDefault(c.getId(), 0)));
+    }
+    List<PrefixIndex.Entry> userEntries = new ArrayList<>();
+    for (UserRepository.IdAndName u : users.findAllNames()) {
+      userEntries.add(new PrefixIndex.Entry(u.getId(), u.getName(), null, perUser.getOrDefault(u.getId(), 0)));
+    }
+    return new Indexes(new PrefixIndex(courseEntries), new PrefixIndex(userEntries), new PrefixIndex(materialEntries));
+  }
+}
@@ -0,0 +1,128 @@
+package com.arms.platform.search;
+
+import com.arms.platform.material.Material;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+// Plain text out of the formats people actually upload: PDF, DOCX/PPTX (read straight from the
+// OOXML parts, no Office library) and source/text files. Output is capped at app.search.max-chars
+// so one huge upload cannot blow up indexing memory. Legacy binary .doc/.ppt yield no text.
+@Component
+public class TextExtractor {
+  private static final Set<String> TEXT_EXT = Set.of(
+    "txt","md","csv","tex","java","py","c","h","cpp","hpp","cs","js","ts","go","rs","kt","rb","php","sql",
+    "sh","html","css","xml","json","yaml","yml","ipynb");
+  private static final XMLInputFactory XML = XMLInputFactory.newFactory();
+  static {
+    XML.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    XML.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+  }
+
+  private final int maxChars;
+
+  public TextExtractor(@Value("${app.search.max-chars:1000000}") int maxChars) {
+    this.maxChars = maxChars;
+  }
+
+  public String extract(Material m, Path file) throws Exception {
+    String ct = m.getContentType() == null ? "" : m.getContentType();
+    String ext = ext(m.getPath());
+    StringBuilder out = new StringBuilder();
+    if (ct.equals("application/pdf") || ext.equals("pdf")) {
+      pdf(file, out);
+    } else if (ct.contains("wordprocessingml") || ext.equals("docx")) {
+      ooxml(file, e -> e.equals("word/document.xml"), out);
+    } else if (ct.contains("presentationml") || ext.equals("pptx")) {
+      ooxml(file, e -> e.startsWith("ppt/slides/slide") && e.endsWith(".xml"), out);
+    } else if (ct.startsWith("text/") || TEXT_EXT.contains(ext)) {
+      text(file, out);
+    }
+    return out.length() > maxChars ? out.substring(0, maxChars) : out.toString();
+  }
+
+  private void pdf(Path file, StringBuilder out) throws Exception {
+    // temp-file stream cache keeps large PDFs off the heap
+    try (PDDocument doc = Loader.loadPDF(file.toFile(), IOUtils.createTempFileOnlyStreamCache())) {
+      PDFTextStripper stripper = new PDFTextStripper();
+      int pages = doc.getNumberOfPages();
+      // page by page so extraction stops once the cap is reached
+      for (int p = 1; p <= pages && out.length() < maxChars; p++) {
+        stripper.setStartPage(p);
+        stripper.setEndPage(p);
+        out.append(stripper.getText(doc));
+      }
+    }
+  }
+
+  private void ooxml(Path file, java.util.function.Predicate<String> parts, StringBuilder out) throws Exception {
+    try (ZipFile zip = new ZipFile(file.toFile())) {
+      List<ZipEntry> entries = new ArrayList<>();
+      zip.stream().filter(e -> parts.test(e.getName())).forEach(entries::add);
+      // slide10.xml must come after slide9.xml
+      entries.sort(Comparator.comparingInt((ZipEntry e) -> e.getName().length()).thenComparing(ZipEntry::getName));
+      for (ZipEntry e : entries) {
+        if (out.length() >= maxChars) break;
+        try (InputStream in = zip.getInputStream(e)) { xmlText(in, out); }
+      }
+    }
+  }
+
+  // Text runs are <w:t>/<a:t>; paragraphs (<w:p>/<a:p>) become line breaks
+  private void xmlText(InputStream in, StringBuilder out) throws Exception {
+    XMLStreamReader r = XML.createXMLStreamReader(in);
+    try {
+      boolean inText = false;
+      while (r.hasNext() && out.length() < maxChars) {
+        switch (r.next()) {
+          case XMLStreamConstants.START_ELEMENT -> inText = r.getLocalName().equals("t");
+          case XMLStreamConstants.CHARACTERS -> { if (inText) out.append(r.getText()); }
+          case XMLStreamConstants.END_ELEMENT -> {
+            if (r.getLocalName().equals("t")) inText = false;
+            else if (r.getLocalName().equals("p")) out.append('\n');
+          }
+          default -> {}
+        }
+      }
+    } finally {
+      r.close();
+    }
+  }
+
+  private void text(Path file, StringBuilder out) throws Exception {
+    byte[] bytes;
+    try (InputStream in = Files.newInputStream(file)) { bytes = in.readNBytes(maxChars); }
+    CharBuffer chars = CharBuffer.allocate(bytes.length);
+    // endOfInput=false: a multi-byte sequence cut off by the cap is dropped, not treated as malformed
+    CoderResult res = StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPORT)
+      .decode(ByteBuffer.wrap(bytes), chars, false);
+    if (res.isError()) out.append(new String(bytes, StandardCharsets.ISO_8859_1)); // old Windows-saved sources
+    else out.append(chars.flip());
+  }
+
+  private static String ext(String path) {
+    int i = path.lastIndexOf('.');
+    return i < 0 ? "" : path.substring(i + 1).toLowerCase();
+  }
+}
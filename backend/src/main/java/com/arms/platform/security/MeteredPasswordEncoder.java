@@ -0,0 +1,38 @@
+package com.arms.platform.security;
+
+import com.arms.platform.metrics.RequestTiming;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+// BCrypt is deliberately slow; time it so hashing cost shows up in metrics and Server-Timing
+public class MeteredPasswordEncoder extends BCryptPasswordEncoder {
+  private final Timer encodeTimer;
+  private final Timer matchTimer;
+
+  public MeteredPasswordEncoder(MeterRegistry registry) {
+    this.encodeTimer = Timer.builder("arms.auth.bcrypt").tag("op", "encode").register(registry);
+    this.matchTimer = Timer.builder("arms.auth.bcrypt").tag("op", "matches").register(registry);
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    long t0 = System.nanoTime();
+    try {
+      return encodeTimer.record(() -> super.encode(rawPassword));
+    } finally {
+      RequestTiming.record(RequestTiming.Phase.HASH, System.nanoTime() - t0);
+    }
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    long t0 = System.nanoTime();
+    try {
+      Boolean ok = matchTimer.record(() -> super.matches(rawPassword, encodedPassword));
+      return ok != null && ok;
+    } finally {
+      RequestTiming.record(RequestTiming.Phase.HASH, System.nanoTime() - t0);
+    }
+  }
+}
@@ -1,6 +1,8 @@
 package com.arms.platform.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -35,12 +37,16 @@ public class SecurityConfig {
           return cfg;
         }))
         .authorizeHttpRequests(auth -> auth
-            .requestMatchers("/api/auth/**","/actuator/health","/files/**").permitAll()
+            .requestMatchers("/api/auth/**","/actuator/health","/actuator/health/*","/files/**").permitAll()
+            .requestMatchers("/actuator/**").hasRole("ADMIN") // metrics and the Prometheus scrape (bearer token of an admin)
             .requestMatchers("/api/courses").permitAll() // Allow public access to course listing
             .requestMatchers("/api/courses/*/materials").permitAll() // Allow public access to materials
+            .requestMatchers("/api/news/unread-count", "/api/news/read-state", "/api/news/read", "/api/news/read-all").authenticated()
             .requestMatchers("/api/news/**").permitAll() // Allow public access to news
             .requestMatchers("/api/rankings/**").permitAll() // Allow public access to rankings
+            .requestMatchers("/api/dashboard").permitAll() // public parts only when not signed in
             .requestMatchers("/api/auth/test").permitAll() // Allow test endpoint
+            .requestMatchers("/api/admin/**").hasRole("ADMIN")
             .anyRequest().authenticated()
         )
         .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
@@ -48,7 +54,16 @@ public class SecurityConfig {
     return http.build();
   }
 
-  @Bean public BCryptPasswordEncoder passwordEncoder(){ return new BCryptPasswordEncoder(); }
+  // JwtAuthFilter is a @Component, so Boot would also register it as a plain servlet filter and every
+  // authenticated request would parse the token and look the user up twice
+  @Bean
+  public FilterRegistrationBean<JwtAuthFilter> jwtAuthFilterRegistration(JwtAuthFilter filter) {
+    FilterRegistrationBean<JwtAuthFilter> reg = new FilterRegistrationBean<>(filter);
+    reg.setEnabled(false);
+    return reg;
+  }
+
+  @Bean public BCryptPasswordEncoder passwordEncoder(MeterRegistry registry){ return new MeteredPasswordEncoder(registry); }
   @Bean public AuthenticationManager authenticationManager(AuthenticationConfiguration c) throws Exception {
     return c.getAuthenticationManager();
   }
@@ -0,0 +1,109 @@
+package com.arms.platform.service;
+
+import com.arms.platform.metrics.RequestTiming;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Opt-in incremental JSON for list endpoints that can grow large. Instead of loading a List of
+// entities, mapping it to a List of DTOs and handing that to the message converter, rows come from a
+// repository Stream (a JDBC cursor with a fetch size) and each one is mapped, written to the response
+// through one JsonGenerator and detached from the persistence context before the next is read. The
+// first bytes leave once the generator's buffer fills, and memory no longer grows with the result size.
+//
+// Output is the same JSON the non-streaming path produces. Enabled per request with ?stream=true, or
+// for every request with app.json.streaming=true (then ?stream=false opts out).
+@Service
+public class JsonStreamingService {
+  private final ObjectWriter writer;
+  private final TransactionTemplate tx;
+  private final boolean defaultOn;
+
+  @PersistenceContext
+  private EntityManager em;
+
+  public JsonStreamingService(ObjectMapper mapper, PlatformTransactionManager txManager,
+                              @Value("${app.json.streaming:false}") boolean defaultOn) {
+    // flushing after every element would send one chunk per row
+    this.writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    this.tx = new TransactionTemplate(txManager);
+    this.tx.setReadOnly(true);
+    this.defaultOn = defaultOn;
+  }
+
+  public boolean enabled(Boolean requested) {
+    return requested != null ? requested : defaultOn;
+  }
+
+  /** Writes the mapped rows as a JSON array. */
+  public <T> void writeArray(HttpServletResponse res, Supplier<Stream<T>> rows, Function<? super T, ?> mapper) throws IOException {
+    JsonGenerator gen = start(res);
+    gen.writeStartArray();
+    writeRows(gen, rows, mapper);
+    gen.writeEndArray();
+    finish(gen);
+  }
+
+  /** Writes {"content": [...], "totalElements": n}, the shape of the non-paged list responses. */
+  public <T> void writeContent(HttpServletResponse res, Supplier<Stream<T>> rows, Function<? super T, ?> mapper) throws IOException {
+    JsonGenerator gen = start(res);
+    gen.writeStartObject();
+    gen.writeFieldName("content");
+    gen.writeStartArray();
+    long n = writeRows(gen, rows, mapper);
+    gen.writeEndArray();
+    gen.writeNumberField("totalElements", n);
+    gen.writeEndObject();
+    finish(gen);
+  }
+
+  private JsonGenerator start(HttpServletResponse res) throws IOException {
+    res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    res.setCharacterEncoding("UTF-8");
+    return writer.createGenerator(res.getOutputStream());
+  }
+
+  private void finish(JsonGenerator gen) throws IOException {
+    gen.close(); // flushes; the servlet container completes the response
+  }
+
+  // The stream has to be consumed inside a transaction, which also keeps the cursor's connection
+  private <T> long writeRows(JsonGenerator gen, Supplier<Stream<T>> rows, Function<? super T, ?> mapper) throws IOException {
+    long[] n = {0};
+    // reading and writing are interleaved; the whole loop counts as serialization, apart from the
+    // repository call that opens the stream
+    try (RequestTiming.Section timed = RequestTiming.start(RequestTiming.Phase.SERIALIZE)) {
+      tx.executeWithoutResult(s -> {
+        try (Stream<T> stream = rows.get()) {
+          stream.forEach(row -> {
+            try {
+              writer.writeValue(gen, mapper.apply(row));
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+            if (em.contains(row)) em.detach(row);
+            n[0]++;
+          });
+        }
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    return n[0];
+  }
+}
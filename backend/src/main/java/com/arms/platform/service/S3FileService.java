@@ -6,8 +6,10 @@ import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectInputStream;
 import com.amazonaws.util.IOUtils;
+import com.arms.platform.metrics.StorageMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -16,11 +18,15 @@ import java.io.InputStream;
 import java.util.UUID;
 
 @Service
+@Lazy
 public class S3FileService {
 
     @Autowired
     private AmazonS3 amazonS3;
 
+    @Autowired
+    private StorageMetrics storageMetrics;
+
     @Value("${aws.s3.bucket.name}")
     private String bucketName;
 
@@ -39,14 +45,19 @@ public class S3FileService {
                 metadata
         );
 
+        long start = System.nanoTime();
         amazonS3.putObject(putObjectRequest);
+        storageMetrics.recordUpload("s3", file.getSize(), System.nanoTime() - start);
         return key;
     }
 
     public byte[] downloadFile(String key) throws IOException {
+        long start = System.nanoTime();
         S3Object s3Object = amazonS3.getObject(bucketName, key);
         S3ObjectInputStream inputStream = s3Object.getObjectContent();
-        return IOUtils.toByteArray(inputStream);
+        byte[] bytes = IOUtils.toByteArray(inputStream);
+        storageMetrics.recordDownload("s3", bytes.length, System.nanoTime() - start);
+        return bytes;
     }
 
     public void deleteFile(String key) {
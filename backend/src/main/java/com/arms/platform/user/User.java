@@ -2,15 +2,25 @@ package com.arms.platform.user;
 
 import jakarta.persistence.*;
 import java.time.Instant;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 @Entity
 @Table(name="users", uniqueConstraints = @UniqueConstraint(columnNames = "email"))
+@Cache(usage=CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 public class User {
-  @Id @GeneratedValue(strategy=GenerationType.IDENTITY)
+  // pooled sequence ids so bulk provisioning can batch its inserts (see migrate-id-sequences.sql)
+  @Id
+  @GeneratedValue(strategy=GenerationType.SEQUENCE, generator="users_seq")
+  @SequenceGenerator(name="users_seq", sequenceName="users_id_seq", allocationSize=50)
   private Long id;
 
   private String name;
 
+  @NaturalId(mutable=true)
   @Column(nullable=false, unique=true)
   @com.arms.platform.validation.KlhEmail
   private String email;
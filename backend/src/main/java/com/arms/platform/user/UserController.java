@@ -2,6 +2,9 @@ package com.arms.platform.user;
 
 import com.arms.platform.material.Material;
 import com.arms.platform.material.MaterialRepository;
+import com.arms.platform.metrics.QueryBudget;
+import com.arms.platform.service.JsonStreamingService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -14,21 +17,21 @@ import java.util.stream.Collectors;
 public class UserController {
     private final UserRepository userRepository;
     private final MaterialRepository materialRepository;
+    private final JsonStreamingService json;
     
-    public UserController(UserRepository userRepository, MaterialRepository materialRepository) {
+    public UserController(UserRepository userRepository, MaterialRepository materialRepository, JsonStreamingService json) {
         this.userRepository = userRepository;
         this.materialRepository = materialRepository;
+        this.json = json;
     }
     
     @GetMapping("/{id}")
+    @QueryBudget(2)
     public ResponseEntity<?> getUserProfile(@PathVariable Long id) {
-        System.out.println("Getting profile for user ID: " + id);
         User user = userRepository.findById(id).orElse(null);
         if (user == null) {
-            System.out.println("User not found for ID: " + id);
             return ResponseEntity.notFound().build();
         }
-        System.out.println("Found user: " + user.getName() + " (" + user.getEmail() + ")");
         
         // Get user's materials grouped by course
         List<Material> userMaterials = materialRepository.findByUserId(id);
@@ -67,20 +70,29 @@ public class UserController {
     }
     
     @GetMapping("/search")
-    public ResponseEntity<?> searchUsers(@RequestParam String query) {
+    @QueryBudget(1)
+    public ResponseEntity<?> searchUsers(@RequestParam String query, @RequestParam(required = false) Boolean stream,
+                                         HttpServletResponse res) throws java.io.IOException {
+        if (json.enabled(stream)) {
+            json.writeArray(res, () -> userRepository.streamByNameContainingIgnoreCaseOrEmailContainingIgnoreCase(query, query),
+                UserController::toSearchResult);
+            return null; // already written
+        }
         List<User> users = userRepository.findByNameContainingIgnoreCaseOrEmailContainingIgnoreCase(query, query);
         
         List<Map<String, Object>> userList = users.stream()
-            .map(user -> {
-                Map<String, Object> userMap = new java.util.HashMap<>();
-                userMap.put("id", user.getId());
-                userMap.put("name", user.getName());
-                userMap.put("email", user.getEmail());
-                userMap.put("role", user.getRole());
-                return userMap;
-            })
+            .map(UserController::toSearchResult)
             .collect(Collectors.toList());
             
         return ResponseEntity.ok(userList);
     }
+
+    private static Map<String, Object> toSearchResult(User user) {
+        Map<String, Object> userMap = new java.util.HashMap<>();
+        userMap.put("id", user.getId());
+        userMap.put("name", user.getName());
+        userMap.put("email", user.getEmail());
+        userMap.put("role", user.getRole());
+        return userMap;
+    }
 }
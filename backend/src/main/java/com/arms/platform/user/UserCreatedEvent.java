@@ -0,0 +1,5 @@
+package com.arms.platform.user;
+
+// Published when an account is created (registration, first Google sign-in, admin provisioning);
+// listeners that need the commit use @TransactionalEventListener
+public record UserCreatedEvent(Long userId, String name) {}
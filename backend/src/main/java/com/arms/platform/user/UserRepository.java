@@ -1,10 +1,35 @@
 package com.arms.platform.user;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface UserRepository extends JpaRepository<User, Long> {
-  Optional<User> findByEmail(String email);
+// findByEmail is served from the natural-id cache, see UserRepositoryCustomImpl
+@Transactional(readOnly = true)
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+  @QueryHints(@QueryHint(name=AvailableHints.HINT_CACHEABLE, value="true"))
   boolean existsByEmail(String email);
   List<User> findByNameContainingIgnoreCaseOrEmailContainingIgnoreCase(String name, String email);
+  // cursor-backed variant for JsonStreamingService; consume inside a transaction
+  @QueryHints({@QueryHint(name=AvailableHints.HINT_FETCH_SIZE, value="200"), @QueryHint(name=AvailableHints.HINT_READ_ONLY, value="true")})
+  Stream<User> streamByNameContainingIgnoreCaseOrEmailContainingIgnoreCase(String name, String email);
+
+  // bulk form of existsByEmail, one query per batch of candidate addresses
+  @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+  List<String> findExistingEmails(Collection<String> emails);
+
+  interface IdAndName { Long getId(); String getName(); }
+
+  // for in-memory indexes; skips the entity (and its password hash) entirely
+  @Query("SELECT u.id AS id, u.name AS name FROM User u")
+  List<IdAndName> findAllNames();
+
+  @Query("SELECT u.id AS id, u.name AS name FROM User u WHERE u.id = ?1")
+  Optional<IdAndName> findNameById(Long id);
 }
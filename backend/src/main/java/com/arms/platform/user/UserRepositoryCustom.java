@@ -0,0 +1,6 @@
+package com.arms.platform.user;
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+  Optional<User> findByEmail(String email);
+}
@@ -0,0 +1,20 @@
+package com.arms.platform.user;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.Optional;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+class UserRepositoryCustomImpl implements UserRepositoryCustom {
+  @PersistenceContext
+  private EntityManager em;
+
+  // Natural-id lookup: resolves email -> id and the entity from the second-level cache when warm.
+  // Runs in a transaction because outside one the shared EntityManager closes its session after unwrap().
+  @Override
+  @Transactional(readOnly=true)
+  public Optional<User> findByEmail(String email) {
+    return em.unwrap(Session.class).bySimpleNaturalId(User.class).loadOptional(email);
+  }
+}
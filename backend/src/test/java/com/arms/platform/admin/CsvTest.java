@@ -0,0 +1,28 @@
+package com.arms.platform.admin;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Exported text cannot turn into a spreadsheet formula; a leading BOM on import is not part of the header
+class CsvTest {
+  @Test
+  void formulaLikeTextGetsAnApostrophe() {
+    for (String v : List.of("=1+1", "+1", "-2", "@SUM(A1)", "\tx", "\rx")) assertThat(Csv.neutralize(v)).isEqualTo("'" + v);
+    assertThat(Csv.neutralize("Lecture 1")).isEqualTo("Lecture 1");
+    assertThat(Csv.neutralize("")).isEmpty();
+    assertThat(Csv.neutralize(null)).isNull();
+  }
+
+  @Test
+  void leadingBomIsSkipped() throws Exception {
+    Csv.RecordReader in = new Csv.RecordReader(new BufferedReader(new StringReader("\uFEFFemail,name\na@klh.edu.in,A\n")));
+    assertThat(in.next()).containsExactly("email", "name");
+    assertThat(in.next()).containsExactly("a@klh.edu.in", "A");
+    assertThat(in.next()).isNull();
+  }
+}
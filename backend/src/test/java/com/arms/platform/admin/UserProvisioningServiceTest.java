@@ -0,0 +1,67 @@
+package com.arms.platform.admin;
+
+import com.arms.platform.cache.InvalidationBus;
+import com.arms.platform.user.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// A unique violation that survives the retry is reported per row instead of cutting the stream short
+class UserProvisioningServiceTest {
+  final UserRepository users = mock(UserRepository.class);
+  final BCryptPasswordEncoder encoder = mock(BCryptPasswordEncoder.class);
+  final PlatformTransactionManager txManager = mock(PlatformTransactionManager.class);
+  final AtomicBoolean inReadWriteTx = new AtomicBoolean();
+  final UserProvisioningService service = new UserProvisioningService(users, encoder, txManager, new ObjectMapper(),
+    mock(InvalidationBus.class), mock(ApplicationEventPublisher.class), 500, 1);
+
+  @AfterEach
+  void tearDown() {
+    service.shutdown();
+  }
+
+  @Test
+  void failedRetryReportsRowsAndStillWritesSummary() throws Exception {
+    when(txManager.getTransaction(any())).thenAnswer(inv -> {
+      TransactionDefinition def = inv.getArgument(0);
+      inReadWriteTx.set(!def.isReadOnly());
+      return new SimpleTransactionStatus();
+    });
+    doAnswer(inv -> { inReadWriteTx.set(false); return null; }).when(txManager).commit(any());
+    doAnswer(inv -> { inReadWriteTx.set(false); return null; }).when(txManager).rollback(any());
+    when(encoder.encode(anyString())).thenReturn("hash");
+    List<Boolean> lookupsInTx = new ArrayList<>();
+    when(users.findExistingEmails(any())).thenAnswer(inv -> { lookupsInTx.add(inReadWriteTx.get()); return List.of(); });
+    when(users.saveAll(any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    service.provision(new StringReader("email\na1@klh.edu.in\nb2@klh.edu.in\n"), out);
+
+    List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+    assertThat(lines).hasSize(3);
+    assertThat(lines.get(0)).contains("\"a1@klh.edu.in\"").contains("\"failed\"");
+    assertThat(lines.get(1)).contains("\"b2@klh.edu.in\"").contains("\"failed\"");
+    assertThat(lines.get(2)).isEqualTo("{\"summary\":{\"failed\":2}}");
+    assertThat(lookupsInTx).containsExactly(true, true);
+  }
+}
@@ -0,0 +1,190 @@
+package com.arms.platform.cache;
+
+import com.arms.platform.course.Course;
+import com.arms.platform.course.CourseRepository;
+import com.arms.platform.metrics.QueryCountInspector;
+import com.arms.platform.user.User;
+import com.arms.platform.user.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Writes must never leave a stale User or Course in the second-level, natural-id or query cache. Every
+// repository call commits on its own (no test transaction), as in the application, so the cache sees the
+// same put/invalidate sequence as in production.
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+  @Autowired UserRepository users;
+  @Autowired CourseRepository courses;
+  @Autowired EntityManagerFactory emf;
+  @Autowired JdbcTemplate jdbc;
+
+  SecondLevelCacheInvalidator invalidator;
+  final List<Long> createdUsers = new ArrayList<>();
+  final List<Long> createdCourses = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    invalidator = new SecondLevelCacheInvalidator(emf);
+    emf.getCache().evictAll();
+  }
+
+  @AfterEach
+  void cleanUp() {
+    users.deleteAllById(createdUsers);
+    courses.deleteAllById(createdCourses);
+  }
+
+  @Test
+  void warmEmailLookupIssuesNoSql() {
+    User u = user("Ada");
+    users.findByEmail(u.getEmail()).orElseThrow();
+    assertThat(statements(() -> users.findByEmail(u.getEmail()).orElseThrow())).isZero();
+    assertThat(statements(() -> users.findById(u.getId()).orElseThrow())).isZero();
+  }
+
+  @Test
+  void updateReplacesTheCachedEntity() {
+    User u = user("Ada");
+    users.findByEmail(u.getEmail()).orElseThrow();
+    u.setName("Ada Lovelace");
+    users.save(u);
+    assertThat(users.findByEmail(u.getEmail()).orElseThrow().getName()).isEqualTo("Ada Lovelace");
+    assertThat(users.findById(u.getId()).orElseThrow().getName()).isEqualTo("Ada Lovelace");
+  }
+
+  @Test
+  void emailChangeMovesTheNaturalId() {
+    User u = user("Ada");
+    String oldEmail = u.getEmail();
+    users.findByEmail(oldEmail).orElseThrow();
+    u.setEmail(uniqueEmail());
+    users.save(u);
+    assertThat(users.findByEmail(oldEmail)).isEmpty();
+    assertThat(users.findByEmail(u.getEmail())).map(User::getId).contains(u.getId());
+  }
+
+  @Test
+  void deleteDropsTheCachedEntity() {
+    User u = user("Ada");
+    users.findByEmail(u.getEmail()).orElseThrow();
+    users.deleteById(u.getId());
+    createdUsers.remove(u.getId());
+    assertThat(users.findByEmail(u.getEmail())).isEmpty();
+    assertThat(users.findById(u.getId())).isEmpty();
+  }
+
+  @Test
+  void insertInvalidatesCachedQueryResults() {
+    String email = uniqueEmail();
+    assertThat(users.existsByEmail(email)).isFalse();
+    assertThat(statements(() -> users.existsByEmail(email))).isZero(); // served from the query cache
+    user("Ada", email);
+    assertThat(users.existsByEmail(email)).isTrue();
+
+    int catalog = courses.findAll().size();
+    course("Compilers");
+    assertThat(courses.findAll()).hasSize(catalog + 1);
+  }
+
+  @Test
+  void courseCodeChangeMovesTheNaturalId() {
+    Course c = course("Compilers");
+    String oldCode = c.getCode();
+    courses.findByCode(oldCode).orElseThrow();
+    c.setCode(uniqueCode());
+    courses.save(c);
+    assertThat(courses.findByCode(oldCode)).isEmpty();
+    assertThat(courses.findByCode(c.getCode())).map(Course::getId).contains(c.getId());
+  }
+
+  // A write made on another node never passes through this node's Hibernate, so only the bus event
+  // (InvalidationBus -> SecondLevelCacheInvalidator) can drop what is cached here
+  @Test
+  void remoteWriteIsServedStaleUntilItsEventArrives() {
+    User u = user("Ada");
+    users.findById(u.getId()).orElseThrow();
+    jdbc.update("UPDATE users SET name = ? WHERE id = ?", "Renamed elsewhere", u.getId());
+    assertThat(users.findById(u.getId()).orElseThrow().getName()).isEqualTo("Ada");
+
+    invalidator.onInvalidated(new CacheInvalidatedEvent(CacheInvalidatedEvent.USER, u.getId()));
+    assertThat(users.findById(u.getId()).orElseThrow().getName()).isEqualTo("Renamed elsewhere");
+  }
+
+  @Test
+  void remoteInsertInvalidatesCachedQueryResults() {
+    int catalog = courses.findAll().size();
+    String code = uniqueCode();
+    jdbc.update("INSERT INTO courses (code, title) VALUES (?, ?)", code, "Added elsewhere");
+    createdCourses.add(jdbc.queryForObject("SELECT id FROM courses WHERE code = ?", Long.class, code));
+    assertThat(courses.findAll()).hasSize(catalog);
+
+    invalidator.onInvalidated(new CacheInvalidatedEvent(CacheInvalidatedEvent.COURSE, null));
+    assertThat(courses.findAll()).hasSize(catalog + 1);
+  }
+
+  @Test
+  void flushOfEverythingDropsAllRegions() {
+    User u = user("Ada");
+    Course c = course("Compilers");
+    users.findById(u.getId()).orElseThrow();
+    courses.findById(c.getId()).orElseThrow();
+    jdbc.update("UPDATE users SET name = ? WHERE id = ?", "Renamed elsewhere", u.getId());
+    jdbc.update("UPDATE courses SET title = ? WHERE id = ?", "Retitled elsewhere", c.getId());
+
+    invalidator.onInvalidated(CacheInvalidatedEvent.EVERYTHING);
+    assertThat(users.findById(u.getId()).orElseThrow().getName()).isEqualTo("Renamed elsewhere");
+    assertThat(courses.findById(c.getId()).orElseThrow().getTitle()).isEqualTo("Retitled elsewhere");
+  }
+
+  private User user(String name) {
+    return user(name, uniqueEmail());
+  }
+
+  private User user(String name, String email) {
+    User u = new User();
+    u.setName(name);
+    u.setEmail(email);
+    u.setPasswordHash("x");
+    u = users.save(u);
+    createdUsers.add(u.getId());
+    return u;
+  }
+
+  private Course course(String title) {
+    Course c = new Course();
+    c.setCode(uniqueCode());
+    c.setTitle(title);
+    c = courses.save(c);
+    createdCourses.add(c.getId());
+    return c;
+  }
+
+  private static long statements(Supplier<?> call) {
+    long before = QueryCountInspector.count();
+    call.get();
+    return QueryCountInspector.count() - before;
+  }
+
+  private static String uniqueEmail() {
+    return UUID.randomUUID().toString().substring(0, 8) + "@klh.edu.in";
+  }
+
+  private static String uniqueCode() {
+    return "T" + UUID.randomUUID().toString().substring(0, 8);
+  }
+}
@@ -0,0 +1,123 @@
+package com.arms.platform.compression;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Resets and error pages must undo a gzip decision already taken, whatever state the body is in
+class GzipFilterTest {
+  final GzipFilter filter = new GzipFilter(32, 6, 1024, 2, List.of(MediaType.APPLICATION_JSON), new SimpleMeterRegistry());
+  final MockHttpServletResponse res = new MockHttpServletResponse();
+
+  @AfterEach
+  void tearDown() {
+    filter.destroy();
+  }
+
+  @Test
+  void resetBufferAfterCompressingStartsOver() throws Exception {
+    run((rq, rs) -> {
+      rs.setContentType("application/json");
+      rs.getOutputStream().write("x".repeat(200).getBytes(StandardCharsets.UTF_8));
+      rs.resetBuffer();
+      rs.getOutputStream().write("{\"ok\":true}".getBytes(StandardCharsets.UTF_8));
+    });
+    assertThat(res.getHeader("Content-Encoding")).isNull();
+    assertThat(res.getHeaders("Vary")).contains("Accept-Encoding");
+    assertThat(res.getContentAsString()).isEqualTo("{\"ok\":true}");
+  }
+
+  @Test
+  void resetAfterCompressingCompressesTheNewBodyOnce() throws Exception {
+    run((rq, rs) -> {
+      rs.setContentType("application/json");
+      rs.getOutputStream().write("a".repeat(200).getBytes(StandardCharsets.UTF_8));
+      rs.reset();
+      rs.setContentType("application/json");
+      rs.getOutputStream().write("b".repeat(300).getBytes(StandardCharsets.UTF_8));
+    });
+    assertThat(res.getHeaders("Content-Encoding")).containsExactly("gzip");
+    assertThat(res.getHeaders("Vary")).contains("Accept-Encoding");
+    assertThat(gunzip(res.getContentAsByteArray())).isEqualTo("b".repeat(300));
+  }
+
+  @Test
+  void sendErrorAfterCompressingDropsContentEncoding() throws Exception {
+    run((rq, rs) -> {
+      HttpServletResponse http = (HttpServletResponse) rs;
+      http.setContentType("application/json");
+      http.addHeader("X-Trace", "t1");
+      http.getOutputStream().write("x".repeat(200).getBytes(StandardCharsets.UTF_8));
+      http.sendError(500);
+    });
+    assertThat(res.getStatus()).isEqualTo(500);
+    assertThat(res.getHeader("Content-Encoding")).isNull();
+    assertThat(res.getHeader("X-Trace")).isEqualTo("t1");
+    assertThat(res.getContentAsByteArray()).isEmpty();
+  }
+
+  @Test
+  void textStillBufferedInTheWriterIsDiscardedByResetBuffer() throws Exception {
+    run((rq, rs) -> {
+      rs.setContentType("application/json");
+      PrintWriter w = rs.getWriter();
+      w.print("stale");
+      rs.resetBuffer();
+      w.print("fresh");
+    });
+    assertThat(res.getContentAsString()).isEqualTo("fresh");
+  }
+
+  @Test
+  void writeListenerIsPassedToTheContainer() throws Exception {
+    AtomicReference<WriteListener> registered = new AtomicReference<>();
+    HttpServletResponse container = new HttpServletResponseWrapper(res) {
+      @Override public ServletOutputStream getOutputStream() {
+        return new ServletOutputStream() {
+          @Override public boolean isReady() { return true; }
+          @Override public void setWriteListener(WriteListener l) { registered.set(l); }
+          @Override public void write(int b) {}
+        };
+      }
+    };
+    WriteListener listener = new WriteListener() {
+      @Override public void onWritePossible() {}
+      @Override public void onError(Throwable t) {}
+    };
+    filter.doFilter(gzipRequest(), container, (rq, rs) -> rs.getOutputStream().setWriteListener(listener));
+    assertThat(registered.get()).isSameAs(listener);
+  }
+
+  private void run(FilterChain chain) throws Exception {
+    filter.doFilter(gzipRequest(), res, chain);
+  }
+
+  private static MockHttpServletRequest gzipRequest() {
+    MockHttpServletRequest req = new MockHttpServletRequest("GET", "/api/x");
+    req.addHeader("Accept-Encoding", "gzip");
+    return req;
+  }
+
+  private static String gunzip(byte[] body) throws Exception {
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package com.arms.platform.dashboard;
+
+import com.arms.platform.course.CourseStatsService;
+import com.arms.platform.material.MaterialRepository;
+import com.arms.platform.news.News;
+import com.arms.platform.news.NewsReadService;
+import com.arms.platform.news.NewsRepository;
+import com.arms.platform.news.NewsType;
+import com.arms.platform.user.Role;
+import com.arms.platform.user.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// The dashboard must not leak credentials through entities, and users without a name still get one
+class DashboardServiceTest {
+  final NewsRepository news = mock(NewsRepository.class);
+  DashboardService dashboard;
+
+  @BeforeEach
+  void setUp() {
+    CourseStatsService courses = mock(CourseStatsService.class);
+    when(courses.catalog(null)).thenReturn(List.of());
+    MaterialRepository materials = mock(MaterialRepository.class);
+    dashboard = new DashboardService(courses, news, materials, mock(NewsReadService.class), new SimpleMeterRegistry(),
+      new MockEnvironment(), 2, 8, 2000);
+  }
+
+  @AfterEach
+  void tearDown() {
+    dashboard.shutdown();
+  }
+
+  @Test
+  void newsAuthorAndUserCarryNoCredentials() throws Exception {
+    User author = user("secret-hash-1");
+    author.setName("Ada");
+    author.setRole(Role.FACULTY);
+    News n = new News("Exams", "Room 4", NewsType.ANNOUNCEMENT, author);
+    n.setId(7L);
+    when(news.findRecentActive(any(Pageable.class))).thenReturn(List.of(n));
+
+    User me = user("secret-hash-2"); // no name, as for some provisioned accounts
+    Map<String, Object> out = dashboard.load(me, 5, 5);
+    assertThat((List<?>) out.get("missing")).isEmpty();
+
+    String json = new ObjectMapper().registerModule(new JavaTimeModule()).writeValueAsString(out);
+    assertThat(json).doesNotContain("secret-hash").doesNotContain("passwordHash")
+      .contains("\"author\":{\"id\":null,\"name\":\"Ada\",\"role\":\"FACULTY\"}")
+      .contains("\"user\":{\"id\":null,\"name\":null,\"email\":\"me@example.edu\",\"role\":\"STUDENT\"}");
+  }
+
+  private static User user(String hash) {
+    User u = new User();
+    u.setEmail("me@example.edu");
+    u.setRole(Role.STUDENT);
+    u.setPasswordHash(hash);
+    return u;
+  }
+}
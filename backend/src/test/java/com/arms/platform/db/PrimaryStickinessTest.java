@@ -0,0 +1,83 @@
+package com.arms.platform.db;
+
+import com.arms.platform.cache.CacheInvalidatedEvent;
+import com.arms.platform.cache.InvalidationBus;
+import com.arms.platform.user.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class PrimaryStickinessTest {
+  final InvalidationBus bus = mock(InvalidationBus.class);
+
+  @AfterEach
+  void clearContext() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void writerReadsFromThePrimaryWithinTheWindow() {
+    PrimaryStickiness stickiness = new PrimaryStickiness(60_000, () -> bus);
+    signIn(7L);
+    assertThat(stickiness.mustReadPrimary()).isFalse();
+    stickiness.markWrite();
+    assertThat(stickiness.mustReadPrimary()).isTrue();
+
+    signIn(8L);
+    assertThat(stickiness.mustReadPrimary()).isFalse();
+  }
+
+  @Test
+  void windowExpires() throws InterruptedException {
+    PrimaryStickiness stickiness = new PrimaryStickiness(20, () -> bus);
+    signIn(7L);
+    stickiness.markWrite();
+    Thread.sleep(40);
+    assertThat(stickiness.mustReadPrimary()).isFalse();
+  }
+
+  @Test
+  void anonymousWorkIsNeverSticky() {
+    PrimaryStickiness stickiness = new PrimaryStickiness(60_000, () -> bus);
+    stickiness.markWrite();
+    assertThat(stickiness.mustReadPrimary()).isFalse();
+    verifyNoInteractions(bus);
+  }
+
+  @Test
+  void writeIsAnnouncedToTheOtherNodes() {
+    PrimaryStickiness stickiness = new PrimaryStickiness(60_000, () -> bus);
+    signIn(7L);
+    stickiness.markWrite();
+    verify(bus).publish(CacheInvalidatedEvent.WRITER, 7L);
+  }
+
+  // The user's next request lands on this node after their write went through another one
+  @Test
+  void writeOnAnotherNodeMakesTheUserSticky() {
+    PrimaryStickiness stickiness = new PrimaryStickiness(60_000, () -> null);
+    stickiness.onWriteElsewhere(new CacheInvalidatedEvent(CacheInvalidatedEvent.WRITER, 7L));
+    stickiness.onWriteElsewhere(new CacheInvalidatedEvent(CacheInvalidatedEvent.USER, 8L));
+    stickiness.onWriteElsewhere(CacheInvalidatedEvent.EVERYTHING);
+
+    signIn(7L);
+    assertThat(stickiness.mustReadPrimary()).isTrue();
+    signIn(8L);
+    assertThat(stickiness.mustReadPrimary()).isFalse();
+  }
+
+  static void signIn(long userId) {
+    User u = new User();
+    ReflectionTestUtils.setField(u, "id", userId);
+    SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(u, null, List.of()));
+  }
+}
@@ -0,0 +1,123 @@
+package com.arms.platform.db;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Routing through the DataSource and JPA setup of ReplicaDataSourceConfig, with two in-memory H2
+// databases standing in for the primary and a replica. Each knows its own name (table whoami), so a
+// query shows where it ran. Requests bind one EntityManager for their whole duration, as open-in-view does.
+class ReplicaRoutingDataSourceTest {
+  HikariDataSource primary, replica;
+  ReplicaPool pool;
+  EntityManagerFactory emf;
+  EntityManager em;
+  TransactionTemplate readOnly, readWrite;
+
+  @BeforeEach
+  void setUp() {
+    primary = database("primary");
+    replica = database("replica");
+    pool = new ReplicaPool(primary, List.of(replica), 10_000);
+    ReplicaDataSourceConfig config = new ReplicaDataSourceConfig();
+
+    LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+    factory.setDataSource(config.dataSource(pool, new PrimaryStickiness(60_000, () -> null)));
+    factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+    factory.setPackagesToScan(getClass().getPackageName()); // no entities; native queries only
+    Map<String, Object> props = new HashMap<>();
+    config.releaseConnectionAfterTransaction().customize(props);
+    factory.setJpaPropertyMap(props);
+    factory.afterPropertiesSet();
+    emf = factory.getObject();
+    em = SharedEntityManagerCreator.createSharedEntityManager(emf);
+
+    JpaTransactionManager txManager = new JpaTransactionManager(emf);
+    readWrite = new TransactionTemplate(txManager);
+    readOnly = new TransactionTemplate(txManager);
+    readOnly.setReadOnly(true);
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+    emf.close();
+    pool.close();
+  }
+
+  @Test
+  void readOnlyTransactionsGoToTheReplicaAndWritesToThePrimary() {
+    assertThat(inRequest(() -> where(readOnly))).isEqualTo("replica");
+    assertThat(inRequest(() -> where(readWrite))).isEqualTo("primary");
+  }
+
+  // e.g. MaterialController.delete: findById, then the delete, under one open-in-view EntityManager
+  @Test
+  void writeAfterAReadInTheSameRequestRunsOnThePrimary() {
+    List<String> ran = inRequest(() -> List.of(where(readOnly), where(readWrite), where(readOnly)));
+    assertThat(ran).containsExactly("replica", "primary", "replica");
+  }
+
+  @Test
+  void writerReadsFromThePrimaryAfterwards() {
+    PrimaryStickinessTest.signIn(7L);
+    List<String> ran = inRequest(() -> List.of(where(readOnly), where(readWrite), where(readOnly)));
+    assertThat(ran).containsExactly("replica", "primary", "primary");
+    assertThat(inRequest(() -> where(readOnly))).isEqualTo("primary");
+
+    PrimaryStickinessTest.signIn(8L);
+    assertThat(inRequest(() -> where(readOnly))).isEqualTo("replica");
+  }
+
+  @Test
+  void lostReplicaFallsBackToThePrimary() {
+    replica.close();
+    assertThat(inRequest(() -> where(readOnly))).isEqualTo("primary");
+    assertThat(pool.isHealthy("replica-0")).isFalse();
+    assertThat(pool.next()).isNull();
+  }
+
+  private String where(TransactionTemplate tx) {
+    return tx.execute(s -> (String) em.createNativeQuery("SELECT name FROM whoami").getSingleResult());
+  }
+
+  private <T> T inRequest(Supplier<T> request) {
+    EntityManager requestEm = emf.createEntityManager();
+    TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(requestEm));
+    try {
+      return request.get();
+    } finally {
+      TransactionSynchronizationManager.unbindResource(emf);
+      requestEm.close();
+    }
+  }
+
+  private static HikariDataSource database(String name) {
+    HikariDataSource ds = new HikariDataSource();
+    ds.setPoolName(name);
+    ds.setJdbcUrl("jdbc:h2:mem:" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+    JdbcTemplate jdbc = new JdbcTemplate(ds);
+    jdbc.execute("CREATE TABLE whoami (name VARCHAR(16))");
+    jdbc.update("INSERT INTO whoami VALUES (?)", name);
+    return ds;
+  }
+}
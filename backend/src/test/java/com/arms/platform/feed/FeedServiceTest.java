@@ -0,0 +1,68 @@
+package com.arms.platform.feed;
+
+import com.arms.platform.course.EnrollmentRepository;
+import com.arms.platform.material.MaterialRepository;
+import com.arms.platform.material.MaterialType;
+import com.arms.platform.material.MaterialUploadedEvent;
+import com.arms.platform.news.NewsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Paging past the in-memory timeline continues from the database instead of ending early
+class FeedServiceTest {
+  final EnrollmentRepository enrollments = mock(EnrollmentRepository.class);
+  final MaterialRepository materials = mock(MaterialRepository.class);
+  final NewsRepository news = mock(NewsRepository.class);
+  FeedService feed;
+
+  @BeforeEach
+  void setUp() {
+    when(enrollments.findActiveCourseIds(1L)).thenReturn(List.of(3L));
+    when(news.findLatestPublished(any(Pageable.class))).thenReturn(List.of());
+    feed = new FeedService(enrollments, materials, news, 3, 100);
+    feed.loadNews();
+  }
+
+  @Test
+  void pagesPastAFullTimelineComeFromTheDatabase() {
+    when(materials.findLatestForCourses(eq(List.of(3L)), any(Pageable.class))).thenReturn(List.of(upload(5), upload(4), upload(3)));
+    when(materials.findLatestForCoursesBefore(eq(List.of(3L)), eq(at(3)), eq(3L), any(Pageable.class)))
+      .thenReturn(List.of(upload(2), upload(1)));
+
+    FeedService.FeedPage first = feed.read(1L, null, 3);
+    assertThat(first.items()).extracting(FeedItem::id).containsExactly(5L, 4L, 3L);
+    FeedService.FeedPage second = feed.read(1L, first.next(), 3);
+    assertThat(second.items()).extracting(FeedItem::id).containsExactly(2L, 1L);
+    assertThat(second.next()).isNull();
+  }
+
+  @Test
+  void aTimelineHoldingEverythingEndsWithoutAQuery() {
+    when(materials.findLatestForCourses(eq(List.of(3L)), any(Pageable.class))).thenReturn(List.of(upload(2), upload(1)));
+    FeedService.FeedPage page = feed.read(1L, null, 3);
+    assertThat(page.items()).extracting(FeedItem::id).containsExactly(2L, 1L);
+    assertThat(page.next()).isNull();
+    verify(materials, never()).findLatestForCoursesBefore(anyList(), any(), any(), any());
+  }
+
+  private static MaterialUploadedEvent upload(long id) {
+    return new MaterialUploadedEvent(id, 3L, "CS103", "Compilers", 9L, "Grace", "Notes " + id, MaterialType.NOTES, at(id));
+  }
+
+  private static Instant at(long minute) {
+    return Instant.parse("2026-01-01T00:00:00Z").plusSeconds(60 * minute);
+  }
+}
@@ -0,0 +1,63 @@
+package com.arms.platform.material;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// What the material job records up front must match what the archive writes, or Content-Length and Range lie
+class CourseArchiveTest {
+  @TempDir Path dir;
+
+  @Test
+  void recordedStatsGiveTheExactLengthBeforeTheFirstDownload() throws Exception {
+    Path notes = Files.writeString(dir.resolve("notes.txt"), "lecture notes ".repeat(5000));
+    Path slides = Files.write(dir.resolve("slides.pdf"), bytes(70_000));
+    LocalDateTime t = LocalDateTime.of(2026, 1, 1, 0, 0);
+    List<CourseArchive.Entry> entries = List.of(
+      new CourseArchive.Entry(1L, "notes.txt", notes, Files.size(notes), false, t, crc(notes), CourseArchive.deflatedSize(notes)),
+      new CourseArchive.Entry(2L, "slides.pdf", slides, Files.size(slides), true, t, crc(slides), Files.size(slides)));
+
+    long length = CourseArchive.length(entries);
+    assertThat(length).isPositive();
+    ByteArrayOutputStream whole = new ByteArrayOutputStream();
+    assertThat(CourseArchive.write(entries, whole, 0, Long.MAX_VALUE, (id, s, c, cs) -> {})).isEqualTo(length);
+    assertThat(whole.size()).isEqualTo((int) length);
+
+    ByteArrayOutputStream tail = new ByteArrayOutputStream();
+    CourseArchive.write(entries, tail, 100, length, (id, s, c, cs) -> {});
+    assertThat(tail.toByteArray()).isEqualTo(Arrays.copyOfRange(whole.toByteArray(), 100, (int) length));
+
+    try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(whole.toByteArray()))) {
+      ZipEntry e = zip.getNextEntry();
+      assertThat(e.getName()).isEqualTo("notes.txt");
+      assertThat(new String(zip.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(Files.readString(notes));
+      assertThat(zip.getNextEntry().getName()).isEqualTo("slides.pdf");
+      assertThat(zip.readAllBytes()).isEqualTo(Files.readAllBytes(slides));
+    }
+  }
+
+  private static long crc(Path file) throws Exception {
+    CRC32 crc = new CRC32();
+    crc.update(Files.readAllBytes(file));
+    return crc.getValue();
+  }
+
+  private static byte[] bytes(int n) {
+    byte[] b = new byte[n];
+    new java.util.Random(7).nextBytes(b);
+    return b;
+  }
+}
@@ -0,0 +1,95 @@
+package com.arms.platform.material;
+
+import com.arms.platform.course.Course;
+import com.arms.platform.course.CourseRepository;
+import com.arms.platform.metrics.StorageMetrics;
+import com.arms.platform.user.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// The total cap holds against what is actually inflated, not what the archive declares
+class MaterialImportServiceTest {
+  @TempDir Path dir;
+  final MaterialService materials = mock(MaterialService.class);
+  MaterialImportService imports;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    Path files = Files.createDirectories(dir.resolve("files"));
+    when(materials.newFilePath(anyLong(), anyString())).thenAnswer(inv -> files.resolve(java.util.UUID.randomUUID().toString()));
+    CourseRepository courses = mock(CourseRepository.class);
+    Course course = mock(Course.class);
+    when(course.getId()).thenReturn(1L);
+    when(courses.findById(1L)).thenReturn(Optional.of(course));
+    // 1 MiB per entry, 1.5 MiB in total
+    imports = new MaterialImportService(materials, courses, mock(StorageMetrics.class), dir.resolve("staging").toString(),
+      4, 500, 1 << 20, 3 << 19);
+  }
+
+  @AfterEach
+  void tearDown() {
+    imports.shutdown();
+  }
+
+  @Test
+  void underDeclaredEntriesAbortTheWholeImport() throws Exception {
+    byte[] zip = underDeclare(zip(4, 600_000), 1000);
+    assertThatThrownBy(() -> imports.importZip(1L, mock(User.class), MaterialType.NOTES, new MockMultipartFile("file", zip)))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessageContaining("archive total exceeds");
+    verify(materials, never()).createAll(any(), any(), anyList());
+    try (Stream<Path> left = Files.list(dir.resolve("files"))) { assertThat(left).isEmpty(); }
+  }
+
+  @Test
+  void archiveWithinTheCapIsImported() throws Exception {
+    when(materials.createAll(any(), any(), anyList())).thenReturn(List.of());
+    imports.importZip(1L, mock(User.class), MaterialType.NOTES, new MockMultipartFile("file", underDeclare(zip(2, 600_000), 1000)));
+    verify(materials).createAll(any(), any(), anyList());
+    try (Stream<Path> left = Files.list(dir.resolve("files"))) { assertThat(left).hasSize(2); }
+  }
+
+  private static byte[] zip(int entries, int size) throws Exception {
+    ByteArrayOutputStream b = new ByteArrayOutputStream();
+    try (ZipOutputStream z = new ZipOutputStream(b)) {
+      for (int i = 0; i < entries; i++) {
+        z.putNextEntry(new ZipEntry("file" + i + ".txt"));
+        z.write(new byte[size]);
+        z.closeEntry();
+      }
+    }
+    return b.toByteArray();
+  }
+
+  // Rewrites the uncompressed size in every central directory header, as a crafted archive would
+  private static byte[] underDeclare(byte[] zip, int size) {
+    ByteBuffer b = ByteBuffer.wrap(zip).order(ByteOrder.LITTLE_ENDIAN);
+    for (int i = 0; i + 4 <= zip.length; i++) if (b.getInt(i) == 0x02014b50) b.putInt(i + 24, size);
+    return zip;
+  }
+}
@@ -0,0 +1,71 @@
+package com.arms.platform.material;
+
+import com.arms.platform.cache.InvalidationBus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// A worker thread has no request to keep it on the primary; its reads must still not go to a replica
+class MaterialJobWorkerTest {
+  @TempDir Path dir;
+  final MaterialJobRepository jobs = mock(MaterialJobRepository.class);
+  final MaterialRepository materials = mock(MaterialRepository.class);
+  final PlatformTransactionManager txManager = mock(PlatformTransactionManager.class);
+  final AtomicBoolean inReadWriteTx = new AtomicBoolean();
+  MaterialJobWorker worker;
+
+  @BeforeEach
+  void setUp() {
+    when(txManager.getTransaction(any())).thenAnswer(inv -> {
+      TransactionDefinition def = inv.getArgument(0);
+      inReadWriteTx.set(!def.isReadOnly());
+      return new SimpleTransactionStatus();
+    });
+    doAnswer(inv -> { inReadWriteTx.set(false); return null; }).when(txManager).commit(any());
+    worker = new MaterialJobWorker(jobs, materials, List.of(), txManager, new SimpleMeterRegistry(),
+      mock(ApplicationEventPublisher.class), mock(InvalidationBus.class), dir.toString(), 1, 500, 3, 600);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    worker.shutdown();
+  }
+
+  @Test
+  void jobAndMaterialAreReadFromThePrimary() {
+    MaterialJob job = mock(MaterialJob.class);
+    when(job.getId()).thenReturn(7L);
+    when(job.getMaterialId()).thenReturn(5L);
+    when(jobs.countByStatus(MaterialJob.Status.PENDING)).thenReturn(1L);
+    when(jobs.claimable(anyInt())).thenReturn(List.of(job));
+    AtomicBoolean jobReadInTx = new AtomicBoolean(), materialReadInTx = new AtomicBoolean();
+    when(jobs.findById(7L)).thenAnswer(inv -> { jobReadInTx.set(inReadWriteTx.get()); return Optional.of(job); });
+    when(materials.findWithCourseAndUser(5L)).thenAnswer(inv -> { materialReadInTx.set(inReadWriteTx.get()); return Optional.empty(); });
+
+    worker.poll();
+
+    verify(jobs, timeout(2000)).save(job);
+    assertThat(jobReadInTx).isTrue();
+    assertThat(materialReadInTx).isTrue();
+  }
+}
@@ -0,0 +1,106 @@
+package com.arms.platform.metrics;
+
+import com.arms.platform.course.Course;
+import com.arms.platform.material.Material;
+import com.arms.platform.material.MaterialRepository;
+import com.arms.platform.service.JsonStreamingService;
+import com.arms.platform.user.User;
+import com.arms.platform.user.UserController;
+import com.arms.platform.user.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Test mode of the query budget: with app.query-budget.fail-on-exceed a handler that issues more statements
+// than its @QueryBudget fails the request. The request runs in the test's transaction, so lazy loading
+// works as it does under open-in-view.
+@DataJpaTest(properties = "app.query-budget.fail-on-exceed=true")
+class QueryBudgetInterceptorTest {
+  @Autowired TestEntityManager em;
+  @Autowired EntityManagerFactory emf;
+  @Autowired UserRepository users;
+  @Autowired MaterialRepository materials;
+  @Autowired PlatformTransactionManager txManager;
+  @Value("${app.query-budget.fail-on-exceed}") boolean failOnExceed;
+
+  MockMvc mvc;
+  User uploader;
+
+  // The profile endpoint as it was before the fetch join: one lazy course load per material's course
+  @RestController
+  static class NPlusOneProfileController {
+    private final MaterialRepository materials;
+    NPlusOneProfileController(MaterialRepository materials) { this.materials = materials; }
+
+    @GetMapping("/api/test/course-codes")
+    @QueryBudget(1)
+    public List<String> courseCodes() {
+      return materials.findAll().stream().map(m -> m.getCourse().getCode()).distinct().toList();
+    }
+  }
+
+  @BeforeEach
+  void setUp() {
+    uploader = new User();
+    uploader.setName("Uploader");
+    uploader.setEmail("uploader@klh.edu.in");
+    uploader.setPasswordHash("x");
+    em.persist(uploader);
+    for (String code : List.of("CS101", "CS102", "CS103")) {
+      Course c = new Course();
+      c.setCode(code);
+      c.setTitle("Course " + code);
+      em.persist(c);
+      Material m = new Material();
+      m.setCourse(c);
+      m.setUser(uploader);
+      m.setTitle("Notes " + code);
+      m.setPath(code + "/notes.pdf");
+      em.persist(m);
+    }
+    em.flush();
+    em.clear();
+    emf.getCache().evictAll();
+
+    JsonStreamingService json = new JsonStreamingService(new ObjectMapper(), txManager, false);
+    mvc = MockMvcBuilders.standaloneSetup(new UserController(users, materials, json), new NPlusOneProfileController(materials))
+        .addInterceptors(new QueryBudgetInterceptor(failOnExceed))
+        .build();
+  }
+
+  @Test
+  void endpointWithinItsBudgetPasses() throws Exception {
+    mvc.perform(get("/api/users/" + uploader.getId())).andExpect(status().isOk());
+  }
+
+  @Test
+  void nPlusOneEndpointFailsTheRequest() {
+    assertThatThrownBy(() -> mvc.perform(get("/api/test/course-codes")))
+        .hasRootCauseInstanceOf(QueryBudgetExceededException.class)
+        .rootCause().hasMessageContaining("4 statements, budget 1");
+  }
+
+  @Test
+  void withoutTheFlagTheViolationIsOnlyLogged() throws Exception {
+    MockMvcBuilders.standaloneSetup(new NPlusOneProfileController(materials))
+        .addInterceptors(new QueryBudgetInterceptor(false))
+        .build()
+        .perform(get("/api/test/course-codes")).andExpect(status().isOk());
+  }
+}
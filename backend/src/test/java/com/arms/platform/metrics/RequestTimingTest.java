@@ -0,0 +1,54 @@
+package com.arms.platform.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static com.arms.platform.metrics.RequestTiming.Phase.AUTH;
+import static com.arms.platform.metrics.RequestTiming.Phase.DB;
+import static com.arms.platform.metrics.RequestTiming.Phase.STORAGE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Nested sections are counted toward one phase only, so the phases of a request never overlap
+class RequestTimingTest {
+  @AfterEach
+  void tearDown() {
+    RequestTiming.end();
+  }
+
+  @Test
+  void lookupDuringAuthCountsAsDbOnly() throws Exception {
+    RequestTiming t = RequestTiming.begin();
+    try (RequestTiming.Section auth = RequestTiming.start(AUTH)) {
+      Thread.sleep(20);
+      try (RequestTiming.Section db = RequestTiming.start(DB)) {
+        Thread.sleep(50);
+      }
+    }
+    assertThat(t.nanos(DB)).isGreaterThanOrEqualTo(50_000_000L);
+    assertThat(t.nanos(AUTH)).isGreaterThanOrEqualTo(20_000_000L);
+    assertThat(t.nanos(AUTH) + t.nanos(DB)).isLessThanOrEqualTo(t.elapsedNanos());
+    assertThat(t.calls(AUTH)).isEqualTo(1);
+    assertThat(t.calls(DB)).isEqualTo(1);
+  }
+
+  @Test
+  void nestedRepositoryCallIsCountedOnce() throws Exception {
+    RequestTiming t = RequestTiming.begin();
+    try (RequestTiming.Section outer = RequestTiming.start(DB)) {
+      try (RequestTiming.Section inner = RequestTiming.start(DB)) {
+        Thread.sleep(30);
+        RequestTiming.record(STORAGE, 10_000_000L);
+      }
+    }
+    assertThat(t.calls(DB)).isEqualTo(1);
+    assertThat(t.nanos(DB)).isBetween(20_000_000L, t.elapsedNanos() - 10_000_000L);
+    assertThat(t.nanos(STORAGE)).isEqualTo(10_000_000L);
+  }
+
+  @Test
+  void sectionsOutsideARequestAreNoOps() {
+    try (RequestTiming.Section s = RequestTiming.start(DB)) {
+      assertThat(RequestTiming.current()).isNull();
+    }
+  }
+}
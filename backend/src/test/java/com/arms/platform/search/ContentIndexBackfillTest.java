@@ -0,0 +1,63 @@
+package com.arms.platform.search;
+
+import com.arms.platform.material.MaterialJobRepository;
+import com.arms.platform.material.MaterialJobWorker;
+import com.arms.platform.material.MaterialRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// The startup catch-up also drops materials deleted after the index's last commit
+class ContentIndexBackfillTest {
+  final ContentIndex index = mock(ContentIndex.class);
+  final MaterialRepository materials = mock(MaterialRepository.class);
+  final MaterialJobRepository jobs = mock(MaterialJobRepository.class);
+  final PlatformTransactionManager txManager = mock(PlatformTransactionManager.class);
+  final AtomicBoolean inReadWriteTx = new AtomicBoolean();
+  final ContentIndexBackfill backfill = new ContentIndexBackfill(index, mock(TextExtractor.class), materials, jobs,
+    mock(MaterialJobWorker.class), txManager, 600_000);
+
+  @AfterEach
+  void tearDown() {
+    backfill.stop();
+  }
+
+  @Test
+  void catchUpRemovesDeletedMaterialsReadingFromThePrimary() throws Exception {
+    when(txManager.getTransaction(any())).thenAnswer(inv -> {
+      TransactionDefinition def = inv.getArgument(0);
+      inReadWriteTx.set(!def.isReadOnly());
+      return new SimpleTransactionStatus();
+    });
+    doAnswer(inv -> { inReadWriteTx.set(false); return null; }).when(txManager).commit(any());
+    List<Boolean> readsInTx = new ArrayList<>();
+    when(index.indexedThrough()).thenReturn(Instant.now());
+    when(index.ids()).thenReturn(Set.of(1L, 2L, 3L));
+    when(jobs.findProcessedSince(any())).thenAnswer(inv -> { readsInTx.add(inReadWriteTx.get()); return List.of(); });
+    when(materials.findExistingIds(any())).thenAnswer(inv -> { readsInTx.add(inReadWriteTx.get()); return List.of(1L, 3L); });
+
+    backfill.start();
+
+    verify(index, timeout(2000)).remove(2L);
+    verify(index, never()).remove(1L);
+    verify(index, never()).remove(3L);
+    assertThat(readsInTx).containsExactly(true, true);
+  }
+}
@@ -0,0 +1,99 @@
+package com.arms.platform.search;
+
+import com.arms.platform.course.Course;
+import com.arms.platform.material.Material;
+import com.arms.platform.material.MaterialType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The high-water mark ContentIndexBackfill resumes from after a restart or crash
+class ContentIndexTest {
+  @TempDir Path dir;
+
+  @Test
+  void commitRecordsWhenItStarted() throws Exception {
+    ContentIndex index = open();
+    assertThat(index.indexedThrough()).isNull();
+    index.index(material(1L), "quantum notes");
+    Instant before = Instant.now();
+    index.commit();
+    Instant after = Instant.now();
+    index.close();
+
+    index = open();
+    assertThat(index.indexedThrough()).isBetween(before.minusMillis(1), after);
+    assertThat(index.ids()).containsExactly(1L);
+    index.close();
+  }
+
+  @Test
+  void commitDuringAFullSyncVouchesForNothing() throws Exception {
+    ContentIndex index = open();
+    index.index(material(1L), "quantum notes");
+    index.commit();
+    index.beginFullSync();
+    index.index(material(2L), "zebrafinch notes");
+    index.commit();
+    index.close();
+
+    index = open();
+    assertThat(index.indexedThrough()).isNull();
+    index.index(material(3L), "more notes");
+    index.commit();
+    assertThat(index.indexedThrough()).isNotNull();
+    index.close();
+  }
+
+  // The sync's last documents went out with a commit made while it ran
+  @Test
+  void firstCommitAfterAFullSyncMarksEvenWithoutNewWrites() throws Exception {
+    ContentIndex index = open();
+    index.beginFullSync();
+    index.index(material(1L), "quantum notes");
+    index.commit();
+    index.endFullSync();
+    index.commit();
+    index.close();
+
+    index = open();
+    assertThat(index.indexedThrough()).isNotNull();
+    index.close();
+  }
+
+  @Test
+  void writesAfterTheLastCommitAreCommittedOnClose() throws Exception {
+    ContentIndex index = open();
+    index.index(material(1L), "quantum notes");
+    index.commit();
+    Instant first = index.indexedThrough();
+    Thread.sleep(5);
+    index.index(material(2L), "zebrafinch notes");
+    index.close();
+
+    index = open();
+    assertThat(index.ids()).containsExactlyInAnyOrder(1L, 2L);
+    assertThat(index.indexedThrough()).isAfter(first);
+    index.close();
+  }
+
+  private ContentIndex open() throws Exception {
+    return new ContentIndex(dir.toString(), 16);
+  }
+
+  private static Material material(Long id) {
+    Course c = new Course();
+    ReflectionTestUtils.setField(c, "id", 7L);
+    Material m = new Material();
+    ReflectionTestUtils.setField(m, "id", id);
+    m.setCourse(c);
+    m.setTitle("Material " + id);
+    m.setType(MaterialType.NOTES);
+    return m;
+  }
+}
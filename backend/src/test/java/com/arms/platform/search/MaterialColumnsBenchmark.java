@@ -0,0 +1,67 @@
+package com.arms.platform.search;
+
+import com.arms.platform.material.MaterialType;
+import com.arms.platform.material.MaterialUploadedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Random;
+
+// Query latency of the faceted search store on synthetic materials (100k by default). Not part of the
+// regular test run (the name does not match surefire's patterns); run it with ./bench-material-search.sh
+// or: mvn test -Dtest=MaterialColumnsBenchmark [-Dbench.materials=100000] [-Dbench.iterations=200]
+class MaterialColumnsBenchmark {
+  private static final String[] WORDS = {
+    "lecture", "notes", "assignment", "solution", "midterm", "final", "review", "lab", "tutorial", "slides",
+    "algorithms", "graphs", "trees", "sorting", "hashing", "networks", "databases", "compilers", "security",
+    "calculus", "matrices", "probability", "statistics", "thermodynamics", "circuits", "signals", "robotics",
+    "operating", "systems", "memory", "processes", "threads", "scheduling", "recursion", "dynamic", "greedy"
+  };
+  private static final MaterialType[] TYPES = MaterialType.values();
+
+  @Test
+  void queryLatency() {
+    int materials = Integer.getInteger("bench.materials", 100_000);
+    int iterations = Integer.getInteger("bench.iterations", 200);
+    MaterialColumns columns = load(materials);
+
+    query(columns, "all, newest first", "", null, null, null, iterations);
+    query(columns, "one term", "graphs", null, null, null, iterations);
+    query(columns, "prefix", "th", null, null, null, iterations);
+    query(columns, "two terms", "lecture notes", null, null, null, iterations);
+    query(columns, "term + type", "review", MaterialType.NOTES, null, null, iterations);
+    query(columns, "course filter", "", null, 42L, null, iterations);
+    query(columns, "term + uploader", "lab", null, null, 7L, iterations);
+  }
+
+  private static MaterialColumns load(int n) {
+    Random rnd = new Random(42);
+    MaterialColumns columns = new MaterialColumns();
+    long t0 = System.nanoTime();
+    Instant start = Instant.parse("2024-01-01T00:00:00Z");
+    for (long id = 1; id <= n; id++) {
+      long course = 1 + rnd.nextInt(200), uploader = 1 + rnd.nextInt(2_000);
+      String title = WORDS[rnd.nextInt(WORDS.length)] + " " + WORDS[rnd.nextInt(WORDS.length)] + " " + (1 + rnd.nextInt(20));
+      columns.upsert(new MaterialUploadedEvent(id, course, "CS" + course, "Course " + WORDS[(int) (course % WORDS.length)],
+        uploader, "User " + uploader, title, TYPES[rnd.nextInt(TYPES.length)], start.plusSeconds(id * 60)));
+    }
+    System.out.printf("loaded %d materials in %d ms%n", n, (System.nanoTime() - t0) / 1_000_000);
+    return columns;
+  }
+
+  private static void query(MaterialColumns columns, String label, String q, MaterialType type, Long courseId,
+                            Long uploaderId, int iterations) {
+    for (int i = 0; i < iterations; i++) columns.query(q, type, courseId, uploaderId, 0, 20); // warm-up
+    long[] nanos = new long[iterations];
+    int total = 0;
+    for (int i = 0; i < iterations; i++) {
+      long t0 = System.nanoTime();
+      total = columns.query(q, type, courseId, uploaderId, 0, 20).total();
+      nanos[i] = System.nanoTime() - t0;
+    }
+    Arrays.sort(nanos);
+    System.out.printf("%-20s %7d matches  median %6.2f ms  p99 %6.2f ms%n", label, total,
+      nanos[iterations / 2] / 1e6, nanos[Math.min(iterations - 1, iterations * 99 / 100)] / 1e6);
+  }
+}
@@ -0,0 +1,56 @@
+package com.arms.platform.search;
+
+import com.arms.platform.material.MaterialRepository;
+import com.arms.platform.material.MaterialType;
+import com.arms.platform.material.MaterialUploadedEvent;
+import com.arms.platform.material.TrendingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// users.name and courses.title are nullable, and such rows must still come back
+class MaterialSearchControllerTest {
+  MockMvc mvc;
+
+  @BeforeEach
+  void setUp() {
+    MaterialRepository materials = mock(MaterialRepository.class);
+    when(materials.scanForIndex(anyLong(), any(Pageable.class))).thenReturn(List.of());
+    MaterialFacetIndex index = new MaterialFacetIndex(materials);
+    index.load();
+    index.onUploaded(new MaterialUploadedEvent(5L, 2L, "CS102", null, 9L, null, "Graph notes", MaterialType.NOTES,
+      Instant.parse("2026-01-01T00:00:00Z")));
+    mvc = MockMvcBuilders.standaloneSetup(new MaterialSearchController(index, mock(TrendingService.class))).build();
+  }
+
+  @Test
+  void rowsWithNullNamesAreReturned() throws Exception {
+    mvc.perform(get("/api/materials/search").param("q", "graph"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.total").value(1))
+      .andExpect(jsonPath("$.results[0].uploader.id").value(9))
+      .andExpect(jsonPath("$.results[0].uploader.name").isEmpty())
+      .andExpect(jsonPath("$.results[0].course.title").isEmpty())
+      .andExpect(jsonPath("$.facets.uploader[0].count").value(1));
+  }
+
+  @Test
+  void missingNamesAreNotSearchable() throws Exception {
+    mvc.perform(get("/api/materials/search").param("q", "null"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.total").value(0));
+  }
+}
@@ -0,0 +1,81 @@
+package com.arms.platform.search;
+
+import com.arms.platform.cache.CacheInvalidatedEvent;
+import com.arms.platform.material.MaterialDeletedEvent;
+import com.arms.platform.material.MaterialRepository;
+import com.arms.platform.material.MaterialType;
+import com.arms.platform.material.MaterialUploadedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+// Material changes made on another node reach this node's indexes as the same events a local change publishes
+class RemoteMaterialRelayTest {
+  final MaterialRepository materials = mock(MaterialRepository.class);
+  final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+  MaterialFacetIndex facets;
+  RemoteMaterialRelay relay;
+
+  @BeforeEach
+  void setUp() {
+    when(materials.scanForIndex(anyLong(), any(Pageable.class))).thenReturn(List.of());
+    facets = new MaterialFacetIndex(materials);
+    relay = new RemoteMaterialRelay(materials, facets, events, mock(PlatformTransactionManager.class));
+  }
+
+  @Test
+  void remoteUploadIsReplayedAsAnUpload() {
+    MaterialUploadedEvent row = summary(5L, 2L, "Lecture 1");
+    when(materials.findSummaries(List.of(5L))).thenReturn(List.of(row));
+    relay.onInvalidated(new CacheInvalidatedEvent(CacheInvalidatedEvent.MATERIAL, 5L));
+    verify(events).publishEvent(row);
+  }
+
+  @Test
+  void remoteDeleteIsReplayedWithWhatTheIndexKnew() {
+    facets.onUploaded(summary(5L, 2L, "Lecture 1"));
+    when(materials.findSummaries(List.of(5L))).thenReturn(List.of());
+    relay.onInvalidated(new CacheInvalidatedEvent(CacheInvalidatedEvent.MATERIAL, 5L));
+    verify(events).publishEvent(new MaterialDeletedEvent(5L, 2L, 1L));
+
+    relay.onInvalidated(new CacheInvalidatedEvent(CacheInvalidatedEvent.MATERIAL, 6L));
+    verify(events).publishEvent(new MaterialDeletedEvent(6L, null, null));
+  }
+
+  @Test
+  void otherRegionsAndFlushesAreLeftToTheIndexes() {
+    relay.onInvalidated(new CacheInvalidatedEvent(CacheInvalidatedEvent.NEWS, 5L));
+    relay.onInvalidated(CacheInvalidatedEvent.EVERYTHING);
+    verifyNoInteractions(events);
+  }
+
+  @Test
+  void flushReloadsTheFacetIndex() {
+    facets.onUploaded(summary(5L, 2L, "Deleted elsewhere"));
+    when(materials.scanForIndex(eq(0L), any(Pageable.class))).thenReturn(List.of(summary(7L, 3L, "Added elsewhere")));
+    when(materials.scanForIndex(eq(7L), any(Pageable.class))).thenReturn(List.of());
+    facets.onInvalidated(CacheInvalidatedEvent.EVERYTHING);
+    assertThat(facets.find(5L)).isNull();
+    assertThat(facets.find(7L).course().id()).isEqualTo(3L);
+    assertThat(facets.size()).isEqualTo(1);
+  }
+
+  private static MaterialUploadedEvent summary(Long id, Long courseId, String title) {
+    return new MaterialUploadedEvent(id, courseId, "CS" + courseId, "Course " + courseId, 1L, "Uploader", title,
+      MaterialType.NOTES, Instant.now());
+  }
+}
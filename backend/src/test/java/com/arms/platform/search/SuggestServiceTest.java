@@ -0,0 +1,76 @@
+package com.arms.platform.search;
+
+import com.arms.platform.cache.CacheInvalidatedEvent;
+import com.arms.platform.course.CourseRepository;
+import com.arms.platform.material.MaterialDeletedEvent;
+import com.arms.platform.material.MaterialRepository;
+import com.arms.platform.material.MaterialType;
+import com.arms.platform.material.MaterialUploadedEvent;
+import com.arms.platform.user.UserCreatedEvent;
+import com.arms.platform.user.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Accounts become suggestable when they are created, and upload counts follow deletes
+class SuggestServiceTest {
+  final UserRepository users = mock(UserRepository.class);
+  final MaterialRepository materials = mock(MaterialRepository.class);
+  SuggestService suggest;
+
+  @BeforeEach
+  void setUp() {
+    when(materials.scanForIndex(anyLong(), any(Pageable.class))).thenReturn(List.of());
+    suggest = new SuggestService(mock(CourseRepository.class), users, materials, mock(PlatformTransactionManager.class));
+    suggest.reload();
+  }
+
+  @Test
+  void newAccountIsSuggestedAtOnce() {
+    suggest.onUserCreated(new UserCreatedEvent(11L, "Grace Hopper"));
+    assertThat(suggest.suggest("grace", 5).users()).extracting(PrefixIndex.Suggestion::id).containsExactly(11L);
+  }
+
+  @Test
+  void accountCreatedOnAnotherNodeIsReadBack() {
+    UserRepository.IdAndName row = mock(UserRepository.IdAndName.class);
+    when(row.getId()).thenReturn(12L);
+    when(row.getName()).thenReturn("Alan Turing");
+    when(users.findNameById(12L)).thenReturn(Optional.of(row));
+    suggest.onInvalidated(new CacheInvalidatedEvent(CacheInvalidatedEvent.USER, 12L));
+    assertThat(suggest.suggest("alan", 5).users()).extracting(PrefixIndex.Suggestion::id).containsExactly(12L);
+  }
+
+  @Test
+  void deleteLowersTheUploadersWeight() {
+    suggest.onUserCreated(new UserCreatedEvent(11L, "Grace Hopper"));
+    suggest.onUploaded(upload(1L, 11L));
+    suggest.onUploaded(upload(2L, 11L));
+    assertThat(weightOf("grace")).isEqualTo(2);
+
+    suggest.onDeleted(new MaterialDeletedEvent(1L, 3L, 11L));
+    assertThat(weightOf("grace")).isEqualTo(1);
+    suggest.onDeleted(new MaterialDeletedEvent(2L, null, null)); // remote delete this node never knew about
+    assertThat(weightOf("grace")).isEqualTo(1);
+  }
+
+  private int weightOf(String prefix) {
+    return suggest.suggest(prefix, 1).users().get(0).weight();
+  }
+
+  private static MaterialUploadedEvent upload(Long id, Long uploaderId) {
+    return new MaterialUploadedEvent(id, 3L, "CS103", "Compilers", uploaderId, "Grace Hopper", "Notes " + id,
+      MaterialType.NOTES, Instant.now());
+  }
+}
@@ -0,0 +1,75 @@
+#!/bin/bash
+
+# JSON streaming benchmark for ARMS Platform
+# Compares the buffered and the streaming (?stream=true) serialization of large list endpoints:
+# heap allocated per request (arms.http.allocated, read from /actuator/prometheus) and time to first byte.
+#
+# Usage: ADMIN_TOKEN=<jwt> TOKEN=<jwt> ./bench-json-streaming.sh [course-id] [requests]
+# ADMIN_TOKEN (an admin's) reads /actuator/prometheus; TOKEN is needed for the user search endpoint only
+# and defaults to ADMIN_TOKEN. Seed enough rows first to make the numbers meaningful.
+
+set -e
+
+# Colors for output
+BLUE='\033[0;34m'
+YELLOW='\033[1;33m'
+NC='\033[0m' # No Color
+
+print_status() {
+    echo -e "${BLUE}[INFO]${NC} $1"
+}
+
+print_warning() {
+    echo -e "${YELLOW}[WARNING]${NC} $1"
+}
+
+# Configuration
+BASE_URL="${BASE_URL:-http://localhost:8080}"
+COURSE_ID="${1:-1}"
+REQUESTS="${2:-50}"
+WARMUP=10
+TOKEN="${TOKEN:-$ADMIN_TOKEN}"
+
+# Prints "<sum> <count>" of the allocation summary for one route
+alloc_totals() {
+    local uri=$1
+    curl -s -H "Authorization: Bearer $ADMIN_TOKEN" "$BASE_URL/actuator/prometheus" | awk -v uri="uri=\"$uri\"" '
+        index($0, "arms_http_allocated_bytes_sum{") == 1 && index($0, uri) { sum = $NF }
+        index($0, "arms_http_allocated_bytes_count{") == 1 && index($0, uri) { count = $NF }
+        END { printf "%d %d\n", sum, count }'
+}
+
+# bench <label> <route pattern> <url>
+bench() {
+    local label=$1 route=$2 url=$3
+    local auth=()
+    [ -n "$TOKEN" ] && auth=(-H "Authorization: Bearer $TOKEN")
+    for mode in false true; do
+        local sep="?"; [[ "$url" == *"?"* ]] && sep="&"
+        local target="$url${sep}stream=$mode"
+        for _ in $(seq 1 $WARMUP); do curl -s -o /dev/null "${auth[@]}" "$target"; done
+        read -r sum0 count0 <<< "$(alloc_totals "$route")"
+        local ttfb_sum=0 bytes=0
+        for _ in $(seq 1 "$REQUESTS"); do
+            read -r t bytes <<< "$(curl -s -o /dev/null -w '%{time_starttransfer} %{size_download}' "${auth[@]}" "$target")"
+            ttfb_sum=$(awk -v a="$ttfb_sum" -v b="$t" 'BEGIN { print a + b }')
+        done
+        read -r sum1 count1 <<< "$(alloc_totals "$route")"
+        local n=$((count1 - count0))
+        if [ "$n" -le 0 ]; then print_warning "$label: no samples recorded (is app.timing.enabled on?)"; continue; fi
+        awk -v label="$label" -v mode="$mode" -v bytes="$bytes" -v alloc="$((sum1 - sum0))" -v n="$n" \
+            -v ttfb="$ttfb_sum" -v reqs="$REQUESTS" 'BEGIN {
+            printf "%-14s stream=%-5s %10d bytes/response %10.1f KB allocated/request %8.2f ms TTFB\n",
+                label, mode, bytes, alloc / n / 1024, ttfb / reqs * 1000 }'
+    done
+}
+
+print_status "Benchmarking against $BASE_URL ($REQUESTS requests per mode after $WARMUP warm-up)"
+bench "materials" "/api/courses/{courseId}/materials" "$BASE_URL/api/courses/$COURSE_ID/materials"
+bench "news?search" "/api/news" "$BASE_URL/api/news?search=e"
+bench "news?type" "/api/news" "$BASE_URL/api/news?type=NEWS"
+if [ -n "$TOKEN" ]; then
+    bench "users/search" "/api/users/search" "$BASE_URL/api/users/search?query=klh"
+else
+    print_warning "TOKEN not set, skipping /api/users/search"
+fi
@@ -0,0 +1,27 @@
+#!/bin/bash
+
+# Faceted material search benchmark for ARMS Platform
+# Loads synthetic materials into the column store behind GET /api/materials/search (MaterialColumns)
+# and reports median and p99 query time for a few query shapes: everything newest first, one term,
+# a prefix, two terms, and terms combined with type, course and uploader filters. In-process, so it
+# needs no database or running backend.
+#
+# Usage: ./bench-material-search.sh [materials] [iterations]   (defaults 100000 and 200)
+
+set -e
+
+BLUE='\033[0;34m'
+NC='\033[0m' # No Color
+
+print_status() {
+    echo -e "${BLUE}[INFO]${NC} $1"
+}
+
+ROOT="$(cd "$(dirname "$0")" && pwd)"
+MATERIALS="${1:-100000}"
+ITERATIONS="${2:-200}"
+
+print_status "Benchmarking material search on $MATERIALS synthetic materials ($ITERATIONS queries per shape)"
+cd "$ROOT/backend"
+mvn -B -q test -Dtest=MaterialColumnsBenchmark -Dsurefire.failIfNoSpecifiedTests=false \
+    -Dbench.materials="$MATERIALS" -Dbench.iterations="$ITERATIONS" 2>&1 | grep -E "^(loaded|[a-z].* matches )"
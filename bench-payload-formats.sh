@@ -0,0 +1,73 @@
+#!/bin/bash
+
+# Payload format benchmark for ARMS Platform
+# Compares JSON, CBOR and Smile responses, each uncompressed and gzipped, on the listing endpoints:
+# bytes on the wire per response, server CPU time per request (arms.http.cpu) and heap allocated per
+# request (arms.http.allocated), both read from /actuator/prometheus.
+#
+# Usage: ADMIN_TOKEN=<jwt> TOKEN=<jwt> ./bench-payload-formats.sh [course-id] [requests]
+# ADMIN_TOKEN (an admin's) reads /actuator/prometheus. TOKEN is optional; with it the dashboard includes
+# the user's parts. Seed enough rows first to make the numbers meaningful.
+
+set -e
+
+# Colors for output
+BLUE='\033[0;34m'
+YELLOW='\033[1;33m'
+NC='\033[0m' # No Color
+
+print_status() {
+    echo -e "${BLUE}[INFO]${NC} $1"
+}
+
+print_warning() {
+    echo -e "${YELLOW}[WARNING]${NC} $1"
+}
+
+# Configuration
+BASE_URL="${BASE_URL:-http://localhost:8080}"
+COURSE_ID="${1:-1}"
+REQUESTS="${2:-100}"
+WARMUP=20
+
+# Prints "<sum> <count>" of one per-route meter
+totals() {
+    local metric=$1 uri=$2
+    curl -s -H "Authorization: Bearer $ADMIN_TOKEN" "$BASE_URL/actuator/prometheus" | awk -v m="$metric" -v uri="uri=\"$uri\"" '
+        index($0, m "_sum{") == 1 && index($0, uri) { sum = $NF }
+        index($0, m "_count{") == 1 && index($0, uri) { count = $NF }
+        END { printf "%.9f %d\n", sum, count }'
+}
+
+# bench <label> <route pattern> <url>
+bench() {
+    local label=$1 route=$2 url=$3
+    local auth=()
+    [ -n "$TOKEN" ] && auth=(-H "Authorization: Bearer $TOKEN")
+    for format in application/json application/cbor application/x-jackson-smile; do
+        for encoding in identity gzip; do
+            local headers=(-H "Accept: $format" -H "Accept-Encoding: $encoding")
+            for _ in $(seq 1 $WARMUP); do curl -s -o /dev/null "${auth[@]}" "${headers[@]}" "$url"; done
+            read -r cpu0 n0 <<< "$(totals arms_http_cpu_seconds "$route")"
+            read -r alloc0 _ <<< "$(totals arms_http_allocated_bytes "$route")"
+            local bytes=0
+            for _ in $(seq 1 "$REQUESTS"); do
+                bytes=$(curl -s -o /dev/null -w '%{size_download}' "${auth[@]}" "${headers[@]}" "$url")
+            done
+            read -r cpu1 n1 <<< "$(totals arms_http_cpu_seconds "$route")"
+            read -r alloc1 _ <<< "$(totals arms_http_allocated_bytes "$route")"
+            local n=$((n1 - n0))
+            if [ "$n" -le 0 ]; then print_warning "$label: no samples recorded (is app.timing.enabled on?)"; return; fi
+            awk -v label="$label" -v format="${format#application/}" -v encoding="$encoding" -v bytes="$bytes" \
+                -v cpu="$cpu0 $cpu1" -v alloc="$alloc0 $alloc1" -v n="$n" 'BEGIN {
+                split(cpu, c, " "); split(alloc, a, " ")
+                printf "%-12s %-16s %-9s %9d bytes %8.3f ms CPU/request %9.1f KB allocated/request\n",
+                    label, format, encoding, bytes, (c[2] - c[1]) / n * 1000, (a[2] - a[1]) / n / 1024 }'
+        done
+    done
+}
+
+print_status "Benchmarking against $BASE_URL ($REQUESTS requests per combination after $WARMUP warm-up)"
+bench "materials" "/api/courses/{courseId}/materials" "$BASE_URL/api/courses/$COURSE_ID/materials"
+bench "news" "/api/news" "$BASE_URL/api/news?page=0&size=20"
+bench "dashboard" "/api/dashboard" "$BASE_URL/api/dashboard"
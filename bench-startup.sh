@@ -0,0 +1,74 @@
+#!/bin/bash
+
+# Startup benchmark for ARMS Platform
+# Starts the backend repeatedly in each configuration and reports time to ready (launch until
+# /actuator/health answers UP) and resident memory (VmRSS) at that point:
+#   jar          java -jar, default profile
+#   profile      java -jar, fast-startup profile (lazy beans, no schema diffing)
+#   aot          unpacked classpath, fast-startup profile, Spring AOT
+#   aot+cds      the above plus the AppCDS archive, i.e. backend/target/fast-startup/run.sh
+#
+# Usage: ./bench-startup.sh [runs]   (MODES="jar aot+cds" to run only some)
+# Run ./build-fast-startup.sh first. Needs the database (SPRING_DATASOURCE_* as for a normal start)
+# and a free port (BENCH_PORT, default 8089). Nothing else should be using the CPU meanwhile.
+
+set -e
+
+BLUE='\033[0;34m'
+NC='\033[0m' # No Color
+
+print_status() {
+    echo -e "${BLUE}[INFO]${NC} $1"
+}
+
+ROOT="$(cd "$(dirname "$0")" && pwd)"
+OUT="$ROOT/backend/target/fast-startup"
+RUNS="${1:-3}"
+PORT="${BENCH_PORT:-8089}"
+MAIN=com.arms.platform.ArmsPlatformApplication
+JAR=$(ls "$ROOT"/backend/target/platform-*.jar | grep -v original | head -1)
+
+[ -f "$OUT/app.jsa" ] || { echo "Run ./build-fast-startup.sh first"; exit 1; }
+CP=$(cat "$OUT/classpath")
+
+# start <mode>: launches the application in the background, sets PID
+start() {
+    local args=(--server.port="$PORT")
+    case $1 in
+        jar)     java -jar "$JAR" "${args[@]}" > "$OUT/bench.log" 2>&1 & ;;
+        profile) java -jar "$JAR" --spring.profiles.active=fast-startup "${args[@]}" > "$OUT/bench.log" 2>&1 & ;;
+        aot)     (cd "$OUT" && exec java -Dspring.aot.enabled=true -cp "$CP" $MAIN \
+                     --spring.profiles.active=fast-startup "${args[@]}") > "$OUT/bench.log" 2>&1 & ;;
+        aot+cds) (cd "$OUT" && exec java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true -cp "$CP" $MAIN \
+                     --spring.profiles.active=fast-startup "${args[@]}") > "$OUT/bench.log" 2>&1 & ;;
+    esac
+    PID=$!
+}
+
+# measure <mode>: prints "<ms to ready> <rss kB>"
+measure() {
+    local t0 t1 rss
+    t0=$(date +%s%N)
+    start "$1"
+    until curl -s "http://localhost:$PORT/actuator/health" | grep -q '"UP"'; do
+        if ! kill -0 $PID 2>/dev/null; then
+            echo "$1 failed to start, see $OUT/bench.log" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    t1=$(date +%s%N)
+    rss=$(awk '/^VmRSS/ { print $2 }' /proc/$PID/status)
+    kill -TERM $PID
+    wait $PID || true
+    echo "$(( (t1 - t0) / 1000000 )) $rss"
+}
+
+printf "%-10s %14s %14s %14s\n" mode "ready (ms)" "best (ms)" "RSS (MB)"
+for mode in ${MODES:-jar profile aot aot+cds}; do
+    print_status "$mode: $RUNS run(s)..." >&2
+    for _ in $(seq 1 "$RUNS"); do measure "$mode"; done \
+        | awk -v mode="$mode" '
+            { ms += $1; rss += $2; if (best == "" || $1 < best) best = $1 }
+            END { printf "%-10s %14d %14d %14.0f\n", mode, ms / NR, best, rss / NR / 1024 }'
+done
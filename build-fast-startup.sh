@@ -0,0 +1,86 @@
+#!/bin/bash
+
+# ARMS Platform - fast-startup build
+# Builds the backend for quick restarts (rolling deploys, scale-out) into backend/target/fast-startup:
+#   1. mvn -Pfast-startup package: the usual jar plus Spring AOT generated bean definitions
+#   2. the jar unpacked to a plain classpath (application.jar + lib/*.jar), which AppCDS can archive
+#      and which skips the nested-jar launcher
+#   3. an AppCDS archive (app.jsa) from a training run: the application starts once against a real
+#      database with the fast-startup profile, and the JVM dumps every class it loaded when it exits
+#
+# Usage: ./build-fast-startup.sh
+# The training run needs the database (SPRING_DATASOURCE_* as for a normal start) and a free port
+# (TRAINING_PORT, default 8089). Start the result with backend/target/fast-startup/run.sh.
+#
+# AOT fixes the bean graph at build time: conditions such as app.datasource.replicas (replica routing
+# on or off) are evaluated here, not at startup. Rebuild when those settings change, and rebuild the
+# archive whenever the jar or the JDK changes (the JVM ignores a stale archive with a warning).
+
+set -e
+
+BLUE='\033[0;34m'
+GREEN='\033[0;32m'
+NC='\033[0m' # No Color
+
+print_status() {
+    echo -e "${BLUE}[INFO]${NC} $1"
+}
+
+print_success() {
+    echo -e "${GREEN}[SUCCESS]${NC} $1"
+}
+
+ROOT="$(cd "$(dirname "$0")" && pwd)"
+OUT="$ROOT/backend/target/fast-startup"
+PORT="${TRAINING_PORT:-8089}"
+MAIN=com.arms.platform.ArmsPlatformApplication
+
+print_status "Building with Spring AOT..."
+(cd "$ROOT/backend" && mvn -B -q -Pfast-startup -DskipTests package)
+JAR=$(ls "$ROOT"/backend/target/platform-*.jar | grep -v original | head -1)
+
+print_status "Unpacking $JAR..."
+rm -rf "$OUT"
+mkdir -p "$OUT/unpacked" "$OUT/lib"
+(cd "$OUT/unpacked" && jar xf "$JAR")
+# AppCDS only archives classes from jars, so the application classes are repacked into one
+jar cf "$OUT/application.jar" -C "$OUT/unpacked/BOOT-INF/classes" .
+CP=application.jar
+# same order as the launcher would use
+for entry in $(sed -n 's/^- "BOOT-INF\/lib\/\(.*\)"$/\1/p' "$OUT/unpacked/BOOT-INF/classpath.idx"); do
+    mv "$OUT/unpacked/BOOT-INF/lib/$entry" "$OUT/lib/"
+    CP="$CP:lib/$entry"
+done
+rm -rf "$OUT/unpacked"
+echo "$CP" > "$OUT/classpath"
+
+print_status "Training run for the class data sharing archive (port $PORT)..."
+cd "$OUT"
+java -XX:ArchiveClassesAtExit=app.jsa -Dspring.aot.enabled=true -cp "$CP" $MAIN \
+    --spring.profiles.active=fast-startup --server.port="$PORT" > training.log 2>&1 &
+PID=$!
+for _ in $(seq 1 180); do
+    if curl -s "http://localhost:$PORT/actuator/health" | grep -q '"UP"'; then break; fi
+    if ! kill -0 $PID 2>/dev/null; then
+        echo "Training run failed, see $OUT/training.log"
+        exit 1
+    fi
+    sleep 1
+done
+# touch the common request paths so their classes end up in the archive too
+curl -s -o /dev/null "http://localhost:$PORT/api/courses" || true
+curl -s -o /dev/null "http://localhost:$PORT/api/news" || true
+kill -TERM $PID
+wait $PID || true
+[ -f app.jsa ] || { echo "No archive written, see $OUT/training.log"; exit 1; }
+
+cat > run.sh <<'EOF'
+#!/bin/bash
+# Starts the fast-startup build; extra arguments go to the application
+cd "$(dirname "$0")"
+exec java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true $JAVA_OPTS -cp "$(cat classpath)" \
+    com.arms.platform.ArmsPlatformApplication --spring.profiles.active=fast-startup "$@"
+EOF
+chmod +x run.sh
+
+print_success "Built $OUT ($(du -h app.jsa | cut -f1) class archive); start it with $OUT/run.sh"
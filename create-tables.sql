@@ -9,6 +9,8 @@ CREATE TABLE IF NOT EXISTS users (
     upload_count INTEGER DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
+-- The application allocates user ids 50 at a time (see migrate-id-sequences.sql)
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
 
 -- Courses table
 CREATE TABLE IF NOT EXISTS courses (
@@ -45,6 +47,8 @@ CREATE TABLE IF NOT EXISTS materials (
     uploaded_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     download_count INTEGER DEFAULT 0
 );
+-- The application allocates material ids 50 at a time (see migrate-id-sequences.sql)
+ALTER SEQUENCE materials_id_seq INCREMENT BY 50;
 
 -- News table
 CREATE TABLE IF NOT EXISTS news (
@@ -57,6 +61,34 @@ CREATE TABLE IF NOT EXISTS news (
     is_pinned BOOLEAN DEFAULT FALSE
 );
 
+-- Per-course counters, sharded to spread row locks; totals are SUM over a course's shards
+CREATE TABLE IF NOT EXISTS course_stats (
+    course_id BIGINT REFERENCES courses(id) ON DELETE CASCADE,
+    shard INTEGER NOT NULL,
+    materials BIGINT NOT NULL DEFAULT 0,
+    students BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (course_id, shard)
+);
+
+CREATE TABLE IF NOT EXISTS news_read_state (
+    user_id BIGINT PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    watermark BIGINT NOT NULL DEFAULT 0,
+    read_ids BYTEA NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+-- Append-only audit trail, one partition per month (activity_log_y2025m01, ...); the application
+-- creates upcoming partitions and drops expired ones
+CREATE TABLE IF NOT EXISTS activity_log (
+    id BIGSERIAL,
+    occurred_at TIMESTAMPTZ NOT NULL,
+    user_id BIGINT,
+    action VARCHAR(32) NOT NULL,
+    target_id BIGINT,
+    detail VARCHAR(500),
+    PRIMARY KEY (id, occurred_at)
+) PARTITION BY RANGE (occurred_at);
+
 -- Create indexes for better performance
 CREATE INDEX IF NOT EXISTS idx_users_email ON users(email);
 CREATE INDEX IF NOT EXISTS idx_users_role ON users(role);
@@ -25,7 +25,7 @@ import {
 import HomePage from './components/HomePage';
 import NotificationSidebar from './components/common/NotificationSidebar';
 import { authService } from './services/authService';
-import { courseAPI, materialAPI, rankingsAPI, newsAPI, userAPI, getFileUrl, handleAPIError } from './services/api';
+import { courseAPI, materialAPI, rankingsAPI, newsAPI, userAPI, dashboardAPI, getFileUrl, handleAPIError } from './services/api';
 import SearchInput from './components/SearchInput';
 
 
@@ -158,15 +158,20 @@ const ARMSPlatform = () => {
     setLoading(true);
     setError(null);
     try {
-      const [coursesData, rankingsData, newsData] = await Promise.all([
-        courseAPI.getAllCourses(),
-        rankingsAPI.getTopUploaders(10),
-        newsAPI.getRecentNews(5)
+      const { data } = await dashboardAPI.getDashboard(5, 10);
+      // parts the server could not load in time come from their own endpoints
+      const missing = new Set(data.missing || []);
+      const [courses, rankings, news] = await Promise.all([
+        missing.has('courses') ? courseAPI.getAllCourses().then(r => r.data) : data.courses,
+        missing.has('rankings') ? rankingsAPI.getTopUploaders(10).then(r => r.data) : data.rankings,
+        missing.has('news') ? newsAPI.getRecentNews(5).then(r => r.data) : data.news
       ]);
-      setCourses(coursesData.data);
-      setFilteredCourses(coursesData.data);
-      setRankings(rankingsData.data);
-      setNews(newsData.data);
+      setCourses(courses);
+      setFilteredCourses(courses);
+      setRankings(rankings);
+      setNews(news);
+      if (data.unread !== undefined) setNotifications(data.unread);
+      else if (missing.has('unread')) newsAPI.getUnreadCount().then(r => setNotifications(r.data.unread)).catch(() => {});
     } catch (err) {
       setError(handleAPIError(err));
     } finally {
@@ -174,6 +179,11 @@ const ARMSPlatform = () => {
     }
   };
 
+  const markAllRead = () => {
+    setNotifications(0);
+    newsAPI.markAllRead().catch(() => {});
+  };
+
   const handleLogin = async (email, password) => {
     setLoading(true);
     setError(null);
@@ -793,7 +803,7 @@ const ARMSPlatform = () => {
         {notificationList.length > 0 && (
           <div className="flex items-center space-x-2">
             <button
-              onClick={() => setNotifications(0)}
+              onClick={markAllRead}
               className="px-3 py-2 border border-gray-300 rounded-lg hover:bg-gray-50 text-sm"
             >
               Mark all as read
@@ -1693,7 +1703,7 @@ const ARMSPlatform = () => {
         isOpen={isInboxOpen}
         onClose={() => setIsInboxOpen(false)}
         items={notificationList}
-        onMarkAllRead={() => setNotifications(0)}
+        onMarkAllRead={markAllRead}
         onClearAll={() => { setNotificationList([]); setNotifications(0); }}
       />
     </div>
@@ -84,7 +84,16 @@ export const newsAPI = {
   getRecentNews: (limit = 5) => api.get(`/news/recent?limit=${limit}`),
   createNews: (newsData) => api.post('/news', newsData),
   updateNews: (id, newsData) => api.put(`/news/${id}`, newsData),
-  deleteNews: (id) => api.delete(`/news/${id}`)
+  deleteNews: (id) => api.delete(`/news/${id}`),
+  getUnreadCount: () => api.get('/news/unread-count'),
+  getReadState: () => api.get('/news/read-state'),
+  markRead: (ids) => api.post('/news/read', { ids }),
+  markAllRead: () => api.post('/news/read-all')
+};
+
+// Start page data in one call; parts listed in "missing" have to be fetched separately
+export const dashboardAPI = {
+  getDashboard: (news = 5, rankings = 10) => api.get(`/dashboard?news=${news}&rankings=${rankings}`)
 };
 
 // User API
@@ -93,6 +102,11 @@ export const userAPI = {
   searchUsers: (query) => api.get(`/users/search?query=${encodeURIComponent(query)}`)
 };
 
+// Typeahead: courses, users and materials in one call, served from memory
+export const suggestAPI = {
+  suggest: (query, limit = 5) => api.get(`/suggest?q=${encodeURIComponent(query)}&limit=${limit}`)
+};
+
 // File serving - direct access to uploaded files
 export const getFileUrl = (path) => {
   const baseUrl = process.env.REACT_APP_API_URL || 'http://localhost:8080';
@@ -116,6 +116,34 @@ CREATE TABLE IF NOT EXISTS news (
     is_pinned BOOLEAN DEFAULT FALSE
 );
 
+-- Per-course counters, sharded to spread row locks; totals are SUM over a course's shards
+CREATE TABLE IF NOT EXISTS course_stats (
+    course_id BIGINT REFERENCES courses(id) ON DELETE CASCADE,
+    shard INTEGER NOT NULL,
+    materials BIGINT NOT NULL DEFAULT 0,
+    students BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (course_id, shard)
+);
+
+CREATE TABLE IF NOT EXISTS news_read_state (
+    user_id BIGINT PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    watermark BIGINT NOT NULL DEFAULT 0,
+    read_ids BYTEA NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+-- Append-only audit trail, one partition per month (activity_log_y2025m01, ...); the application
+-- creates upcoming partitions and drops expired ones
+CREATE TABLE IF NOT EXISTS activity_log (
+    id BIGSERIAL,
+    occurred_at TIMESTAMPTZ NOT NULL,
+    user_id BIGINT,
+    action VARCHAR(32) NOT NULL,
+    target_id BIGINT,
+    detail VARCHAR(500),
+    PRIMARY KEY (id, occurred_at)
+) PARTITION BY RANGE (occurred_at);
+
 -- Create indexes for better performance
 CREATE INDEX IF NOT EXISTS idx_users_email ON users(email);
 CREATE INDEX IF NOT EXISTS idx_users_role ON users(role);
@@ -136,9 +164,9 @@ CREATE SEQUENCE IF NOT EXISTS news_id_seq;
 CREATE SEQUENCE IF NOT EXISTS user_courses_id_seq;
 
 -- Set sequences to start from 1
-ALTER SEQUENCE users_id_seq RESTART WITH 1;
+ALTER SEQUENCE users_id_seq RESTART WITH 1 INCREMENT BY 50;
 ALTER SEQUENCE courses_id_seq RESTART WITH 1;
-ALTER SEQUENCE materials_id_seq RESTART WITH 1;
+ALTER SEQUENCE materials_id_seq RESTART WITH 1 INCREMENT BY 50;
 ALTER SEQUENCE news_id_seq RESTART WITH 1;
 ALTER SEQUENCE user_courses_id_seq RESTART WITH 1;
 EOF
@@ -0,0 +1,14 @@
+-- Materials gained crc32 and deflated_size columns, filled in by the processing job, so a course
+-- archive knows its length before its first download. Rows processed before that have them null and
+-- make their archives go out without Content-Length or Range support; this queues one more processing
+-- run for each of them (the stages are safe to re-run). The worker refuses uploads while more than
+-- app.jobs.max-pending jobs are waiting, so on a large table run it off-hours or raise that limit
+-- first. Safe to run more than once: materials that already have a job waiting are skipped.
+
+INSERT INTO material_jobs (id, material_id, status, attempts, next_run_at, updated_at, created_at)
+SELECT nextval('material_jobs_id_seq'), m.id, 'PENDING', 0, now(), now(), now()
+FROM materials m
+WHERE m.crc32 IS NULL
+  AND m.sha256 IS NOT NULL
+  AND NOT EXISTS (SELECT 1 FROM material_jobs j
+                  WHERE j.material_id = m.id AND j.status IN ('PENDING', 'RUNNING'));
@@ -0,0 +1,18 @@
+-- Users, materials and material jobs switched from IDENTITY to sequence ids with a pooled optimizer
+-- (allocationSize = 50) so their inserts can be batched. Databases whose tables already exist
+-- (bigserial or identity id columns) need the id sequences to step by 50 as well; Hibernate refuses
+-- to start while the increment does not match. Safe to run more than once.
+
+DO $$
+DECLARE
+  t text;
+BEGIN
+  FOREACH t IN ARRAY ARRAY['users', 'materials', 'material_jobs'] LOOP
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = t AND column_name = 'id' AND is_identity = 'YES') THEN
+      EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET INCREMENT BY 50', t);
+    ELSIF EXISTS (SELECT 1 FROM information_schema.sequences WHERE sequence_name = t || '_id_seq') THEN
+      EXECUTE format('ALTER SEQUENCE %I INCREMENT BY 50', t || '_id_seq');
+    END IF;
+  END LOOP;
+END $$;